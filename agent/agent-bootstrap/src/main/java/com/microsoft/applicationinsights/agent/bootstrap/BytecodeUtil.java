@@ -12,7 +12,6 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.net.URI;
 import java.net.URL;
-import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -37,19 +36,7 @@ public class BytecodeUtil {
                 Double min,
                 Double max,
                 Map<String, String> properties) {
-              delegate.trackMetric(
-                  null,
-                  name,
-                  namespace,
-                  value,
-                  count,
-                  min,
-                  max,
-                  null,
-                  properties,
-                  Collections.emptyMap(),
-                  null,
-                  null);
+              delegate.trackMicrometerMetric(name, namespace, value, count, min, max, properties);
             }
           });
     }
@@ -370,6 +357,17 @@ public class BytecodeUtil {
         @Nullable String connectionString,
         @Nullable String instrumentationKey);
 
+    // unlike trackMetric(), this is not pre-aggregated, since micrometer meters are already
+    // aggregated by the registry once per step (and gauge values must not be summed)
+    void trackMicrometerMetric(
+        String name,
+        @Nullable String namespace,
+        double value,
+        Integer count,
+        Double min,
+        Double max,
+        Map<String, String> properties);
+
     void trackDependency(
         @Nullable Date timestamp,
         String name,
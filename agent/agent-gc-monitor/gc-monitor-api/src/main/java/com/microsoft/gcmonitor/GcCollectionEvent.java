@@ -9,7 +9,7 @@ import java.lang.management.MemoryUsage;
 import java.util.List;
 import java.util.Optional;
 
-/** A garbage collection event reported by a gc mxbean. */
+/** A garbage collection event reported by a gc mxbean or by JFR. */
 public interface GcCollectionEvent {
   /** Returns the memory usage before the collection for the given memory pool. */
   MemoryUsage getMemoryUsageBeforeGc(MemoryPool pools);
@@ -32,6 +32,22 @@ public interface GcCollectionEvent {
   /** The duration of the collection in ms. */
   long getDuration();
 
+  /**
+   * The total time in ns that application threads were paused by the collection, or -1 if the
+   * source of the event does not report pauses.
+   */
+  default long getSumOfPausesNanos() {
+    return -1;
+  }
+
+  /**
+   * The longest time in ns that application threads were paused by the collection, or -1 if the
+   * source of the event does not report pauses.
+   */
+  default long getLongestPauseNanos() {
+    return -1;
+  }
+
   /** Thread count that the collection ran with. */
   int getGcThreadCount();
 
@@ -0,0 +1,24 @@
+plugins {
+  id("ai.java-conventions")
+}
+
+// JFR event streaming (jdk.jfr.consumer.RecordingStream) was added in Java 14, so unlike the rest
+// of the agent this module is compiled for Java 14, it is only loaded (reflectively) when running
+// on Java 14+
+tasks.withType<JavaCompile>().configureEach {
+  options.release.set(14)
+}
+
+dependencies {
+  implementation(project(":agent:agent-gc-monitor:gc-monitor-api"))
+  implementation(project(":agent:agent-gc-monitor:gc-monitor-core"))
+  implementation("org.slf4j:slf4j-api")
+
+  testImplementation("org.assertj:assertj-core")
+}
+
+tasks.withType<Test>().configureEach {
+  val testJavaVersion = gradle.startParameter.projectProperties["testJavaVersion"]?.let(JavaVersion::toVersion)
+  // the test classes can't be loaded on older Java versions
+  enabled = testJavaVersion == null || testJavaVersion.isCompatibleWith(JavaVersion.VERSION_14)
+}
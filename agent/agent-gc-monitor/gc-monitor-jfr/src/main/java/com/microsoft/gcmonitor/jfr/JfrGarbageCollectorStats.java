@@ -0,0 +1,39 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import com.microsoft.gcmonitor.garbagecollectors.GarbageCollectorStats;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of a GarbageCollectorStats that is updated from JFR garbage collection events,
+ * starting from the values that the collector's MxBean reported when monitoring started.
+ */
+class JfrGarbageCollectorStats implements GarbageCollectorStats {
+
+  // only updated by the JFR event stream thread
+  private volatile long collectionCount;
+  private volatile long collectionTimeNanos;
+
+  JfrGarbageCollectorStats(long initialCollectionCount, long initialCollectionTimeMillis) {
+    collectionCount = Math.max(0, initialCollectionCount);
+    collectionTimeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, initialCollectionTimeMillis));
+  }
+
+  @SuppressWarnings("NonAtomicVolatileUpdate") // only updated by a single thread
+  void recordCollection(long pauseNanos) {
+    collectionCount++;
+    collectionTimeNanos += pauseNanos;
+  }
+
+  @Override
+  public long getCollectionCount() {
+    return collectionCount;
+  }
+
+  @Override
+  public long getCollectionTime() {
+    return TimeUnit.NANOSECONDS.toMillis(collectionTimeNanos);
+  }
+}
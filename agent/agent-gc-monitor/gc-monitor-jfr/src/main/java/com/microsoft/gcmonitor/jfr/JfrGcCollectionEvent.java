@@ -0,0 +1,155 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import com.microsoft.gcmonitor.GcCollectionEvent;
+import com.microsoft.gcmonitor.garbagecollectors.GarbageCollector;
+import com.microsoft.gcmonitor.memorypools.MemoryPool;
+import java.lang.management.MemoryUsage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/** Implementation of a single GcCollectionEvent formed from JFR garbage collection events. */
+class JfrGcCollectionEvent implements GcCollectionEvent {
+
+  private final long id;
+  private final int gcThreadCount;
+  private final long duration;
+  private final long endTime;
+  private final long sumOfPausesNanos;
+  private final long longestPauseNanos;
+  private final GarbageCollector collector;
+  private final String gcCause;
+  private final String gcAction;
+
+  private final Map<MemoryPool, MemoryUsage> memoryUsageBeforeGc;
+  private final Map<MemoryPool, MemoryUsage> memoryUsageAfterGc;
+
+  @SuppressWarnings("TooManyParameters")
+  JfrGcCollectionEvent(
+      long id,
+      int gcThreadCount,
+      long duration,
+      long endTime,
+      long sumOfPausesNanos,
+      long longestPauseNanos,
+      GarbageCollector collector,
+      String gcCause,
+      String gcAction,
+      Map<MemoryPool, MemoryUsage> memoryUsageBeforeGc,
+      Map<MemoryPool, MemoryUsage> memoryUsageAfterGc) {
+    this.id = id;
+    this.gcThreadCount = gcThreadCount;
+    this.duration = duration;
+    this.endTime = endTime;
+    this.sumOfPausesNanos = sumOfPausesNanos;
+    this.longestPauseNanos = longestPauseNanos;
+    this.collector = collector;
+    this.gcCause = gcCause;
+    this.gcAction = gcAction;
+    this.memoryUsageBeforeGc = Collections.unmodifiableMap(memoryUsageBeforeGc);
+    this.memoryUsageAfterGc = Collections.unmodifiableMap(memoryUsageAfterGc);
+  }
+
+  @Override
+  public MemoryUsage getMemoryUsageBeforeGc(MemoryPool pool) {
+    return memoryUsageBeforeGc.get(pool);
+  }
+
+  @Override
+  public MemoryUsage getMemoryUsageBeforeGc(List<MemoryPool> pools) {
+    return aggregateMemoryPools(pools, memoryUsageBeforeGc);
+  }
+
+  @Override
+  public MemoryUsage getMemoryUsageAfterGc(MemoryPool pool) {
+    return memoryUsageAfterGc.get(pool);
+  }
+
+  @Override
+  public MemoryUsage getMemoryUsageAfterGc(List<MemoryPool> pools) {
+    return aggregateMemoryPools(pools, memoryUsageAfterGc);
+  }
+
+  private static MemoryUsage aggregateMemoryPools(
+      List<MemoryPool> pools, Map<MemoryPool, MemoryUsage> pool) {
+    return pools.stream()
+        .map(pool::get)
+        .reduce(
+            new MemoryUsage(0, 0, 0, -1),
+            (acc, value) -> {
+              long max;
+              if (acc.getMax() == -1 || value.getMax() == -1) {
+                max = -1;
+              } else {
+                max = acc.getMax() + value.getMax();
+              }
+              return new MemoryUsage(
+                  acc.getInit() + value.getInit(),
+                  acc.getUsed() + value.getUsed(),
+                  acc.getCommitted() + value.getCommitted(),
+                  max);
+            });
+  }
+
+  @Override
+  public long getId() {
+    return id;
+  }
+
+  @Override
+  public long getEndTime() {
+    return endTime;
+  }
+
+  @Override
+  public long getDuration() {
+    return duration;
+  }
+
+  @Override
+  public long getSumOfPausesNanos() {
+    return sumOfPausesNanos;
+  }
+
+  @Override
+  public long getLongestPauseNanos() {
+    return longestPauseNanos;
+  }
+
+  @Override
+  public int getGcThreadCount() {
+    return gcThreadCount;
+  }
+
+  @Override
+  public GarbageCollector getCollector() {
+    return collector;
+  }
+
+  @Override
+  public String getGcCause() {
+    return gcCause;
+  }
+
+  @Override
+  public String getGcAction() {
+    return gcAction;
+  }
+
+  @Override
+  public Optional<MemoryPool> getTenuredPool() {
+    return memoryUsageAfterGc.keySet().stream().filter(MemoryPool::isTenuredPool).findFirst();
+  }
+
+  @Override
+  public List<MemoryPool> getYoungPools() {
+    return memoryUsageAfterGc.keySet().stream()
+        .filter(MemoryPool::isYoungPool)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,41 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import com.microsoft.gcmonitor.GcEventConsumer;
+import com.microsoft.gcmonitor.GcMonitorFactory;
+import com.microsoft.gcmonitor.JmxGcMonitorFactory;
+import com.microsoft.gcmonitor.MemoryManagement;
+import com.microsoft.gcmonitor.UnableToMonitorMemoryException;
+import java.util.concurrent.ExecutorService;
+import javax.management.MBeanServerConnection;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * GcMonitorFactory that monitors the current JVM using JFR event streaming, which requires Java
+ * 14+.
+ *
+ * <p>This is intentionally not registered as a service, since loading it on older JVMs fails, it
+ * has to be instantiated by name after checking the Java version.
+ */
+public class JfrGcMonitorFactory implements GcMonitorFactory {
+
+  @Override
+  public MemoryManagement monitorSelf(ExecutorService executorService, GcEventConsumer consumer)
+      throws UnableToMonitorMemoryException {
+    if (!FlightRecorder.isAvailable()) {
+      throw new UnableToMonitorMemoryException("JFR is not available");
+    }
+    // the JFR event stream is read on its own thread, so the executor service is not used
+    return JfrMemoryManagement.create(consumer);
+  }
+
+  /** JFR event streaming of a remote JVM is not supported, so this monitors the MxBeans. */
+  @Override
+  public MemoryManagement monitor(
+      MBeanServerConnection connection, ExecutorService executorService, GcEventConsumer consumer)
+      throws UnableToMonitorMemoryException {
+    return new JmxGcMonitorFactory().monitor(connection, executorService, consumer);
+  }
+}
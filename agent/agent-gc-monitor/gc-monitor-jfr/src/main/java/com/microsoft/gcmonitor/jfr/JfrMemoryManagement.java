@@ -0,0 +1,374 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import static java.util.Collections.unmodifiableCollection;
+
+import com.microsoft.gcmonitor.GcEventConsumer;
+import com.microsoft.gcmonitor.MemoryManagement;
+import com.microsoft.gcmonitor.MemoryManagers;
+import com.microsoft.gcmonitor.UnableToMonitorMemoryException;
+import com.microsoft.gcmonitor.garbagecollectors.GarbageCollector;
+import com.microsoft.gcmonitor.garbagecollectors.GarbageCollectors;
+import com.microsoft.gcmonitor.memorypools.MemoryPool;
+import com.microsoft.gcmonitor.memorypools.MemoryPools;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.RuntimeMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.management.MBeanServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedObject;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of MemoryManagement with JFR events as the source of the collection data.
+ *
+ * <p>The collectors and pools are discovered from the local MxBeans, the same as {@code
+ * JmxMemoryManagement}, but instead of listening for gc notifications, collections are read from
+ * a JFR event stream, which also reports how long application threads were paused.
+ */
+class JfrMemoryManagement implements MemoryManagement {
+
+  private static final Logger logger = LoggerFactory.getLogger(JfrMemoryManagement.class);
+
+  static final String GARBAGE_COLLECTION = "jdk.GarbageCollection";
+  static final String GC_HEAP_SUMMARY = "jdk.GCHeapSummary";
+  static final String G1_HEAP_SUMMARY = "jdk.G1HeapSummary";
+  static final String PS_HEAP_SUMMARY = "jdk.PSHeapSummary";
+  static final String GC_CONFIGURATION = "jdk.GCConfiguration";
+
+  // values of the "name" field of jdk.GarbageCollection that are young collections, all other
+  // collections (e.g. G1Old, G1Full, ParallelOld, SerialOld, Shenandoah, Z) are attributed to the
+  // tenured collector
+  private static final Set<String> YOUNG_COLLECTIONS =
+      new HashSet<>(Arrays.asList("G1New", "ParallelScavenge", "DefNew", "ParNew"));
+
+  // heap summaries are kept until the collection with the same gc id is reported, this bounds the
+  // memory used by summaries of collections that are never reported
+  private static final int MAX_PENDING_COLLECTIONS = 16;
+
+  private static final Duration MAX_AGE = Duration.ofMinutes(1);
+
+  private final GcEventConsumer consumer;
+  private final RuntimeMXBean runtimeBean;
+  private final Map<GarbageCollector, JfrGarbageCollectorStats> collectors;
+  private final Map<MemoryPool, MemoryPoolMXBean> pools;
+  @Nullable private final GarbageCollector youngCollector;
+  @Nullable private final GarbageCollector tenuredCollector;
+  private final MemoryManagers collectorGroup;
+
+  // only accessed from the thread that runs the event stream
+  private final Map<Long, PendingCollection> pendingCollections =
+      new LinkedHashMap<Long, PendingCollection>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PendingCollection> eldest) {
+          return size() > MAX_PENDING_COLLECTIONS;
+        }
+      };
+  private int parallelGcThreads;
+
+  static JfrMemoryManagement create(GcEventConsumer consumer)
+      throws UnableToMonitorMemoryException {
+    return create(consumer, ManagementFactory.getGarbageCollectorMXBeans());
+  }
+
+  // visible for testing
+  static JfrMemoryManagement create(
+      GcEventConsumer consumer, List<GarbageCollectorMXBean> collectorBeans)
+      throws UnableToMonitorMemoryException {
+    JfrMemoryManagement memoryManagement;
+    try {
+      // same as the mxbean monitoring, unknown collectors and pools (e.g. of a newer JVM) fail,
+      // so that the caller can fall back instead of reporting an incomplete picture
+      memoryManagement = new JfrMemoryManagement(consumer, collectorBeans);
+    } catch (RuntimeException e) {
+      throw new UnableToMonitorMemoryException("Unable to initialise memory", e);
+    }
+    memoryManagement.monitorEventStream();
+    return memoryManagement;
+  }
+
+  private JfrMemoryManagement(
+      GcEventConsumer consumer, List<GarbageCollectorMXBean> collectorBeans) {
+    this.consumer = consumer;
+    runtimeBean = ManagementFactory.getRuntimeMXBean();
+
+    collectors = new LinkedHashMap<>();
+    for (GarbageCollectorMXBean bean : collectorBeans) {
+      JfrGarbageCollectorStats stats =
+          new JfrGarbageCollectorStats(bean.getCollectionCount(), bean.getCollectionTime());
+      collectors.put(GarbageCollectors.create(bean.getName(), stats), stats);
+    }
+
+    MBeanServer connection = ManagementFactory.getPlatformMBeanServer();
+    pools = new LinkedHashMap<>();
+    for (MemoryPoolMXBean bean : ManagementFactory.getMemoryPoolMXBeans()) {
+      pools.put(
+          MemoryPools.getMemoryPool(connection, bean.getObjectName(), collectors.keySet()), bean);
+    }
+
+    youngCollector = findCollector(true);
+    tenuredCollector = findCollector(false);
+    collectorGroup = MemoryManagers.of(this);
+  }
+
+  @Nullable
+  private GarbageCollector findCollector(boolean young) {
+    GarbageCollector match = null;
+    for (GarbageCollector collector : collectors.keySet()) {
+      boolean isYoung = collector.isYoungCollector();
+      boolean isTenured = collector.isTenuredCollector();
+      if (young ? isYoung && !isTenured : isTenured && !isYoung) {
+        return collector;
+      }
+      if (match == null && (young ? isYoung : isTenured)) {
+        // e.g. Shenandoah and ZGC, where the collectors manage both generations
+        match = collector;
+      }
+    }
+    return match;
+  }
+
+  private void monitorEventStream() throws UnableToMonitorMemoryException {
+    RecordingStream stream = null;
+    try {
+      stream = new RecordingStream();
+      stream.enable(GARBAGE_COLLECTION);
+      stream.enable(GC_HEAP_SUMMARY);
+      stream.enable(G1_HEAP_SUMMARY);
+      stream.enable(PS_HEAP_SUMMARY);
+      stream.enable(GC_CONFIGURATION).with("period", "beginChunk");
+      // events are consumed as they are flushed, so there is no need to retain older chunks
+      stream.setMaxAge(MAX_AGE);
+
+      stream.onEvent(GARBAGE_COLLECTION, handler(this::onGarbageCollection));
+      stream.onEvent(GC_HEAP_SUMMARY, handler(this::onHeapSummary));
+      stream.onEvent(G1_HEAP_SUMMARY, handler(this::onG1HeapSummary));
+      stream.onEvent(PS_HEAP_SUMMARY, handler(this::onPsHeapSummary));
+      stream.onEvent(
+          GC_CONFIGURATION,
+          handler(event -> parallelGcThreads = event.getInt("parallelGCThreads")));
+
+      // unlike start(), startAsync() starts the recording on this thread, so that failing to
+      // start it is reported to the caller (and the events are then read on a daemon thread
+      // created by JFR)
+      stream.startAsync();
+    } catch (RuntimeException e) {
+      if (stream != null) {
+        stream.close();
+      }
+      throw new UnableToMonitorMemoryException("Unable to start JFR event stream", e);
+    }
+  }
+
+  private static Consumer<RecordedEvent> handler(Consumer<RecordedEvent> handler) {
+    return event -> {
+      try {
+        handler.accept(event);
+      } catch (RuntimeException e) {
+        logger.error("Error while reading GC event data", e);
+      }
+    };
+  }
+
+  private void onHeapSummary(RecordedEvent event) {
+    HeapSnapshot snapshot = getSnapshot(event);
+    snapshot.heapUsed = event.getLong("heapUsed");
+    RecordedObject heapSpace = event.getValue("heapSpace");
+    snapshot.heapCommitted = heapSpace.getLong("committedSize");
+  }
+
+  private void onG1HeapSummary(RecordedEvent event) {
+    HeapSnapshot snapshot = getSnapshot(event);
+    snapshot.edenUsed = event.getLong("edenUsedSize");
+    snapshot.edenCommitted = event.getLong("edenTotalSize");
+    // G1 does not report the committed size of the survivor regions separately, the same as the
+    // "G1 Survivor Space" MxBean, which reports the used size as the committed size
+    snapshot.survivorUsed = event.getLong("survivorUsedSize");
+    snapshot.survivorCommitted = snapshot.survivorUsed;
+  }
+
+  private void onPsHeapSummary(RecordedEvent event) {
+    HeapSnapshot snapshot = getSnapshot(event);
+    RecordedObject eden = event.getValue("edenSpace");
+    snapshot.edenUsed = eden.getLong("used");
+    snapshot.edenCommitted = eden.getLong("size");
+    RecordedObject survivor = event.getValue("fromSpace");
+    snapshot.survivorUsed = survivor.getLong("used");
+    snapshot.survivorCommitted = survivor.getLong("size");
+    RecordedObject old = event.getValue("oldObjectSpace");
+    snapshot.oldUsed = old.getLong("used");
+    snapshot.oldCommitted = old.getLong("size");
+  }
+
+  private HeapSnapshot getSnapshot(RecordedEvent event) {
+    PendingCollection pending =
+        pendingCollections.computeIfAbsent(event.getLong("gcId"), id -> new PendingCollection());
+    return "Before GC".equals(event.getString("when")) ? pending.before : pending.after;
+  }
+
+  private void onGarbageCollection(RecordedEvent event) {
+    long gcId = event.getLong("gcId");
+    // the event stream is ordered, so the heap summaries that were committed during the collection
+    // have already been seen
+    PendingCollection pending = pendingCollections.remove(gcId);
+
+    String name = event.getString("name");
+    boolean young = YOUNG_COLLECTIONS.contains(name);
+    GarbageCollector collector = young ? youngCollector : tenuredCollector;
+    if (collector == null) {
+      logger.debug("Ignoring collection by unknown garbage collector {}", name);
+      return;
+    }
+
+    long sumOfPauses = event.getDuration("sumOfPauses").toNanos();
+    long longestPause = event.getDuration("longestPause").toNanos();
+    JfrGarbageCollectorStats stats = collectors.get(collector);
+    if (stats != null) {
+      stats.recordCollection(sumOfPauses);
+    }
+
+    Map<MemoryPool, MemoryUsage> memoryUsageBeforeGc = new HashMap<>();
+    Map<MemoryPool, MemoryUsage> memoryUsageAfterGc = new HashMap<>();
+    for (Map.Entry<MemoryPool, MemoryPoolMXBean> entry : pools.entrySet()) {
+      MemoryPool pool = entry.getKey();
+      if (!pool.isYoungPool() && !pool.isTenuredPool()) {
+        continue;
+      }
+      MemoryPoolMXBean bean = entry.getValue();
+      MemoryUsage current = bean.getUsage();
+
+      MemoryUsage after = pending == null ? null : getMemoryUsage(pool, current, pending.after);
+      if (after == null) {
+        // the JVM did not report this pool's usage, fall back to the usage that the MxBean
+        // recorded at the end of the last collection of the pool
+        after = pool.isManagedBy(collector) ? bean.getCollectionUsage() : null;
+        after = after == null ? current : after;
+      }
+      MemoryUsage before = pending == null ? null : getMemoryUsage(pool, current, pending.before);
+      memoryUsageBeforeGc.put(pool, before == null ? after : before);
+      memoryUsageAfterGc.put(pool, after);
+    }
+
+    consumer.accept(
+        new JfrGcCollectionEvent(
+            gcId,
+            parallelGcThreads,
+            event.getDuration().toMillis(),
+            event.getEndTime().toEpochMilli() - runtimeBean.getStartTime(),
+            sumOfPauses,
+            longestPause,
+            collector,
+            event.getString("cause"),
+            young ? "end of minor GC" : "end of major GC",
+            memoryUsageBeforeGc,
+            memoryUsageAfterGc));
+  }
+
+  // returns null if the snapshot does not contain the pool's usage
+  @Nullable
+  private static MemoryUsage getMemoryUsage(
+      MemoryPool pool, MemoryUsage current, HeapSnapshot snapshot) {
+    if (pool.isYoungPool() && pool.isTenuredPool()) {
+      // a single pool for the whole heap, e.g. Shenandoah and ZGC
+      return memoryUsage(current, snapshot.heapUsed, snapshot.heapCommitted);
+    }
+    if (pool.isTenuredPool()) {
+      if (snapshot.oldUsed == -1
+          && snapshot.heapUsed != -1
+          && snapshot.edenUsed != -1
+          && snapshot.survivorUsed != -1) {
+        // G1 only reports the young generation, the rest of the heap is the old generation
+        return memoryUsage(
+            current,
+            snapshot.heapUsed - snapshot.edenUsed - snapshot.survivorUsed,
+            snapshot.heapCommitted - snapshot.edenCommitted - snapshot.survivorCommitted);
+      }
+      return memoryUsage(current, snapshot.oldUsed, snapshot.oldCommitted);
+    }
+    if (pool.getName().contains("Eden")) {
+      return memoryUsage(current, snapshot.edenUsed, snapshot.edenCommitted);
+    }
+    if (pool.getName().contains("Survivor")) {
+      return memoryUsage(current, snapshot.survivorUsed, snapshot.survivorCommitted);
+    }
+    return null;
+  }
+
+  @Nullable
+  private static MemoryUsage memoryUsage(MemoryUsage current, long used, long committed) {
+    if (used == -1 || committed == -1) {
+      return null;
+    }
+    // keep the invariants that the MemoryUsage constructor checks, the sizes reported by the
+    // heap summaries are not always consistent with the limits reported by the MxBean
+    used = Math.max(0, used);
+    committed = Math.max(committed, used);
+    long max = current.getMax();
+    if (max != -1 && committed > max) {
+      max = committed;
+    }
+    return new MemoryUsage(current.getInit(), used, committed, max);
+  }
+
+  @Override
+  public Collection<MemoryPool> getPools() {
+    return unmodifiableCollection(pools.keySet());
+  }
+
+  @Override
+  public Optional<MemoryPool> getPool(String name) {
+    return pools.keySet().stream().filter(pool -> pool.getName().equals(name)).findFirst();
+  }
+
+  @Override
+  public Set<GarbageCollector> getCollectors() {
+    return new HashSet<>(collectors.keySet());
+  }
+
+  @Override
+  public long getUptime() {
+    return runtimeBean.getUptime();
+  }
+
+  @Override
+  public MemoryManagers getCollectorGroup() {
+    return collectorGroup;
+  }
+
+  private static class PendingCollection {
+    final HeapSnapshot before = new HeapSnapshot();
+    final HeapSnapshot after = new HeapSnapshot();
+  }
+
+  // sizes in bytes, -1 when not reported
+  private static class HeapSnapshot {
+    long heapUsed = -1;
+    long heapCommitted = -1;
+    long edenUsed = -1;
+    long edenCommitted = -1;
+    long survivorUsed = -1;
+    long survivorCommitted = -1;
+    long oldUsed = -1;
+    long oldCommitted = -1;
+  }
+}
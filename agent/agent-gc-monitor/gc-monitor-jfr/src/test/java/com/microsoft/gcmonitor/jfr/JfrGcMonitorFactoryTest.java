@@ -0,0 +1,80 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.gcmonitor.GcCollectionEvent;
+import com.microsoft.gcmonitor.MemoryManagement;
+import com.microsoft.gcmonitor.memorypools.MemoryPool;
+import java.lang.management.MemoryUsage;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JfrGcMonitorFactoryTest {
+
+  private ExecutorService executorService;
+
+  @BeforeEach
+  void setUp() {
+    executorService = Executors.newSingleThreadExecutor();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void reportsSystemGc() throws Exception {
+    BlockingQueue<GcCollectionEvent> events = new LinkedBlockingQueue<>();
+    MemoryManagement memoryManagement =
+        new JfrGcMonitorFactory().monitorSelf(executorService, events::add);
+
+    assertThat(memoryManagement.getCollectors()).isNotEmpty();
+    assertThat(memoryManagement.getPools()).isNotEmpty();
+
+    // give the event stream time to start
+    Thread.sleep(1000);
+    System.gc();
+
+    GcCollectionEvent event = awaitSystemGc(events);
+
+    assertThat(event).isNotNull();
+    assertThat(event.getCollector().managesHeap()).isTrue();
+    assertThat(event.getDuration()).isGreaterThanOrEqualTo(0);
+    assertThat(event.getEndTime()).isPositive();
+    assertThat(event.getSumOfPausesNanos()).isPositive();
+    assertThat(event.getLongestPauseNanos())
+        .isPositive()
+        .isLessThanOrEqualTo(event.getSumOfPausesNanos());
+    assertThat(event.getCollector().getCollectionCount()).isPositive();
+
+    Optional<MemoryPool> tenuredPool = event.getTenuredPool();
+    assertThat(tenuredPool).isPresent();
+    MemoryUsage after = event.getMemoryUsageAfterGc(tenuredPool.get());
+    assertThat(after.getUsed()).isLessThanOrEqualTo(after.getCommitted());
+    assertThat(event.getMemoryUsageAfterGc(event.getYoungPools())).isNotNull();
+  }
+
+  private static GcCollectionEvent awaitSystemGc(BlockingQueue<GcCollectionEvent> events)
+      throws InterruptedException {
+    // JFR flushes events to the stream about once a second
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (System.nanoTime() < deadline) {
+      GcCollectionEvent event = events.poll(1, TimeUnit.SECONDS);
+      if (event != null && event.getGcCause().contains("System.gc()")) {
+        return event;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.gcmonitor.jfr;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.microsoft.gcmonitor.UnableToMonitorMemoryException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.util.Collections;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class JfrMemoryManagementTest {
+
+  @Test
+  void unknownCollectorFailsSoThatTheCallerCanFallBack() {
+    GarbageCollectorMXBean unknownCollector = new TestGarbageCollectorMXBean("Unknown Collector");
+
+    assertThatThrownBy(
+            () ->
+                JfrMemoryManagement.create(
+                    event -> {}, Collections.singletonList(unknownCollector)))
+        .isInstanceOf(UnableToMonitorMemoryException.class);
+  }
+
+  private static class TestGarbageCollectorMXBean implements GarbageCollectorMXBean {
+
+    private final String name;
+
+    private TestGarbageCollectorMXBean(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public long getCollectionCount() {
+      return 0;
+    }
+
+    @Override
+    public long getCollectionTime() {
+      return 0;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public boolean isValid() {
+      return true;
+    }
+
+    @Override
+    public String[] getMemoryPoolNames() {
+      return new String[0];
+    }
+
+    @Override
+    public ObjectName getObjectName() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -90,6 +90,12 @@ public class AlertingConfig {
     // produce data. Avoids volatile aggregation output on small sample sizes.
     public int minimumSamples;
 
+    public static final float DEFAULT_PERCENTILE = 95;
+
+    // Percentile of the request durations that is compared against the trigger threshold (in ms)
+    // Used by the percentile aggregation
+    public float percentile = DEFAULT_PERCENTILE;
+
     public int getThresholdMillis() {
       return thresholdMillis;
     }
@@ -108,11 +114,24 @@ public class AlertingConfig {
       return this;
     }
 
+    public float getPercentile() {
+      return percentile;
+    }
+
+    public RequestAggregationConfig setPercentile(float percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
     @Override
     public JsonWriter toJson(JsonWriter jsonWriter) throws IOException {
       jsonWriter.writeStartObject();
       jsonWriter.writeIntField("thresholdMillis", thresholdMillis);
       jsonWriter.writeIntField("minimumSamples", minimumSamples);
+      // only written when it is used, so that the json stays the same for the other aggregations
+      if (Float.compare(percentile, DEFAULT_PERCENTILE) != 0) {
+        jsonWriter.writeFloatField("percentile", percentile);
+      }
       jsonWriter.writeEndObject();
       return jsonWriter;
     }
@@ -129,6 +148,8 @@ public class AlertingConfig {
                 deserializedRequestAggregationConfig.setThresholdMillis(jsonReader.getInt());
               } else if ("minimumSamples".equals(fieldName)) {
                 deserializedRequestAggregationConfig.setMinimumSamples(jsonReader.getInt());
+              } else if ("percentile".equals(fieldName)) {
+                deserializedRequestAggregationConfig.setPercentile(jsonReader.getFloat());
               } else {
                 reader.skipChildren();
               }
@@ -139,7 +160,8 @@ public class AlertingConfig {
   }
 
   public enum RequestAggregationType {
-    BREACH_RATIO
+    BREACH_RATIO,
+    PERCENTILE
   }
 
   public static class RequestAggregation implements JsonSerializable<RequestAggregation> {
@@ -224,6 +246,8 @@ public class AlertingConfig {
     //  - For a rolling average aggregation 0.75 will mean this will trigger if the average request
     // processing time
     //      breaches 0.75ms
+    //  - For the percentile aggregation 500 will mean this will trigger if the percentile of the
+    // request processing time breaches 500ms
     public float value;
 
     public RequestTriggerThresholdType getType() {
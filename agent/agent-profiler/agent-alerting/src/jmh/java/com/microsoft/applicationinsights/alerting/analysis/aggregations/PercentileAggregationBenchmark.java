@@ -0,0 +1,74 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.aggregations;
+
+import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
+import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
+import com.microsoft.applicationinsights.alerting.config.AlertMetricType;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// cost of recording one request duration in a request trigger aggregation, which happens once per
+// request span, compared with the existing breach ratio aggregation
+//
+// the durations are log-normally distributed (median around 50ms), so that the percentile
+// aggregation updates many different bins
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PercentileAggregationBenchmark {
+
+  private static final int SAMPLE_COUNT = 1024;
+
+  @Param({"breachRatio", "percentile"})
+  public String aggregationType;
+
+  private Aggregation aggregation;
+  private TelemetryDataPoint[] samples;
+
+  @Setup
+  public void setup() {
+    if (aggregationType.equals("percentile")) {
+      aggregation = new PercentileAggregation(95, 0, 60, TimeSource.DEFAULT, false);
+    } else {
+      aggregation = new ThresholdBreachRatioAggregation(500, 0, 60, TimeSource.DEFAULT, false);
+    }
+
+    Random random = new Random(0);
+    samples = new TelemetryDataPoint[SAMPLE_COUNT];
+    for (int i = 0; i < SAMPLE_COUNT; i++) {
+      double durationMillis = Math.exp(Math.log(50) + random.nextGaussian());
+      samples[i] =
+          TelemetryDataPoint.create(
+              AlertMetricType.REQUEST, Instant.EPOCH, "GET /", durationMillis);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    int next;
+  }
+
+  @Benchmark
+  public void update(ThreadState threadState) {
+    aggregation.processUpdate(samples[threadState.next++ & (SAMPLE_COUNT - 1)]);
+  }
+}
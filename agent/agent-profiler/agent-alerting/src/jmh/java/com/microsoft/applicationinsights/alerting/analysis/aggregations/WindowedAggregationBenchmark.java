@@ -0,0 +1,50 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.aggregations;
+
+import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
+import java.util.OptionalDouble;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// request spans from many threads feeding the same request trigger (which is what
+// AlertTriggerSpanProcessor does), while the trigger is also being evaluated
+//
+// the "update" results are the hot path (one call per request span), run with "-prof gc" to see
+// that it doesn't allocate
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Group)
+public class WindowedAggregationBenchmark {
+
+  private final BreachedRatio breachedRatio = new BreachedRatio(30, 10, TimeSource.DEFAULT, false);
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(16)
+  public void update() {
+    breachedRatio.update(ThreadLocalRandom.current().nextInt(100) < 5);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(1)
+  public OptionalDouble compute() {
+    return breachedRatio.calculateRatio();
+  }
+}
@@ -0,0 +1,96 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.pipelines;
+
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.Aggregation;
+import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
+import com.microsoft.applicationinsights.alerting.analysis.filter.AlertRequestFilter;
+import com.microsoft.applicationinsights.alerting.config.AlertConfiguration;
+import com.microsoft.applicationinsights.alerting.config.AlertMetricType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// request spans (from a small set of route templates) fed through the request triggers
+//
+// "perPipeline" is how the request triggers used to be fed, with every pipeline evaluating its own
+// regex against every request name
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class AlertPipelineMultiplexerBenchmark {
+
+  private static final int ROUTE_COUNT = 50;
+
+  @Param({"perPipeline", "multiplexer"})
+  public String mode;
+
+  @Param({"5", "20"})
+  public int triggerCount;
+
+  private List<AlertPipeline> pipelines;
+  private AlertPipeline multiplexer;
+  private TelemetryDataPoint[] requests;
+  private int next;
+
+  @Setup
+  public void setup() {
+    pipelines = new ArrayList<>();
+    for (int i = 0; i < triggerCount; i++) {
+      pipelines.add(
+          new SingleAlertPipeline(
+              new AlertRequestFilter.RegexRequestNameFilter("(GET|POST) /api/resource" + i + "/.*"),
+              new NoopAggregation(),
+              alert -> {},
+              AlertConfiguration.builder().setType(AlertMetricType.REQUEST).build()));
+    }
+    multiplexer = new AlertPipelineMultiplexer(pipelines);
+
+    requests = new TelemetryDataPoint[ROUTE_COUNT];
+    for (int i = 0; i < ROUTE_COUNT; i++) {
+      requests[i] =
+          TelemetryDataPoint.create(
+              AlertMetricType.REQUEST, Instant.EPOCH, "GET /api/resource" + i + "/{id}", 100);
+    }
+  }
+
+  @Benchmark
+  public void track() {
+    TelemetryDataPoint request = requests[next++ % ROUTE_COUNT];
+    if (mode.equals("multiplexer")) {
+      multiplexer.track(request);
+    } else {
+      for (AlertPipeline pipeline : pipelines) {
+        pipeline.track(request);
+      }
+    }
+  }
+
+  private static class NoopAggregation extends Aggregation {
+
+    @Override
+    protected void processUpdate(TelemetryDataPoint telemetryDataPoint) {}
+
+    @Override
+    public OptionalDouble compute() {
+      return OptionalDouble.empty();
+    }
+  }
+}
@@ -4,16 +4,32 @@
 package com.microsoft.applicationinsights.alerting.analysis;
 
 import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 /** Source of time that may be overridden for tests. */
 public abstract class TimeSource {
   public abstract Instant getNow();
 
+  /**
+   * Monotonic time in nanoseconds, only meaningful when compared with other values from the same
+   * time source (like {@link System#nanoTime()}), so it is not affected by wall clock adjustments.
+   * It also doesn't allocate, unlike {@link #getNow()}.
+   */
+  public long getNanoTime() {
+    Instant now = getNow();
+    return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
+  }
+
   public static final TimeSource DEFAULT =
       new TimeSource() {
         @Override
         public Instant getNow() {
           return Instant.now();
         }
+
+        @Override
+        public long getNanoTime() {
+          return System.nanoTime();
+        }
       };
 }
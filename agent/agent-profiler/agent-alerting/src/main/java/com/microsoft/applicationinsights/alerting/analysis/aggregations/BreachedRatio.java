@@ -8,6 +8,7 @@ import com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed
 import com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed.WindowedAggregation;
 import java.util.List;
 import java.util.OptionalDouble;
+import java.util.concurrent.atomic.LongAdder;
 
 public class BreachedRatio {
 
@@ -27,15 +28,17 @@ public class BreachedRatio {
   }
 
   private static class BreachedCountBucket implements BucketData<Boolean> {
-    int totalCount = 0;
-    int breachedCount = 0;
+    final LongAdder totalCount = new LongAdder();
+    final LongAdder breachedCount = new LongAdder();
 
     @Override
     public void update(Boolean breached) {
+      // total is incremented first, and read last (see calculateRatio), so that the breached
+      // count that is read never exceeds the total count that is read
+      totalCount.increment();
       if (breached) {
-        breachedCount++;
+        breachedCount.increment();
       }
-      totalCount++;
     }
   }
 
@@ -50,14 +53,19 @@ public class BreachedRatio {
       return OptionalDouble.empty();
     }
 
-    int total = buckets.stream().mapToInt(it -> it.totalCount).sum();
+    long breached = 0;
+    for (BreachedCountBucket bucket : buckets) {
+      breached += bucket.breachedCount.sum();
+    }
+    long total = 0;
+    for (BreachedCountBucket bucket : buckets) {
+      total += bucket.totalCount.sum();
+    }
 
     if (total < minimumSamples) {
       return OptionalDouble.empty();
     }
 
-    int breached = buckets.stream().mapToInt(it -> it.breachedCount).sum();
-
     if (total == 0) {
       return OptionalDouble.empty();
     }
@@ -0,0 +1,149 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.aggregations;
+
+import com.microsoft.applicationinsights.alerting.aiconfig.AlertingConfig;
+import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed.BucketData;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed.WindowedAggregation;
+import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies a time window to request durations and calculates a percentile (e.g. p95) of the
+ * durations during that window, in milliseconds.
+ *
+ * <p>Samples are not stored. Instead each bucket of the window is a histogram with logarithmically
+ * sized bins (the same mapping as DDSketch), so the memory of a bucket is fixed, and the buckets
+ * are merged by adding up their bin counts. The calculated percentile is within {@link
+ * #RELATIVE_ACCURACY} of the exact value for durations between {@link #MIN_TRACKED_MILLIS} and
+ * {@link #MAX_TRACKED_MILLIS}, durations outside of that range are clamped to it.
+ */
+public class PercentileAggregation extends Aggregation {
+
+  private static final Logger logger = LoggerFactory.getLogger(PercentileAggregation.class);
+
+  public static final float DEFAULT_PERCENTILE =
+      AlertingConfig.RequestAggregationConfig.DEFAULT_PERCENTILE;
+
+  static final double RELATIVE_ACCURACY = 0.02;
+  static final double MIN_TRACKED_MILLIS = 0.1;
+  static final double MAX_TRACKED_MILLIS = 3_600_000; // 1 hour
+
+  private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+  private static final double LOG_GAMMA = Math.log(GAMMA);
+
+  // bin i holds the durations in (GAMMA^(i + INDEX_OFFSET - 1), GAMMA^(i + INDEX_OFFSET)]
+  private static final int INDEX_OFFSET = (int) Math.ceil(Math.log(MIN_TRACKED_MILLIS) / LOG_GAMMA);
+  private static final int BIN_COUNT =
+      (int) Math.ceil(Math.log(MAX_TRACKED_MILLIS) / LOG_GAMMA) - INDEX_OFFSET + 1;
+
+  private final double percentile;
+  private final long minimumSamples;
+  private final WindowedAggregation<Histogram, TelemetryDataPoint> windowedAggregation;
+
+  public PercentileAggregation(
+      double percentile,
+      long minimumSamples,
+      long windowLengthInSec,
+      TimeSource timeSource,
+      boolean trackCurrentBucket) {
+    if (!isValidPercentile(percentile)) {
+      throw new IllegalArgumentException("Invalid percentile: " + percentile);
+    }
+    this.percentile = percentile;
+    this.minimumSamples = minimumSamples;
+    this.windowedAggregation =
+        new WindowedAggregation<>(
+            windowLengthInSec, timeSource, Histogram::new, trackCurrentBucket);
+  }
+
+  public static boolean isValidPercentile(double percentile) {
+    return percentile > 0 && percentile <= 100;
+  }
+
+  /**
+   * Returns the configured percentile, or {@link #DEFAULT_PERCENTILE} (with a warning) if the
+   * configured percentile is not valid.
+   */
+  public static float validatePercentile(float percentile) {
+    if (isValidPercentile(percentile)) {
+      return percentile;
+    }
+    logger.warn(
+        "A request trigger percentile of {} was requested, percentiles must be greater than 0 and"
+            + " at most 100. This configuration has been set to {}",
+        percentile,
+        DEFAULT_PERCENTILE);
+    return DEFAULT_PERCENTILE;
+  }
+
+  private static class Histogram implements BucketData<TelemetryDataPoint> {
+    final AtomicLongArray counts = new AtomicLongArray(BIN_COUNT);
+
+    @Override
+    public void update(TelemetryDataPoint data) {
+      counts.incrementAndGet(binIndex(data.getValue()));
+    }
+  }
+
+  @Override
+  protected void processUpdate(TelemetryDataPoint telemetryDataPoint) {
+    windowedAggregation.update(telemetryDataPoint);
+  }
+
+  @Override
+  public OptionalDouble compute() {
+    List<Histogram> buckets = windowedAggregation.getData();
+
+    long[] counts = new long[BIN_COUNT];
+    long total = 0;
+    for (Histogram bucket : buckets) {
+      for (int i = 0; i < BIN_COUNT; i++) {
+        long count = bucket.counts.get(i);
+        counts[i] += count;
+        total += count;
+      }
+    }
+
+    if (total == 0 || total < minimumSamples) {
+      return OptionalDouble.empty();
+    }
+
+    // nearest rank
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long cumulative = 0;
+    for (int i = 0; i < BIN_COUNT; i++) {
+      cumulative += counts[i];
+      if (cumulative >= rank) {
+        return OptionalDouble.of(binValue(i));
+      }
+    }
+    return OptionalDouble.of(binValue(BIN_COUNT - 1));
+  }
+
+  // visible for testing
+  static int binIndex(double millis) {
+    // this also handles NaN
+    if (!(millis > MIN_TRACKED_MILLIS)) {
+      return 0;
+    }
+    if (millis >= MAX_TRACKED_MILLIS) {
+      return BIN_COUNT - 1;
+    }
+    int index = (int) Math.ceil(Math.log(millis) / LOG_GAMMA) - INDEX_OFFSET;
+    // guard against rounding at the edges of the range
+    return Math.min(Math.max(index, 0), BIN_COUNT - 1);
+  }
+
+  // visible for testing
+  static double binValue(int index) {
+    // the value that has the same relative distance to both bounds of the bin
+    return 2 * Math.pow(GAMMA, index + INDEX_OFFSET) / (GAMMA + 1);
+  }
+}
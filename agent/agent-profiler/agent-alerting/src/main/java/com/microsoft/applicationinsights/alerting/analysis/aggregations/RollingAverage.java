@@ -9,6 +9,8 @@ import com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed
 import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
 import java.util.List;
 import java.util.OptionalDouble;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 /** Applies a time window to data and calculates a mean of the data during that window. */
 public class RollingAverage extends Aggregation {
@@ -21,13 +23,13 @@ public class RollingAverage extends Aggregation {
   }
 
   private static class RollingAverageSample implements BucketData<TelemetryDataPoint> {
-    int sampleCount = 0;
-    double totalTime = 0;
+    final LongAdder sampleCount = new LongAdder();
+    final DoubleAdder totalTime = new DoubleAdder();
 
     @Override
     public void update(TelemetryDataPoint data) {
-      totalTime += data.getValue();
-      sampleCount++;
+      totalTime.add(data.getValue());
+      sampleCount.increment();
     }
   }
 
@@ -39,13 +41,13 @@ public class RollingAverage extends Aggregation {
   @Override
   public OptionalDouble compute() {
     List<RollingAverageSample> data = windowedAggregation.getData();
-    long count = data.stream().mapToLong(it -> it.sampleCount).sum();
+    long count = data.stream().mapToLong(it -> it.sampleCount.sum()).sum();
 
     if (count == 0) {
       return OptionalDouble.empty();
     }
 
-    double totalTime = data.stream().mapToDouble(it -> it.totalTime).sum();
+    double totalTime = data.stream().mapToDouble(it -> it.totalTime.sum()).sum();
 
     return OptionalDouble.of(totalTime / (double) count);
   }
@@ -3,7 +3,10 @@
 
 package com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed;
 
-/** A data type that can be aggregated by WindowedAggregation */
+/**
+ * A data type that can be aggregated by WindowedAggregation. Implementations must be thread safe,
+ * since samples from different threads are applied to the same bucket concurrently.
+ */
 public interface BucketData<U> {
   /** Applies new sample to buckets data */
   void update(U sample);
@@ -4,26 +4,31 @@
 package com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed;
 
 import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
-import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * Holds a series of buckets of fixed duration. Each bucket aggregates data gathered within that
  * time period.
+ *
+ * <p>The buckets are held in a fixed size ring, where the slot of a bucket is determined by its
+ * index (the number of bucket durations since the origin of the monotonic time source, so that
+ * wall clock adjustments don't move samples into the wrong buckets). Updates don't take any lock:
+ * a slot is only replaced (with a compare-and-set) when the first sample of a new bucket arrives,
+ * and the bucket data itself is responsible for accumulating concurrent updates.
  */
 public class WindowedAggregation<T extends BucketData<U>, U> {
   public static final int BUCKET_DURATION_SECONDS = 2;
-  private final long windowLengthInSec;
+  private static final long BUCKET_DURATION_NANOS =
+      TimeUnit.SECONDS.toNanos(BUCKET_DURATION_SECONDS);
+
+  private final long windowLengthNanos;
   private final TimeSource timeSource;
 
-  private final Object bucketLock = new Object();
-  private final List<WindowedAggregationBucket<T, U>> buckets =
-      Collections.synchronizedList(new ArrayList<>());
-  private WindowedAggregationBucket<T, U> currentBucket;
+  private final AtomicReferenceArray<WindowedAggregationBucket<T, U>> buckets;
   private final Supplier<T> bucketFactory;
 
   // Determines if the current bucket that is in the process of being calculated is included
@@ -35,68 +40,69 @@ public class WindowedAggregation<T extends BucketData<U>, U> {
       TimeSource timeSource,
       Supplier<T> bucketFactory,
       boolean trackCurrentBucket) {
-    this.windowLengthInSec = windowLengthInSec;
+    this.windowLengthNanos = TimeUnit.SECONDS.toNanos(windowLengthInSec);
     this.timeSource = timeSource;
     this.bucketFactory = bucketFactory;
     this.trackCurrentBucket = trackCurrentBucket;
 
-    Instant now = timeSource.getNow();
-    currentBucket =
-        new WindowedAggregationBucket<>(
-            now.plusSeconds(BUCKET_DURATION_SECONDS), bucketFactory.get());
-    if (trackCurrentBucket) {
-      buckets.add(currentBucket);
-    }
+    // enough slots for all of the buckets that overlap the window, plus the current bucket
+    int slots = (int) (windowLengthNanos / BUCKET_DURATION_NANOS) + 3;
+    buckets = new AtomicReferenceArray<>(slots);
   }
 
   public void update(U breached) {
-    getBucket().update(breached);
+    WindowedAggregationBucket<T, U> bucket = getBucket(timeSource.getNanoTime());
+    if (bucket != null) {
+      bucket.update(breached);
+    }
   }
 
   public List<T> getData() {
-    Instant now = timeSource.getNow();
-    Instant cutoff = now.minusSeconds(windowLengthInSec);
-    removeBucketsBeforeCutoff(cutoff);
-    return buckets.stream().map(WindowedAggregationBucket::getData).collect(Collectors.toList());
+    long nowNanos = timeSource.getNanoTime();
+    long currentIndex = Math.floorDiv(nowNanos, BUCKET_DURATION_NANOS);
+    long maxIndex = trackCurrentBucket ? currentIndex : currentIndex - 1;
+    // buckets that ended before the cutoff are outside of the window
+    long cutoffNanos = nowNanos - windowLengthNanos;
+    long minIndex = Math.floorDiv(cutoffNanos - 1, BUCKET_DURATION_NANOS);
+
+    List<T> data = new ArrayList<>();
+    // each slot is read exactly once, so a bucket that is replaced while iterating is either
+    // included with its old index (and skipped) or with its new index
+    for (long index = minIndex; index <= maxIndex; index++) {
+      WindowedAggregationBucket<T, U> bucket = buckets.get(slot(index));
+      if (bucket != null && bucket.getIndex() == index) {
+        data.add(bucket.getData());
+      }
+    }
+    return data;
   }
 
-  private WindowedAggregationBucket<T, U> getBucket() {
-    synchronized (bucketLock) {
-      Instant now = timeSource.getNow();
-
-      if (currentBucket.getBucketEnd().isBefore(now)) {
-        // Gone past end of current bucket, close it off and create a new bucket
-
-        Instant cutoff = now.minusSeconds(windowLengthInSec);
-
-        // Remove old buckets
-        removeBucketsBeforeCutoff(cutoff);
-
-        if (!trackCurrentBucket) {
-          // If we are lazily adding to the data set, add the completed bucket
-          buckets.add(currentBucket);
+  private WindowedAggregationBucket<T, U> getBucket(long nowNanos) {
+    // floorDiv since System.nanoTime() may be negative
+    long index = Math.floorDiv(nowNanos, BUCKET_DURATION_NANOS);
+    int slot = slot(index);
+    while (true) {
+      WindowedAggregationBucket<T, U> bucket = buckets.get(slot);
+      if (bucket != null) {
+        if (bucket.getIndex() == index) {
+          return bucket;
         }
-
-        currentBucket =
-            new WindowedAggregationBucket<>(
-                now.plusSeconds(BUCKET_DURATION_SECONDS), bucketFactory.get());
-
-        if (trackCurrentBucket) {
-          // If we are eagerly adding to the data set, add it now
-          buckets.add(currentBucket);
+        if (bucket.getIndex() > index) {
+          // the slot has already been reused by a newer bucket (e.g. this thread was descheduled
+          // for a long time), so this sample is too old to be counted
+          return null;
         }
       }
-
-      return currentBucket;
+      // first sample of a new bucket, replace the bucket that used this slot before
+      WindowedAggregationBucket<T, U> newBucket =
+          new WindowedAggregationBucket<>(index, bucketFactory.get());
+      if (buckets.compareAndSet(slot, bucket, newBucket)) {
+        return newBucket;
+      }
     }
   }
 
-  private void removeBucketsBeforeCutoff(Instant cutoff) {
-    synchronized (bucketLock) {
-      // Remove buckets that ended before the cutoff
-      while (buckets.size() > 0 && buckets.get(0).getBucketEnd().isBefore(cutoff)) {
-        buckets.remove(0);
-      }
-    }
+  private int slot(long index) {
+    return (int) Math.floorMod(index, (long) buckets.length());
   }
 }
@@ -3,18 +3,21 @@
 
 package com.microsoft.applicationinsights.alerting.analysis.aggregations.windowed;
 
-import java.time.Instant;
-
 /** Wraps data held within the WindowedAggregation */
 class WindowedAggregationBucket<T extends BucketData<U>, U> {
-  /** Time after which this bucket will be considered complete */
-  private final Instant bucketEnd;
-
-  /** Mutable bucket for accumulating data within the bucket */
+  /**
+   * Number of bucket durations since the origin of {@link
+   * com.microsoft.applicationinsights.alerting.analysis.TimeSource#getNanoTime()}, i.e. this bucket
+   * holds the data gathered from {@code index * BUCKET_DURATION_NANOS} (inclusive) until {@code
+   * (index + 1) * BUCKET_DURATION_NANOS} (exclusive)
+   */
+  private final long index;
+
+  /** Mutable bucket for accumulating data within the bucket, must be thread safe */
   private final T data;
 
-  WindowedAggregationBucket(Instant bucketEnd, T data) {
-    this.bucketEnd = bucketEnd;
+  WindowedAggregationBucket(long index, T data) {
+    this.index = index;
     this.data = data;
   }
 
@@ -26,7 +29,7 @@ class WindowedAggregationBucket<T extends BucketData<U>, U> {
     return data;
   }
 
-  public Instant getBucketEnd() {
-    return bucketEnd;
+  public long getIndex() {
+    return index;
   }
 }
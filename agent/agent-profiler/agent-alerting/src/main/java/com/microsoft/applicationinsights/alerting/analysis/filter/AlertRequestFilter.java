@@ -19,6 +19,10 @@ public abstract class AlertRequestFilter implements Predicate<String> {
       pattern = Pattern.compile(value);
     }
 
+    public String getRegex() {
+      return pattern.pattern();
+    }
+
     @Override
     public boolean test(@Nullable String spanName) {
       if (spanName == null) {
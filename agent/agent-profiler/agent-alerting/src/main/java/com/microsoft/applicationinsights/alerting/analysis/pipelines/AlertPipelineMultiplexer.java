@@ -5,16 +5,27 @@ package com.microsoft.applicationinsights.alerting.analysis.pipelines;
 
 import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
 import com.microsoft.applicationinsights.alerting.config.AlertConfiguration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalDouble;
 
 /** Distributes telemetry to multiple downstream AlertPipelines. */
 public class AlertPipelineMultiplexer implements AlertPipeline {
 
-  private final List<AlertPipeline> pipelines;
+  // SingleAlertPipelines are matched all at once, instead of each one testing its own filter
+  private final RequestPipelineMatcher matcher;
+  private final List<AlertPipeline> otherPipelines = new ArrayList<>();
 
   public AlertPipelineMultiplexer(List<AlertPipeline> pipelines) {
-    this.pipelines = pipelines;
+    List<SingleAlertPipeline> singlePipelines = new ArrayList<>();
+    for (AlertPipeline pipeline : pipelines) {
+      if (pipeline instanceof SingleAlertPipeline) {
+        singlePipelines.add((SingleAlertPipeline) pipeline);
+      } else {
+        otherPipelines.add(pipeline);
+      }
+    }
+    matcher = new RequestPipelineMatcher(singlePipelines);
   }
 
   @Override
@@ -27,6 +38,9 @@ public class AlertPipelineMultiplexer implements AlertPipeline {
 
   @Override
   public void track(TelemetryDataPoint telemetryDataPoint) {
-    pipelines.forEach(it -> it.track(telemetryDataPoint));
+    for (SingleAlertPipeline pipeline : matcher.match(telemetryDataPoint.getName())) {
+      pipeline.trackMatched(telemetryDataPoint);
+    }
+    otherPipelines.forEach(it -> it.track(telemetryDataPoint));
   }
 }
@@ -6,6 +6,8 @@ package com.microsoft.applicationinsights.alerting.analysis.pipelines;
 import com.microsoft.applicationinsights.alerting.aiconfig.AlertingConfig;
 import com.microsoft.applicationinsights.alerting.alert.AlertBreach;
 import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.Aggregation;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.PercentileAggregation;
 import com.microsoft.applicationinsights.alerting.analysis.aggregations.RollingAverage;
 import com.microsoft.applicationinsights.alerting.analysis.aggregations.ThresholdBreachRatioAggregation;
 import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
@@ -73,12 +75,7 @@ public class AlertPipelines {
 
                   return SingleAlertPipeline.create(
                       new AlertRequestFilter.RegexRequestNameFilter(trigger.filter.value),
-                      new ThresholdBreachRatioAggregation(
-                          trigger.aggregation.configuration.thresholdMillis,
-                          trigger.aggregation.configuration.minimumSamples,
-                          trigger.aggregation.windowSizeMillis / 1000,
-                          timeSource,
-                          false),
+                      createRequestAggregation(trigger.aggregation, timeSource),
                       alert,
                       alertHandler);
                 })
@@ -92,6 +89,24 @@ public class AlertPipelines {
         newAlertConfig.size());
   }
 
+  private static Aggregation createRequestAggregation(
+      AlertingConfig.RequestAggregation aggregation, TimeSource timeSource) {
+    if (aggregation.type == AlertingConfig.RequestAggregationType.PERCENTILE) {
+      return new PercentileAggregation(
+          PercentileAggregation.validatePercentile(aggregation.configuration.percentile),
+          aggregation.configuration.minimumSamples,
+          aggregation.windowSizeMillis / 1000,
+          timeSource,
+          false);
+    }
+    return new ThresholdBreachRatioAggregation(
+        aggregation.configuration.thresholdMillis,
+        aggregation.configuration.minimumSamples,
+        aggregation.windowSizeMillis / 1000,
+        timeSource,
+        false);
+  }
+
   /** Ensure that alerts contain the required metrics and notify upstream handler. */
   private void dispatchAlert(AlertBreach alert) {
     alertHandler.accept(addMetricData(alert));
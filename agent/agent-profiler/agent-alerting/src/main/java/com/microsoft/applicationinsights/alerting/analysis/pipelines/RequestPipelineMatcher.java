@@ -0,0 +1,93 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.pipelines;
+
+import com.microsoft.applicationinsights.alerting.analysis.filter.AlertRequestFilter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches a request name against the filters of all of the request trigger pipelines in one pass.
+ *
+ * <p>Pipelines with the same filter regex share a single evaluation of that regex, and the result
+ * is cached per distinct request name. Request names are normally route templates (low
+ * cardinality), so in the steady state a request is matched without evaluating any regex.
+ */
+final class RequestPipelineMatcher {
+
+  // bounds the memory used in case request names are not low cardinality (e.g. when no route
+  // template was captured and the name contains the raw path)
+  static final int MAX_CACHED_NAMES = 1000;
+
+  // null entries accept all request names
+  private final AlertRequestFilter[] filters;
+  private final SingleAlertPipeline[] pipelines;
+  // index into filters for each of the pipelines
+  private final int[] filterIndexes;
+
+  private final ConcurrentHashMap<String, SingleAlertPipeline[]> cache = new ConcurrentHashMap<>();
+
+  RequestPipelineMatcher(List<SingleAlertPipeline> pipelines) {
+    Map<Object, Integer> filterIndexesByKey = new LinkedHashMap<>();
+    List<AlertRequestFilter> filters = new ArrayList<>();
+    filterIndexes = new int[pipelines.size()];
+    for (int i = 0; i < pipelines.size(); i++) {
+      AlertRequestFilter filter = pipelines.get(i).getFilter();
+      Object key = getKey(filter);
+      Integer filterIndex = filterIndexesByKey.get(key);
+      if (filterIndex == null) {
+        filterIndex = filters.size();
+        filters.add(filter instanceof AlertRequestFilter.AcceptAll ? null : filter);
+        filterIndexesByKey.put(key, filterIndex);
+      }
+      filterIndexes[i] = filterIndex;
+    }
+    this.filters = filters.toArray(new AlertRequestFilter[0]);
+    this.pipelines = pipelines.toArray(new SingleAlertPipeline[0]);
+  }
+
+  // returns the pipelines (in their original order) whose filter matches the request name
+  SingleAlertPipeline[] match(String requestName) {
+    SingleAlertPipeline[] matched = cache.get(requestName);
+    if (matched == null) {
+      matched = evaluate(requestName);
+      if (cache.size() >= MAX_CACHED_NAMES) {
+        // start over instead of tracking which names were least recently used, the names that are
+        // actually in use will repopulate the cache quickly
+        cache.clear();
+      }
+      cache.put(requestName, matched);
+    }
+    return matched;
+  }
+
+  private SingleAlertPipeline[] evaluate(String requestName) {
+    boolean[] filterMatches = new boolean[filters.length];
+    for (int i = 0; i < filters.length; i++) {
+      AlertRequestFilter filter = filters[i];
+      filterMatches[i] = filter == null || filter.test(requestName);
+    }
+    List<SingleAlertPipeline> matched = new ArrayList<>();
+    for (int i = 0; i < pipelines.length; i++) {
+      if (filterMatches[filterIndexes[i]]) {
+        matched.add(pipelines[i]);
+      }
+    }
+    return matched.toArray(new SingleAlertPipeline[0]);
+  }
+
+  // filters that are known to behave the same share a key
+  private static Object getKey(AlertRequestFilter filter) {
+    if (filter instanceof AlertRequestFilter.RegexRequestNameFilter) {
+      return ((AlertRequestFilter.RegexRequestNameFilter) filter).getRegex();
+    }
+    if (filter instanceof AlertRequestFilter.AcceptAll) {
+      return AlertRequestFilter.AcceptAll.class;
+    }
+    return filter;
+  }
+}
@@ -97,10 +97,19 @@ public class SingleAlertPipeline implements AlertPipeline, AlertPipelineMXBean {
   @Override
   public void track(TelemetryDataPoint telemetryDataPoint) {
     if (filter.test(telemetryDataPoint.getName())) {
-      aggregation.update(telemetryDataPoint);
+      trackMatched(telemetryDataPoint);
     }
   }
 
+  AlertRequestFilter getFilter() {
+    return filter;
+  }
+
+  // for callers that have already applied the filter
+  void trackMatched(TelemetryDataPoint telemetryDataPoint) {
+    aggregation.update(telemetryDataPoint);
+  }
+
   @Override
   public long getCooldownSeconds() {
     return alertConfiguration.getCooldownSeconds();
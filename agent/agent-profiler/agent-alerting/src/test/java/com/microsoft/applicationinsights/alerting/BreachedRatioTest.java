@@ -0,0 +1,67 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.BreachedRatio;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import org.junit.jupiter.api.Test;
+
+class BreachedRatioTest {
+
+  @Test
+  void countsConcurrentUpdates() throws InterruptedException {
+    TestTimeSource timeSource = new TestTimeSource();
+    BreachedRatio breachedRatio = new BreachedRatio(60, 1, timeSource, true);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int j = 0; j < 10000; j++) {
+                  breachedRatio.update(j % 4 == 0);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertThat(breachedRatio.calculateRatio()).isEqualTo(OptionalDouble.of(0.25));
+  }
+
+  @Test
+  void onlyIncludesBucketsWithinWindow() {
+    TestTimeSource timeSource = new TestTimeSource();
+    BreachedRatio breachedRatio = new BreachedRatio(60, 1, timeSource, false);
+
+    for (int i = 0; i < 10; i++) {
+      breachedRatio.update(true);
+    }
+    // current bucket is not included
+    assertThat(breachedRatio.calculateRatio()).isEmpty();
+
+    timeSource.increment(10000);
+    for (int i = 0; i < 10; i++) {
+      breachedRatio.update(false);
+    }
+    timeSource.increment(10000);
+    assertThat(breachedRatio.calculateRatio()).isEqualTo(OptionalDouble.of(0.5));
+
+    // first bucket is now outside of the window
+    timeSource.increment(50000);
+    assertThat(breachedRatio.calculateRatio()).isEqualTo(OptionalDouble.of(0.0));
+
+    // old buckets are not brought back when their slot in the ring is reused
+    timeSource.increment(200000);
+    breachedRatio.update(true);
+    assertThat(breachedRatio.calculateRatio()).isEmpty();
+  }
+}
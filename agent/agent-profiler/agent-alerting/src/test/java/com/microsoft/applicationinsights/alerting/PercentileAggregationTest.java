@@ -0,0 +1,95 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting;
+
+import static com.microsoft.applicationinsights.alerting.config.AlertMetricType.REQUEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.PercentileAggregation;
+import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
+import java.util.OptionalDouble;
+import org.junit.jupiter.api.Test;
+
+class PercentileAggregationTest {
+
+  @Test
+  void calculatesPercentileWithinRelativeAccuracy() {
+    TestTimeSource timeSource = new TestTimeSource();
+    PercentileAggregation p50 = new PercentileAggregation(50, 0, 60, timeSource, true);
+    PercentileAggregation p95 = new PercentileAggregation(95, 0, 60, timeSource, true);
+
+    for (int i = 1; i <= 1000; i++) {
+      p50.update(createDataPoint(i));
+      p95.update(createDataPoint(i));
+      if (i % 100 == 0) {
+        // spread the samples across several buckets of the window
+        timeSource.increment(3000);
+      }
+    }
+
+    assertThat(p50.compute().getAsDouble()).isCloseTo(500, withinPercentage(2));
+    assertThat(p95.compute().getAsDouble()).isCloseTo(950, withinPercentage(2));
+  }
+
+  @Test
+  void clampsDurationsOutsideOfTrackedRange() {
+    TestTimeSource timeSource = new TestTimeSource();
+    PercentileAggregation min = new PercentileAggregation(50, 0, 60, timeSource, true);
+    PercentileAggregation max = new PercentileAggregation(50, 0, 60, timeSource, true);
+
+    min.update(createDataPoint(0));
+    max.update(createDataPoint(1e12));
+
+    assertThat(min.compute().getAsDouble()).isCloseTo(0.1, withinPercentage(2));
+    assertThat(max.compute().getAsDouble()).isCloseTo(3_600_000, withinPercentage(2));
+  }
+
+  @Test
+  void requiresMinimumSamples() {
+    TestTimeSource timeSource = new TestTimeSource();
+    PercentileAggregation aggregation = new PercentileAggregation(95, 10, 60, timeSource, true);
+
+    for (int i = 0; i < 9; i++) {
+      aggregation.update(createDataPoint(100));
+    }
+    assertThat(aggregation.compute()).isEqualTo(OptionalDouble.empty());
+
+    aggregation.update(createDataPoint(100));
+    assertThat(aggregation.compute().getAsDouble()).isCloseTo(100, withinPercentage(2));
+  }
+
+  @Test
+  void throwsAwayDataOutsidePeriod() {
+    TestTimeSource timeSource = new TestTimeSource();
+    PercentileAggregation aggregation = new PercentileAggregation(95, 0, 60, timeSource, true);
+
+    aggregation.update(createDataPoint(5000));
+    timeSource.increment(30000);
+    aggregation.update(createDataPoint(10));
+    assertThat(aggregation.compute().getAsDouble()).isCloseTo(5000, withinPercentage(2));
+
+    timeSource.increment(40000);
+    assertThat(aggregation.compute().getAsDouble()).isCloseTo(10, withinPercentage(2));
+
+    timeSource.increment(60000);
+    assertThat(aggregation.compute()).isEqualTo(OptionalDouble.empty());
+  }
+
+  @Test
+  void rejectsInvalidPercentile() {
+    TestTimeSource timeSource = new TestTimeSource();
+
+    assertThatThrownBy(() -> new PercentileAggregation(0, 0, 60, timeSource, true))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new PercentileAggregation(101, 0, 60, timeSource, true))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static TelemetryDataPoint createDataPoint(double value) {
+    return TelemetryDataPoint.create(REQUEST, TimeSource.DEFAULT.getNow(), "test", value);
+  }
+}
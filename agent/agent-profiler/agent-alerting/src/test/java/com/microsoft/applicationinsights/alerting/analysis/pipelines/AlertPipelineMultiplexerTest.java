@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.alerting.analysis.pipelines;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.Aggregation;
+import com.microsoft.applicationinsights.alerting.analysis.data.TelemetryDataPoint;
+import com.microsoft.applicationinsights.alerting.analysis.filter.AlertRequestFilter;
+import com.microsoft.applicationinsights.alerting.config.AlertConfiguration;
+import com.microsoft.applicationinsights.alerting.config.AlertMetricType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.OptionalDouble;
+import org.junit.jupiter.api.Test;
+
+class AlertPipelineMultiplexerTest {
+
+  @Test
+  void tracksEachMatchingPipelineOnce() {
+    CountingAggregation orders = new CountingAggregation();
+    CountingAggregation ordersDuplicate = new CountingAggregation();
+    CountingAggregation users = new CountingAggregation();
+    CountingAggregation all = new CountingAggregation();
+    CountingPipeline other = new CountingPipeline();
+
+    AlertPipelineMultiplexer multiplexer =
+        new AlertPipelineMultiplexer(
+            Arrays.asList(
+                pipeline(new AlertRequestFilter.RegexRequestNameFilter("GET /orders.*"), orders),
+                pipeline(
+                    new AlertRequestFilter.RegexRequestNameFilter("GET /orders.*"),
+                    ordersDuplicate),
+                pipeline(new AlertRequestFilter.RegexRequestNameFilter(".*/users"), users),
+                pipeline(new AlertRequestFilter.AcceptAll(), all),
+                other));
+
+    multiplexer.track(request("GET /orders/{id}"));
+    multiplexer.track(request("GET /orders/{id}"));
+    multiplexer.track(request("POST /users"));
+    multiplexer.track(request("GET /health"));
+
+    assertThat(orders.count).isEqualTo(2);
+    assertThat(ordersDuplicate.count).isEqualTo(2);
+    assertThat(users.count).isEqualTo(1);
+    assertThat(all.count).isEqualTo(4);
+    assertThat(other.count).isEqualTo(4);
+  }
+
+  @Test
+  void stillMatchesWhenCacheIsFull() {
+    CountingAggregation orders = new CountingAggregation();
+    AlertPipelineMultiplexer multiplexer =
+        new AlertPipelineMultiplexer(
+            Collections.singletonList(
+                pipeline(new AlertRequestFilter.RegexRequestNameFilter("GET /orders/.*"), orders)));
+
+    for (int i = 0; i < RequestPipelineMatcher.MAX_CACHED_NAMES * 3; i++) {
+      multiplexer.track(request("GET /orders/" + i));
+      multiplexer.track(request("GET /users/" + i));
+    }
+
+    assertThat(orders.count).isEqualTo(RequestPipelineMatcher.MAX_CACHED_NAMES * 3);
+  }
+
+  @Test
+  void emptyPipelines() {
+    AlertPipelineMultiplexer multiplexer = new AlertPipelineMultiplexer(new ArrayList<>());
+
+    multiplexer.track(request("GET /orders/{id}"));
+
+    assertThat(multiplexer.getValue()).isEqualTo(OptionalDouble.empty());
+  }
+
+  private static SingleAlertPipeline pipeline(
+      AlertRequestFilter filter, CountingAggregation aggregation) {
+    return new SingleAlertPipeline(
+        filter,
+        aggregation,
+        alert -> {},
+        AlertConfiguration.builder().setType(AlertMetricType.REQUEST).build());
+  }
+
+  private static TelemetryDataPoint request(String name) {
+    return TelemetryDataPoint.create(AlertMetricType.REQUEST, Instant.EPOCH, name, 1);
+  }
+
+  private static class CountingAggregation extends Aggregation {
+
+    private int count;
+
+    @Override
+    protected void processUpdate(TelemetryDataPoint telemetryDataPoint) {
+      count++;
+    }
+
+    @Override
+    public OptionalDouble compute() {
+      return OptionalDouble.empty();
+    }
+  }
+
+  // not a SingleAlertPipeline, so it does its own filtering
+  private static class CountingPipeline implements AlertPipeline {
+
+    private int count;
+
+    @Override
+    public OptionalDouble getValue() {
+      return OptionalDouble.empty();
+    }
+
+    @Override
+    public void updateConfig(AlertConfiguration newAlertConfig) {}
+
+    @Override
+    public void track(TelemetryDataPoint telemetryDataPoint) {
+      count++;
+    }
+  }
+}
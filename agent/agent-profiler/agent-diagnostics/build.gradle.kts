@@ -1,5 +1,6 @@
 plugins {
   id("ai.java-conventions")
+  id("ai.jmh-conventions")
 }
 
 // Allows publishing this library to the local host ONLY if -Ppublish-diagnostics is provided
@@ -18,4 +19,11 @@ dependencies {
 
   compileOnly("com.google.auto.service:auto-service")
   annotationProcessor("com.google.auto.service:auto-service")
+
+  testImplementation("org.slf4j:slf4j-api")
+  testImplementation("com.azure:azure-json")
+  testImplementation("org.junit.jupiter:junit-jupiter")
+  testImplementation("org.assertj:assertj-core")
+
+  jmh("org.slf4j:slf4j-api")
 }
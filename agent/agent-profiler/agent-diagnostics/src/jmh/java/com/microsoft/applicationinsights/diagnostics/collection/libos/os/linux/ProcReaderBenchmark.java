@@ -0,0 +1,115 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
+
+import com.microsoft.applicationinsights.diagnostics.collection.libos.OperatingSystemInteractionException;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.kernel.KernelCounters;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// polls and parses copies of /proc/net/dev (on a host with many container interfaces, so it
+// doesn't fit in the initial buffer) and /proc/stat, the same way the kernel monitor does
+//
+// run with "-prof gc" to see that, apart from the counters themselves, reading and parsing the
+// files doesn't allocate
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ProcReaderBenchmark {
+
+  private File directory;
+  private LinuxGlobalNetworkStats networkStats;
+  private LinuxKernelStats kernelStats;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("proc").toFile();
+    networkStats = new LinuxGlobalNetworkStats(write("dev", netDev()));
+    kernelStats = new LinuxKernelStats(write("stat", stat()).getPath());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    networkStats.close();
+    kernelStats.close();
+    for (File file : directory.listFiles()) {
+      Files.delete(file.toPath());
+    }
+    Files.delete(directory.toPath());
+  }
+
+  @Benchmark
+  public BigInteger networkStats() {
+    networkStats.poll();
+    networkStats.update();
+    return networkStats.getTotalReceived();
+  }
+
+  @Benchmark
+  public KernelCounters kernelStats() throws OperatingSystemInteractionException {
+    kernelStats.poll();
+    kernelStats.update();
+    return kernelStats.getCounters();
+  }
+
+  private File write(String name, String contents) throws IOException {
+    File file = new File(directory, name);
+    Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  private static String netDev() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Inter-|   Receive                                                |  Transmit\n");
+    sb.append(" face |bytes    packets errs drop fifo frame compressed multicast|bytes    packets")
+        .append(" errs drop fifo colls carrier compressed\n");
+    for (int i = 0; i < 200; i++) {
+      String line =
+          String.format(
+              "veth%07x: %9d    %4d    0    0    0     0          0         0 %9d    %4d    0"
+                  + "    0    0     0       0          0\n",
+              i, 100000 + i, 1000 + i, 200000 + i, 2000 + i);
+      sb.append(line);
+    }
+    return sb.toString();
+  }
+
+  private static String stat() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("cpu  10132153 290696 3084719 46828483 16683 0 25195 0 0 0\n");
+    for (int i = 0; i < 64; i++) {
+      sb.append("cpu").append(i).append(" 158314 4542 48198 731695 260 0 393 0 0 0\n");
+    }
+    sb.append("intr 1462898763");
+    for (int i = 0; i < 500; i++) {
+      sb.append(" 0");
+    }
+    sb.append("\nctxt 38014093\n")
+        .append("btime 1697526000\n")
+        .append("processes 264421\n")
+        .append("procs_running 3\n")
+        .append("procs_blocked 1\n")
+        .append("softirq 312456789 0 58123456 12345 45678901 1234567 0 345678 98765432 0\n");
+    return sb.toString();
+  }
+}
@@ -7,84 +7,93 @@ import static com.microsoft.applicationinsights.diagnostics.collection.libos.os.
 
 import com.microsoft.applicationinsights.diagnostics.collection.libos.kernel.DiskStats;
 import com.microsoft.applicationinsights.diagnostics.collection.libos.kernel.GlobalDiskStats;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
 
 /** Extracts Disk IO stats (read/write volumes) from /proc */
 public class LinuxGlobalDiskIoStats extends TwoStepProcReader implements GlobalDiskStats {
 
   private static final String DISKSTAT_FILE_LOCATION = "/proc/diskstats";
 
+  // the device name follows the major and minor device numbers
+  private static final int NAME_INDEX = 2;
+
+  // relative to the device name
   private static final int READ_TIME = 4;
   private static final int WRITE_TIME = 8;
   private static final int IO_TIME = 10;
-  public static final Pattern LETTERS = Pattern.compile("[A-Za-z]");
-
-  private final Map<String, DiskStats> stats = new HashMap<>();
 
-  private int indexOffset = -1;
+  private final List<DiskStats> stats = new ArrayList<>();
 
-  public static final String NAME_PATTERN = "^([^ ]+)";
-  private static final Pattern NAME_MATCHER = Pattern.compile(NAME_PATTERN);
+  // devices that aren't disks, so that their names are only allocated and matched once
+  private final List<String> ignoredDevices = new ArrayList<>();
 
   public LinuxGlobalDiskIoStats() {
-    super(DISKSTAT_FILE_LOCATION);
+    this(new File(DISKSTAT_FILE_LOCATION));
   }
 
-  @Override
-  protected void parseLine(String line) {
-    int indexOffset = getOffset(line);
+  // visible for testing
+  LinuxGlobalDiskIoStats(File file) {
+    super(file);
+  }
 
-    line = line.substring(indexOffset);
+  @Override
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    // e.g. "   8       0 sda 31516 11436 2386326 13928 26212 21453 1516848 39640 0 30004 ..."
+    int nameStart = buffer.skipTokens(start, end, NAME_INDEX);
+    int nameEnd = buffer.tokenEnd(nameStart, end);
+    if (nameStart == nameEnd || isIgnored(buffer, nameStart, nameEnd)) {
+      return;
+    }
 
-    Matcher nameMatcher = NAME_MATCHER.matcher(line);
-    if (nameMatcher.find()) {
-      String interfaceName = nameMatcher.group(0);
+    DiskStats disk = findDisk(buffer, nameStart, nameEnd);
+    if (disk == null) {
+      String diskName = buffer.toString(nameStart, nameEnd);
 
       // Remove common lines
-      if (interfaceName.startsWith("ram") || interfaceName.startsWith("loop")) {
+      if (diskName.startsWith("ram") || diskName.startsWith("loop") || !matchesDiskName(diskName)) {
+        ignoredDevices.add(diskName);
         return;
       }
+      disk = new DiskStats(diskName);
+      stats.add(disk);
+    }
 
-      if (matchesDiskName(interfaceName)) {
-        String[] data = line.split(" ");
-        long readTime = Long.parseLong(data[READ_TIME]);
-        long writeTime = Long.parseLong(data[WRITE_TIME]);
-        long ioTime = Long.parseLong(data[IO_TIME]);
+    int readTimeStart = buffer.skipTokens(nameStart, end, READ_TIME);
+    int writeTimeStart = buffer.skipTokens(readTimeStart, end, WRITE_TIME - READ_TIME);
+    int ioTimeStart = buffer.skipTokens(writeTimeStart, end, IO_TIME - WRITE_TIME);
 
-        updateDisk(interfaceName, readTime, writeTime, ioTime);
-      }
-    }
+    disk.newReadTime(buffer.parseLong(readTimeStart, end));
+    disk.newWriteTime(buffer.parseLong(writeTimeStart, end));
+    disk.newIoTime(buffer.parseLong(ioTimeStart, end));
   }
 
-  private int getOffset(String line) {
-    if (indexOffset == -1) {
-      Matcher matcher = LETTERS.matcher(line);
-      if (matcher.find()) {
-        indexOffset = matcher.start();
+  private boolean isIgnored(ProcFileBuffer buffer, int nameStart, int nameEnd) {
+    for (int i = 0; i < ignoredDevices.size(); i++) {
+      if (buffer.regionEquals(nameStart, nameEnd, ignoredDevices.get(i))) {
+        return true;
       }
     }
-    return indexOffset;
+    return false;
   }
 
-  private void updateDisk(String diskName, long readTime, long writeTime, long ioTime) {
-    DiskStats disk = stats.get(diskName);
-
-    if (disk == null) {
-      disk = new DiskStats(diskName);
-      this.stats.put(diskName, disk);
+  @Nullable
+  private DiskStats findDisk(ProcFileBuffer buffer, int nameStart, int nameEnd) {
+    for (int i = 0; i < stats.size(); i++) {
+      DiskStats disk = stats.get(i);
+      if (buffer.regionEquals(nameStart, nameEnd, disk.getName())) {
+        return disk;
+      }
     }
-    disk.newReadTime(readTime);
-    disk.newWriteTime(writeTime);
-    disk.newIoTime(ioTime);
+    return null;
   }
 
   @Override
   public long getTotalWrite() {
     long accumulator = 0;
-    for (DiskStats stat : stats.values()) {
+    for (DiskStats stat : stats) {
       accumulator += stat.getWriteTime();
     }
     return accumulator;
@@ -93,7 +102,7 @@ public class LinuxGlobalDiskIoStats extends TwoStepProcReader implements GlobalD
   @Override
   public long getTotalRead() {
     long accumulator = 0;
-    for (DiskStats stat : stats.values()) {
+    for (DiskStats stat : stats) {
       accumulator += stat.getReadTime();
     }
     return accumulator;
@@ -102,7 +111,7 @@ public class LinuxGlobalDiskIoStats extends TwoStepProcReader implements GlobalD
   @Override
   public long getTotalIo() {
     long accumulator = 0;
-    for (DiskStats stat : stats.values()) {
+    for (DiskStats stat : stats) {
       accumulator += stat.getIoTime();
     }
     return accumulator;
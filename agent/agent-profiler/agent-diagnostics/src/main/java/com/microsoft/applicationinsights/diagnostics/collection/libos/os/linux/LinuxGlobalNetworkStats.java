@@ -5,49 +5,80 @@ package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
 
 import com.microsoft.applicationinsights.diagnostics.collection.libos.net.GlobalNetworkStats;
 import com.microsoft.applicationinsights.diagnostics.collection.libos.net.NetworkInterfaceStats;
+import java.io.File;
 import java.math.BigInteger;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /** Extracts global network statistics from /proc */
 class LinuxGlobalNetworkStats extends TwoStepProcReader implements GlobalNetworkStats {
 
   private static final String NETSTAT_FILE_LOCATION = "/proc/net/dev";
-  private static final Pattern DATA_LINE = Pattern.compile("^[A-Za-z0-9]+: .*");
 
-  private static final int NAME_INDEX = 0;
-  private static final int RECIEVED_INDEX = 1;
-  private static final int TRANSMIT_INDEX = 9;
+  // relative to the received bytes, which follow the interface name
+  private static final int TRANSMIT_INDEX = 8;
 
-  private final Map<String, NetworkInterfaceStats> stats = new HashMap<>();
+  private final List<NetworkInterfaceStats> stats = new ArrayList<>();
 
   public LinuxGlobalNetworkStats() {
-    super(NETSTAT_FILE_LOCATION);
+    this(new File(NETSTAT_FILE_LOCATION));
+  }
+
+  // visible for testing
+  LinuxGlobalNetworkStats(File file) {
+    super(file);
   }
 
   @Override
-  protected void parseLine(String line) {
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    // e.g. "eth0: 1528474 2391 0 0 0 0 0 0 284523 2254 0 0 0 0 0 0", the header lines don't
+    // have an interface name
+    int nameEnd = interfaceNameEnd(buffer, start, end);
+    if (nameEnd == -1) {
+      return;
+    }
 
-    String trimmed = line.trim();
-    if (DATA_LINE.matcher(trimmed).matches()) {
-      String[] data = line.split(" +");
+    int receivedStart = buffer.skipWhitespace(nameEnd + 1, end);
+    int transmitStart = buffer.skipTokens(receivedStart, end, TRANSMIT_INDEX);
 
-      String interfaceName = data[NAME_INDEX].replace(":", "");
+    long receivedBytes = buffer.parseLong(receivedStart, end);
+    long sentBytes = buffer.parseLong(transmitStart, end);
 
-      long receivedBytes = Long.parseLong(data[RECIEVED_INDEX]);
-      long sentBytes = Long.parseLong(data[TRANSMIT_INDEX]);
+    updateInterface(buffer, start, nameEnd, receivedBytes, sentBytes);
+  }
 
-      updateInterface(interfaceName, receivedBytes, sentBytes);
+  // returns the position of the ':' that follows the interface name, or -1 if this isn't a data
+  // line
+  private static int interfaceNameEnd(ProcFileBuffer buffer, int start, int end) {
+    int colon = buffer.indexOf(':', start, end);
+    if (colon <= start || colon + 1 == end || buffer.skipWhitespace(colon + 1, end) == colon + 1) {
+      return -1;
+    }
+    for (int i = start; i < colon; i++) {
+      if (!isLetterOrDigit(buffer.byteAt(i))) {
+        return -1;
+      }
     }
+    return colon;
+  }
+
+  private static boolean isLetterOrDigit(byte b) {
+    return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9');
   }
 
-  private void updateInterface(String interfaceName, long recievedBytes, long sentBytes) {
-    NetworkInterfaceStats interf = stats.get(interfaceName);
+  private void updateInterface(
+      ProcFileBuffer buffer, int nameStart, int nameEnd, long recievedBytes, long sentBytes) {
+    NetworkInterfaceStats interf = null;
+    for (int i = 0; i < stats.size(); i++) {
+      if (buffer.regionEquals(nameStart, nameEnd, stats.get(i).getName())) {
+        interf = stats.get(i);
+        break;
+      }
+    }
 
     if (interf == null) {
-      interf = new NetworkInterfaceStats(interfaceName);
-      stats.put(interfaceName, interf);
+      interf = new NetworkInterfaceStats(buffer.toString(nameStart, nameEnd));
+      stats.add(interf);
     }
     interf.newReceivedValue(recievedBytes);
     interf.newSentValue(sentBytes);
@@ -56,7 +87,7 @@ class LinuxGlobalNetworkStats extends TwoStepProcReader implements GlobalNetwork
   @Override
   public BigInteger getTotalWrite() {
     BigInteger accumulator = BigInteger.ZERO;
-    for (NetworkInterfaceStats stat : stats.values()) {
+    for (NetworkInterfaceStats stat : stats) {
       BigInteger sent = stat.getSent();
       if (sent != null) {
         accumulator = accumulator.add(sent);
@@ -69,7 +100,7 @@ class LinuxGlobalNetworkStats extends TwoStepProcReader implements GlobalNetwork
   @Override
   public BigInteger getTotalReceived() {
     BigInteger accumulator = BigInteger.ZERO;
-    for (NetworkInterfaceStats stat : stats.values()) {
+    for (NetworkInterfaceStats stat : stats) {
       BigInteger received = stat.getReceived();
       if (received != null) {
         accumulator = accumulator.add(received);
@@ -12,29 +12,28 @@ import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 
 /** Scrapes data from /proc/stat */
 public class LinuxKernelStats implements KernelStatsReader, TwoStepUpdatable, Closeable {
 
-  private static final int NOTHING_READ = -1;
-
-  private static final Charset PROC_CHARSET = StandardCharsets.US_ASCII;
   private static final String PROC_STAT = "/proc/stat";
 
+  public static final String CPU = "cpu";
   public static final String PROCS_RUNNING = "procs_running";
   public static final String PROCS_BLOCKED = "procs_blocked";
   public static final String CTXT = "ctxt";
 
-  private static final int PROCS_RUNNABLE_OFFSET = PROCS_RUNNING.length() + 1;
-  private static final int PROCS_BLOCKED_OFFSET = PROCS_BLOCKED.length() + 1;
-  private static final int CONTEXT_SWITCH_OFFSET = CTXT.length() + 1;
-  private int bufferSize = 1024 * 3;
+  // relative to the "cpu" key of the aggregate cpu line
+  private static final int USER_TIME_INDEX = 1;
+  private static final int SYSTEM_TIME_INDEX = 3;
+  private static final int IDLE_TIME_INDEX = 4;
+  private static final int WAIT_TIME_INDEX = 5;
+
+  private static final long NOT_FOUND = -1;
 
   private final RandomAccessFile procFile;
-  private byte[] buff;
-  private int amountRead = NOTHING_READ;
+  private final ProcFileBuffer buffer = new ProcFileBuffer();
+  private boolean polled;
 
   private final BigIncrementalCounter contextSwitches = new BigIncrementalCounter();
   private final BigIncrementalCounter userTime = new BigIncrementalCounter();
@@ -42,10 +41,6 @@ public class LinuxKernelStats implements KernelStatsReader, TwoStepUpdatable, Cl
   private final BigIncrementalCounter idleTime = new BigIncrementalCounter();
   private final BigIncrementalCounter waitTime = new BigIncrementalCounter();
 
-  private int procsRunnableLineOffset = 0;
-  private int procsBlockedLineOffset = 0;
-  private int ctxLineOffset = 0;
-
   private KernelCounters counters;
 
   public LinuxKernelStats() {
@@ -55,22 +50,11 @@ public class LinuxKernelStats implements KernelStatsReader, TwoStepUpdatable, Cl
   public LinuxKernelStats(String statFile) {
     try {
       procFile = new RandomAccessFile(statFile, "r");
-      generateBuffer();
-    } catch (FileNotFoundException | OperatingSystemInteractionException e) {
+    } catch (FileNotFoundException e) {
       throw new IllegalStateException(e);
     }
   }
 
-  private void generateBuffer() throws OperatingSystemInteractionException {
-    buff = new byte[bufferSize];
-    poll();
-    while (amountRead == bufferSize) {
-      bufferSize += 1024;
-      buff = new byte[bufferSize];
-      poll();
-    }
-  }
-
   @Override
   public KernelCounters getCounters() {
     return counters;
@@ -79,9 +63,10 @@ public class LinuxKernelStats implements KernelStatsReader, TwoStepUpdatable, Cl
   @Override
   public void poll() throws OperatingSystemInteractionException {
     try {
-      procFile.seek(0);
-      amountRead = procFile.read(buff);
+      buffer.read(procFile);
+      polled = true;
     } catch (IOException e) {
+      buffer.clear();
       throw new OperatingSystemInteractionException("Error reading kernel counters", e);
     }
   }
@@ -93,48 +78,44 @@ public class LinuxKernelStats implements KernelStatsReader, TwoStepUpdatable, Cl
 
   @Override
   public void update() throws OperatingSystemInteractionException {
-    if (amountRead != NOTHING_READ) {
-      String[] procStatContents = new String(buff, 0, amountRead, PROC_CHARSET).split("\n");
-
-      String[] cpuSplit = procStatContents[0].split(" ");
-      userTime.newValue(cpuSplit[2]);
-      // skip user niced
-      systemTime.newValue(cpuSplit[4]);
-      idleTime.newValue(cpuSplit[5]);
-      // TODO: optional
-      waitTime.newValue(cpuSplit[6]);
-
-      if (procsRunnableLineOffset == 0) {
-        procsRunnableLineOffset = lineIndexFor(procStatContents, PROCS_RUNNING);
-      }
-      if (procsBlockedLineOffset == 0) {
-        procsBlockedLineOffset = lineIndexFor(procStatContents, PROCS_BLOCKED);
-      }
-      if (ctxLineOffset == 0) {
-        ctxLineOffset = lineIndexFor(procStatContents, CTXT);
-      }
-
-      String contextSwitchString = procStatContents[ctxLineOffset];
-      contextSwitches.newValue(contextSwitchString.substring(CONTEXT_SWITCH_OFFSET));
-
-      String runnableString = procStatContents[procsRunnableLineOffset];
-      long procsRunnable = Long.parseLong(runnableString.substring(PROCS_RUNNABLE_OFFSET));
-      String blockedString = procStatContents[procsBlockedLineOffset];
-      long procsBlocked = Long.parseLong(blockedString.substring(PROCS_BLOCKED_OFFSET));
-
-      updateCounter(procsRunnable, procsBlocked);
-    } else {
+    if (!polled) {
       throw new OperatingSystemInteractionException("Must poll before parsing");
     }
-  }
 
-  @SuppressWarnings({"AvoidObjectArrays"})
-  public static int lineIndexFor(String[] procStatContents, String lineContents) {
-    int index = 0;
-    while (index < procStatContents.length && !procStatContents[index].contains(lineContents)) {
-      index++;
+    long procsRunnable = NOT_FOUND;
+    long procsBlocked = NOT_FOUND;
+
+    int length = buffer.length();
+    int start = 0;
+    while (start < length) {
+      int end = buffer.lineEnd(start);
+      int keyEnd = buffer.tokenEnd(start, end);
+
+      if (buffer.regionEquals(start, keyEnd, CPU)) {
+        // e.g. "cpu  10132153 290696 3084719 46828483 16683 0 25195 0 0 0"
+        int userStart = buffer.skipTokens(start, end, USER_TIME_INDEX);
+        int systemStart = buffer.skipTokens(userStart, end, SYSTEM_TIME_INDEX - USER_TIME_INDEX);
+        int idleStart = buffer.skipTokens(systemStart, end, IDLE_TIME_INDEX - SYSTEM_TIME_INDEX);
+        int waitStart = buffer.skipTokens(idleStart, end, WAIT_TIME_INDEX - IDLE_TIME_INDEX);
+
+        userTime.newValue(buffer.parseLong(userStart, end));
+        // skip user niced
+        systemTime.newValue(buffer.parseLong(systemStart, end));
+        idleTime.newValue(buffer.parseLong(idleStart, end));
+        // TODO: optional
+        waitTime.newValue(buffer.parseLong(waitStart, end));
+      } else if (buffer.regionEquals(start, keyEnd, CTXT)) {
+        contextSwitches.newValue(buffer.parseLong(buffer.skipWhitespace(keyEnd, end), end));
+      } else if (buffer.regionEquals(start, keyEnd, PROCS_RUNNING)) {
+        procsRunnable = buffer.parseLong(buffer.skipWhitespace(keyEnd, end), end);
+      } else if (buffer.regionEquals(start, keyEnd, PROCS_BLOCKED)) {
+        procsBlocked = buffer.parseLong(buffer.skipWhitespace(keyEnd, end), end);
+      }
+
+      start = end + 1;
     }
-    return index;
+
+    updateCounter(procsRunnable, procsBlocked);
   }
 
   private void updateCounter(long procsRunnable, long procsBlocked) {
@@ -9,13 +9,15 @@ import java.io.File;
 
 /** Reads memory usage info from /proc/meminfo */
 public class LinuxMemoryInfoReader extends TwoStepProcReader implements MemoryInfoReader {
-  private static final int MEMINFO_LINE_SUFFIX = " kB".length();
   private static final String MEMINFO = "/proc/meminfo";
 
-  private int totalInKbIndex = -1;
-  private int freeInKbIndex = -1;
-  private int virtualMemoryTotalInKbIndex = -1;
-  private int virtualMemoryUsedInKbIndex = -1;
+  private static final long NOT_FOUND = -1;
+
+  private long totalInKb;
+  private long freeInKb;
+  private long virtualMemoryTotalInKb;
+  private long virtualMemoryUsedInKb;
+
   private MemoryInfo memoryInfo =
       new MemoryInfo()
           .setTotalInKb(-1)
@@ -24,55 +26,54 @@ public class LinuxMemoryInfoReader extends TwoStepProcReader implements MemoryIn
           .setVirtualMemoryUsedInKb(-1);
 
   public LinuxMemoryInfoReader() {
-    super(new File(MEMINFO));
+    this(new File(MEMINFO));
   }
 
-  public MemoryInfo readMemoryInfo(String content) {
-    String[] lines = content.split("\n");
-
-    if (totalInKbIndex == -1) {
-      totalInKbIndex = LinuxKernelStats.lineIndexFor(lines, "MemTotal");
-    }
+  // visible for testing
+  LinuxMemoryInfoReader(File file) {
+    super(file);
+  }
 
-    if (freeInKbIndex == -1) {
-      freeInKbIndex = LinuxKernelStats.lineIndexFor(lines, "MemFree");
-    }
+  @Override
+  public void update() {
+    totalInKb = NOT_FOUND;
+    freeInKb = NOT_FOUND;
+    virtualMemoryTotalInKb = NOT_FOUND;
+    virtualMemoryUsedInKb = NOT_FOUND;
+
+    super.update();
+
+    this.memoryInfo =
+        new MemoryInfo()
+            .setTotalInKb(totalInKb)
+            .setFreeInKb(freeInKb)
+            .setVirtualMemoryTotalInKb(virtualMemoryTotalInKb)
+            .setVirtualMemoryUsedInKb(virtualMemoryUsedInKb);
+  }
 
-    if (virtualMemoryTotalInKbIndex == -1) {
-      virtualMemoryTotalInKbIndex = LinuxKernelStats.lineIndexFor(lines, "VmallocTotal");
+  @Override
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    // e.g. "MemTotal:       16318412 kB"
+    int keyEnd = buffer.indexOf(':', start, end);
+    if (keyEnd == -1) {
+      return;
     }
 
-    if (virtualMemoryUsedInKbIndex == -1) {
-      virtualMemoryUsedInKbIndex = LinuxKernelStats.lineIndexFor(lines, "VmallocUsed");
+    if (buffer.regionEquals(start, keyEnd, "MemTotal")) {
+      totalInKb = readMemoryNumber(buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "MemFree")) {
+      freeInKb = readMemoryNumber(buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "VmallocTotal")) {
+      virtualMemoryTotalInKb = readMemoryNumber(buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "VmallocUsed")) {
+      virtualMemoryUsedInKb = readMemoryNumber(buffer, keyEnd, end);
     }
-
-    long totalInKb = readMemoryNumber(lines[totalInKbIndex]);
-    long freeInKb = readMemoryNumber(lines[freeInKbIndex]);
-    long virtualMemoryTotalInKb = readMemoryNumber(lines[virtualMemoryTotalInKbIndex]);
-    long virtualMemoryUsedInKb = readMemoryNumber(lines[virtualMemoryUsedInKbIndex]);
-
-    return new MemoryInfo()
-        .setTotalInKb(totalInKb)
-        .setFreeInKb(freeInKb)
-        .setVirtualMemoryTotalInKb(virtualMemoryTotalInKb)
-        .setVirtualMemoryUsedInKb(virtualMemoryUsedInKb);
   }
 
-  private static long readMemoryNumber(String line) {
-    int start = line.indexOf(':') + 1;
-    int end = line.length() - MEMINFO_LINE_SUFFIX;
-    String number = line.substring(start, end).trim();
-    return Long.parseLong(number);
+  private static long readMemoryNumber(ProcFileBuffer buffer, int keyEnd, int end) {
+    return buffer.parseLong(buffer.skipWhitespace(keyEnd + 1, end), end);
   }
 
-  @Override
-  public void update() {
-    this.memoryInfo = readMemoryInfo(contents);
-  }
-
-  @Override
-  protected void parseLine(String line) {}
-
   @Override
   public MemoryInfo getMemoryInfo() {
     return memoryInfo;
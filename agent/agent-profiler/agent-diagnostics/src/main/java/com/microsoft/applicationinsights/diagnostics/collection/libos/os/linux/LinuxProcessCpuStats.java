@@ -45,53 +45,38 @@ public class LinuxProcessCpuStats extends TwoStepProcReader implements ProcessCp
 
   @Override
   public void update() {
-    updateProcessTimes(contents, contents.indexOf(')'));
-  }
-
-  private void updateProcessTimes(String contents, int nameEnd) {
-    String userTime = getVaule(contents, nameEnd, USER_TIME_OFFSET_FROM_NAME);
-    String systemTime = getVaule(contents, nameEnd, SYSTEM_TIME_OFFSET_FROM_NAME);
-    String priority = getVaule(contents, nameEnd, PRIORITY_OFFSET_FROM_NAME);
-    String nice = getVaule(contents, nameEnd, NICE_TIME_OFFSET_FROM_NAME);
-    String numThreads = getVaule(contents, nameEnd, NUM_THREADS_OFFSET_FROM_NAME);
-    String vmSize = getVaule(contents, nameEnd, VM_SIZE_OFFSET_FROM_NAME);
-    String rss = getVaule(contents, nameEnd, RSS_OFFSET_FROM_NAME);
-    String swapped = getVaule(contents, nameEnd, N_SWAPPED_OFFSET_FROM_NAME);
-
-    setValue(this.userTime, userTime);
-    setValue(this.systemTime, systemTime);
-    setValue(this.priority, priority);
-    setValue(this.nice, nice);
-    setValue(this.numThreads, numThreads);
-    setValue(this.vmSize, vmSize);
-    setValue(this.rss, rss);
-    setValue(this.swapped, swapped);
+    // the process name can contain spaces and parentheses, so the offsets are relative to the end
+    // of the name, e.g. "1234 (java) S 1 1234 1234 0 -1 4194560 45316 0 0 0 1283 302 0 0 20 0 ..."
+    int length = buffer.length();
+    int nameEnd = buffer.lastIndexOf(')', 0, length);
+    if (nameEnd == -1) {
+      return;
+    }
+    int end = buffer.lineEnd(nameEnd);
+
+    setValue(this.userTime, buffer, nameEnd, end, USER_TIME_OFFSET_FROM_NAME);
+    setValue(this.systemTime, buffer, nameEnd, end, SYSTEM_TIME_OFFSET_FROM_NAME);
+    setValue(this.priority, buffer, nameEnd, end, PRIORITY_OFFSET_FROM_NAME);
+    setValue(this.nice, buffer, nameEnd, end, NICE_TIME_OFFSET_FROM_NAME);
+    setValue(this.numThreads, buffer, nameEnd, end, NUM_THREADS_OFFSET_FROM_NAME);
+    setValue(this.vmSize, buffer, nameEnd, end, VM_SIZE_OFFSET_FROM_NAME);
+    setValue(this.rss, buffer, nameEnd, end, RSS_OFFSET_FROM_NAME);
+    setValue(this.swapped, buffer, nameEnd, end, N_SWAPPED_OFFSET_FROM_NAME);
   }
 
-  private static void setValue(BigIncrementalCounter userTime, String userTime1) {
+  private static void setValue(
+      BigIncrementalCounter counter, ProcFileBuffer buffer, int nameEnd, int end, int offset) {
+    // the name itself (i.e. the closing parenthesis) is the first token
+    int start = buffer.skipTokens(nameEnd, end, offset);
     try {
-      userTime.newValue(new BigInteger(userTime1));
+      counter.newValue(buffer.parseLong(start, end));
     } catch (NumberFormatException e) {
-      logger.trace("Failed to parse {}", userTime1);
-    }
-  }
-
-  private static String getVaule(String contents, int nameEnd, int index) {
-    int start = spaceOffset(contents, nameEnd, index) + 1;
-    int end = contents.indexOf(' ', start + 1);
-    return contents.substring(start, end);
-  }
-
-  private static int spaceOffset(String s, int fromIndex, int numberOfSpaces) {
-    int index;
-    for (index = fromIndex; numberOfSpaces > 0; numberOfSpaces--) {
-      index = s.indexOf(' ', index + 1);
+      logger.trace("Failed to parse {}", buffer.toString(start, buffer.tokenEnd(start, end)));
     }
-    return index;
   }
 
   @Override
-  protected void parseLine(String line) {}
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {}
 
   @Override
   public BigInteger getUserTime() {
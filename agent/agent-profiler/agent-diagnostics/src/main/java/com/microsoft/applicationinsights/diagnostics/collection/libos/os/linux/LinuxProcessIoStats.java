@@ -7,8 +7,6 @@ import com.microsoft.applicationinsights.diagnostics.collection.libos.BigIncreme
 import com.microsoft.applicationinsights.diagnostics.collection.libos.process.ProcessIoStats;
 import java.io.File;
 import java.math.BigInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,15 +14,6 @@ import org.slf4j.LoggerFactory;
 public class LinuxProcessIoStats extends TwoStepProcReader implements ProcessIoStats {
   private static final Logger logger = LoggerFactory.getLogger(LinuxProcessIoStats.class);
 
-  private static final Pattern IO_READ_PATTERN =
-      Pattern.compile("^rchar: (\\d+)$", Pattern.MULTILINE);
-  private static final Pattern IO_WRITE_PATTERN =
-      Pattern.compile("^wchar: (\\d+)$", Pattern.MULTILINE);
-  private static final Pattern DISK_READ_PATTERN =
-      Pattern.compile("^read_bytes: (\\d+)$", Pattern.MULTILINE);
-  private static final Pattern DISK_WRITE_PATTERN =
-      Pattern.compile("^write_bytes: (\\d+)$", Pattern.MULTILINE);
-
   protected final BigIncrementalCounter ioRead = new BigIncrementalCounter();
   protected final BigIncrementalCounter ioWrite = new BigIncrementalCounter();
   protected final BigIncrementalCounter diskRead = new BigIncrementalCounter();
@@ -47,32 +36,33 @@ public class LinuxProcessIoStats extends TwoStepProcReader implements ProcessIoS
     }
   }
 
-  private static boolean findBigIntegerValue(
-      Pattern pattern, String contents, BigIncrementalCounter counter) {
-    Matcher matcher = pattern.matcher(contents);
-    if (matcher.find()) {
-      try {
-        counter.newValue(new BigInteger(matcher.group(1)));
-      } catch (NumberFormatException e) {
-        logger.trace("Failed to parse {}", matcher.group(1));
-      }
-      return true;
-    }
-    return false;
-  }
-
   @Override
-  protected void parseLine(String line) {
-    if (findBigIntegerValue(DISK_WRITE_PATTERN, line, diskWrite)) {
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    // e.g. "write_bytes: 323932160"
+    int keyEnd = buffer.indexOf(':', start, end);
+    if (keyEnd == -1) {
       return;
     }
-    if (findBigIntegerValue(DISK_READ_PATTERN, line, diskRead)) {
-      return;
+
+    if (buffer.regionEquals(start, keyEnd, "write_bytes")) {
+      setValue(diskWrite, buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "read_bytes")) {
+      setValue(diskRead, buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "wchar")) {
+      setValue(ioWrite, buffer, keyEnd, end);
+    } else if (buffer.regionEquals(start, keyEnd, "rchar")) {
+      setValue(ioRead, buffer, keyEnd, end);
     }
-    if (findBigIntegerValue(IO_WRITE_PATTERN, line, ioWrite)) {
-      return;
+  }
+
+  private static void setValue(
+      BigIncrementalCounter counter, ProcFileBuffer buffer, int keyEnd, int end) {
+    int start = buffer.skipWhitespace(keyEnd + 1, end);
+    try {
+      counter.newValue(buffer.parseLong(start, end));
+    } catch (NumberFormatException e) {
+      logger.trace("Failed to parse {}", buffer.toString(start, end));
     }
-    findBigIntegerValue(IO_READ_PATTERN, line, ioRead);
   }
 
   @Override
@@ -3,8 +3,6 @@
 
 package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
 
-import static java.lang.Integer.parseInt;
-
 import com.microsoft.applicationinsights.diagnostics.collection.libos.net.TcpStats;
 import com.microsoft.applicationinsights.diagnostics.collection.libos.net.TcpStatsReader;
 import java.io.File;
@@ -14,13 +12,8 @@ import javax.annotation.concurrent.NotThreadSafe;
 @NotThreadSafe
 public class LinuxTcpStatsReader extends TwoStepProcReader implements TcpStatsReader {
 
-  private static final int RX_END = 54;
-  private static final int RX_START = 47;
-
-  private static final int TX_END = 45;
-  private static final int TX_START = 38;
-
-  private static final int AS_HEX = 16;
+  // e.g. "00000000:00000000", the transmit and receive queues in hexadecimal
+  private static final int QUEUES_INDEX = 4;
 
   private static final String PROC_FILE = "/proc/net/tcp";
 
@@ -30,19 +23,30 @@ public class LinuxTcpStatsReader extends TwoStepProcReader implements TcpStatsRe
   private long receivedQueue = 0;
 
   public LinuxTcpStatsReader() {
-    super(new File(PROC_FILE));
+    this(new File(PROC_FILE));
+  }
+
+  // visible for testing
+  LinuxTcpStatsReader(File file) {
+    super(file);
   }
 
   @Override
-  protected void parseLine(String line) {
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    // e.g. "   0: 0100007F:0CEA 00000000:0000 0A 00000000:00000000 00:00000000 00000000 ..."
+    int queuesStart = buffer.skipTokens(start, end, QUEUES_INDEX);
+    int queuesEnd = buffer.tokenEnd(queuesStart, end);
+    int separator = buffer.indexOf(':', queuesStart, queuesEnd);
+    if (separator == -1) {
+      // the header line
+      return;
+    }
     try {
-      if (line.contains("sl")) {
-        return;
-      }
-      transferredQueue += parseInt(line.substring(TX_START, TX_END), AS_HEX);
-      String received = line.substring(RX_START, RX_END);
-      receivedQueue += parseInt(received, AS_HEX);
-    } catch (RuntimeException e) {
+      long transferred = buffer.parseHexLong(queuesStart, separator);
+      long received = buffer.parseHexLong(separator + 1, queuesEnd);
+      transferredQueue += transferred;
+      receivedQueue += received;
+    } catch (NumberFormatException e) {
       // ignore
     }
   }
@@ -0,0 +1,229 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable buffer for the contents of a /proc (or cgroup) file, along with helpers to parse the
+ * lines, tokens and numbers in it directly from the bytes.
+ *
+ * <p>The buffer grows until the whole file fits (up to {@link #MAX_CAPACITY}), and is then reused
+ * for every subsequent read, so polling and parsing the same file doesn't allocate. Positions are
+ * passed around as {@code [start, end)} ranges of the buffer.
+ *
+ * <p>Not thread safe, each reader has its own buffer.
+ */
+public final class ProcFileBuffer {
+
+  private static final int INITIAL_CAPACITY = 1024 * 4;
+
+  // guards against reading unbounded amounts of data, e.g. /proc/net/tcp on a host with a huge
+  // number of connections
+  static final int MAX_CAPACITY = 1024 * 1024 * 16;
+
+  private byte[] bytes;
+  private int length;
+
+  public ProcFileBuffer() {
+    this(INITIAL_CAPACITY);
+  }
+
+  // visible for testing
+  ProcFileBuffer(int initialCapacity) {
+    bytes = new byte[initialCapacity];
+  }
+
+  /** Replaces the contents of the buffer with the whole contents of the file. */
+  public void read(File file) throws IOException {
+    try (RandomAccessFile resource = new RandomAccessFile(file, "r")) {
+      read(resource);
+    }
+  }
+
+  /** Replaces the contents of the buffer with the whole contents of the (already open) file. */
+  public void read(RandomAccessFile file) throws IOException {
+    length = 0;
+    file.seek(0);
+    while (true) {
+      if (length == bytes.length) {
+        if (length == MAX_CAPACITY) {
+          // only keep the complete lines, so that a truncated line isn't parsed as a valid one
+          length = lastIndexOf('\n', 0, length) + 1;
+          return;
+        }
+        byte[] grown = new byte[Math.min(bytes.length * 2, MAX_CAPACITY)];
+        System.arraycopy(bytes, 0, grown, 0, length);
+        bytes = grown;
+      }
+      int read = file.read(bytes, length, bytes.length - length);
+      if (read == -1) {
+        return;
+      }
+      length += read;
+    }
+  }
+
+  public void clear() {
+    length = 0;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  // visible for testing
+  int capacity() {
+    return bytes.length;
+  }
+
+  public byte byteAt(int index) {
+    return bytes[index];
+  }
+
+  /** Returns the end of the line that starts at {@code start}, excluding the line feed. */
+  public int lineEnd(int start) {
+    int end = indexOf('\n', start, length);
+    return end == -1 ? length : end;
+  }
+
+  public int indexOf(char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (bytes[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public int lastIndexOf(char c, int start, int end) {
+    for (int i = end - 1; i >= start; i--) {
+      if (bytes[i] == c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns the position of the first non whitespace character, or {@code end} if none. */
+  public int skipWhitespace(int start, int end) {
+    int i = start;
+    while (i < end && isWhitespace(bytes[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  /** Returns the position after the last non whitespace character, or {@code start} if none. */
+  public int trimEnd(int start, int end) {
+    int i = end;
+    while (i > start && isWhitespace(bytes[i - 1])) {
+      i--;
+    }
+    return i;
+  }
+
+  /** Returns the end of the token that starts at {@code start}. */
+  public int tokenEnd(int start, int end) {
+    int i = start;
+    while (i < end && !isWhitespace(bytes[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the start of the token that follows the first {@code count} tokens of the range, or
+   * {@code end} if there are not enough tokens. Tokens are separated by any amount of whitespace.
+   */
+  public int skipTokens(int start, int end, int count) {
+    int i = skipWhitespace(start, end);
+    for (int token = 0; token < count; token++) {
+      i = skipWhitespace(tokenEnd(i, end), end);
+    }
+    return i;
+  }
+
+  public boolean regionEquals(int start, int end, String ascii) {
+    return end - start == ascii.length() && regionStartsWith(start, end, ascii);
+  }
+
+  public boolean regionStartsWith(int start, int end, String ascii) {
+    if (end - start < ascii.length()) {
+      return false;
+    }
+    for (int i = 0; i < ascii.length(); i++) {
+      if (bytes[start + i] != ascii.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses the decimal number at the start of the range, stopping at the first character that
+   * isn't a digit.
+   *
+   * @throws NumberFormatException if the range doesn't start with a number, or the number doesn't
+   *     fit in a long
+   */
+  public long parseLong(int start, int end) {
+    boolean negative = start < end && bytes[start] == '-';
+    int i = negative ? start + 1 : start;
+    int digitsStart = i;
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = bytes[i] - '0';
+      if (digit < 0 || digit > 9) {
+        break;
+      }
+      if (value > (Long.MAX_VALUE - digit) / 10) {
+        throw new NumberFormatException("Number too large: " + toString(start, end));
+      }
+      value = value * 10 + digit;
+    }
+    if (i == digitsStart) {
+      throw new NumberFormatException("Not a number: " + toString(start, end));
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parses the hexadecimal number at the start of the range, stopping at the first character that
+   * isn't a hexadecimal digit.
+   *
+   * @throws NumberFormatException if the range doesn't start with a hexadecimal number, or the
+   *     number doesn't fit in a long
+   */
+  public long parseHexLong(int start, int end) {
+    long value = 0;
+    int i;
+    for (i = start; i < end; i++) {
+      int digit = Character.digit(bytes[i], 16);
+      if (digit == -1) {
+        break;
+      }
+      if (value > (Long.MAX_VALUE >> 4)) {
+        throw new NumberFormatException("Number too large: " + toString(start, end));
+      }
+      value = (value << 4) | digit;
+    }
+    if (i == start) {
+      throw new NumberFormatException("Not a number: " + toString(start, end));
+    }
+    return value;
+  }
+
+  /** Only meant for values that are kept around (e.g. names), as it allocates a new string. */
+  public String toString(int start, int end) {
+    return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
+  }
+}
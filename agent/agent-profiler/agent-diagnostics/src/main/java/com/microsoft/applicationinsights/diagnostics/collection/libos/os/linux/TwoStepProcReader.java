@@ -17,7 +17,7 @@ public abstract class TwoStepProcReader implements TwoStepUpdatable, Closeable {
   private static final Logger logger = LoggerFactory.getLogger(TwoStepProcReader.class);
 
   protected RandomAccessFile file;
-  protected String contents;
+  protected final ProcFileBuffer buffer = new ProcFileBuffer();
 
   TwoStepProcReader(String fileLocation) {
     this(new File(fileLocation));
@@ -38,7 +38,8 @@ public abstract class TwoStepProcReader implements TwoStepUpdatable, Closeable {
     }
   }
 
-  protected abstract void parseLine(String line);
+  /** Parses the {@code [start, end)} line of the buffer, which excludes the line feed. */
+  protected abstract void parseLine(ProcFileBuffer buffer, int start, int end);
 
   @Override
   public void close() throws IOException {
@@ -51,23 +52,29 @@ public abstract class TwoStepProcReader implements TwoStepUpdatable, Closeable {
   public void poll() {
     try {
       if (file != null) {
-        contents = Proc.read(file);
+        buffer.read(file);
       }
     } catch (IOException e) {
+      // so that a partially read file isn't parsed
+      buffer.clear();
       logger.error("Failed to read stats for file", e);
     }
   }
 
   @Override
   public void update() {
-    if (contents != null) {
-      String[] lines = contents.split("\n");
-      for (String line : lines) {
-        if (trim()) {
-          line = line.trim();
-        }
-        parseLine(line);
+    int length = buffer.length();
+    int start = 0;
+    while (start < length) {
+      int end = buffer.lineEnd(start);
+      int lineStart = start;
+      int lineEnd = end;
+      if (trim()) {
+        lineStart = buffer.skipWhitespace(lineStart, lineEnd);
+        lineEnd = buffer.trimEnd(lineStart, lineEnd);
       }
+      parseLine(buffer, lineStart, lineEnd);
+      start = end + 1;
     }
   }
 
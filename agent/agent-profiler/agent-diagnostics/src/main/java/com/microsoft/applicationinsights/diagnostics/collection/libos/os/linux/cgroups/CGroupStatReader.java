@@ -4,6 +4,7 @@
 package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.cgroups;
 
 import com.microsoft.applicationinsights.diagnostics.collection.libos.BigIncrementalCounter;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.ProcFileBuffer;
 import com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.TwoStepProcReader;
 import java.io.File;
 
@@ -13,11 +14,16 @@ public class CGroupStatReader extends TwoStepProcReader {
   private final BigIncrementalCounter system = new BigIncrementalCounter();
 
   public CGroupStatReader() {
-    super(new File("/sys/fs/cgroup/cpu,cpuacct/cpuacct.stat"), true);
+    this(new File("/sys/fs/cgroup/cpu,cpuacct/cpuacct.stat"));
+  }
+
+  // visible for testing
+  CGroupStatReader(File file) {
+    super(file, true);
   }
 
   @Override
-  protected void parseLine(String line) {
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
     /*
      Example contents:
      ```
@@ -25,14 +31,16 @@ public class CGroupStatReader extends TwoStepProcReader {
        system 127178
      ```
     */
-    String[] tokens = line.split(" ");
-
-    if (tokens.length == 2) {
-      if ("user".equals(tokens[0])) {
-        user.newValue(Long.parseLong(tokens[1]));
-      } else if ("system".equals(tokens[0])) {
-        system.newValue(Long.parseLong(tokens[1]));
-      }
+    int keyEnd = buffer.tokenEnd(start, end);
+    int valueStart = buffer.skipWhitespace(keyEnd, end);
+    if (valueStart == keyEnd || valueStart == end) {
+      return;
+    }
+
+    if (buffer.regionEquals(start, keyEnd, "user")) {
+      user.newValue(buffer.parseLong(valueStart, end));
+    } else if (buffer.regionEquals(start, keyEnd, "system")) {
+      system.newValue(buffer.parseLong(valueStart, end));
     }
   }
 
@@ -4,6 +4,7 @@
 package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.cgroups;
 
 import com.microsoft.applicationinsights.diagnostics.collection.libos.BigIncrementalCounter;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.ProcFileBuffer;
 import com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.TwoStepProcReader;
 import java.io.File;
 
@@ -12,13 +13,19 @@ public abstract class CGroupValueReader extends TwoStepProcReader {
   private final BigIncrementalCounter usage = new BigIncrementalCounter();
 
   public CGroupValueReader(String fileName) {
-    super(new File(fileName), true);
+    this(new File(fileName));
+  }
+
+  // visible for testing
+  CGroupValueReader(File file) {
+    super(file, true);
   }
 
   @Override
-  protected void parseLine(String line) {
-    long newUsage = Long.parseLong(line);
-    usage.newValue(newUsage);
+  protected void parseLine(ProcFileBuffer buffer, int start, int end) {
+    if (start < end) {
+      usage.newValue(buffer.parseLong(start, end));
+    }
   }
 
   public BigIncrementalCounter getUsage() {
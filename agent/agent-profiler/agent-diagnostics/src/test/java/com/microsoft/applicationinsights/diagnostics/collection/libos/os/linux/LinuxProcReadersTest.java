@@ -0,0 +1,138 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.diagnostics.collection.libos.OperatingSystemInteractionException;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.TwoStepUpdatable;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.hardware.MemoryInfo;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.kernel.KernelCounters;
+import com.microsoft.applicationinsights.diagnostics.collection.libos.net.TcpStats;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LinuxProcReadersTest {
+
+  @TempDir File temp;
+
+  @Test
+  void shouldReadKernelStats() throws Exception {
+    File file = copy("proc/stat");
+    try (LinuxKernelStats kernelStats = new LinuxKernelStats(file.getPath())) {
+      pollAndUpdate(kernelStats);
+      ProcFixtures.copy("proc/stat.next", file);
+      pollAndUpdate(kernelStats);
+
+      KernelCounters counters = kernelStats.getCounters();
+      assertThat(counters.getContextSwitches()).isEqualTo(5000);
+      // normalized to percentages of the 2000 ticks between the two reads
+      assertThat(counters.getUserTime()).isEqualTo(30);
+      assertThat(counters.getSystemTime()).isEqualTo(10);
+      assertThat(counters.getIdleTime()).isEqualTo(50);
+      assertThat(counters.getWaitTime()).isEqualTo(10);
+      assertThat(counters.getProcsRunnable()).isEqualTo(5);
+      assertThat(counters.getProcsBlocked()).isEqualTo(0);
+    }
+  }
+
+  @Test
+  void shouldReadMemoryInfo() throws Exception {
+    try (LinuxMemoryInfoReader reader =
+        new LinuxMemoryInfoReader(ProcFixtures.get("proc/meminfo"))) {
+      pollAndUpdate(reader);
+
+      MemoryInfo memoryInfo = reader.getMemoryInfo();
+      assertThat(memoryInfo.getTotalInKb()).isEqualTo(16318412);
+      assertThat(memoryInfo.getFreeInKb()).isEqualTo(954640);
+      assertThat(memoryInfo.getVirtualMemoryTotalInKb()).isEqualTo(34359738367L);
+      assertThat(memoryInfo.getVirtualMemoryUsedInKb()).isEqualTo(61234);
+    }
+  }
+
+  @Test
+  void shouldReadDiskStatsOfDisksOnly() throws Exception {
+    File file = copy("proc/diskstats");
+    try (LinuxGlobalDiskIoStats diskStats = new LinuxGlobalDiskIoStats(file)) {
+      pollAndUpdate(diskStats);
+      ProcFixtures.copy("proc/diskstats.next", file);
+      pollAndUpdate(diskStats);
+
+      // sda and nvme0n1, the loop devices, partitions and device mapper devices are left out
+      assertThat(diskStats.getTotalRead()).isEqualTo(110);
+      assertThat(diskStats.getTotalWrite()).isEqualTo(220);
+      assertThat(diskStats.getTotalIo()).isEqualTo(330);
+    }
+  }
+
+  @Test
+  void shouldReadNetworkStatsOfAllInterfaces() throws Exception {
+    // larger than the initial buffer, which used to truncate it
+    File file = copy("proc/net/dev");
+    try (LinuxGlobalNetworkStats networkStats = new LinuxGlobalNetworkStats(file)) {
+      pollAndUpdate(networkStats);
+      ProcFixtures.copy("proc/net/dev.next", file);
+      pollAndUpdate(networkStats);
+
+      // lo, eth0, docker0 and the 60 veth interfaces
+      assertThat(networkStats.getTotalReceived()).isEqualTo(BigInteger.valueOf(6700));
+      assertThat(networkStats.getTotalWrite()).isEqualTo(BigInteger.valueOf(5300));
+    }
+  }
+
+  @Test
+  void shouldReadTcpQueues() throws Exception {
+    try (LinuxTcpStatsReader reader = new LinuxTcpStatsReader(ProcFixtures.get("proc/net/tcp"))) {
+      pollAndUpdate(reader);
+
+      TcpStats tcpStats = reader.getTcpStats();
+      assertThat(tcpStats.getTotalTransferredQueuesSize()).isEqualTo(0x100);
+      assertThat(tcpStats.getTotalReceivedQueuesSize()).isEqualTo(0x1A);
+    }
+  }
+
+  @Test
+  void shouldReadProcessCpuStats() throws Exception {
+    try (LinuxProcessCpuStats cpuStats =
+        new LinuxProcessCpuStats(ProcFixtures.get("proc/1234"))) {
+      pollAndUpdate(cpuStats);
+
+      // the process name contains spaces and parentheses
+      assertThat(cpuStats.getPriority()).isEqualTo(BigInteger.valueOf(20));
+      assertThat(cpuStats.getNice()).isEqualTo(BigInteger.ZERO);
+      assertThat(cpuStats.getNumThreads()).isEqualTo(BigInteger.valueOf(42));
+      assertThat(cpuStats.getVmSize()).isEqualTo(BigInteger.valueOf(5368709120L));
+      assertThat(cpuStats.getRss()).isEqualTo(BigInteger.valueOf(131072));
+      assertThat(cpuStats.getSwapped()).isEqualTo(BigInteger.ZERO);
+    }
+  }
+
+  @Test
+  void shouldReadProcessIoStats() throws Exception {
+    try (LinuxProcessIoStats ioStats = new LinuxProcessIoStats(ProcFixtures.get("proc/1234"))) {
+      pollAndUpdate(ioStats);
+
+      assertThat(ioStats.ioRead.getValue()).isEqualTo(BigInteger.valueOf(323934931));
+      assertThat(ioStats.ioWrite.getValue()).isEqualTo(BigInteger.valueOf(323929600));
+      assertThat(ioStats.diskRead.getValue()).isEqualTo(BigInteger.valueOf(4096));
+      // not cancelled_write_bytes
+      assertThat(ioStats.diskWrite.getValue()).isEqualTo(BigInteger.valueOf(323932160));
+    }
+  }
+
+  private File copy(String fixture) throws IOException {
+    File file = new File(temp, new File(fixture).getName());
+    ProcFixtures.copy(fixture, file);
+    return file;
+  }
+
+  private static void pollAndUpdate(TwoStepUpdatable updatable)
+      throws OperatingSystemInteractionException {
+    updatable.poll();
+    updatable.update();
+  }
+}
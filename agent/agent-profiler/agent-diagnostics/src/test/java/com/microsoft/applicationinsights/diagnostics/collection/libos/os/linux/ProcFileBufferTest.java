@@ -0,0 +1,95 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProcFileBufferTest {
+
+  @TempDir File temp;
+
+  @Test
+  void shouldReadFilesLargerThanTheBuffer() throws Exception {
+    File file = ProcFixtures.get("proc/net/dev");
+    ProcFileBuffer buffer = new ProcFileBuffer(16);
+
+    buffer.read(file);
+
+    assertThat(buffer.length()).isEqualTo(file.length());
+    assertThat(buffer.toString(0, buffer.length()))
+        .isEqualTo(new String(Files.readAllBytes(file.toPath()), UTF_8));
+  }
+
+  @Test
+  void shouldReuseTheBufferOnceItFitsTheFile() throws Exception {
+    File file = write("first line\nsecond line\n");
+    ProcFileBuffer buffer = new ProcFileBuffer(4);
+
+    try (RandomAccessFile resource = new RandomAccessFile(file, "r")) {
+      buffer.read(resource);
+      int capacity = buffer.capacity();
+
+      Files.write(file.toPath(), "1\n".getBytes(UTF_8));
+      buffer.read(resource);
+
+      assertThat(buffer.capacity()).isEqualTo(capacity);
+      assertThat(buffer.toString(0, buffer.length())).isEqualTo("1\n");
+    }
+  }
+
+  @Test
+  void shouldSplitLinesAndTokens() throws Exception {
+    ProcFileBuffer buffer = read("cpu  10 20\t30\nctxt 5");
+
+    int end = buffer.lineEnd(0);
+    assertThat(buffer.toString(0, end)).isEqualTo("cpu  10 20\t30");
+    assertThat(buffer.regionEquals(0, buffer.tokenEnd(0, end), "cpu")).isTrue();
+    assertThat(buffer.parseLong(buffer.skipTokens(0, end, 1), end)).isEqualTo(10);
+    assertThat(buffer.parseLong(buffer.skipTokens(0, end, 3), end)).isEqualTo(30);
+    assertThat(buffer.skipTokens(0, end, 4)).isEqualTo(end);
+
+    // the last line doesn't have a line feed
+    assertThat(buffer.toString(end + 1, buffer.lineEnd(end + 1))).isEqualTo("ctxt 5");
+  }
+
+  @Test
+  void shouldParseNumbers() throws Exception {
+    ProcFileBuffer buffer = read("9223372036854775807 -42 0000001A:00000100 kB");
+
+    assertThat(buffer.parseLong(0, 19)).isEqualTo(Long.MAX_VALUE);
+    assertThat(buffer.parseLong(20, 23)).isEqualTo(-42);
+    assertThat(buffer.parseHexLong(24, 42)).isEqualTo(26);
+    assertThat(buffer.parseHexLong(33, 42)).isEqualTo(256);
+  }
+
+  @Test
+  void shouldRejectInvalidNumbers() throws Exception {
+    ProcFileBuffer buffer = read("max 18446744073709551615");
+
+    assertThatThrownBy(() -> buffer.parseLong(0, 3)).isInstanceOf(NumberFormatException.class);
+    assertThatThrownBy(() -> buffer.parseLong(4, buffer.length()))
+        .isInstanceOf(NumberFormatException.class);
+  }
+
+  private ProcFileBuffer read(String contents) throws IOException {
+    ProcFileBuffer buffer = new ProcFileBuffer();
+    buffer.read(write(contents));
+    return buffer;
+  }
+
+  private File write(String contents) throws IOException {
+    File file = new File(temp, "proc");
+    Files.write(file.toPath(), contents.getBytes(UTF_8));
+    return file;
+  }
+}
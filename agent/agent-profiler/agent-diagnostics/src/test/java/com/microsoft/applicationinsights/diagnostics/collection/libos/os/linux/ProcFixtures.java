@@ -0,0 +1,36 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+
+/** Files captured from /proc and /sys/fs/cgroup, see src/test/resources. */
+public final class ProcFixtures {
+
+  public static File get(String fixture) {
+    URL resource = ProcFixtures.class.getResource("/" + fixture);
+    if (resource == null) {
+      throw new IllegalArgumentException("Fixture not found: " + fixture);
+    }
+    try {
+      return new File(resource.toURI());
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Replaces the contents of the file with the fixture, in place, same as the kernel does for the
+   * files that are kept open by the readers.
+   */
+  public static void copy(String fixture, File file) throws IOException {
+    Files.write(file.toPath(), Files.readAllBytes(get(fixture).toPath()));
+  }
+
+  private ProcFixtures() {}
+}
@@ -0,0 +1,36 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.cgroups;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.diagnostics.collection.libos.os.linux.ProcFixtures;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+class CGroupReadersTest {
+
+  @Test
+  void shouldReadCpuStat() throws Exception {
+    try (CGroupStatReader reader = new CGroupStatReader(ProcFixtures.get("cgroup/cpuacct.stat"))) {
+      reader.poll();
+      reader.update();
+
+      assertThat(reader.getUser().getValue()).isEqualTo(BigInteger.valueOf(877968));
+      assertThat(reader.getSystem().getValue()).isEqualTo(BigInteger.valueOf(127178));
+    }
+  }
+
+  @Test
+  void shouldReadCpuUsage() throws Exception {
+    try (CGroupValueReader reader =
+        new CGroupValueReader(ProcFixtures.get("cgroup/cpuacct.usage")) {}) {
+      reader.poll();
+      reader.update();
+
+      assertThat(reader.getUsage().getValue()).isEqualTo(BigInteger.valueOf(10065427468394L));
+    }
+  }
+}
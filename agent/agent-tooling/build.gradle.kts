@@ -1,6 +1,7 @@
 plugins {
   id("ai.java-conventions")
   id("ai.sdk-version-file")
+  id("ai.jmh-conventions")
 }
 
 dependencies {
@@ -17,6 +18,8 @@ dependencies {
   implementation(project(":agent:agent-profiler:agent-alerting"))
   implementation(project(":agent:agent-gc-monitor:gc-monitor-api"))
   implementation(project(":agent:agent-gc-monitor:gc-monitor-core"))
+  // compiled for Java 14, so only loaded reflectively
+  runtimeOnly(project(":agent:agent-gc-monitor:gc-monitor-jfr"))
   implementation(project(":agent:agent-profiler:agent-diagnostics-api"))
   implementation(project(":agent:agent-profiler:agent-diagnostics"))
   implementation(project(":etw:java"))
@@ -85,6 +88,10 @@ dependencies {
   testImplementation("org.mockito:mockito-core")
 
   testCompileOnly("com.google.code.findbugs:jsr305")
+
+  jmh("io.opentelemetry:opentelemetry-sdk")
+  jmh("io.opentelemetry.javaagent:opentelemetry-javaagent-bootstrap")
+  jmh("com.azure:azure-core-test")
 }
 
 configurations.all {
@@ -0,0 +1,217 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.test.http.MockHttpResponse;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.LogDataMapper;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.SpanDataMapper;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryItemExporter;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryPipeline;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryPipelineListener;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.statsbeat.StatsbeatModule;
+import com.microsoft.applicationinsights.agent.internal.telemetry.BatchItemProcessor;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.logs.Logger;
+import io.opentelemetry.api.logs.Severity;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.LogRecordProcessor;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.export.BatchLogRecordProcessor;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import reactor.core.publisher.Mono;
+
+// compares the regular pipeline (OpenTelemetry SDK batch processor -> AgentSpanExporter /
+// AgentLogExporter -> BatchItemProcessor) with the direct pipeline (DirectSpanProcessor /
+// DirectLogRecordProcessor -> AgentSpanExporter / AgentLogExporter -> BatchItemProcessor)
+//
+// the primary score is the cost on the application thread, and the "exported" counter is how many
+// telemetry items made it all the way through the exporter. run with "-prof gc" to compare the
+// allocation rate of the two pipelines.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExportPipelineBenchmark {
+
+  private static final String CONNECTION_STRING =
+      "InstrumentationKey=00000000-0000-0000-0000-000000000000;"
+          + "IngestionEndpoint=http://localhost:1/";
+
+  private static final AttributeKey<String> HTTP_REQUEST_METHOD =
+      AttributeKey.stringKey("http.request.method");
+  private static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+  private static final AttributeKey<Long> HTTP_RESPONSE_STATUS_CODE =
+      AttributeKey.longKey("http.response.status_code");
+
+  private static final AtomicLong exportedItems = new AtomicLong();
+
+  static {
+    // the exporters check the active TelemetryClient, and it can only be set once per JVM
+    TelemetryClient.setActive(
+        TelemetryClient.builder()
+            .setCustomDimensions(new HashMap<>())
+            .setMetricFilters(new ArrayList<>())
+            .setStatsbeatModule(new StatsbeatModule(response -> {}))
+            .setConnectionStrings(CONNECTION_STRING)
+            .build());
+  }
+
+  @Param({"batch", "direct"})
+  public String pipeline;
+
+  private BatchItemProcessor batchItemProcessor;
+  private SdkTracerProvider tracerProvider;
+  private SdkLoggerProvider loggerProvider;
+  private Tracer tracer;
+  private Logger logger;
+
+  @Setup
+  public void setup() {
+    TelemetryPipeline telemetryPipeline =
+        new TelemetryPipeline(
+            new HttpPipelineBuilder()
+                .httpClient(request -> Mono.just(new MockHttpResponse(request, 200)))
+                .build(),
+            () -> {});
+    batchItemProcessor =
+        BatchItemProcessor.builder(new CountingExporter(telemetryPipeline))
+            .setMaxQueueSize(2048)
+            .setMaxExportBatchSize(512)
+            .setMaxPendingExports(100)
+            .build("general");
+
+    TelemetryClient telemetryClient = TelemetryClient.getActive();
+    SpanDataMapper spanDataMapper =
+        new SpanDataMapper(
+            false,
+            telemetryClient::populateDefaults,
+            (event, instrumentationName) -> false,
+            (span, event) -> false);
+    LogDataMapper logDataMapper =
+        new LogDataMapper(false, false, telemetryClient::populateDefaults);
+
+    AgentSpanExporter spanExporter =
+        new AgentSpanExporter(spanDataMapper, null, batchItemProcessor);
+    AgentLogExporter logExporter =
+        new AgentLogExporter(logDataMapper, null, null, batchItemProcessor);
+
+    SpanProcessor spanProcessor;
+    LogRecordProcessor logRecordProcessor;
+    if (pipeline.equals("direct")) {
+      spanProcessor = new DirectSpanProcessor(spanExporter);
+      logRecordProcessor = new DirectLogRecordProcessor(logExporter);
+    } else {
+      // same schedule delay that the agent configures for the regular pipeline
+      spanProcessor =
+          BatchSpanProcessor.builder(spanExporter)
+              .setScheduleDelay(100, TimeUnit.MILLISECONDS)
+              .build();
+      logRecordProcessor =
+          BatchLogRecordProcessor.builder(logExporter)
+              .setScheduleDelay(100, TimeUnit.MILLISECONDS)
+              .build();
+    }
+    tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build();
+    loggerProvider = SdkLoggerProvider.builder().addLogRecordProcessor(logRecordProcessor).build();
+    tracer = tracerProvider.get("benchmark");
+    logger = loggerProvider.get("benchmark");
+  }
+
+  @TearDown
+  public void tearDown() {
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    loggerProvider.shutdown().join(10, TimeUnit.SECONDS);
+    batchItemProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void span(ExportCounters counters) {
+    tracer
+        .spanBuilder("GET /api/orders")
+        .setSpanKind(SpanKind.SERVER)
+        .setAttribute(HTTP_REQUEST_METHOD, "GET")
+        .setAttribute(URL_PATH, "/api/orders")
+        .setAttribute(HTTP_RESPONSE_STATUS_CODE, 200L)
+        .startSpan()
+        .end();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void log(ExportCounters counters) {
+    logger
+        .logRecordBuilder()
+        .setSeverity(Severity.INFO)
+        .setBody("a log message that is roughly the size of a typical log message")
+        .emit();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ExportCounters {
+
+    // each thread reports its share of the items that were exported during the iteration, and
+    // jmh sums these up across all of the threads
+    public long exported;
+
+    private long exportedAtStart;
+    private int threads;
+
+    @Setup(Level.Iteration)
+    public void setup(BenchmarkParams params) {
+      threads = params.getThreads();
+      exportedAtStart = exportedItems.get();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      exported = (exportedItems.get() - exportedAtStart) / threads;
+    }
+  }
+
+  private static class CountingExporter extends TelemetryItemExporter {
+
+    private CountingExporter(TelemetryPipeline telemetryPipeline) {
+      super(telemetryPipeline, TelemetryPipelineListener.noop());
+    }
+
+    @Override
+    public CompletableResultCode send(List<TelemetryItem> telemetryItems) {
+      CompletableResultCode result = super.send(telemetryItems);
+      exportedItems.addAndGet(telemetryItems.size());
+      return result;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures the connection string / role name override lookup (which runs on every server request
+// start) with per-tenant path prefixes, as seen in multi-tenant gateways, comparing the prefix trie
+// with the previous linear startsWith() scan
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathPrefixTrieBenchmark {
+
+  @Param({"10", "1000"})
+  public int prefixCount;
+
+  private List<String> prefixes;
+  private PathPrefixTrie<String> trie;
+
+  // the common case: a request that doesn't match any of the prefixes
+  private String noMatch;
+  // matches the last configured prefix, the worst case for the linear scan
+  private String lastMatch;
+
+  @Setup
+  public void setup() {
+    prefixes = new ArrayList<>();
+    PathPrefixTrie.Builder<String> builder = PathPrefixTrie.builder();
+    for (int i = 0; i < prefixCount; i++) {
+      String prefix = "/tenants/tenant" + i + "/";
+      prefixes.add(prefix);
+      builder.add(prefix, prefix);
+    }
+    trie = builder.build();
+
+    noMatch = "/api/customers/42/orders";
+    lastMatch = "/tenants/tenant" + (prefixCount - 1) + "/api/customers/42/orders";
+  }
+
+  @Benchmark
+  public String trieNoMatch() {
+    return trie.getFirstMatch(noMatch);
+  }
+
+  @Benchmark
+  public String trieLastMatch() {
+    return trie.getFirstMatch(lastMatch);
+  }
+
+  @Benchmark
+  public String linearNoMatch() {
+    return linearScan(noMatch);
+  }
+
+  @Benchmark
+  public String linearLastMatch() {
+    return linearScan(lastMatch);
+  }
+
+  private String linearScan(String path) {
+    for (String prefix : prefixes) {
+      if (path.startsWith(prefix)) {
+        return prefix;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,131 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures fetching the configured attributes of a wildcard object name (once per collection
+// interval per object name), against a synthetic MBean server with thousands of beans, similar to
+// Kafka's per-topic beans, comparing the cached object names and bulk attribute reads with the
+// previous implementation (query the MBean server, then one getAttribute() per attribute per bean)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JmxDataFetcherBenchmark {
+
+  private static final String OBJECT_NAME = "kafka.server:type=BrokerTopicMetrics,topic=*";
+
+  @Param({"1000", "5000"})
+  public int beanCount;
+
+  private MBeanServer server;
+  private MBeanNameCache nameCache;
+  private List<JmxAttributeData> attributes;
+
+  @Setup
+  public void setup() throws Exception {
+    server = MBeanServerFactory.newMBeanServer();
+    // one in ten of the beans match the object name
+    for (int i = 0; i < beanCount; i++) {
+      String objectName =
+          i % 10 == 0
+              ? "kafka.server:type=BrokerTopicMetrics,topic=topic" + i
+              : "kafka.log:type=Log,name=Size,topic=topic" + i + ",partition=0";
+      server.registerMBean(new TopicMetrics(i), new ObjectName(objectName));
+    }
+    nameCache = new MBeanNameCache(server);
+
+    attributes = new ArrayList<>();
+    attributes.add(new JmxAttributeData("Messages In", "MessagesIn"));
+    attributes.add(new JmxAttributeData("Bytes In", "BytesIn"));
+    attributes.add(new JmxAttributeData("Bytes Out", "BytesOut"));
+    attributes.add(new JmxAttributeData("Failed Fetch Requests", "FailedFetchRequests"));
+    attributes.add(new JmxAttributeData("Failed Produce Requests", "FailedProduceRequests"));
+  }
+
+  @Benchmark
+  public JmxDataFetcher.AttributeValues cachedBulk() throws Exception {
+    return JmxDataFetcher.fetchAttributes(server, nameCache, OBJECT_NAME, attributes);
+  }
+
+  @Benchmark
+  public List<List<Object>> queryAndGetAttribute() throws Exception {
+    List<List<Object>> result = new ArrayList<>();
+    for (JmxAttributeData attribute : attributes) {
+      List<Object> values = new ArrayList<>();
+      for (ObjectName object : server.queryNames(new ObjectName(OBJECT_NAME), null)) {
+        values.add(server.getAttribute(object, attribute.attribute));
+      }
+      result.add(values);
+    }
+    return result;
+  }
+
+  @SuppressWarnings({"unused", "checkstyle:AbbreviationAsWordInName", "IdentifierName"})
+  // This interface name must end in MXBean (case sensitive)
+  public interface TopicMetricsMXBean {
+    long getMessagesIn();
+
+    long getBytesIn();
+
+    long getBytesOut();
+
+    long getFailedFetchRequests();
+
+    long getFailedProduceRequests();
+  }
+
+  public static class TopicMetrics implements TopicMetricsMXBean {
+
+    private final long value;
+
+    public TopicMetrics(long value) {
+      this.value = value;
+    }
+
+    @Override
+    public long getMessagesIn() {
+      return value;
+    }
+
+    @Override
+    public long getBytesIn() {
+      return value * 100;
+    }
+
+    @Override
+    public long getBytesOut() {
+      return value * 200;
+    }
+
+    @Override
+    public long getFailedFetchRequests() {
+      return 0;
+    }
+
+    @Override
+    public long getFailedProduceRequests() {
+      return 0;
+    }
+  }
+}
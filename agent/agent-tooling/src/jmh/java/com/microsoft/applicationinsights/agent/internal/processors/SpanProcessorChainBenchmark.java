@@ -0,0 +1,210 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.MatchType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.NameConfig;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorAction;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorActionType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorAttribute;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorIncludeExclude;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ToAttributeConfig;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// compares wrapping the exporter once per processor with the single pass SpanProcessorChain, using
+// 12 processors, which is a realistic upper end for the number of configured processors
+//
+// run with "-prof gc" and compare "gc.alloc.rate.norm", which is the number of bytes allocated per
+// span
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SpanProcessorChainBenchmark {
+
+  @Param({"nested", "chain"})
+  public String mode;
+
+  private SpanExporter spanExporter;
+  private List<SpanData> spans;
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    List<ProcessorConfig> configs = createConfigs();
+    SpanExporter delegate = new BlackholeSpanExporter(blackhole);
+    if (mode.equals("chain")) {
+      spanExporter = new ExporterWithSpanProcessorChain(configs, delegate);
+    } else {
+      // same as the agent used to wrap the exporter
+      spanExporter = delegate;
+      Collections.reverse(configs);
+      for (ProcessorConfig config : configs) {
+        if (config.type == ProcessorType.ATTRIBUTE) {
+          spanExporter = new SpanExporterWithAttributeProcessor(config, spanExporter);
+        } else {
+          spanExporter = new ExporterWithSpanProcessor(config, spanExporter);
+        }
+      }
+    }
+
+    SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+    ReadableSpan span =
+        (ReadableSpan)
+            tracerProvider
+                .get("benchmark")
+                .spanBuilder("GET /api/orders/{id}")
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("http.request.method", "GET")
+                .setAttribute("http.route", "/api/orders/{id}")
+                .setAttribute("url.path", "/api/v2/orders/12345")
+                .setAttribute("url.query", "token=abc&user=alice@example.com")
+                .setAttribute("http.response.status_code", 200L)
+                .setAttribute("enduser.id", "alice")
+                .setAttribute("client.address", "10.0.0.1")
+                .setAttribute("user_agent.original", "Mozilla/5.0")
+                .startSpan();
+    spans = Collections.singletonList(span.toSpanData());
+  }
+
+  @Benchmark
+  public CompletableResultCode export() {
+    return spanExporter.export(spans);
+  }
+
+  private static List<ProcessorConfig> createConfigs() {
+    List<ProcessorConfig> configs = new ArrayList<>();
+    configs.add(attributeProcessor(null, action("env", ProcessorActionType.INSERT, "prod")));
+    configs.add(attributeProcessor(null, action("region", ProcessorActionType.INSERT, "west")));
+    configs.add(
+        attributeProcessor(
+            strictInclude("http.request.method", "GET"),
+            new ProcessorAction(
+                "enduser.id", ProcessorActionType.UPDATE, null, "client.address", null, null)));
+    configs.add(attributeProcessor(null, action("client.address", ProcessorActionType.HASH, null)));
+    configs.add(
+        attributeProcessor(null, action("user_agent.original", ProcessorActionType.DELETE, null)));
+    configs.add(
+        attributeProcessor(
+            null,
+            new ProcessorAction(
+                "url.query",
+                ProcessorActionType.MASK,
+                null,
+                null,
+                "user=[^&]+",
+                "user=***")));
+    configs.add(
+        attributeProcessor(
+            null,
+            new ProcessorAction(
+                "url.path",
+                ProcessorActionType.EXTRACT,
+                null,
+                null,
+                "^/api/(?<apiVersion>v[0-9]+)/.*$",
+                null)));
+    configs.add(attributeProcessor(null, action("tenant", ProcessorActionType.INSERT, "contoso")));
+    configs.add(attributeProcessor(null, action("not.present", ProcessorActionType.DELETE, null)));
+    configs.add(
+        attributeProcessor(
+            strictInclude("env", "staging"), action("debug", ProcessorActionType.INSERT, "true")));
+    configs.add(spanProcessor(Arrays.asList("http.request.method", "http.route"), null));
+    configs.add(spanProcessor(null, Collections.singletonList("^GET /api/(?<resource>[^/]+)/")));
+    return configs;
+  }
+
+  private static ProcessorConfig attributeProcessor(
+      ProcessorIncludeExclude include, ProcessorAction action) {
+    ProcessorConfig config = new ProcessorConfig();
+    config.type = ProcessorType.ATTRIBUTE;
+    config.include = include;
+    config.actions = Collections.singletonList(action);
+    return config;
+  }
+
+  private static ProcessorConfig spanProcessor(
+      List<String> fromAttributes, List<String> toAttributeRules) {
+    ProcessorConfig config = new ProcessorConfig();
+    config.type = ProcessorType.SPAN;
+    config.name = new NameConfig();
+    if (fromAttributes != null) {
+      config.name.fromAttributes = fromAttributes;
+      config.name.separator = " ";
+    }
+    if (toAttributeRules != null) {
+      config.name.toAttributes = new ToAttributeConfig();
+      config.name.toAttributes.rules = toAttributeRules;
+    }
+    return config;
+  }
+
+  private static ProcessorAction action(String key, ProcessorActionType actionType, String value) {
+    return new ProcessorAction(key, actionType, value, null, null, null);
+  }
+
+  private static ProcessorIncludeExclude strictInclude(String key, String value) {
+    ProcessorAttribute attribute = new ProcessorAttribute();
+    attribute.key = key;
+    attribute.value = value;
+    ProcessorIncludeExclude include = new ProcessorIncludeExclude();
+    include.matchType = MatchType.STRICT;
+    include.attributes = Collections.singletonList(attribute);
+    return include;
+  }
+
+  private static class BlackholeSpanExporter implements SpanExporter {
+
+    private final Blackhole blackhole;
+
+    private BlackholeSpanExporter(Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+      for (SpanData span : spans) {
+        blackhole.consume(span.getName());
+        blackhole.consume(span.getAttributes());
+      }
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+      return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+      return CompletableResultCode.ofSuccess();
+    }
+  }
+}
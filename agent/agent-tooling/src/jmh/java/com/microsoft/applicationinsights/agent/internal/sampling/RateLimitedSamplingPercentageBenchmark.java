@@ -0,0 +1,54 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.sampling;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures the sampling decision hot path of StripedRateLimitedSamplingPercentage under contention
+//
+// run with "-prof gc" to see that it doesn't allocate
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitedSamplingPercentageBenchmark {
+
+  private SamplingPercentage samplingPercentage;
+
+  @Setup
+  public void setup() {
+    samplingPercentage = new StripedRateLimitedSamplingPercentage(5, 0.1);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public double threads1() {
+    return samplingPercentage.get();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public double threads8() {
+    return samplingPercentage.get();
+  }
+
+  @Benchmark
+  @Threads(64)
+  public double threads64() {
+    return samplingPercentage.get();
+  }
+}
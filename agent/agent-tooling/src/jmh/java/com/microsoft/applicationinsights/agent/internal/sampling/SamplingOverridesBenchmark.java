@@ -0,0 +1,138 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.sampling;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.MatchType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.SamplingOverride;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.SamplingOverrideAttribute;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.semconv.HttpAttributes;
+import io.opentelemetry.semconv.UrlAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// measures SamplingOverrides.getOverride (which runs on every span start) with override sets
+// similar to the ones seen in practice: mostly strict matches on http.route, plus a few regexp
+// matches on url.path for health checks, and a few strict matches on db.system / thread.name
+//
+// to compare with the previous (linear) implementation, run the same benchmark on the previous
+// version of SamplingOverrides
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplingOverridesBenchmark {
+
+  @Param({"10", "40"})
+  public int overrideCount;
+
+  private SamplingOverrides samplingOverrides;
+
+  // the common case: a request that doesn't match any of the overrides
+  private Attributes noMatch;
+  // matches the last http.route override
+  private Attributes routeMatch;
+  // matches one of the health check overrides
+  private Attributes healthCheckMatch;
+
+  @Setup
+  public void setup() {
+    List<SamplingOverride> overrides = createOverrides();
+    samplingOverrides = new SamplingOverrides(overrides.subList(0, overrideCount));
+
+    noMatch = request("/api/customers/{id}", "/api/customers/42", "expand=orders");
+    routeMatch = request("/api/items" + (overrideCount / 2 - 1) + "/{id}", "/api/items/7", null);
+    healthCheckMatch = request(null, "/health/live", null);
+  }
+
+  @Benchmark
+  public AiFixedPercentageSampler noMatch() {
+    return samplingOverrides.getOverride(noMatch);
+  }
+
+  @Benchmark
+  public AiFixedPercentageSampler routeMatch() {
+    return samplingOverrides.getOverride(routeMatch);
+  }
+
+  @Benchmark
+  public AiFixedPercentageSampler healthCheckMatch() {
+    return samplingOverrides.getOverride(healthCheckMatch);
+  }
+
+  // every other override is a http.route override, so that both override counts have the same mix
+  private static List<SamplingOverride> createOverrides() {
+    List<SamplingOverride> others = new ArrayList<>();
+    others.add(override(regexp("url.path", "/health.*")));
+    others.add(override(regexp("url.path", "/ready.*")));
+    others.add(override(strict("db.system", "redis")));
+    others.add(override(strict("thread.name", "scheduler-1")));
+    others.add(override(regexp("url.path", "/metrics")));
+    others.add(override(strict("db.system", "mongodb"), strict("db.name", "audit")));
+    others.add(override(regexp("url.full", "https://login\\.example\\.com/.*")));
+    others.add(override(regexp("url.path", "/favicon\\.ico")));
+    others.add(override(strict("http.request.method", "OPTIONS")));
+    others.add(override(strict("db.system", "postgresql"), regexp("db.statement", "SELECT 1")));
+    while (others.size() < 20) {
+      others.add(override(regexp("url.path", "/static/" + others.size() + "/.*")));
+    }
+
+    List<SamplingOverride> overrides = new ArrayList<>();
+    for (int i = 0; i < others.size(); i++) {
+      overrides.add(others.get(i));
+      overrides.add(override(strict("http.route", "/api/items" + i + "/{id}")));
+    }
+    return overrides;
+  }
+
+  private static Attributes request(String route, String path, String query) {
+    return Attributes.builder()
+        .put(HttpAttributes.HTTP_REQUEST_METHOD, "GET")
+        .put(HttpAttributes.HTTP_ROUTE, route)
+        .put(UrlAttributes.URL_SCHEME, "https")
+        .put(UrlAttributes.URL_PATH, path)
+        .put(UrlAttributes.URL_QUERY, query)
+        .put("server.address", "example.com")
+        .put("user_agent.original", "Mozilla/5.0")
+        .build();
+  }
+
+  private static SamplingOverride override(SamplingOverrideAttribute... attributes) {
+    SamplingOverride override = new SamplingOverride();
+    override.attributes = Arrays.asList(attributes);
+    override.percentage = 10.0;
+    return override;
+  }
+
+  private static SamplingOverrideAttribute strict(String key, String value) {
+    return attribute(key, value, MatchType.STRICT);
+  }
+
+  private static SamplingOverrideAttribute regexp(String key, String value) {
+    return attribute(key, value, MatchType.REGEXP);
+  }
+
+  private static SamplingOverrideAttribute attribute(String key, String value, MatchType type) {
+    SamplingOverrideAttribute attribute = new SamplingOverrideAttribute();
+    attribute.key = key;
+    attribute.value = value;
+    attribute.matchType = type;
+    return attribute;
+  }
+}
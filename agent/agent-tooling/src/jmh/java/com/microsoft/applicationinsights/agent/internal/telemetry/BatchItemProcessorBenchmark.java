@@ -0,0 +1,141 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.telemetry;
+
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.test.http.MockHttpResponse;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.builders.MessageTelemetryBuilder;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.configuration.ConnectionString;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryItemExporter;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryPipeline;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryPipelineListener;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import reactor.core.publisher.Mono;
+
+// measures how many items per second make it all the way through the exporter (as opposed to
+// being dropped because the queue is full), which is what the shard count is meant to scale
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchItemProcessorBenchmark {
+
+  private static final AtomicLong exportedItems = new AtomicLong();
+
+  @Param({"1", "2", "4", "8"})
+  public int shardCount;
+
+  private BatchItemProcessor batchItemProcessor;
+  private TelemetryItem telemetryItem;
+
+  @Setup
+  public void setup() {
+    TelemetryPipeline telemetryPipeline =
+        new TelemetryPipeline(
+            new HttpPipelineBuilder()
+                .httpClient(request -> Mono.just(new MockHttpResponse(request, 200)))
+                .build(),
+            () -> {});
+    batchItemProcessor =
+        BatchItemProcessor.builder(new CountingExporter(telemetryPipeline))
+            .setMaxQueueSize(2048)
+            .setMaxExportBatchSize(512)
+            .setMaxPendingExports(100)
+            .setShardCount(shardCount)
+            .build("general");
+
+    MessageTelemetryBuilder builder = MessageTelemetryBuilder.create();
+    builder.setConnectionString(
+        ConnectionString.parse(
+            "InstrumentationKey=00000000-0000-0000-0000-000000000000;"
+                + "IngestionEndpoint=http://localhost:1/"));
+    builder.setMessage("a log message that is roughly the size of a typical log message");
+    builder.setTime(OffsetDateTime.now());
+    telemetryItem = builder.build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    batchItemProcessor.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void trackAsync_1Thread(ExportCounters counters) {
+    batchItemProcessor.trackAsync(telemetryItem);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void trackAsync_8Threads(ExportCounters counters) {
+    batchItemProcessor.trackAsync(telemetryItem);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void trackAsync_32Threads(ExportCounters counters) {
+    batchItemProcessor.trackAsync(telemetryItem);
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ExportCounters {
+
+    // each thread reports its share of the items that were exported during the iteration, and
+    // jmh sums these up across all of the threads
+    public long exported;
+
+    private long exportedAtStart;
+    private int threads;
+
+    @Setup(Level.Iteration)
+    public void setup(BenchmarkParams params) {
+      threads = params.getThreads();
+      exportedAtStart = exportedItems.get();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      exported = (exportedItems.get() - exportedAtStart) / threads;
+    }
+  }
+
+  private static class CountingExporter extends TelemetryItemExporter {
+
+    private CountingExporter(TelemetryPipeline telemetryPipeline) {
+      super(telemetryPipeline, TelemetryPipelineListener.noop());
+    }
+
+    @Override
+    public CompletableResultCode send(List<TelemetryItem> telemetryItems) {
+      // this still serializes the items, since that is a big part of the worker thread's cost
+      CompletableResultCode result = super.send(telemetryItems);
+      exportedItems.addAndGet(telemetryItems.size());
+      return result;
+    }
+  }
+}
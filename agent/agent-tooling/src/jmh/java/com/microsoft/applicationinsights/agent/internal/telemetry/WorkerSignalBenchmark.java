@@ -0,0 +1,150 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.telemetry;
+
+import io.opentelemetry.internal.shaded.jctools.queues.MpscArrayQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// compares the hand-off between the writer threads and the BatchItemProcessor worker thread, using
+// the previous ArrayBlockingQueue based signal vs the current park/unpark based signal
+//
+// the "*Enqueue" results are the writer side (throughput and sampled latency of a single enqueue),
+// and the "*Await" results are the worker side (number of worker wake-ups)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WorkerSignalBenchmark {
+
+  private static final int QUEUE_SIZE = 2048;
+  private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private static final Object ITEM = new Object();
+
+  @Benchmark
+  @Group("blockingQueue")
+  @GroupThreads(8)
+  public boolean blockingQueueEnqueue(BlockingQueueHandoff handoff) {
+    return handoff.enqueue(ITEM);
+  }
+
+  @Benchmark
+  @Group("blockingQueue")
+  @GroupThreads(1)
+  public int blockingQueueAwait(BlockingQueueHandoff handoff) throws InterruptedException {
+    return handoff.await();
+  }
+
+  @Benchmark
+  @Group("parkUnpark")
+  @GroupThreads(8)
+  public boolean parkUnparkEnqueue(ParkUnparkHandoff handoff) {
+    return handoff.enqueue(ITEM);
+  }
+
+  @Benchmark
+  @Group("parkUnpark")
+  @GroupThreads(1)
+  public int parkUnparkAwait(ParkUnparkHandoff handoff) {
+    return handoff.await();
+  }
+
+  public abstract static class Handoff {
+
+    // how many items the worker waits for before it wants to be woken up, lower values mean
+    // that the writer threads need to signal the worker more often
+    @Param({"1", "512"})
+    public int itemsNeededBeforeSignal;
+
+    final MpscArrayQueue<Object> queue = new MpscArrayQueue<>(QUEUE_SIZE);
+    final AtomicInteger itemsNeeded = new AtomicInteger(Integer.MAX_VALUE);
+
+    boolean enqueue(Object item) {
+      if (!queue.offer(item)) {
+        return false;
+      }
+      if (queue.size() >= itemsNeeded.get()) {
+        signal();
+      }
+      return true;
+    }
+
+    int drain() {
+      int drained = 0;
+      while (queue.poll() != null) {
+        drained++;
+      }
+      return drained;
+    }
+
+    abstract void signal();
+  }
+
+  @State(Scope.Group)
+  public static class BlockingQueueHandoff extends Handoff {
+
+    private BlockingQueue<Boolean> signal;
+
+    @Setup
+    public void setup() {
+      signal = new ArrayBlockingQueue<>(1);
+    }
+
+    @Override
+    void signal() {
+      signal.offer(true);
+    }
+
+    int await() throws InterruptedException {
+      itemsNeeded.set(itemsNeededBeforeSignal);
+      signal.poll(MAX_WAIT_NANOS, TimeUnit.NANOSECONDS);
+      itemsNeeded.set(Integer.MAX_VALUE);
+      return drain();
+    }
+  }
+
+  @State(Scope.Group)
+  public static class ParkUnparkHandoff extends Handoff {
+
+    private final AtomicReference<Thread> waiter = new AtomicReference<>();
+
+    @Override
+    void signal() {
+      Thread thread = waiter.get();
+      if (thread != null && waiter.compareAndSet(thread, null)) {
+        LockSupport.unpark(thread);
+      }
+    }
+
+    int await() {
+      itemsNeeded.set(itemsNeededBeforeSignal);
+      waiter.set(Thread.currentThread());
+      if (queue.size() < itemsNeededBeforeSignal) {
+        LockSupport.parkNanos(this, MAX_WAIT_NANOS);
+      }
+      waiter.set(null);
+      itemsNeeded.set(Integer.MAX_VALUE);
+      return drain();
+    }
+  }
+}
@@ -28,7 +28,6 @@ import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.Format
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.FormattedTime;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.Strings;
 import com.microsoft.applicationinsights.agent.bootstrap.BytecodeUtil.BytecodeUtilDelegate;
-import com.microsoft.applicationinsights.agent.internal.init.RuntimeConfiguration;
 import com.microsoft.applicationinsights.agent.internal.init.RuntimeConfigurator;
 import com.microsoft.applicationinsights.agent.internal.legacyheaders.AiLegacyPropagator;
 import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
@@ -37,6 +36,7 @@ import io.opentelemetry.api.trace.SpanContext;
 import io.opentelemetry.sdk.trace.ReadableSpan;
 import java.net.URI;
 import java.net.URL;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -59,6 +59,9 @@ public class BytecodeUtilImpl implements BytecodeUtilDelegate {
 
   public static volatile RuntimeConfigurator runtimeConfigurator;
   public static volatile boolean connectionStringConfiguredAtRuntime;
+
+  // null unless the "classicSdkMetricPreAggregation" preview option is enabled
+  @Nullable public static volatile MetricPreAggregator metricPreAggregator;
   private static final AtomicBoolean showConnectionStringInfoMessage = new AtomicBoolean(true);
 
   @Override
@@ -81,9 +84,8 @@ public class BytecodeUtilImpl implements BytecodeUtilDelegate {
     }
 
     if (runtimeConfigurator != null) {
-      RuntimeConfiguration runtimeConfig = runtimeConfigurator.getCurrentConfigCopy();
-      runtimeConfig.connectionString = connectionString;
-      runtimeConfigurator.apply(runtimeConfig);
+      runtimeConfigurator.update(
+          runtimeConfig -> runtimeConfig.connectionString = connectionString);
     }
   }
 
@@ -140,6 +142,125 @@ public class BytecodeUtilImpl implements BytecodeUtilDelegate {
     if (Strings.isNullOrEmpty(name)) {
       return;
     }
+
+    MetricPreAggregator metricPreAggregator = BytecodeUtilImpl.metricPreAggregator;
+    if (metricPreAggregator != null
+        && timestamp == null
+        && count == null
+        && min == null
+        && max == null
+        && stdDev == null
+        && connectionString == null
+        && instrumentationKey == null
+        && metricPreAggregator.record(name, namespace, value, properties, tags)) {
+      // only single measurements are aggregated, metrics that are already aggregated or that need
+      // their own timestamp or connection string (or that are over the max number of series for
+      // their name) are sent as is
+      return;
+    }
+
+    trackMetricPoint(
+        timestamp,
+        name,
+        namespace,
+        value,
+        count,
+        min,
+        max,
+        stdDev,
+        properties,
+        tags,
+        connectionString,
+        instrumentationKey);
+  }
+
+  @Override
+  public void trackMicrometerMetric(
+      String name,
+      @Nullable String namespace,
+      double value,
+      @Nullable Integer count,
+      @Nullable Double min,
+      @Nullable Double max,
+      Map<String, String> properties) {
+
+    if (Strings.isNullOrEmpty(name)) {
+      return;
+    }
+
+    trackMetricPoint(
+        null,
+        name,
+        namespace,
+        value,
+        count,
+        min,
+        max,
+        null,
+        properties,
+        Collections.emptyMap(),
+        null,
+        null);
+  }
+
+  @SuppressWarnings("TooManyParameters")
+  static void trackAggregatedMetric(
+      String name,
+      @Nullable String namespace,
+      double value,
+      int count,
+      double min,
+      double max,
+      double stdDev,
+      Map<String, String> properties,
+      Map<String, String> tags) {
+    if (count == 1) {
+      // same as if it had not been aggregated
+      trackMetricPoint(
+          null,
+          name,
+          namespace,
+          value,
+          null,
+          null,
+          null,
+          null,
+          properties,
+          tags,
+          null,
+          null);
+    } else {
+      trackMetricPoint(
+          null,
+          name,
+          namespace,
+          value,
+          count,
+          min,
+          max,
+          stdDev,
+          properties,
+          tags,
+          null,
+          null);
+    }
+  }
+
+  @SuppressWarnings("TooManyParameters")
+  private static void trackMetricPoint(
+      @Nullable Date timestamp,
+      String name,
+      @Nullable String namespace,
+      double value,
+      @Nullable Integer count,
+      @Nullable Double min,
+      @Nullable Double max,
+      @Nullable Double stdDev,
+      Map<String, String> properties,
+      Map<String, String> tags,
+      @Nullable String connectionString,
+      @Nullable String instrumentationKey) {
+
     MetricTelemetryBuilder telemetryBuilder =
         TelemetryClient.getActive().newMetricTelemetryBuilder();
 
@@ -0,0 +1,241 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.classicsdk;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.ThreadPoolUtils;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// aggregates the TelemetryClient.trackMetric() calls from the 2.x SDK, so that code which calls it
+// in a hot loop doesn't flood the metrics export queue with one telemetry item per call
+//
+// each series (name, namespace, properties and tags) has its own lock, so calls for different
+// series don't contend with each other, and the series map itself is a ConcurrentHashMap
+//
+// the number of series is capped per metric name (same as the 2.x SDK), so that calls with a high
+// cardinality property (e.g. a request id) don't create a series per call, those calls are instead
+// sent as is by the caller
+public final class MetricPreAggregator {
+
+  private static final Logger logger = LoggerFactory.getLogger(MetricPreAggregator.class);
+
+  static final int DEFAULT_MAX_SERIES_PER_NAME = 1000;
+
+  private final ConcurrentMap<SeriesKey, Series> series = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicInteger> seriesCountPerName = new ConcurrentHashMap<>();
+  private final Emitter emitter;
+  private final int maxSeriesPerName;
+  private final AtomicBoolean alreadyLoggedMaxSeries = new AtomicBoolean();
+
+  public static MetricPreAggregator start(long intervalSeconds) {
+    MetricPreAggregator aggregator =
+        new MetricPreAggregator(
+            BytecodeUtilImpl::trackAggregatedMetric, DEFAULT_MAX_SERIES_PER_NAME);
+    ScheduledExecutorService scheduledExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadPoolUtils.createDaemonThreadFactory(MetricPreAggregator.class));
+    scheduledExecutor.scheduleWithFixedDelay(
+        aggregator::flushSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    return aggregator;
+  }
+
+  // visible for testing
+  MetricPreAggregator(Emitter emitter, int maxSeriesPerName) {
+    this.emitter = emitter;
+    this.maxSeriesPerName = maxSeriesPerName;
+  }
+
+  // returns false if the value was not recorded, because its metric name already has the max
+  // number of series, in which case the caller should send it as is
+  boolean record(
+      String name,
+      @Nullable String namespace,
+      double value,
+      Map<String, String> properties,
+      Map<String, String> tags) {
+    SeriesKey lookupKey = new SeriesKey(name, namespace, properties, tags);
+    while (true) {
+      Series current = series.get(lookupKey);
+      if (current == null) {
+        AtomicInteger seriesCount =
+            seriesCountPerName.computeIfAbsent(name, k -> new AtomicInteger());
+        if (seriesCount.incrementAndGet() > maxSeriesPerName) {
+          seriesCount.decrementAndGet();
+          logMaxSeriesHit(name);
+          return false;
+        }
+        // copy the maps, since the caller may reuse them
+        SeriesKey key =
+            new SeriesKey(name, namespace, new HashMap<>(properties), new HashMap<>(tags));
+        Series newSeries = new Series(key);
+        current = series.putIfAbsent(key, newSeries);
+        if (current == null) {
+          current = newSeries;
+        } else {
+          // another thread created the same series in the meantime
+          seriesCount.decrementAndGet();
+        }
+      }
+      if (current.record(value)) {
+        return true;
+      }
+      // the series was removed by a concurrent flush, retry with a new series
+    }
+  }
+
+  public void flush() {
+    for (Series current : series.values()) {
+      if (!current.flush(emitter) && series.remove(current.key, current)) {
+        seriesCountPerName.get(current.key.name).decrementAndGet();
+      }
+    }
+  }
+
+  private void logMaxSeriesHit(String name) {
+    if (!alreadyLoggedMaxSeries.getAndSet(true)) {
+      logger.warn(
+          "Metric '{}' has more than {} distinct combinations of namespace, properties and tags"
+              + " in the current interval, the calls over that limit are sent without being"
+              + " pre-aggregated",
+          name,
+          maxSeriesPerName);
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      logger.error("Error flushing pre-aggregated metrics: {}", e.getMessage(), e);
+    }
+  }
+
+  interface Emitter {
+    // value is the sum of all of the recorded values
+    @SuppressWarnings("TooManyParameters")
+    void emit(
+        String name,
+        @Nullable String namespace,
+        double value,
+        int count,
+        double min,
+        double max,
+        double stdDev,
+        Map<String, String> properties,
+        Map<String, String> tags);
+  }
+
+  private static final class SeriesKey {
+    private final String name;
+    @Nullable private final String namespace;
+    private final Map<String, String> properties;
+    private final Map<String, String> tags;
+    private final int hashCode;
+
+    private SeriesKey(
+        String name,
+        @Nullable String namespace,
+        Map<String, String> properties,
+        Map<String, String> tags) {
+      this.name = name;
+      this.namespace = namespace;
+      this.properties = properties;
+      this.tags = tags;
+      hashCode = Objects.hash(name, namespace, properties, tags);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof SeriesKey)) {
+        return false;
+      }
+      SeriesKey other = (SeriesKey) obj;
+      return name.equals(other.name)
+          && Objects.equals(namespace, other.namespace)
+          && properties.equals(other.properties)
+          && tags.equals(other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Series {
+    private final SeriesKey key;
+
+    // all guarded by this
+    private int count;
+    private double sum;
+    private double sumOfSquares;
+    private double min;
+    private double max;
+    private boolean removed;
+
+    private Series(SeriesKey key) {
+      this.key = key;
+    }
+
+    private synchronized boolean record(double value) {
+      if (removed) {
+        return false;
+      }
+      if (count == 0 || value < min) {
+        min = value;
+      }
+      if (count == 0 || value > max) {
+        max = value;
+      }
+      count++;
+      sum += value;
+      sumOfSquares += value * value;
+      return true;
+    }
+
+    // returns false if nothing was recorded during the whole interval, in which case the series is
+    // marked as removed, and needs to be removed from the series map
+    private boolean flush(Emitter emitter) {
+      int count;
+      double sum;
+      double sumOfSquares;
+      double min;
+      double max;
+      synchronized (this) {
+        if (this.count == 0) {
+          // nothing recorded during the whole interval, so stop tracking this series
+          removed = true;
+          return false;
+        }
+        count = this.count;
+        sum = this.sum;
+        sumOfSquares = this.sumOfSquares;
+        min = this.min;
+        max = this.max;
+        this.count = 0;
+        this.sum = 0;
+        this.sumOfSquares = 0;
+      }
+      double mean = sum / count;
+      double stdDev = Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+      emitter.emit(
+          key.name, key.namespace, sum, count, min, max, stdDev, key.properties, key.tags);
+      return true;
+    }
+  }
+}
@@ -9,6 +9,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.PropertyHelper;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.microsoft.applicationinsights.agent.internal.common.FriendlyException;
 import com.microsoft.applicationinsights.agent.internal.diagnostics.DiagnosticsHelper;
@@ -17,6 +18,7 @@ import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.logs.Severity;
 import io.opentelemetry.semconv.HttpAttributes;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -59,6 +61,9 @@ public class Configuration {
   // this is just here to detect if using old format in order to give a helpful error message
   public Map<String, Object> instrumentationSettings;
 
+  // the configuration file that this configuration was loaded from (if any)
+  @JsonIgnore @Nullable public Path configPath;
+
   private static boolean isEmpty(@Nullable String str) {
     return str == null || str.trim().isEmpty();
   }
@@ -212,6 +217,10 @@ public class Configuration {
     public String name;
     public String objectName;
     public String attribute;
+    // object name key properties (e.g. "client-id" for "kafka.consumer:client-id=*") to send as
+    // dimensions, with one series per matching bean, instead of summing the values of all of the
+    // matching beans into a single series
+    public List<String> dimensions = new ArrayList<>();
   }
 
   public static class Instrumentation {
@@ -368,10 +377,58 @@ public class Configuration {
     @Deprecated
     public List<InstrumentationKeyOverride> instrumentationKeyOverrides = new ArrayList<>();
 
+    // when the general export queue is sharded (see generalExportQueueShards below), this is the
+    // capacity of all of the shards together, and since each producer thread always lands on the
+    // same shard, a single thread can only fill its own shard's share of it
     public int generalExportQueueCapacity = 2048;
     // metrics get flooded every 60 seconds by default, so need larger queue size to avoid dropping
     // telemetry (they are much smaller so a larger queue size is ok)
     public int metricsExportQueueCapacity = 65536;
+    // number of independent queue/worker pairs used for the general export queue, the general
+    // export queue capacity (and max size) is split evenly across them
+    // (0 means that it is derived from the number of available processors, i.e. one shard per 16
+    // cores)
+    public int generalExportQueueShards;
+
+    // optional limit on the (estimated) heap used by the items in the export queues, since a
+    // single exception with a full stack trace can be 100x the size of a dependency
+    // (0 means that the export queues are only bounded by their capacity above)
+    public int generalExportQueueMaxSizeMb;
+    public int metricsExportQueueMaxSizeMb;
+    // when the general export queue is under pressure, drop successful dependencies and info level
+    // logs first, in order to leave room for requests, exceptions and failed dependencies
+    public boolean generalExportQueuePriorityShedding;
+    // export spans and logs on the thread that ends/emits them, straight into the general export
+    // queue, instead of first queueing them in the OpenTelemetry SDK's batch span and batch log
+    // record processors (this is only used when no other OpenTelemetry exporter is configured)
+    public boolean directExportPipeline;
+    // aggregate the TelemetryClient.trackMetric() calls from the 2.x SDK over the metric interval,
+    // and send one metric per name, namespace and set of properties (with count, min, max and
+    // standard deviation), instead of one metric per call
+    //
+    // the aggregated metrics are timestamped when they are flushed at the end of the interval, and
+    // don't get the operation context of the span that was current when trackMetric() was called
+    //
+    // each metric name is limited to 1000 series per interval, and the calls over that limit are
+    // sent as is (one metric per call)
+    public boolean classicSdkMetricPreAggregation;
+    // re-read the configuration file periodically, and apply any changes to the sampling overrides
+    // and telemetry processors without restarting, e.g. to shed load during an incident
+    public ConfigurationFileReload configurationFileReload = new ConfigurationFileReload();
+    // only send the full stack trace for the first few occurrences of the same logged exception in
+    // each window, later occurrences are sent with just the exception type and message, plus the
+    // fingerprint of the stack trace and the number of occurrences so far in the window
+    public ExceptionDeduplication exceptionDeduplication = new ExceptionDeduplication();
+    // a single collection of a performance counter (e.g. a JMX metric) that takes longer than this
+    // is interrupted (this is never longer than the metric interval)
+    public int performanceCounterCollectionTimeoutSeconds = 30;
+    // send how long each performance counter takes to collect, as the internal "Performance Counter
+    // Collection Duration" metric, in order to see which performance counters are expensive
+    public boolean performanceCounterCollectionDurationMetric;
+    // the maximum number of series (distinct combinations of dimension values) of each JMX metric
+    // that has dimensions, the beans that don't fit are summed into a single series with all of
+    // the dimension values set to "other"
+    public int jmxMetricMaxSeries = 100;
 
     // disk persistence has a default capacity of 50MB
     public int diskPersistenceMaxSizeMb = 50;
@@ -408,6 +465,27 @@ public class Configuration {
       for (ProcessorConfig processorConfig : processors) {
         processorConfig.validate();
       }
+      if (generalExportQueueShards < 0) {
+        throw new FriendlyException(
+            "The \"generalExportQueueShards\" configuration is negative: "
+                + generalExportQueueShards,
+            "Please provide a \"generalExportQueueShards\" that is greater than or equal to 0"
+                + " (0 means that it is derived from the number of available processors).");
+      }
+      if (generalExportQueueMaxSizeMb < 0) {
+        throw new FriendlyException(
+            "The \"generalExportQueueMaxSizeMb\" configuration is negative: "
+                + generalExportQueueMaxSizeMb,
+            "Please provide a \"generalExportQueueMaxSizeMb\" that is greater than or equal to 0"
+                + " (0 means no limit).");
+      }
+      if (metricsExportQueueMaxSizeMb < 0) {
+        throw new FriendlyException(
+            "The \"metricsExportQueueMaxSizeMb\" configuration is negative: "
+                + metricsExportQueueMaxSizeMb,
+            "Please provide a \"metricsExportQueueMaxSizeMb\" that is greater than or equal to 0"
+                + " (0 means no limit).");
+      }
       for (String additionalPropagator : additionalPropagators) {
         if (!VALID_ADDITIONAL_PROPAGATORS.contains(additionalPropagator)) {
           throw new FriendlyException(
@@ -1462,11 +1540,17 @@ public class Configuration {
     // Minimum number of samples that must have been collected in order for the aggregation to
     // produce data. Avoids volatile aggregation output on small sample sizes.
     public int minimumSamples = 0;
+
+    // Percentile of the request durations that is compared against the trigger threshold (in ms)
+    // Used by the percentile aggregation
+    public float percentile = 95;
   }
 
   public enum RequestAggregationType {
     @JsonProperty("breach-ratio")
-    BREACH_RATIO
+    BREACH_RATIO,
+    @JsonProperty("percentile")
+    PERCENTILE
   }
 
   public static class RequestAggregation {
@@ -1490,6 +1574,8 @@ public class Configuration {
     //  - For a rolling average aggregation 0.75 will mean this will trigger if the average request
     // processing time
     //      breaches 0.75ms
+    //  - For the percentile aggregation 500 will mean this will trigger if the percentile of the
+    // request processing time breaches 500ms
     public float value = 0.75f;
   }
 
@@ -1526,6 +1612,10 @@ public class Configuration {
     public String memoryTriggeredSettings = "profile-without-env-data";
     public String cpuTriggeredSettings = "profile-without-env-data";
     public String manualTriggeredSettings = "profile-without-env-data";
+    // keeps a low overhead recording of the most recent seconds running, which is added to the
+    // start of each triggered profile so that it captures the onset of the issue, 0 disables it
+    public int continuousRecordingSeconds = 0;
+    public int continuousRecordingMaxSizeMb = 50;
     @Nullable public String serviceProfilerFrontEndPoint = null;
     public boolean enableDiagnostics = false;
     public boolean enableRequestTriggering = false;
@@ -1536,6 +1626,20 @@ public class Configuration {
     public GcReportingLevel reportingLevel;
   }
 
+  public static class ConfigurationFileReload {
+    public boolean enabled;
+    public int pollIntervalSeconds = 10;
+  }
+
+  public static class ExceptionDeduplication {
+    public boolean enabled;
+    public int fullStackTracesPerWindow = 5;
+    public int windowSeconds = 60;
+    // the number of distinct stack traces that are tracked, the least recently seen stack traces
+    // are evicted beyond this
+    public int maxFingerprints = 1000;
+  }
+
   public static class AadAuthentication {
     // AAD can also be configured using APPLICATIONINSIGHTS_AUTHENTICATION_STRING
     public boolean enabled;
@@ -135,6 +135,7 @@ public class ConfigurationBuilder {
       throws IOException {
     Configuration config =
         loadConfigurationFile(agentJarPath, envVarsFunction, systemPropsFunction);
+    migrateDeprecatedSamplingOverrides(config);
     logConfigurationWarnings(config);
     overlayConfiguration(
         agentJarPath, rpConfiguration, config, envVarsFunction, systemPropsFunction);
@@ -209,7 +210,6 @@ public class ConfigurationBuilder {
     if (!config.preview.sampling.overrides.isEmpty()) {
       configurationLogger.warn(
           "\"Sampling overrides\" is no longer in preview and it has been GA since 3.5.0 GA,");
-      config.sampling.overrides = config.preview.sampling.overrides;
     }
     for (SamplingOverride override : config.sampling.overrides) {
       if (override.telemetryKind != null) {
@@ -217,9 +217,6 @@ public class ConfigurationBuilder {
             "Sampling overrides \"telemetryKind\" has been deprecated,"
                 + " and support for it will be removed in a future release, please transition from"
                 + " \"telemetryKind\" to \"telemetryType\".");
-        if (override.telemetryType == null) {
-          override.telemetryType = override.telemetryKind;
-        }
       }
       if (override.spanKind != null) {
         configurationLogger.warn(
@@ -289,10 +286,6 @@ public class ConfigurationBuilder {
       throws IOException {
     overlayFromEnv(config, agentJarPath.getParent(), envVarsFunction, systemPropsFunction);
     config.sampling.percentage = roundToNearest(config.sampling.percentage, true);
-    for (SamplingOverride override : config.sampling.overrides) {
-      supportSamplingOverridesOldSemConv(override);
-      override.percentage = roundToNearest(override.percentage, true);
-    }
     // rp configuration should always be last (so it takes precedence)
     // currently applicationinsights-rp.json is only used by Azure Spring Cloud
     if (rpConfiguration != null) {
@@ -310,6 +303,29 @@ public class ConfigurationBuilder {
       String hostname = HostName.get();
       config.role.instance = hostname == null ? "unknown" : hostname;
     }
+    normalizeSamplingOverridesAndProcessors(config);
+  }
+
+  // the steps below are shared by create() and reloadConfigurationFile(), so that the settings that
+  // can be reloaded at runtime are read the same way as at startup
+
+  @SuppressWarnings("deprecation") // support deprecated sampling override options
+  private static void migrateDeprecatedSamplingOverrides(Configuration config) {
+    if (!config.preview.sampling.overrides.isEmpty()) {
+      config.sampling.overrides = config.preview.sampling.overrides;
+    }
+    for (SamplingOverride override : config.sampling.overrides) {
+      if (override.telemetryType == null) {
+        override.telemetryType = override.telemetryKind;
+      }
+    }
+  }
+
+  private static void normalizeSamplingOverridesAndProcessors(Configuration config) {
+    for (SamplingOverride override : config.sampling.overrides) {
+      supportSamplingOverridesOldSemConv(override);
+      override.percentage = roundToNearest(override.percentage, true);
+    }
     supportTelemetryProcessorsOldSemConv(config);
   }
 
@@ -1110,9 +1126,31 @@ public class ConfigurationBuilder {
               + " which still has \"instrumentationSettings\", please see the docs for the new format:"
               + " https://docs.microsoft.com/en-us/azure/azure-monitor/app/java-standalone-config");
     }
+    configuration.configPath = configPath;
     return configuration;
   }
 
+  /**
+   * Re-reads the configuration file for the settings that can be changed at runtime (sampling
+   * overrides and telemetry processors).
+   *
+   * <p>Only those settings should be used from the returned configuration, since no env vars or
+   * defaults have been applied to the rest of it.
+   */
+  public static Configuration reloadConfigurationFile(Path configPath) {
+    Configuration config = loadJsonConfigFile(configPath);
+    // same as done in create(), but without logging the warnings a second time
+    migrateDeprecatedSamplingOverrides(config);
+    normalizeSamplingOverridesAndProcessors(config);
+    for (SamplingOverride override : config.sampling.overrides) {
+      override.validate();
+    }
+    for (Configuration.ProcessorConfig processor : config.preview.processors) {
+      processor.validate();
+    }
+    return config;
+  }
+
   // visible for testing
   static Configuration getConfigurationFromConfigFile(Path configPath) {
     JsonOrigin jsonOrigin = JsonOrigin.fromPath(configPath);
@@ -6,5 +6,8 @@ package com.microsoft.applicationinsights.agent.internal.configuration;
 public enum GcReportingLevel {
   NONE,
   TENURED_ONLY,
-  ALL
+  ALL,
+  // metrics summarizing the collections per collector and cause over each metric interval,
+  // instead of one event per collection
+  AGGREGATED
 }
@@ -8,6 +8,8 @@ import static com.azure.monitor.opentelemetry.autoconfigure.implementation.utils
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.AiSemanticAttributes;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.LogDataMapper;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.logging.OperationLogger;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorDomain;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryExceptionData;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.quickpulse.QuickPulse;
 import com.microsoft.applicationinsights.agent.internal.telemetry.BatchItemProcessor;
@@ -20,6 +22,8 @@ import io.opentelemetry.sdk.logs.data.LogRecordData;
 import io.opentelemetry.sdk.logs.export.LogRecordExporter;
 import io.opentelemetry.semconv.ExceptionAttributes;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -32,14 +36,22 @@ public class AgentLogExporter implements LogRecordExporter {
   private static final OperationLogger exportingLogLogger =
       new OperationLogger(AgentLogExporter.class, "Exporting log");
 
+  static final String EXCEPTION_FINGERPRINT_PROPERTY = "ExceptionFingerprint";
+  static final String EXCEPTION_OCCURRENCE_COUNT_PROPERTY = "ExceptionOccurrenceCount";
+
   private final LogDataMapper mapper;
+  // the full stack trace is only sent for the first few occurrences of each exception per window
+  // (null if exception deduplication is not enabled)
+  @Nullable private final ExceptionFingerprints exceptionFingerprints;
   private final Consumer<TelemetryItem> telemetryItemConsumer;
 
   public AgentLogExporter(
       LogDataMapper mapper,
+      @Nullable ExceptionFingerprints exceptionFingerprints,
       @Nullable QuickPulse quickPulse,
       BatchItemProcessor batchItemProcessor) {
     this.mapper = mapper;
+    this.exceptionFingerprints = exceptionFingerprints;
     telemetryItemConsumer =
         telemetryItem -> {
           if (quickPulse != null) {
@@ -90,8 +102,20 @@ public class AgentLogExporter implements LogRecordExporter {
       String stack = log.getAttributes().get(ExceptionAttributes.EXCEPTION_STACKTRACE);
       Double sampleRate = log.getAttributes().get(AiSemanticAttributes.SAMPLE_RATE);
 
+      ExceptionFingerprints.Occurrence occurrence = null;
+      if (stack != null && exceptionFingerprints != null) {
+        occurrence = exceptionFingerprints.record(stack);
+        if (!occurrence.isFullStackTrace()) {
+          // only send the exception type and message
+          stack = ExceptionFingerprints.firstLine(stack);
+        }
+      }
+
       // TODO (trask) get stack and sampleRate inside map() method instead of passing into
       TelemetryItem telemetryItem = mapper.map(log, stack, sampleRate);
+      if (occurrence != null) {
+        addOccurrenceProperties(telemetryItem, occurrence);
+      }
       telemetryItemConsumer.accept(telemetryItem);
 
       exportingLogLogger.recordSuccess();
@@ -100,6 +124,22 @@ public class AgentLogExporter implements LogRecordExporter {
     }
   }
 
+  private static void addOccurrenceProperties(
+      TelemetryItem telemetryItem, ExceptionFingerprints.Occurrence occurrence) {
+    MonitorDomain data = telemetryItem.getData().getBaseData();
+    if (!(data instanceof TelemetryExceptionData)) {
+      return;
+    }
+    TelemetryExceptionData exceptionData = (TelemetryExceptionData) data;
+    Map<String, String> properties = exceptionData.getProperties();
+    if (properties == null) {
+      properties = new HashMap<>();
+      exceptionData.setProperties(properties);
+    }
+    properties.put(EXCEPTION_FINGERPRINT_PROPERTY, occurrence.getFingerprint());
+    properties.put(EXCEPTION_OCCURRENCE_COUNT_PROPERTY, Integer.toString(occurrence.getCount()));
+  }
+
   @Override
   public CompletableResultCode flush() {
     return CompletableResultCode.ofSuccess();
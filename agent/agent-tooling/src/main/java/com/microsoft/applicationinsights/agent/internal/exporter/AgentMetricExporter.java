@@ -9,6 +9,7 @@ import com.azure.monitor.opentelemetry.autoconfigure.implementation.MetricDataMa
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.logging.OperationLogger;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.Strings;
+import com.microsoft.applicationinsights.agent.internal.perfcounter.PerformanceCounterInstruments;
 import com.microsoft.applicationinsights.agent.internal.telemetry.BatchItemProcessor;
 import com.microsoft.applicationinsights.agent.internal.telemetry.MetricFilter;
 import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
@@ -17,9 +18,11 @@ import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.metrics.InstrumentType;
 import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
 import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.PointData;
 import io.opentelemetry.sdk.metrics.export.AggregationTemporalitySelector;
 import io.opentelemetry.sdk.metrics.export.MetricExporter;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.function.Consumer;
 import org.slf4j.Logger;
@@ -59,7 +62,7 @@ public class AgentMetricExporter implements MetricExporter {
       return CompletableResultCode.ofSuccess();
     }
     for (MetricData metricData : metrics) {
-      if (MetricFilter.shouldSkip(metricData.getName(), metricFilters)) {
+      if (MetricFilter.shouldSkip(getMetricName(metricData), metricFilters)) {
         continue;
       }
       logger.debug("exporting metric: {}", metricData);
@@ -74,6 +77,20 @@ public class AgentMetricExporter implements MetricExporter {
     return CompletableResultCode.ofSuccess();
   }
 
+  // the metrics whose names aren't valid instrument names (e.g. the performance counters) are
+  // recorded with the internal metric name attribute, which is the name they are sent with
+  private static String getMetricName(MetricData metricData) {
+    Iterator<? extends PointData> points = metricData.getData().getPoints().iterator();
+    if (points.hasNext()) {
+      String metricName =
+          points.next().getAttributes().get(PerformanceCounterInstruments.METRIC_NAME_KEY);
+      if (metricName != null) {
+        return metricName;
+      }
+    }
+    return metricData.getName();
+  }
+
   @Override
   public CompletableResultCode flush() {
     return CompletableResultCode.ofSuccess();
@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.AzureMonitorMsgId.EXPORTER_MAPPING_ERROR;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.logging.OperationLogger;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.LogRecordProcessor;
+import io.opentelemetry.sdk.logs.ReadWriteLogRecord;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import java.util.Collections;
+
+// used instead of the BatchLogRecordProcessor when the direct export pipeline is enabled
+//
+// see DirectSpanProcessor
+public final class DirectLogRecordProcessor implements LogRecordProcessor {
+
+  private static final OperationLogger exportingLogLogger =
+      new OperationLogger(DirectLogRecordProcessor.class, "Exporting log");
+
+  private final LogRecordExporter logRecordExporter;
+
+  public DirectLogRecordProcessor(LogRecordExporter logRecordExporter) {
+    this.logRecordExporter = logRecordExporter;
+  }
+
+  @Override
+  public void onEmit(Context context, ReadWriteLogRecord logRecord) {
+    try {
+      // AgentLogExporter takes care of suppressing any logging that happens while exporting,
+      // which matters more here since this runs on the application thread that emitted the log
+      logRecordExporter.export(Collections.singletonList(logRecord.toLogRecordData()));
+    } catch (Throwable t) {
+      // never propagate exceptions to the application thread that emitted the log
+      exportingLogLogger.recordFailure(t.getMessage(), t, EXPORTER_MAPPING_ERROR);
+    }
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    return logRecordExporter.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return logRecordExporter.shutdown();
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.AzureMonitorMsgId.EXPORTER_MAPPING_ERROR;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.logging.OperationLogger;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collections;
+
+// used instead of the BatchSpanProcessor when the direct export pipeline is enabled
+//
+// the BatchSpanProcessor queues each ended span, and its worker thread then maps the spans and
+// queues the resulting telemetry items again in the BatchItemProcessor, so every span goes through
+// two queues and two worker threads. this maps each span on the thread that ends it instead, which
+// leaves the BatchItemProcessor (and its worker threads) as the only hand-off.
+public final class DirectSpanProcessor implements SpanProcessor {
+
+  private static final OperationLogger exportingSpanLogger =
+      new OperationLogger(DirectSpanProcessor.class, "Exporting span");
+
+  private final SpanExporter spanExporter;
+
+  public DirectSpanProcessor(SpanExporter spanExporter) {
+    this.spanExporter = spanExporter;
+  }
+
+  @Override
+  public void onStart(Context parentContext, ReadWriteSpan span) {}
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    if (!span.getSpanContext().isSampled()) {
+      return;
+    }
+    try {
+      // the exporter (i.e. AgentSpanExporter wrapped by the configured processors) only maps the
+      // span and hands off the resulting telemetry item, so this does not block on the network
+      spanExporter.export(Collections.singletonList(span.toSpanData()));
+    } catch (Throwable t) {
+      // never propagate exceptions to the application thread that ended the span
+      exportingSpanLogger.recordFailure(t.getMessage(), t, EXPORTER_MAPPING_ERROR);
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return true;
+  }
+
+  @Override
+  public CompletableResultCode forceFlush() {
+    return spanExporter.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return spanExporter.shutdown();
+  }
+}
@@ -0,0 +1,192 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the recently seen exception stack traces by fingerprint, so that only the first few
+ * occurrences of the same stack trace in each window are sent with the full stack trace.
+ *
+ * <p>The fingerprint is a hash of the exception types and stack frames, ignoring the exception
+ * messages (which often contain ids, timestamps, etc), so that the same failure repeated with
+ * different data has the same fingerprint.
+ *
+ * <p>Only the most recently seen {@code maxFingerprints} fingerprints are tracked, so memory stays
+ * bounded no matter how many distinct stack traces are logged.
+ */
+public class ExceptionFingerprints {
+
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+
+  private static final String CAUSED_BY = "Caused by: ";
+  private static final String SUPPRESSED = "Suppressed: ";
+
+  private final int fullStackTracesPerWindow;
+  private final long windowNanos;
+  private final LongSupplier nanoTimeSupplier;
+
+  // guarded by itself, access ordered so that the least recently seen fingerprint is evicted
+  private final Map<Long, Window> windows;
+
+  public ExceptionFingerprints(
+      int fullStackTracesPerWindow, int windowSeconds, int maxFingerprints) {
+    this(fullStackTracesPerWindow, windowSeconds, maxFingerprints, System::nanoTime);
+  }
+
+  // visible for testing
+  ExceptionFingerprints(
+      int fullStackTracesPerWindow,
+      int windowSeconds,
+      int maxFingerprints,
+      LongSupplier nanoTimeSupplier) {
+    this.fullStackTracesPerWindow = fullStackTracesPerWindow;
+    this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+    this.nanoTimeSupplier = nanoTimeSupplier;
+    this.windows =
+        new LinkedHashMap<Long, Window>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, Window> eldest) {
+            return size() > maxFingerprints;
+          }
+        };
+  }
+
+  /** Records an occurrence of the stack trace. */
+  public Occurrence record(String stack) {
+    long fingerprint = fingerprint(stack);
+    long now = nanoTimeSupplier.getAsLong();
+    int count;
+    synchronized (windows) {
+      Window window = windows.get(fingerprint);
+      if (window == null) {
+        window = new Window(now);
+        windows.put(fingerprint, window);
+      } else if (now - window.startNanos >= windowNanos) {
+        window.startNanos = now;
+        window.count = 0;
+      }
+      count = ++window.count;
+    }
+    return new Occurrence(fingerprint, count, count <= fullStackTracesPerWindow);
+  }
+
+  // visible for testing
+  static long fingerprint(String stack) {
+    long hash = FNV_OFFSET_BASIS;
+    int length = stack.length();
+    int lineStart = 0;
+    boolean firstLine = true;
+    while (lineStart < length) {
+      int lineEnd = stack.indexOf('\n', lineStart);
+      if (lineEnd == -1) {
+        lineEnd = length;
+      }
+      int start = skipWhitespace(stack, lineStart, lineEnd);
+      int end = lineEnd;
+      if (end > start && stack.charAt(end - 1) == '\r') {
+        end--;
+      }
+      if (firstLine) {
+        hash = hashExceptionType(stack, start, end, hash);
+        firstLine = false;
+      } else if (stack.startsWith("at ", start)) {
+        hash = hash(stack, start, end, hash);
+      } else if (stack.startsWith(CAUSED_BY, start)) {
+        hash = hash(stack, start, start + CAUSED_BY.length(), hash);
+        hash = hashExceptionType(stack, start + CAUSED_BY.length(), end, hash);
+      } else if (stack.startsWith(SUPPRESSED, start)) {
+        hash = hash(stack, start, start + SUPPRESSED.length(), hash);
+        hash = hashExceptionType(stack, start + SUPPRESSED.length(), end, hash);
+      }
+      // other lines, e.g. the continuation of a multi-line message, or "... 12 more", are ignored
+      lineStart = lineEnd + 1;
+    }
+    return hash;
+  }
+
+  /** Returns the first line of the stack trace, i.e. the exception type and message. */
+  public static String firstLine(String stack) {
+    int index = stack.indexOf('\n');
+    if (index == -1) {
+      return stack;
+    }
+    if (index > 0 && stack.charAt(index - 1) == '\r') {
+      index--;
+    }
+    return stack.substring(0, index);
+  }
+
+  // hashes the exception type, but not the message
+  private static long hashExceptionType(String stack, int start, int end, long hash) {
+    int index = stack.indexOf(':', start);
+    if (index == -1 || index > end) {
+      index = end;
+    }
+    return hash(stack, start, index, hash);
+  }
+
+  private static long hash(String stack, int start, int end, long hash) {
+    for (int i = start; i < end; i++) {
+      hash ^= stack.charAt(i);
+      hash *= FNV_PRIME;
+    }
+    // separator, so that e.g. "ab" + "c" and "a" + "bc" don't hash the same
+    hash ^= '\n';
+    hash *= FNV_PRIME;
+    return hash;
+  }
+
+  private static int skipWhitespace(String stack, int start, int end) {
+    while (start < end && Character.isWhitespace(stack.charAt(start))) {
+      start++;
+    }
+    return start;
+  }
+
+  /** An occurrence of a stack trace. */
+  public static class Occurrence {
+
+    private final long fingerprint;
+    private final int count;
+    private final boolean fullStackTrace;
+
+    private Occurrence(long fingerprint, int count, boolean fullStackTrace) {
+      this.fingerprint = fingerprint;
+      this.count = count;
+      this.fullStackTrace = fullStackTrace;
+    }
+
+    public String getFingerprint() {
+      return String.format(Locale.ROOT, "%016x", fingerprint);
+    }
+
+    /** Returns the number of occurrences of the stack trace so far in the current window. */
+    public int getCount() {
+      return count;
+    }
+
+    /** Returns whether the full stack trace should be sent for this occurrence. */
+    public boolean isFullStackTrace() {
+      return fullStackTrace;
+    }
+  }
+
+  private static class Window {
+
+    private long startNanos;
+    private int count;
+
+    private Window(long startNanos) {
+      this.startNanos = startNanos;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.export.MemoryMode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps an OpenTelemetry metric exporter other than the Application Insights one (e.g. OTLP), in
+ * order to leave out the metrics of the meters that are only meant for Application Insights (e.g.
+ * the performance counters).
+ */
+public class ScopeFilteringMetricExporter implements MetricExporter {
+
+  private final MetricExporter delegate;
+  private final Set<String> excludedScopeNames;
+
+  public ScopeFilteringMetricExporter(MetricExporter delegate, Set<String> excludedScopeNames) {
+    this.delegate = delegate;
+    this.excludedScopeNames = excludedScopeNames;
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<MetricData> metrics) {
+    List<MetricData> filtered = new ArrayList<>(metrics.size());
+    for (MetricData metricData : metrics) {
+      if (!excludedScopeNames.contains(metricData.getInstrumentationScopeInfo().getName())) {
+        filtered.add(metricData);
+      }
+    }
+    if (filtered.isEmpty()) {
+      return CompletableResultCode.ofSuccess();
+    }
+    return delegate.export(filtered);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+
+  @Override
+  public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+    return delegate.getAggregationTemporality(instrumentType);
+  }
+
+  @Override
+  public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+    return delegate.getDefaultAggregation(instrumentType);
+  }
+
+  @Override
+  public MemoryMode getMemoryMode() {
+    return delegate.getMemoryMode();
+  }
+}
@@ -37,6 +37,7 @@ public class AfterAgentListener implements AgentListener {
             SecondEntryPoint.getTempDir(),
             configuration.preview.profiler,
             configuration.preview.gcEvents.reportingLevel,
+            configuration.metricIntervalSeconds,
             configuration.role.name,
             configuration.role.instance,
             TelemetryClient.getActive());
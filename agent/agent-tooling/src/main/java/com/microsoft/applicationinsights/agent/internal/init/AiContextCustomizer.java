@@ -23,14 +23,24 @@ import javax.annotation.Nullable;
 //     .getContext().getCloud().setRole(...)
 public class AiContextCustomizer<R> implements ContextCustomizer<R> {
 
-  private final List<Configuration.ConnectionStringOverride> connectionStringOverrides;
-  private final List<Configuration.RoleNameOverride> roleNameOverrides;
+  // the first configured override whose prefix matches wins, same as scanning the overrides in
+  // order, but without the cost growing with the number of overrides
+  private final PathPrefixTrie<String> connectionStringOverrides;
+  private final PathPrefixTrie<String> roleNameOverrides;
 
   public AiContextCustomizer(
       List<Configuration.ConnectionStringOverride> connectionStringOverrides,
       List<Configuration.RoleNameOverride> roleNameOverrides) {
-    this.connectionStringOverrides = connectionStringOverrides;
-    this.roleNameOverrides = roleNameOverrides;
+    PathPrefixTrie.Builder<String> connectionStringOverridesBuilder = PathPrefixTrie.builder();
+    for (Configuration.ConnectionStringOverride override : connectionStringOverrides) {
+      connectionStringOverridesBuilder.add(override.httpPathPrefix, override.connectionString);
+    }
+    this.connectionStringOverrides = connectionStringOverridesBuilder.build();
+    PathPrefixTrie.Builder<String> roleNameOverridesBuilder = PathPrefixTrie.builder();
+    for (Configuration.RoleNameOverride override : roleNameOverrides) {
+      roleNameOverridesBuilder.add(override.httpPathPrefix, override.roleName);
+    }
+    this.roleNameOverrides = roleNameOverridesBuilder.build();
   }
 
   @Override
@@ -74,12 +84,7 @@ public class AiContextCustomizer<R> implements ContextCustomizer<R> {
     if (target == null) {
       return null;
     }
-    for (Configuration.ConnectionStringOverride override : connectionStringOverrides) {
-      if (target.startsWith(override.httpPathPrefix)) {
-        return override.connectionString;
-      }
-    }
-    return null;
+    return connectionStringOverrides.getFirstMatch(target);
   }
 
   @Nullable
@@ -87,12 +92,7 @@ public class AiContextCustomizer<R> implements ContextCustomizer<R> {
     if (target == null) {
       return null;
     }
-    for (Configuration.RoleNameOverride override : roleNameOverrides) {
-      if (target.startsWith(override.httpPathPrefix)) {
-        return override.roleName;
-      }
-    }
-    return null;
+    return roleNameOverrides.getFirstMatch(target);
   }
 
   private static <T> T getStableAttribute(
@@ -85,8 +85,10 @@ public class AzureFunctionsInitializer implements Runnable {
   }
 
   private void initialize() {
-    RuntimeConfiguration runtimeConfig = runtimeConfigurator.getCurrentConfigCopy();
+    runtimeConfigurator.update(AzureFunctionsInitializer::initializeRuntimeConfig);
+  }
 
+  private static void initializeRuntimeConfig(RuntimeConfiguration runtimeConfig) {
     runtimeConfig.connectionString = getAndLogAtDebug("APPLICATIONINSIGHTS_CONNECTION_STRING");
     if (runtimeConfig.connectionString == null) {
       // if the instrumentation key is neither null nor empty, we build the connection string based
@@ -103,8 +105,6 @@ public class AzureFunctionsInitializer implements Runnable {
         getAndLogAtDebug("APPLICATIONINSIGHTS_INSTRUMENTATION_LOGGING_LEVEL");
     runtimeConfig.selfDiagnosticsLevel =
         getAndLogAtDebug("APPLICATIONINSIGHTS_SELF_DIAGNOSTICS_LEVEL");
-
-    runtimeConfigurator.apply(runtimeConfig);
   }
 
   static boolean isAgentEnabled() {
@@ -5,6 +5,7 @@ package com.microsoft.applicationinsights.agent.internal.init;
 
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.AiSemanticAttributes;
 import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.SamplingTelemetryType;
 import com.microsoft.applicationinsights.agent.internal.sampling.AiFixedPercentageSampler;
 import com.microsoft.applicationinsights.agent.internal.sampling.SamplingOverrides;
 import io.opentelemetry.api.trace.Span;
@@ -19,24 +20,22 @@ import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
 import io.opentelemetry.sdk.trace.samplers.SamplingResult;
 import io.opentelemetry.semconv.ExceptionAttributes;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class AzureMonitorLogFilteringProcessor implements LogRecordProcessor {
 
-  private final SamplingOverrides logSamplingOverrides;
-  private final SamplingOverrides exceptionSamplingOverrides;
+  // replaced (not mutated) when the sampling overrides are updated at runtime
+  private volatile LogSamplingOverrides samplingOverrides;
   private final LogRecordProcessor batchLogRecordProcessor;
 
   private volatile int severityThreshold;
 
   public AzureMonitorLogFilteringProcessor(
-      List<Configuration.SamplingOverride> logSamplingOverrides,
-      List<Configuration.SamplingOverride> exceptionSamplingOverrides,
+      List<Configuration.SamplingOverride> samplingOverrides,
       LogRecordProcessor batchLogRecordProcessor,
       int severityThreshold) {
 
-    this.severityThreshold = severityThreshold;
-    this.logSamplingOverrides = new SamplingOverrides(logSamplingOverrides);
-    this.exceptionSamplingOverrides = new SamplingOverrides(exceptionSamplingOverrides);
+    this.samplingOverrides = new LogSamplingOverrides(samplingOverrides);
     this.batchLogRecordProcessor = batchLogRecordProcessor;
     this.severityThreshold = severityThreshold;
   }
@@ -45,6 +44,12 @@ public class AzureMonitorLogFilteringProcessor implements LogRecordProcessor {
     this.severityThreshold = severityThreshold;
   }
 
+  // the new overrides are compiled on the calling thread, and then swapped in, so onEmit() never
+  // waits on an update
+  public void updateSamplingOverrides(List<Configuration.SamplingOverride> samplingOverrides) {
+    this.samplingOverrides = new LogSamplingOverrides(samplingOverrides);
+  }
+
   @Override
   public void onEmit(Context context, ReadWriteLogRecord logRecord) {
 
@@ -66,8 +71,9 @@ public class AzureMonitorLogFilteringProcessor implements LogRecordProcessor {
 
     String stack = logRecord.getAttribute(ExceptionAttributes.EXCEPTION_STACKTRACE);
 
+    LogSamplingOverrides overrides = this.samplingOverrides;
     SamplingOverrides samplingOverrides =
-        stack != null ? exceptionSamplingOverrides : logSamplingOverrides;
+        stack != null ? overrides.exceptionSamplingOverrides : overrides.logSamplingOverrides;
 
     SpanContext spanContext = logRecord.getSpanContext();
 
@@ -118,6 +124,26 @@ public class AzureMonitorLogFilteringProcessor implements LogRecordProcessor {
     batchLogRecordProcessor.close();
   }
 
+  private static class LogSamplingOverrides {
+
+    private final SamplingOverrides logSamplingOverrides;
+    private final SamplingOverrides exceptionSamplingOverrides;
+
+    private LogSamplingOverrides(List<Configuration.SamplingOverride> samplingOverrides) {
+      logSamplingOverrides =
+          new SamplingOverrides(filter(samplingOverrides, SamplingTelemetryType.TRACE));
+      exceptionSamplingOverrides =
+          new SamplingOverrides(filter(samplingOverrides, SamplingTelemetryType.EXCEPTION));
+    }
+
+    private static List<Configuration.SamplingOverride> filter(
+        List<Configuration.SamplingOverride> samplingOverrides, SamplingTelemetryType type) {
+      return samplingOverrides.stream()
+          .filter(override -> override.telemetryType == type)
+          .collect(Collectors.toList());
+    }
+  }
+
   private static void setAttributeExceptionLogged(Span span, ReadWriteLogRecord logRecord) {
     String stacktrace = logRecord.getAttribute(ExceptionAttributes.EXCEPTION_STACKTRACE);
     if (stacktrace != null) {
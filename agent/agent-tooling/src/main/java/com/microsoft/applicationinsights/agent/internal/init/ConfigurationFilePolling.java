@@ -0,0 +1,137 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.ThreadPoolUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
+import com.microsoft.applicationinsights.agent.internal.configuration.ConfigurationBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the configuration file, and applies changes to the sampling overrides and telemetry
+ * processors without restarting.
+ *
+ * <p>The new configuration is parsed, validated and compiled on the polling thread, and then
+ * swapped into the telemetry pipeline, so the threads that are emitting telemetry never wait on a
+ * reload. If the new configuration is not valid, the current configuration is kept.
+ */
+public class ConfigurationFilePolling implements Runnable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ConfigurationFilePolling.class);
+
+  private final Path configPath;
+  private final RuntimeConfigurator runtimeConfigurator;
+
+  private long lastModifiedTime;
+  // the json of the reloadable sections, used to only apply the sections that actually changed
+  // (re-applying the sampling overrides resets the state of the rate-limited sampler)
+  private JsonNode samplingOverridesJson;
+  private JsonNode processorsJson;
+
+  public static void startPolling(
+      Path configPath, int pollIntervalSeconds, RuntimeConfigurator runtimeConfigurator) {
+
+    ConfigurationFilePolling polling =
+        new ConfigurationFilePolling(configPath, runtimeConfigurator);
+    // capture the state of the file that was loaded at startup
+    polling.run();
+
+    ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadPoolUtils.createDaemonThreadFactory(ConfigurationFilePolling.class));
+    executor.scheduleWithFixedDelay(polling, pollIntervalSeconds, pollIntervalSeconds, SECONDS);
+    // the condition below will always be false, but by referencing the executor it ensures the
+    // executor can't become unreachable in the middle of the scheduleWithFixedDelay() method
+    // execution above (and prior to the task being registered), which can lead to the executor
+    // being terminated and scheduleWithFixedDelay throwing a RejectedExecutionException
+    // (see https://bugs.openjdk.org/browse/JDK-8145304)
+    if (executor.isTerminated()) {
+      throw new AssertionError();
+    }
+  }
+
+  // visible for testing
+  ConfigurationFilePolling(Path configPath, RuntimeConfigurator runtimeConfigurator) {
+    this.configPath = configPath;
+    this.runtimeConfigurator = runtimeConfigurator;
+  }
+
+  @Override
+  public void run() {
+    if (!Files.exists(configPath)) {
+      logger.warn("configuration file doesn't exist: {}", configPath);
+      return;
+    }
+    try {
+      long modifiedTime = Files.getLastModifiedTime(configPath).toMillis();
+      if (modifiedTime == lastModifiedTime) {
+        return;
+      }
+      boolean initial = lastModifiedTime == 0;
+      lastModifiedTime = modifiedTime;
+
+      JsonNode json = new ObjectMapper().readTree(configPath.toFile());
+      JsonNode newSamplingOverridesJson = getSamplingOverridesJson(json);
+      JsonNode newProcessorsJson = json.path("preview").path("processors");
+      if (initial) {
+        samplingOverridesJson = newSamplingOverridesJson;
+        processorsJson = newProcessorsJson;
+        return;
+      }
+      boolean samplingOverridesChanged = !newSamplingOverridesJson.equals(samplingOverridesJson);
+      boolean processorsChanged = !newProcessorsJson.equals(processorsJson);
+      if (!samplingOverridesChanged && !processorsChanged) {
+        return;
+      }
+
+      Configuration newConfig = ConfigurationBuilder.reloadConfigurationFile(configPath);
+
+      runtimeConfigurator.update(
+          config -> {
+            if (samplingOverridesChanged) {
+              config.sampling.overrides = newConfig.sampling.overrides;
+            }
+            if (processorsChanged) {
+              config.processors = newConfig.preview.processors;
+            }
+          });
+
+      samplingOverridesJson = newSamplingOverridesJson;
+      processorsJson = newProcessorsJson;
+      logger.info(
+          "Reloaded {} from configuration file: {}",
+          samplingOverridesChanged && processorsChanged
+              ? "sampling overrides and telemetry processors"
+              : samplingOverridesChanged ? "sampling overrides" : "telemetry processors",
+          configPath);
+    } catch (IOException | RuntimeException e) {
+      // e.g. the file is in the middle of being written, or is not valid, in which case the
+      // current configuration is kept, and the file will be read again once it is modified
+      logger.warn(
+          "Error occurred when reloading configuration file, keeping the current configuration:"
+              + " {}",
+          e.getMessage(),
+          e);
+    }
+  }
+
+  private static JsonNode getSamplingOverridesJson(JsonNode json) {
+    JsonNode previewSamplingOverrides = json.path("preview").path("sampling").path("overrides");
+    if (previewSamplingOverrides.size() > 0) {
+      // same precedence as ConfigurationBuilder
+      return previewSamplingOverrides;
+    }
+    return json.path("sampling").path("overrides");
+  }
+}
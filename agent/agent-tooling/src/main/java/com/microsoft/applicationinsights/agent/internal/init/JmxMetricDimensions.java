@@ -0,0 +1,128 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import static com.microsoft.applicationinsights.agent.internal.diagnostics.MsgId.CUSTOM_JMX_METRIC_ERROR;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Maps each bean that matches a JMX metric's (wildcard) object name to the attributes of its
+ * series, using the configured object name key properties as dimensions.
+ *
+ * <p>The number of series is capped per collection: the first distinct combinations of dimension
+ * values read in a collection get their own series, and any beans after that are summed into a
+ * single overflow series with all of the dimension values set to {@value #OVERFLOW_VALUE}. Series
+ * that are not read anymore (e.g. because their beans were unregistered) are forgotten at the start
+ * of the next collection, so they don't count against the cap.
+ */
+final class JmxMetricDimensions {
+
+  private static final Logger logger = LoggerFactory.getLogger(JmxMetricDimensions.class);
+
+  static final String OVERFLOW_VALUE = "other";
+
+  private final String metricName;
+  private final AttributeKey<String> metricNameKey;
+  private final List<String> keyProperties;
+  private final List<AttributeKey<String>> dimensionKeys;
+  private final int maxSeries;
+
+  // the series read in the previous and in the current collection, so that the attributes of the
+  // series that are still there are reused
+  private final Map<List<String>, Attributes> series = new HashMap<>();
+  private final Set<List<String>> currentSeries = new HashSet<>();
+  private final Attributes overflowAttributes;
+  private boolean alreadyLoggedOverflow;
+
+  JmxMetricDimensions(
+      String metricName,
+      AttributeKey<String> metricNameKey,
+      List<String> keyProperties,
+      int maxSeries) {
+    this.metricName = metricName;
+    this.metricNameKey = metricNameKey;
+    this.keyProperties = keyProperties;
+    this.maxSeries = maxSeries;
+    dimensionKeys = new ArrayList<>();
+    List<String> overflowValues = new ArrayList<>();
+    for (String keyProperty : keyProperties) {
+      dimensionKeys.add(AttributeKey.stringKey(keyProperty));
+      overflowValues.add(OVERFLOW_VALUE);
+    }
+    overflowAttributes = buildAttributes(overflowValues);
+  }
+
+  /**
+   * Starts a new collection, forgetting the series that were not read in the previous one. Must be
+   * called before the beans of each collection are passed to {@link #getAttributes(ObjectName)}.
+   */
+  synchronized void beginCollection() {
+    series.keySet().retainAll(currentSeries);
+    currentSeries.clear();
+  }
+
+  /** Returns the attributes of the series that the value read from the bean belongs to. */
+  synchronized Attributes getAttributes(ObjectName objectName) {
+    List<String> values = new ArrayList<>(keyProperties.size());
+    for (String keyProperty : keyProperties) {
+      values.add(unquote(objectName.getKeyProperty(keyProperty)));
+    }
+    if (currentSeries.contains(values)) {
+      return series.get(values);
+    }
+    if (currentSeries.size() >= maxSeries) {
+      if (!alreadyLoggedOverflow) {
+        try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
+          logger.warn(
+              "JMX metric '{}' has more than {} distinct combinations of dimension values, the"
+                  + " beans over that limit are reported with the dimension values '{}'",
+              metricName,
+              maxSeries,
+              OVERFLOW_VALUE);
+        }
+        alreadyLoggedOverflow = true;
+      }
+      return overflowAttributes;
+    }
+    currentSeries.add(values);
+    return series.computeIfAbsent(values, this::buildAttributes);
+  }
+
+  private Attributes buildAttributes(List<String> values) {
+    AttributesBuilder builder = Attributes.builder().put(metricNameKey, metricName);
+    for (int i = 0; i < dimensionKeys.size(); i++) {
+      builder.put(dimensionKeys.get(i), values.get(i));
+    }
+    return builder.build();
+  }
+
+  private static String unquote(@Nullable String value) {
+    if (value == null) {
+      // the key property isn't part of this bean's object name
+      return "";
+    }
+    if (value.length() >= 2 && value.charAt(0) == '"') {
+      try {
+        return ObjectName.unquote(value);
+      } catch (IllegalArgumentException e) {
+        return value;
+      }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,130 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nullable;
+
+/**
+ * Finds the value for the first configured prefix that a path starts with, the same as checking
+ * {@code path.startsWith(prefix)} for each prefix in the configured order, but in time
+ * proportional to the length of the path instead of the number of prefixes.
+ *
+ * <p>Each node stores the value of the first configured prefix that ends on the path from the root
+ * to (and including) the node, so a lookup just walks the path as far as it matches, and returns
+ * the value stored at the last node reached.
+ *
+ * <p>Immutable once built, so it can be shared across threads without synchronization.
+ */
+final class PathPrefixTrie<T> {
+
+  private static final char[] NO_CHARS = new char[0];
+
+  private final Node<T> root;
+
+  private PathPrefixTrie(Node<T> root) {
+    this.root = root;
+  }
+
+  static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  @Nullable
+  T getFirstMatch(String path) {
+    Node<T> node = root;
+    int length = path.length();
+    for (int i = 0; i < length; i++) {
+      Node<T> child = node.getChild(path.charAt(i));
+      if (child == null) {
+        break;
+      }
+      node = child;
+    }
+    return node.firstMatch;
+  }
+
+  static final class Builder<T> {
+
+    private final BuilderNode<T> root = new BuilderNode<>();
+    private int nextOrder;
+
+    private Builder() {}
+
+    /** Prefixes that are added earlier take precedence over prefixes that are added later. */
+    Builder<T> add(String prefix, T value) {
+      BuilderNode<T> node = root;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.children.computeIfAbsent(prefix.charAt(i), c -> new BuilderNode<>());
+      }
+      if (node.value == null) {
+        // keep the earlier value if the same prefix is configured more than once
+        node.value = value;
+        node.order = nextOrder;
+      }
+      nextOrder++;
+      return this;
+    }
+
+    PathPrefixTrie<T> build() {
+      return new PathPrefixTrie<>(root.build(null, Integer.MAX_VALUE));
+    }
+  }
+
+  private static final class BuilderNode<T> {
+
+    private final Map<Character, BuilderNode<T>> children = new TreeMap<>();
+    @Nullable private T value;
+    private int order;
+
+    // inheritedMatch is the value of the first configured prefix that ends on the path to this node
+    private Node<T> build(@Nullable T inheritedMatch, int inheritedOrder) {
+      T firstMatch = inheritedMatch;
+      int firstMatchOrder = inheritedOrder;
+      if (value != null && order < inheritedOrder) {
+        firstMatch = value;
+        firstMatchOrder = order;
+      }
+      if (children.isEmpty()) {
+        return new Node<>(NO_CHARS, null, firstMatch);
+      }
+      char[] keys = new char[children.size()];
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      Node<T>[] nodes = new Node[children.size()];
+      int i = 0;
+      // TreeMap iterates in key order, so the keys are sorted for the binary search
+      for (Map.Entry<Character, BuilderNode<T>> entry : children.entrySet()) {
+        keys[i] = entry.getKey();
+        nodes[i] = entry.getValue().build(firstMatch, firstMatchOrder);
+        i++;
+      }
+      return new Node<>(keys, nodes, firstMatch);
+    }
+  }
+
+  private static final class Node<T> {
+
+    // sorted
+    private final char[] keys;
+    @Nullable private final Node<T>[] children;
+    @Nullable private final T firstMatch;
+
+    private Node(char[] keys, @Nullable Node<T>[] children, @Nullable T firstMatch) {
+      this.keys = keys;
+      this.children = children;
+      this.firstMatch = firstMatch;
+    }
+
+    @Nullable
+    private Node<T> getChild(char c) {
+      if (children == null) {
+        return null;
+      }
+      int index = Arrays.binarySearch(keys, c);
+      return index < 0 ? null : children[index];
+    }
+  }
+}
@@ -9,30 +9,34 @@ import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.Proper
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.Strings;
 import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.DeadLockDetectorPerformanceCounter;
+import com.microsoft.applicationinsights.agent.internal.perfcounter.ExportQueuePerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.FreeMemoryPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.GcPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.JmxAttributeData;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.JmxDataFetcher;
-import com.microsoft.applicationinsights.agent.internal.perfcounter.JmxMetricPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.JvmHeapMemoryUsedPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.OshiPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.PerformanceCounterContainer;
+import com.microsoft.applicationinsights.agent.internal.perfcounter.PerformanceCounterInstruments;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.ProcessCpuPerformanceCounter;
 import com.microsoft.applicationinsights.agent.internal.perfcounter.ProcessMemoryPerformanceCounter;
 import io.opentelemetry.api.GlobalOpenTelemetry;
-import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
 import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import javax.management.ObjectName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -49,33 +53,49 @@ public class PerformanceCounterInitializer {
 
     PerformanceCounterContainer.INSTANCE.setCollectionFrequencyInSec(
         configuration.metricIntervalSeconds);
+    PerformanceCounterContainer.INSTANCE.setCollectionTimeoutInSec(
+        configuration.preview.performanceCounterCollectionTimeoutSeconds);
 
     if (logger.isDebugEnabled()) {
       PerformanceCounterContainer.INSTANCE.setLogAvailableJmxMetrics();
     }
 
+    if (configuration.preview.performanceCounterCollectionDurationMetric) {
+      PerformanceCounterContainer.INSTANCE.setReportCollectionDurations();
+    }
+
+    // the built-in performance counters are reported through asynchronous instruments, so they
+    // are collected and exported together with the other OpenTelemetry metrics (the ones below
+    // that can block, or that also send other telemetry, are still collected by the container)
+    Meter meter = GlobalOpenTelemetry.getMeter(PerformanceCounterInstruments.METER_NAME);
+
     // We don't want these two to be flowing to the OTLP endpoint
     // because in the long term we will probably be deprecating these
     // in favor of the otel instrumentation runtime metrics that relay
-    // the same information.
-    registerCounterInContainer(
+    // the same information (the performance counter meter is only exported
+    // to Application Insights).
+    Map<String, Collection<JmxAttributeData>> defaultJmxMetrics = new HashMap<>();
+    addDefaultJmxMetric(
         "java.lang:type=Threading",
         "Current Thread Count",
         "ThreadCount",
-        configuration.jmxMetrics);
-    registerCounterInContainer(
+        configuration.jmxMetrics,
+        defaultJmxMetrics);
+    addDefaultJmxMetric(
         "java.lang:type=ClassLoading",
         "Loaded Class Count",
         "LoadedClassCount",
-        configuration.jmxMetrics);
+        configuration.jmxMetrics,
+        defaultJmxMetrics);
+    createMeterPerAttribute(meter, defaultJmxMetrics, configuration.preview.jmxMetricMaxSeries);
 
-    loadCustomJmxPerfCounters(configuration.jmxMetrics);
+    loadCustomJmxPerfCounters(configuration.jmxMetrics, configuration.preview.jmxMetricMaxSeries);
 
-    PerformanceCounterContainer.INSTANCE.register(
-        new ProcessCpuPerformanceCounter(
-            configuration.preview.useNormalizedValueForNonNormalizedCpuPercentage));
-    PerformanceCounterContainer.INSTANCE.register(new ProcessMemoryPerformanceCounter());
-    PerformanceCounterContainer.INSTANCE.register(new FreeMemoryPerformanceCounter());
+    new ProcessCpuPerformanceCounter(
+            configuration.preview.useNormalizedValueForNonNormalizedCpuPercentage)
+        .register(meter);
+    new ProcessMemoryPerformanceCounter().register(meter);
+    new FreeMemoryPerformanceCounter().register(meter);
 
     if (!isAgentRunningInSandboxEnvWindows()) {
       // system cpu and process disk i/o
@@ -86,8 +106,14 @@ public class PerformanceCounterInitializer {
     if (threadBean.isSynchronizerUsageSupported()) {
       PerformanceCounterContainer.INSTANCE.register(new DeadLockDetectorPerformanceCounter());
     }
-    PerformanceCounterContainer.INSTANCE.register(new JvmHeapMemoryUsedPerformanceCounter());
-    PerformanceCounterContainer.INSTANCE.register(new GcPerformanceCounter());
+    new JvmHeapMemoryUsedPerformanceCounter().register(meter);
+    new GcPerformanceCounter().register(meter);
+
+    // always registered, since it also logs the telemetry dropped by the export queues
+    PerformanceCounterContainer.INSTANCE.register(
+        new ExportQueuePerformanceCounter(
+            configuration.preview.generalExportQueueMaxSizeMb > 0,
+            configuration.preview.metricsExportQueueMaxSizeMb > 0));
   }
 
   private static boolean isAgentRunningInSandboxEnvWindows() {
@@ -95,16 +121,16 @@ public class PerformanceCounterInitializer {
     return qualifiedSdkVersion.startsWith("awr") || qualifiedSdkVersion.startsWith("fwr");
   }
 
-  private static void registerCounterInContainer(
+  private static void addDefaultJmxMetric(
       String objectName,
       String metricName,
       String attribute,
-      List<Configuration.JmxMetric> jmxMetricsList) {
+      List<Configuration.JmxMetric> jmxMetricsList,
+      Map<String, Collection<JmxAttributeData>> defaultJmxMetrics) {
     if (!isMetricInConfig(objectName, attribute, jmxMetricsList)) {
-      JmxAttributeData attributeData = new JmxAttributeData(metricName, attribute);
-      JmxMetricPerformanceCounter jmxPerfCounter =
-          new JmxMetricPerformanceCounter(objectName, Arrays.asList(attributeData));
-      PerformanceCounterContainer.INSTANCE.register(jmxPerfCounter);
+      defaultJmxMetrics
+          .computeIfAbsent(objectName, k -> new ArrayList<>())
+          .add(new JmxAttributeData(metricName, attribute));
     }
   }
 
@@ -126,7 +152,8 @@ public class PerformanceCounterInitializer {
    * every entry (object name and attributes) to build a meter per attribute & for each meter
    * register a callback to report the metric value.
    */
-  private static void loadCustomJmxPerfCounters(List<Configuration.JmxMetric> jmxXmlElements) {
+  private static void loadCustomJmxPerfCounters(
+      List<Configuration.JmxMetric> jmxXmlElements, int maxSeries) {
     HashMap<String, Collection<JmxAttributeData>> data = new HashMap<>();
 
     // Build a map of object name to its requested attributes
@@ -155,19 +182,30 @@ public class PerformanceCounterInitializer {
         continue;
       }
 
-      collection.add(new JmxAttributeData(jmxElement.name, jmxElement.attribute));
+      List<String> dimensions =
+          jmxElement.dimensions == null ? Collections.emptyList() : jmxElement.dimensions;
+      collection.add(new JmxAttributeData(jmxElement.name, jmxElement.attribute, dimensions));
     }
 
-    createMeterPerAttribute(data);
+    Meter meter = GlobalOpenTelemetry.getMeter("com.microsoft.applicationinsights.jmx");
+    createMeterPerAttribute(meter, data, maxSeries);
   }
 
-  // Create a meter for each attribute & declare the callback that reports the metric in the meter.
+  // Create a meter for each attribute & declare a callback per object name that reports the
+  // metrics of all of its attributes, so that they are read from each bean in a single call
   private static void createMeterPerAttribute(
-      Map<String, Collection<JmxAttributeData>> objectAndAttributesMap) {
+      Meter meter,
+      Map<String, Collection<JmxAttributeData>> objectAndAttributesMap,
+      int maxSeries) {
     for (Map.Entry<String, Collection<JmxAttributeData>> entry :
         objectAndAttributesMap.entrySet()) {
       String objectName = entry.getKey();
+      if (entry.getValue().isEmpty()) {
+        continue;
+      }
 
+      Map<JmxAttributeData, ObservableDoubleMeasurement> measurements = new LinkedHashMap<>();
+      Map<JmxAttributeData, JmxMetricDimensions> dimensions = new HashMap<>();
       for (JmxAttributeData jmxAttributeData : entry.getValue()) {
 
         String otelMetricName;
@@ -177,13 +215,103 @@ public class PerformanceCounterInitializer {
           otelMetricName = jmxAttributeData.metricName.replaceAll(INVALID_CHARACTER_REGEXP, "_");
         }
 
-        GlobalOpenTelemetry.getMeter("com.microsoft.applicationinsights.jmx")
-            .gaugeBuilder(otelMetricName)
-            .buildWithCallback(
-                observableDoubleMeasurement -> {
-                  calculateAndRecordValueForAttribute(
-                      observableDoubleMeasurement, objectName, jmxAttributeData);
-                });
+        measurements.put(jmxAttributeData, meter.gaugeBuilder(otelMetricName).buildObserver());
+        if (!jmxAttributeData.dimensions.isEmpty()) {
+          dimensions.put(
+              jmxAttributeData,
+              new JmxMetricDimensions(
+                  jmxAttributeData.metricName,
+                  PerformanceCounterInstruments.METRIC_NAME_KEY,
+                  jmxAttributeData.dimensions,
+                  maxSeries));
+        }
+      }
+
+      List<ObservableDoubleMeasurement> observables = new ArrayList<>(measurements.values());
+      meter.batchCallback(
+          () -> calculateAndRecordValues(objectName, measurements, dimensions),
+          observables.get(0),
+          observables.subList(1, observables.size()).toArray(new ObservableDoubleMeasurement[0]));
+    }
+  }
+
+  private static void calculateAndRecordValues(
+      String objectName,
+      Map<JmxAttributeData, ObservableDoubleMeasurement> measurements,
+      Map<JmxAttributeData, JmxMetricDimensions> dimensions) {
+    JmxDataFetcher.AttributeValues values;
+    try {
+      values = JmxDataFetcher.fetchAttributes(objectName, measurements.keySet());
+    } catch (Exception e) {
+      try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
+        logger.error("Failed to fetch the JMX metric values for objectName {}", objectName);
+        logger.error("Exception: {}", e.toString());
+      }
+      return;
+    }
+    for (Map.Entry<JmxAttributeData, ObservableDoubleMeasurement> entry : measurements.entrySet()) {
+      JmxMetricDimensions attributeDimensions = dimensions.get(entry.getKey());
+      if (attributeDimensions == null) {
+        calculateAndRecordValueForAttribute(entry.getValue(), objectName, entry.getKey(), values);
+      } else {
+        calculateAndRecordValuePerSeries(
+            entry.getValue(), objectName, entry.getKey(), attributeDimensions, values);
+      }
+    }
+  }
+
+  // records one value per series instead of a single sum, the beans that map to the same series
+  // (e.g. that only differ in key properties that aren't dimensions) are summed
+  private static void calculateAndRecordValuePerSeries(
+      ObservableDoubleMeasurement observableDoubleMeasurement,
+      String objectName,
+      JmxAttributeData jmxAttributeData,
+      JmxMetricDimensions dimensions,
+      JmxDataFetcher.AttributeValues values) {
+    try {
+      dimensions.beginCollection();
+      Map<Attributes, Double> series = new LinkedHashMap<>();
+      for (Map.Entry<ObjectName, Object> entry :
+          values.getByObjectName(jmxAttributeData).entrySet()) {
+        Double value = toDouble(entry.getValue());
+        if (value == null) {
+          logInvalidJmxMetric(jmxAttributeData);
+          return;
+        }
+        series.merge(dimensions.getAttributes(entry.getKey()), value, Double::sum);
+      }
+      for (Map.Entry<Attributes, Double> entry : series.entrySet()) {
+        observableDoubleMeasurement.record(entry.getValue(), entry.getKey());
+      }
+    } catch (Exception e) {
+      try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
+        logger.error(
+            "Failed to calculate the metric value for objectName {} and metric name {}",
+            objectName,
+            jmxAttributeData.metricName);
+        logger.error("Exception: {}", e.toString());
+      }
+    }
+  }
+
+  @Nullable
+  private static Double toDouble(Object obj) {
+    if (obj instanceof Boolean) {
+      return ((Boolean) obj).booleanValue() ? 1.0 : 0.0;
+    }
+    try {
+      return Double.parseDouble(String.valueOf(obj));
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static void logInvalidJmxMetric(JmxAttributeData jmxAttributeData) {
+    if (invalidJmxMetrics.add(jmxAttributeData.metricName)) {
+      try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
+        logger.warn(
+            "{} JMX metric is invalid because only numeric and boolean JMX metric values are supported.",
+            jmxAttributeData.metricName);
       }
     }
   }
@@ -191,11 +319,10 @@ public class PerformanceCounterInitializer {
   private static void calculateAndRecordValueForAttribute(
       ObservableDoubleMeasurement observableDoubleMeasurement,
       String objectName,
-      JmxAttributeData jmxAttributeData) {
+      JmxAttributeData jmxAttributeData,
+      JmxDataFetcher.AttributeValues values) {
     try {
-      List<Object> result =
-          JmxDataFetcher.fetch(
-              objectName, jmxAttributeData.attribute); // should return the [val, ...] here
+      List<Object> result = values.get(jmxAttributeData); // should return the [val, ...] here
 
       logger.trace(
           "Size of the JmxDataFetcher.fetch result: {}, for objectName:{} and metricName:{}",
@@ -213,13 +340,7 @@ public class PerformanceCounterInitializer {
             value += Double.parseDouble(String.valueOf(obj));
           }
         } catch (RuntimeException e) {
-          if (invalidJmxMetrics.add(jmxAttributeData.metricName)) {
-            try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
-              logger.warn(
-                  "{} JMX metric is invalid because only numeric and boolean JMX metric values are supported.",
-                  jmxAttributeData.metricName);
-            }
-          }
+          logInvalidJmxMetric(jmxAttributeData);
           ok = false;
           break;
         }
@@ -231,10 +352,7 @@ public class PerformanceCounterInitializer {
             objectName,
             jmxAttributeData.metricName);
         observableDoubleMeasurement.record(
-            value,
-            Attributes.of(
-                AttributeKey.stringKey("applicationinsights.internal.metric_name"),
-                jmxAttributeData.metricName));
+            value, PerformanceCounterInstruments.getAttributes(jmxAttributeData.metricName));
       }
     } catch (Exception e) {
       try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
@@ -88,22 +88,21 @@ public class RpConfigurationPolling implements Runnable {
         ConfigurationBuilder.overlayFromEnv(
             newRpConfiguration, envVarsFunction, systemPropertiesFunction);
 
-        RuntimeConfiguration config = runtimeConfigurator.getCurrentConfigCopy();
-
-        if (!newRpConfiguration.connectionString.equals(rpConfiguration.connectionString)) {
-          config.connectionString = newRpConfiguration.connectionString;
-        }
-        if (!Objects.equals(
-            rpConfiguration.sampling.percentage, newRpConfiguration.sampling.percentage)) {
-          config.sampling.percentage = newRpConfiguration.sampling.percentage;
-        }
-        if (!Objects.equals(
-            rpConfiguration.sampling.requestsPerSecond,
-            newRpConfiguration.sampling.requestsPerSecond)) {
-          config.sampling.requestsPerSecond = newRpConfiguration.sampling.requestsPerSecond;
-        }
-
-        runtimeConfigurator.apply(config);
+        runtimeConfigurator.update(
+            config -> {
+              if (!newRpConfiguration.connectionString.equals(rpConfiguration.connectionString)) {
+                config.connectionString = newRpConfiguration.connectionString;
+              }
+              if (!Objects.equals(
+                  rpConfiguration.sampling.percentage, newRpConfiguration.sampling.percentage)) {
+                config.sampling.percentage = newRpConfiguration.sampling.percentage;
+              }
+              if (!Objects.equals(
+                  rpConfiguration.sampling.requestsPerSecond,
+                  newRpConfiguration.sampling.requestsPerSecond)) {
+                config.sampling.requestsPerSecond = newRpConfiguration.sampling.requestsPerSecond;
+              }
+            });
 
         rpConfiguration = newRpConfiguration;
       }
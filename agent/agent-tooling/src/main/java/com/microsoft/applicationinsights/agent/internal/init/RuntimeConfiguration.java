@@ -15,6 +15,8 @@ public class RuntimeConfiguration {
   public Configuration.Sampling sampling = new Configuration.Sampling();
   public Configuration.SamplingPreview samplingPreview = new Configuration.SamplingPreview();
 
+  public List<Configuration.ProcessorConfig> processors = new ArrayList<>();
+
   public boolean propagationDisabled;
   public List<String> additionalPropagators = new ArrayList<>();
   public boolean legacyRequestIdPropagationEnabled;
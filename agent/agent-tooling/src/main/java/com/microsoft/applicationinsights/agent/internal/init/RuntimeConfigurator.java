@@ -67,6 +67,7 @@ public class RuntimeConfigurator {
     runtimeConfig.samplingPreview.parentBased = initialConfig.preview.sampling.parentBased;
     // TODO (trask) make deep copies? (not needed currently)
     runtimeConfig.sampling.overrides = new ArrayList<>(initialConfig.sampling.overrides);
+    runtimeConfig.processors = new ArrayList<>(initialConfig.preview.processors);
 
     runtimeConfig.propagationDisabled = initialConfig.preview.disablePropagation;
     runtimeConfig.additionalPropagators =
@@ -93,6 +94,7 @@ public class RuntimeConfigurator {
     copy.samplingPreview.parentBased = config.samplingPreview.parentBased;
     // TODO (trask) make deep copies? (not needed currently)
     copy.sampling.overrides = new ArrayList<>(config.sampling.overrides);
+    copy.processors = new ArrayList<>(config.processors);
 
     copy.propagationDisabled = config.propagationDisabled;
     copy.additionalPropagators = new ArrayList<>(config.additionalPropagators);
@@ -110,7 +112,21 @@ public class RuntimeConfigurator {
     return copy(currentConfig);
   }
 
-  public void apply(RuntimeConfiguration runtimeConfig) {
+  /**
+   * Applies the changes made by the updater to a copy of the current configuration.
+   *
+   * <p>The configuration is updated from several threads (e.g. the configuration file polling and
+   * the RP configuration polling), so the copy, the changes and the apply are done atomically,
+   * otherwise one of them could apply a stale copy that undoes the changes of the other.
+   */
+  public synchronized void update(Consumer<RuntimeConfiguration> updater) {
+    RuntimeConfiguration runtimeConfig = getCurrentConfigCopy();
+    updater.accept(runtimeConfig);
+    apply(runtimeConfig);
+  }
+
+  // visible for testing
+  synchronized void apply(RuntimeConfiguration runtimeConfig) {
 
     logger.debug("Applying runtime configuration");
 
@@ -130,14 +146,27 @@ public class RuntimeConfigurator {
         runtimeConfig.additionalPropagators,
         runtimeConfig.legacyRequestIdPropagationEnabled);
 
+    // the sampling overrides and processors don't implement equals, so these only detect when they
+    // have been replaced (which is done when the configuration file is reloaded)
+    boolean samplingOverridesChanged =
+        !runtimeConfig.sampling.overrides.equals(currentConfig.sampling.overrides);
+    boolean processorsChanged = !runtimeConfig.processors.equals(currentConfig.processors);
+
     // don't update sampling if it hasn't changed, since that will wipe out state of any
     // rate-limited samplers
     if (enabled != currentEnabled
+        || samplingOverridesChanged
         || !Objects.equals(runtimeConfig.sampling.percentage, currentConfig.sampling.percentage)
         || !Objects.equals(
             runtimeConfig.sampling.requestsPerSecond, currentConfig.sampling.requestsPerSecond)) {
       updateSampling(enabled, runtimeConfig.sampling, runtimeConfig.samplingPreview);
     }
+    if (samplingOverridesChanged) {
+      SecondEntryPoint.updateSamplingOverrides(runtimeConfig.sampling.overrides);
+    }
+    if (processorsChanged) {
+      SecondEntryPoint.updateProcessors(runtimeConfig.processors);
+    }
 
     // initialize Profiler
     if (runtimeConfig.profilerEnabled && telemetryClient.getConnectionString() != null) {
@@ -148,6 +177,7 @@ public class RuntimeConfigurator {
               tempDir,
               initialConfig.preview.profiler,
               initialConfig.preview.gcEvents.reportingLevel,
+              initialConfig.metricIntervalSeconds,
               runtimeConfig.role.name,
               runtimeConfig.role.instance,
               telemetryClient);
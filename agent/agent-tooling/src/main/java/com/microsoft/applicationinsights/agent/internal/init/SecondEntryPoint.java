@@ -3,6 +3,7 @@
 
 package com.microsoft.applicationinsights.agent.internal.init;
 
+import static java.util.Collections.singleton;
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 import com.azure.core.util.logging.ClientLogger;
@@ -28,6 +29,7 @@ import com.google.auto.service.AutoService;
 import com.microsoft.applicationinsights.agent.bootstrap.AzureFunctions;
 import com.microsoft.applicationinsights.agent.bootstrap.preagg.AiContextCustomizerHolder;
 import com.microsoft.applicationinsights.agent.internal.classicsdk.BytecodeUtilImpl;
+import com.microsoft.applicationinsights.agent.internal.classicsdk.MetricPreAggregator;
 import com.microsoft.applicationinsights.agent.internal.common.FriendlyException;
 import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
 import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
@@ -38,12 +40,15 @@ import com.microsoft.applicationinsights.agent.internal.configuration.SnippetCon
 import com.microsoft.applicationinsights.agent.internal.exporter.AgentLogExporter;
 import com.microsoft.applicationinsights.agent.internal.exporter.AgentMetricExporter;
 import com.microsoft.applicationinsights.agent.internal.exporter.AgentSpanExporter;
+import com.microsoft.applicationinsights.agent.internal.exporter.DirectLogRecordProcessor;
+import com.microsoft.applicationinsights.agent.internal.exporter.DirectSpanProcessor;
+import com.microsoft.applicationinsights.agent.internal.exporter.ExceptionFingerprints;
+import com.microsoft.applicationinsights.agent.internal.exporter.ScopeFilteringMetricExporter;
 import com.microsoft.applicationinsights.agent.internal.httpclient.LazyHttpClient;
 import com.microsoft.applicationinsights.agent.internal.legacyheaders.AiLegacyHeaderSpanProcessor;
-import com.microsoft.applicationinsights.agent.internal.processors.ExporterWithLogProcessor;
-import com.microsoft.applicationinsights.agent.internal.processors.ExporterWithSpanProcessor;
-import com.microsoft.applicationinsights.agent.internal.processors.LogExporterWithAttributeProcessor;
-import com.microsoft.applicationinsights.agent.internal.processors.SpanExporterWithAttributeProcessor;
+import com.microsoft.applicationinsights.agent.internal.perfcounter.PerformanceCounterInstruments;
+import com.microsoft.applicationinsights.agent.internal.processors.ExporterWithLogProcessorChain;
+import com.microsoft.applicationinsights.agent.internal.processors.ExporterWithSpanProcessorChain;
 import com.microsoft.applicationinsights.agent.internal.profiler.triggers.AlertTriggerSpanProcessor;
 import com.microsoft.applicationinsights.agent.internal.sampling.AiFixedPercentageSampler;
 import com.microsoft.applicationinsights.agent.internal.sampling.SamplingOverrides;
@@ -55,6 +60,7 @@ import io.opentelemetry.sdk.OpenTelemetrySdk;
 import io.opentelemetry.sdk.autoconfigure.AutoConfiguredOpenTelemetrySdkBuilder;
 import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
 import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
 import io.opentelemetry.sdk.autoconfigure.spi.internal.AutoConfigureListener;
 import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.logs.LogRecordProcessor;
@@ -77,6 +83,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -92,6 +99,14 @@ public class SecondEntryPoint
 
   @Nullable private static AzureMonitorLogFilteringProcessor logFilteringProcessor;
 
+  // these are updated when the configuration file is reloaded (see ConfigurationFilePolling)
+  private static volatile SamplingOverrides exceptionSamplingOverrides =
+      new SamplingOverrides(Collections.emptyList());
+  private static final List<ExporterWithSpanProcessorChain> spanProcessorChains =
+      new CopyOnWriteArrayList<>();
+  private static final List<ExporterWithLogProcessorChain> logProcessorChains =
+      new CopyOnWriteArrayList<>();
+
   static File getTempDir() {
     return tempDir;
   }
@@ -138,6 +153,11 @@ public class SecondEntryPoint
             .setTempDir(tempDir)
             .setGeneralExportQueueSize(configuration.preview.generalExportQueueCapacity)
             .setMetricsExportQueueSize(configuration.preview.metricsExportQueueCapacity)
+            .setGeneralExportQueueShards(configuration.preview.generalExportQueueShards)
+            .setGeneralExportQueueMaxSizeMb(configuration.preview.generalExportQueueMaxSizeMb)
+            .setMetricsExportQueueMaxSizeMb(configuration.preview.metricsExportQueueMaxSizeMb)
+            .setGeneralExportQueuePriorityShedding(
+                configuration.preview.generalExportQueuePriorityShedding)
             .setAadAuthentication(configuration.authentication)
             .setConnectionStrings(configuration.connectionString)
             .setRoleName(configuration.role.name)
@@ -184,6 +204,12 @@ public class SecondEntryPoint
     BytecodeUtilImpl.runtimeConfigurator = runtimeConfigurator;
     BytecodeUtilImpl.connectionStringConfiguredAtRuntime =
         configuration.connectionStringConfiguredAtRuntime;
+    if (configuration.preview.classicSdkMetricPreAggregation) {
+      MetricPreAggregator metricPreAggregator =
+          MetricPreAggregator.start(configuration.metricIntervalSeconds);
+      telemetryClient.addForceFlushCallback(metricPreAggregator::flush);
+      BytecodeUtilImpl.metricPreAggregator = metricPreAggregator;
+    }
 
     if (ConfigurationBuilder.inAzureFunctionsConsumptionWorker()) {
       AzureFunctions.setup(
@@ -197,6 +223,19 @@ public class SecondEntryPoint
           rpConfiguration, runtimeConfigurator, System::getenv, System::getProperty);
     }
 
+    if (configuration.preview.configurationFileReload.enabled) {
+      if (configuration.configPath == null) {
+        startupLogger.warning(
+            "Configuration file reload is enabled, but the configuration was not loaded from a"
+                + " file (e.g. it was loaded from APPLICATIONINSIGHTS_CONFIGURATION_CONTENT)");
+      } else {
+        ConfigurationFilePolling.startPolling(
+            configuration.configPath,
+            configuration.preview.configurationFileReload.pollIntervalSeconds,
+            runtimeConfigurator);
+      }
+    }
+
     // initialize StatsbeatModule
     if (telemetryClient.getConnectionString() != null) {
       statsbeatModule.start(
@@ -245,21 +284,26 @@ public class SecondEntryPoint
         .addPropertiesSupplier(
             () -> {
               Map<String, String> props = new HashMap<>();
-              props.put("otel.traces.exporter", AzureMonitorExporterProviderKeys.EXPORTER_NAME);
+              if (!configuration.preview.directExportPipeline) {
+                props.put("otel.traces.exporter", AzureMonitorExporterProviderKeys.EXPORTER_NAME);
+                props.put("otel.logs.exporter", AzureMonitorExporterProviderKeys.EXPORTER_NAME);
+                // using small interval because need to convert to TelemetryItem as soon as
+                // possible to grab data for live metrics. the real batching is done at a lower
+                // level (not using batch size 1 because that seems to cause poor performance on
+                // small containers)
+                props.put("otel.bsp.schedule.delay", "100");
+                props.put("otel.blrp.schedule.delay", "100");
+              }
+              // otherwise the traces and logs exporters are left as "none" (see AiConfigCustomizer)
+              // and spans and logs are exported by DirectSpanProcessor and DirectLogRecordProcessor
+              // instead, which are added below
               props.put("otel.metrics.exporter", AzureMonitorExporterProviderKeys.EXPORTER_NAME);
-              props.put("otel.logs.exporter", AzureMonitorExporterProviderKeys.EXPORTER_NAME);
               props.put(
                   AzureMonitorExporterProviderKeys.INTERNAL_USING_AZURE_MONITOR_EXPORTER_BUILDER,
                   "true");
               props.put(
                   "otel.metric.export.interval",
                   Integer.toString(configuration.metricIntervalSeconds * 1000));
-              // using small interval because need to convert to TelemetryItem as soon as possible
-              // to grab data for live metrics. the real batching is done at a lower level
-              // (not using batch size 1 because that seems to cause poor performance on small
-              // containers)
-              props.put("otel.bsp.schedule.delay", "100");
-              props.put("otel.blrp.schedule.delay", "100");
               return props;
             })
         .addPropertiesCustomizer(new AiConfigCustomizer())
@@ -276,13 +320,14 @@ public class SecondEntryPoint
                   instanceof AzureMonitorMetricExporterProvider.MarkerMetricExporter) {
                 return buildMetricExporter(configuration, telemetryClient, metricFilters);
               } else {
-                return metricExporter;
+                return new ScopeFilteringMetricExporter(
+                    metricExporter, singleton(PerformanceCounterInstruments.METER_NAME));
               }
             })
         .addLogRecordProcessorCustomizer(
             (logRecordProcessor, configProperties) -> {
               if (logRecordProcessor instanceof BatchLogRecordProcessor) {
-                return wrapBatchLogRecordProcessor(logRecordProcessor, configuration);
+                return wrapLogRecordProcessor(logRecordProcessor, configuration);
               }
               return logRecordProcessor;
             })
@@ -296,7 +341,26 @@ public class SecondEntryPoint
               }
             })
         .addTracerProviderCustomizer(
-            (builder, otelConfig) -> configureTracing(builder, configuration))
+            (builder, otelConfig) -> {
+              configureTracing(builder, configuration);
+              if (isDirectExportPipeline(configuration, otelConfig, "otel.traces.exporter")) {
+                builder.addSpanProcessor(
+                    new DirectSpanProcessor(
+                        buildTraceExporter(configuration, telemetryClient, quickPulse)));
+              }
+              return builder;
+            })
+        .addLoggerProviderCustomizer(
+            (builder, otelConfig) -> {
+              if (isDirectExportPipeline(configuration, otelConfig, "otel.logs.exporter")) {
+                builder.addLogRecordProcessor(
+                    wrapLogRecordProcessor(
+                        new DirectLogRecordProcessor(
+                            buildLogRecordExporter(configuration, telemetryClient, quickPulse)),
+                        configuration));
+              }
+              return builder;
+            })
         .addMeterProviderCustomizer(
             (builder, otelConfig) -> configureMetrics(builder, configuration));
 
@@ -313,11 +377,19 @@ public class SecondEntryPoint
         });
   }
 
-  private static LogRecordProcessor wrapBatchLogRecordProcessor(
+  // the direct export pipeline is only used when the user hasn't configured a different exporter
+  // via the OpenTelemetry configuration, in which case the regular batching pipeline is used
+  private static boolean isDirectExportPipeline(
+      Configuration configuration, ConfigProperties otelConfig, String exporterPropertyName) {
+    return configuration.preview.directExportPipeline
+        && "none".equals(otelConfig.getString(exporterPropertyName));
+  }
+
+  private static LogRecordProcessor wrapLogRecordProcessor(
       LogRecordProcessor logRecordProcessor, Configuration configuration) {
     List<LogRecordProcessor> logRecordProcessors = getLogRecordProcessors(configuration);
 
-    // the filtering log record processor needs to be chained on front of the batch log
+    // the filtering log record processor needs to be chained on front of the batch (or direct) log
     // record processor, hopefully log filtering will be better supported by
     // OpenTelemetry SDK in the future, see
     // https://github.com/open-telemetry/opentelemetry-specification/pull/4439
@@ -330,38 +402,55 @@ public class SecondEntryPoint
   private static AzureMonitorLogFilteringProcessor createLogFilteringProcessor(
       LogRecordProcessor logRecordProcessor, Configuration configuration) {
 
-    List<Configuration.SamplingOverride> logSamplingOverrides =
-        configuration.sampling.overrides.stream()
-            .filter(override -> override.telemetryType == SamplingTelemetryType.TRACE)
-            .collect(Collectors.toList());
-    List<Configuration.SamplingOverride> exceptionSamplingOverrides =
-        configuration.sampling.overrides.stream()
-            .filter(override -> override.telemetryType == SamplingTelemetryType.EXCEPTION)
-            .collect(Collectors.toList());
-
     return new AzureMonitorLogFilteringProcessor(
-        logSamplingOverrides,
-        exceptionSamplingOverrides,
+        configuration.sampling.overrides,
         logRecordProcessor,
         configuration.instrumentation.logging.getSeverityThreshold());
   }
 
   private static SpanExporter buildTraceExporter(
       Configuration configuration, TelemetryClient telemetryClient, QuickPulse quickPulse) {
-    List<Configuration.SamplingOverride> exceptionSamplingOverrides =
-        configuration.sampling.overrides.stream()
-            .filter(override -> override.telemetryType == SamplingTelemetryType.EXCEPTION)
-            .collect(Collectors.toList());
+    exceptionSamplingOverrides =
+        new SamplingOverrides(getExceptionSamplingOverrides(configuration.sampling.overrides));
     SpanExporter spanExporter =
         createSpanExporter(
-            telemetryClient,
-            quickPulse,
-            configuration.preview.captureHttpServer4xxAsError,
-            new SamplingOverrides(exceptionSamplingOverrides));
+            telemetryClient, quickPulse, configuration.preview.captureHttpServer4xxAsError);
 
     return wrapSpanExporter(spanExporter, configuration);
   }
 
+  private static List<Configuration.SamplingOverride> getExceptionSamplingOverrides(
+      List<Configuration.SamplingOverride> samplingOverrides) {
+    return samplingOverrides.stream()
+        .filter(override -> override.telemetryType == SamplingTelemetryType.EXCEPTION)
+        .collect(Collectors.toList());
+  }
+
+  // called from the configuration file polling thread, the new sampling overrides are compiled on
+  // this thread before being swapped in
+  static void updateSamplingOverrides(List<Configuration.SamplingOverride> samplingOverrides) {
+    exceptionSamplingOverrides =
+        new SamplingOverrides(getExceptionSamplingOverrides(samplingOverrides));
+    AzureMonitorLogFilteringProcessor logFilteringProcessor =
+        SecondEntryPoint.logFilteringProcessor;
+    if (logFilteringProcessor != null) {
+      logFilteringProcessor.updateSamplingOverrides(samplingOverrides);
+    }
+  }
+
+  // called from the configuration file polling thread, the new processors are compiled on this
+  // thread before being swapped in
+  static void updateProcessors(List<ProcessorConfig> processors) {
+    List<ProcessorConfig> spanProcessorConfigs = getSpanProcessorConfigs(processors);
+    for (ExporterWithSpanProcessorChain spanProcessorChain : spanProcessorChains) {
+      spanProcessorChain.updateProcessors(spanProcessorConfigs);
+    }
+    List<ProcessorConfig> logProcessorConfigs = getLogProcessorConfigs(processors);
+    for (ExporterWithLogProcessorChain logProcessorChain : logProcessorChains) {
+      logProcessorChain.updateProcessors(logProcessorConfigs);
+    }
+  }
+
   private static MetricExporter buildMetricExporter(
       Configuration configuration,
       TelemetryClient telemetryClient,
@@ -584,8 +673,7 @@ public class SecondEntryPoint
   private static SpanExporter createSpanExporter(
       TelemetryClient telemetryClient,
       @Nullable QuickPulse quickPulse,
-      boolean captureHttpServer4xxAsError,
-      SamplingOverrides exceptionSamplingOverrides) {
+      boolean captureHttpServer4xxAsError) {
 
     SpanDataMapper mapper =
         new SpanDataMapper(
@@ -609,7 +697,7 @@ public class SecondEntryPoint
             },
             (span, event) -> {
               AiFixedPercentageSampler sampler =
-                  exceptionSamplingOverrides.getOverride(event.getAttributes());
+                  SecondEntryPoint.exceptionSamplingOverrides.getOverride(event.getAttributes());
               return sampler != null
                   && sampler
                           .shouldSampleLog(
@@ -629,32 +717,24 @@ public class SecondEntryPoint
   private static SpanExporter wrapSpanExporter(
       SpanExporter spanExporter, Configuration configuration) {
 
-    List<ProcessorConfig> processorConfigs = getSpanProcessorConfigs(configuration);
+    List<ProcessorConfig> processorConfigs =
+        getSpanProcessorConfigs(configuration.preview.processors);
     // NOTE if changing the span processor to something async, flush it in the shutdown hook before
     // flushing TelemetryClient
-    if (!processorConfigs.isEmpty()) {
-      // Reversing the order of processors before passing it Span processor
-      Collections.reverse(processorConfigs);
-      for (ProcessorConfig processorConfig : processorConfigs) {
-        switch (processorConfig.type) {
-          case ATTRIBUTE:
-            spanExporter = new SpanExporterWithAttributeProcessor(processorConfig, spanExporter);
-            break;
-          case SPAN:
-            spanExporter = new ExporterWithSpanProcessor(processorConfig, spanExporter);
-            break;
-          default:
-            throw new IllegalStateException(
-                "Not an expected ProcessorType: " + processorConfig.type);
-        }
-      }
+    if (!processorConfigs.isEmpty() || configuration.preview.configurationFileReload.enabled) {
+      // all of the processors are applied in a single pass (in the configured order), instead of
+      // wrapping the exporter once per processor
+      ExporterWithSpanProcessorChain spanProcessorChain =
+          new ExporterWithSpanProcessorChain(processorConfigs, spanExporter);
+      spanProcessorChains.add(spanProcessorChain);
+      spanExporter = spanProcessorChain;
     }
 
     return spanExporter;
   }
 
-  private static List<ProcessorConfig> getSpanProcessorConfigs(Configuration configuration) {
-    return configuration.preview.processors.stream()
+  private static List<ProcessorConfig> getSpanProcessorConfigs(List<ProcessorConfig> processors) {
+    return processors.stream()
         .filter(
             processor ->
                 processor.type == Configuration.ProcessorType.ATTRIBUTE
@@ -700,35 +780,40 @@ public class SecondEntryPoint
             ConfigurationBuilder.inAzureFunctionsWorker(System::getenv),
             telemetryClient::populateDefaults);
 
-    return new AgentLogExporter(mapper, quickPulse, telemetryClient.getGeneralBatchItemProcessor());
+    Configuration.ExceptionDeduplication exceptionDeduplication =
+        configuration.preview.exceptionDeduplication;
+    ExceptionFingerprints exceptionFingerprints = null;
+    if (exceptionDeduplication.enabled) {
+      exceptionFingerprints =
+          new ExceptionFingerprints(
+              exceptionDeduplication.fullStackTracesPerWindow,
+              exceptionDeduplication.windowSeconds,
+              exceptionDeduplication.maxFingerprints);
+    }
+
+    return new AgentLogExporter(
+        mapper,
+        exceptionFingerprints,
+        quickPulse,
+        telemetryClient.getGeneralBatchItemProcessor());
   }
 
   private static LogRecordExporter wrapLogExporter(
       LogRecordExporter logExporter, Configuration configuration) {
 
-    List<ProcessorConfig> processorConfigs = getLogProcessorConfigs(configuration);
-    if (!processorConfigs.isEmpty()) {
-      // Reversing the order of processors before passing it Log processor
-      Collections.reverse(processorConfigs);
-      for (ProcessorConfig processorConfig : processorConfigs) {
-        switch (processorConfig.type) {
-          case ATTRIBUTE:
-            logExporter = new LogExporterWithAttributeProcessor(processorConfig, logExporter);
-            break;
-          case LOG:
-            logExporter = new ExporterWithLogProcessor(processorConfig, logExporter);
-            break;
-          default:
-            throw new IllegalStateException(
-                "Not an expected ProcessorType: " + processorConfig.type);
-        }
-      }
+    List<ProcessorConfig> processorConfigs =
+        getLogProcessorConfigs(configuration.preview.processors);
+    if (!processorConfigs.isEmpty() || configuration.preview.configurationFileReload.enabled) {
+      ExporterWithLogProcessorChain logProcessorChain =
+          new ExporterWithLogProcessorChain(processorConfigs, logExporter);
+      logProcessorChains.add(logProcessorChain);
+      logExporter = logProcessorChain;
     }
     return logExporter;
   }
 
-  private static List<ProcessorConfig> getLogProcessorConfigs(Configuration configuration) {
-    return configuration.preview.processors.stream()
+  private static List<ProcessorConfig> getLogProcessorConfigs(List<ProcessorConfig> processors) {
+    return processors.stream()
         .filter(
             processor ->
                 processor.type == Configuration.ProcessorType.ATTRIBUTE
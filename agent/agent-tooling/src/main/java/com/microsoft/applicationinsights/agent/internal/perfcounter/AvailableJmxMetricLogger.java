@@ -6,6 +6,7 @@ package com.microsoft.applicationinsights.agent.internal.perfcounter;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
 
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
 import io.opentelemetry.instrumentation.api.internal.GuardedBy;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
@@ -28,7 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 // TODO (trask) add tests
-class AvailableJmxMetricLogger {
+class AvailableJmxMetricLogger implements PerformanceCounter {
 
   private static final Logger logger = LoggerFactory.getLogger(AvailableJmxMetricLogger.class);
 
@@ -39,6 +40,11 @@ class AvailableJmxMetricLogger {
 
   private final Object lock = new Object();
 
+  @Override
+  public void report(TelemetryClient telemetryClient) {
+    logAvailableJmxMetrics();
+  }
+
   void logAvailableJmxMetrics() {
     synchronized (lock) {
       Map<String, Set<String>> attributeMap = getAttributeMap();
@@ -0,0 +1,42 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class will create metric telemetry for the longest time (in milliseconds) that each of the
+ * other performance counters took to collect since the last report, in order to see which
+ * performance counters are expensive.
+ */
+class CollectionDurationPerformanceCounter implements PerformanceCounter {
+
+  static final String COLLECTION_DURATION = "Performance Counter Collection Duration";
+
+  static final String PERFORMANCE_COUNTER_PROPERTY = "PerformanceCounter";
+
+  private final PerformanceCounterScheduler scheduler;
+
+  CollectionDurationPerformanceCounter(PerformanceCounterScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public void report(TelemetryClient telemetryClient) {
+    scheduler.drainMaxCollectionDurations(
+        (name, durationNanos) -> {
+          if (name.equals(getName())) {
+            // don't report the (negligible) cost of reporting the costs
+            return;
+          }
+          double durationMillis = durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+          telemetryClient.trackAsync(
+              telemetryClient
+                  .newMetricTelemetryBuilder(COLLECTION_DURATION, durationMillis)
+                  .addProperty(PERFORMANCE_COUNTER_PROPERTY, name)
+                  .build());
+        });
+  }
+}
@@ -0,0 +1,83 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import com.microsoft.applicationinsights.agent.internal.telemetry.BatchItemProcessor;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryItemPriority;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The class will create metric telemetry for the estimated number of bytes retained by the items
+ * in the export queues (only for the export queues that have a byte budget), and will log to
+ * self-diagnostics how much telemetry of each priority was dropped by the export queues since the
+ * last report.
+ */
+public class ExportQueuePerformanceCounter implements PerformanceCounter {
+
+  private static final Logger logger = LoggerFactory.getLogger(ExportQueuePerformanceCounter.class);
+
+  public static final String GENERAL_EXPORT_QUEUE_BYTES = "General Export Queue Bytes";
+
+  public static final String METRICS_EXPORT_QUEUE_BYTES = "Metrics Export Queue Bytes";
+
+  private static final TelemetryItemPriority[] PRIORITIES = TelemetryItemPriority.values();
+
+  private final boolean general;
+  private final boolean metrics;
+
+  // indexed by TelemetryItemPriority ordinal
+  private final long[] lastGeneralDroppedItemCounts = new long[PRIORITIES.length];
+  private final long[] lastMetricsDroppedItemCounts = new long[PRIORITIES.length];
+
+  public ExportQueuePerformanceCounter(boolean general, boolean metrics) {
+    this.general = general;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void report(TelemetryClient telemetryClient) {
+    BatchItemProcessor generalBatchItemProcessor = telemetryClient.getGeneralBatchItemProcessor();
+    BatchItemProcessor metricsBatchItemProcessor = telemetryClient.getMetricsBatchItemProcessor();
+    if (general) {
+      long queuedBytes = generalBatchItemProcessor.getQueuedBytes();
+      telemetryClient.trackAsync(
+          telemetryClient.newMetricTelemetry(GENERAL_EXPORT_QUEUE_BYTES, queuedBytes));
+    }
+    if (metrics) {
+      long queuedBytes = metricsBatchItemProcessor.getQueuedBytes();
+      telemetryClient.trackAsync(
+          telemetryClient.newMetricTelemetry(METRICS_EXPORT_QUEUE_BYTES, queuedBytes));
+    }
+    logDroppedItems(generalBatchItemProcessor, lastGeneralDroppedItemCounts, "general");
+    logDroppedItems(metricsBatchItemProcessor, lastMetricsDroppedItemCounts, "metrics");
+  }
+
+  private static void logDroppedItems(
+      BatchItemProcessor batchItemProcessor, long[] lastDroppedItemCounts, String queueName) {
+    StringBuilder sb = null;
+    for (TelemetryItemPriority priority : PRIORITIES) {
+      long droppedItemCount = batchItemProcessor.getDroppedItemCount(priority);
+      long delta = droppedItemCount - lastDroppedItemCounts[priority.ordinal()];
+      lastDroppedItemCounts[priority.ordinal()] = droppedItemCount;
+      if (delta == 0) {
+        continue;
+      }
+      if (sb == null) {
+        sb = new StringBuilder();
+      } else {
+        sb.append(", ");
+      }
+      sb.append(priority.name().toLowerCase(Locale.ROOT)).append(" priority: ").append(delta);
+    }
+    if (sb != null) {
+      logger.warn(
+          "Telemetry items dropped by the {} export queue since the last report ({})",
+          queueName,
+          sb);
+    }
+  }
+}
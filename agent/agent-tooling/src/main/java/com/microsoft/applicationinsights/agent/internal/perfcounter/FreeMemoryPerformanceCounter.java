@@ -5,7 +5,9 @@ package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
 import static com.microsoft.applicationinsights.agent.internal.diagnostics.MsgId.FREE_MEMORY_METRIC_ERROR;
 
-import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import java.lang.management.ManagementFactory;
 import javax.management.ObjectName;
 import org.slf4j.Logger;
@@ -13,16 +15,24 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
 /** The class supplies the memory usage in Mega Bytes of the Java process the SDK is in. */
-public class FreeMemoryPerformanceCounter implements PerformanceCounter {
+public class FreeMemoryPerformanceCounter {
 
   private static final Logger logger = LoggerFactory.getLogger(FreeMemoryPerformanceCounter.class);
 
+  private static final Attributes ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(MetricNames.TOTAL_MEMORY);
+
   private ObjectName osBean;
 
   public FreeMemoryPerformanceCounter() {}
 
-  @Override
-  public void report(TelemetryClient telemetryClient) {
+  public void register(Meter meter) {
+    meter
+        .gaugeBuilder(PerformanceCounterInstruments.getInstrumentName(MetricNames.TOTAL_MEMORY))
+        .buildWithCallback(this::record);
+  }
+
+  private void record(ObservableDoubleMeasurement measurement) {
     long freePhysicalMemorySize;
     try {
       freePhysicalMemorySize = getFreePhysicalMemorySize();
@@ -35,9 +45,7 @@ public class FreeMemoryPerformanceCounter implements PerformanceCounter {
     }
 
     logger.trace("Performance Counter: {}: {}", MetricNames.TOTAL_MEMORY, freePhysicalMemorySize);
-    telemetryClient.trackAsync(
-        telemetryClient.newMetricTelemetry(
-            MetricNames.TOTAL_MEMORY, (double) freePhysicalMemorySize));
+    PerformanceCounterInstruments.record(measurement, ATTRIBUTES, (double) freePhysicalMemorySize);
   }
 
   private long getFreePhysicalMemorySize() throws Exception {
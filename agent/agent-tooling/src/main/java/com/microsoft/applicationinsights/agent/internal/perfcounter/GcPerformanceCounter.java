@@ -3,52 +3,60 @@
 
 package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
-import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.util.List;
 
-/** The class reports GC related data. */
-public final class GcPerformanceCounter implements PerformanceCounter {
+/**
+ * The class reports GC related data.
+ *
+ * <p>The totals are reported as (cumulative) asynchronous counters, and the Application Insights
+ * metric exporter uses delta temporality, so the count and time of the GCs since the last export
+ * are sent.
+ */
+public final class GcPerformanceCounter {
 
   private static final String GC_TOTAL_COUNT = "GC Total Count";
   private static final String GC_TOTAL_TIME = "GC Total Time";
 
-  private long currentTotalCount = 0;
-  private long currentTotalTime = 0;
+  private static final Attributes GC_TOTAL_COUNT_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(GC_TOTAL_COUNT);
+  private static final Attributes GC_TOTAL_TIME_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(GC_TOTAL_TIME);
+
+  public void register(Meter meter) {
+    ObservableLongMeasurement totalCount =
+        PerformanceCounterInstruments.buildCounter(meter, GC_TOTAL_COUNT);
+    ObservableLongMeasurement totalTime =
+        PerformanceCounterInstruments.buildCounter(meter, GC_TOTAL_TIME);
+    meter.batchCallback(() -> record(totalCount, totalTime), totalCount, totalTime);
+  }
 
-  @Override
-  public void report(TelemetryClient telemetryClient) {
-    synchronized (this) {
-      List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
-      if (gcs.isEmpty()) {
-        return;
-      }
+  private static void record(
+      ObservableLongMeasurement totalCount, ObservableLongMeasurement totalTime) {
+    List<GarbageCollectorMXBean> gcs = ManagementFactory.getGarbageCollectorMXBeans();
+    if (gcs.isEmpty()) {
+      return;
+    }
 
-      long totalCollectionCount = 0;
-      long totalCollectionTime = 0;
-      for (GarbageCollectorMXBean gc : gcs) {
-        long gcCollectionCount = gc.getCollectionCount();
-        if (gcCollectionCount > 0) {
-          totalCollectionCount += gcCollectionCount;
-        }
-
-        long gcCollectionTime = gc.getCollectionTime();
-        if (gcCollectionTime > 0) {
-          totalCollectionTime += gcCollectionTime;
-        }
+    long totalCollectionCount = 0;
+    long totalCollectionTime = 0;
+    for (GarbageCollectorMXBean gc : gcs) {
+      long gcCollectionCount = gc.getCollectionCount();
+      if (gcCollectionCount > 0) {
+        totalCollectionCount += gcCollectionCount;
       }
 
-      long countToReport = totalCollectionCount - currentTotalCount;
-      long timeToReport = totalCollectionTime - currentTotalTime;
-
-      currentTotalCount = totalCollectionCount;
-      currentTotalTime = totalCollectionTime;
-
-      telemetryClient.trackAsync(
-          telemetryClient.newMetricTelemetry(GC_TOTAL_COUNT, (double) countToReport));
-      telemetryClient.trackAsync(
-          telemetryClient.newMetricTelemetry(GC_TOTAL_TIME, (double) timeToReport));
+      long gcCollectionTime = gc.getCollectionTime();
+      if (gcCollectionTime > 0) {
+        totalCollectionTime += gcCollectionTime;
+      }
     }
+
+    totalCount.record(totalCollectionCount, GC_TOTAL_COUNT_ATTRIBUTES);
+    totalTime.record(totalCollectionTime, GC_TOTAL_TIME_ATTRIBUTES);
   }
 }
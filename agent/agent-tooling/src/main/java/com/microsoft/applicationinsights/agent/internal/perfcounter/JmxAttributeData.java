@@ -3,6 +3,10 @@
 
 package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+
 /**
  * Represents JMX data of an Attribute The display name The name of the attribute The type of the
  * attribute.
@@ -10,9 +14,17 @@ package com.microsoft.applicationinsights.agent.internal.perfcounter;
 public final class JmxAttributeData {
   public final String metricName;
   public final String attribute;
+  // the object name key properties that are reported as dimensions, with one value per matching
+  // bean, instead of a single value that is the sum over all of the matching beans
+  public final List<String> dimensions;
 
   public JmxAttributeData(String metricName, String attribute) {
+    this(metricName, attribute, emptyList());
+  }
+
+  public JmxAttributeData(String metricName, String attribute, List<String> dimensions) {
     this.attribute = attribute;
     this.metricName = metricName;
+    this.dimensions = dimensions;
   }
 }
@@ -4,19 +4,26 @@
 package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
 import static com.microsoft.applicationinsights.agent.internal.diagnostics.MsgId.CUSTOM_JMX_METRIC_ERROR;
+import static java.util.Collections.singletonList;
 
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import javax.management.Attribute;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
 import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
 import javax.management.openmbean.CompositeData;
@@ -29,6 +36,8 @@ public class JmxDataFetcher {
 
   private static final Logger logger = LoggerFactory.getLogger(JmxDataFetcher.class);
 
+  private static final Map<String, List<String>> splitAttributeNames = new ConcurrentHashMap<>();
+
   /**
    * Gets an object name and its attributes to fetch and will return the data.
    *
@@ -42,17 +51,11 @@ public class JmxDataFetcher {
       String objectName, Collection<JmxAttributeData> attributes) throws Exception {
     Map<String, Collection<Object>> result = new HashMap<>();
 
-    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
-    Set<ObjectName> objects = server.queryNames(new ObjectName(objectName), null);
-    if (objects.isEmpty()) {
-      String errorMsg = String.format(Locale.ROOT, "Cannot find object name '%s'", objectName);
-      throw new IllegalArgumentException(errorMsg);
-    }
+    AttributeValues values = fetchAttributes(objectName, attributes);
 
     for (JmxAttributeData attribute : attributes) {
       try {
-        List<Object> resultForAttribute = fetch(server, objects, attribute.attribute);
-        result.put(attribute.metricName, resultForAttribute);
+        result.put(attribute.metricName, values.get(attribute));
       } catch (Exception e) {
         try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
           logger.warn(
@@ -76,52 +79,188 @@ public class JmxDataFetcher {
    * @throws Exception In case the object name is not found.
    */
   public static List<Object> fetch(String objectName, String attribute) throws Exception {
-    List<Object> resultForAttribute = new ArrayList<>();
-
-    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
-    Set<ObjectName> objects = server.queryNames(new ObjectName(objectName), null);
-    logger.trace("Matching object names for pattern {}: {}", objectName, objects.toString());
-    if (objects.isEmpty()) {
-      String errorMsg = String.format(Locale.ROOT, "Cannot find object name '%s'", objectName);
-      throw new IllegalArgumentException(errorMsg);
-    }
+    JmxAttributeData attributeData = new JmxAttributeData(attribute, attribute);
+    AttributeValues values = fetchAttributes(objectName, singletonList(attributeData));
 
     try {
-      resultForAttribute = fetch(server, objects, attribute);
+      return values.get(attributeData);
     } catch (Exception e) {
       try (MDC.MDCCloseable ignored = CUSTOM_JMX_METRIC_ERROR.makeActive()) {
         logger.warn("Failed to fetch JMX object '{}' with attribute '{}': ", objectName, attribute);
       }
       throw e;
     }
+  }
 
-    return resultForAttribute;
+  /**
+   * Gets an object name and its attributes to fetch, and returns the values of each attribute, or
+   * the error fetching it, so that one attribute failing doesn't prevent the others from being
+   * reported.
+   *
+   * <p>The attributes are read from each matching bean with a single {@code getAttributes()} call,
+   * and the beans that match the object name are cached, see {@link MBeanNameCache}.
+   *
+   * @throws Exception In case the object name is not found.
+   */
+  public static AttributeValues fetchAttributes(
+      String objectName, Collection<JmxAttributeData> attributes) throws Exception {
+    return fetchAttributes(
+        PlatformMBeanServer.SERVER, PlatformMBeanServer.NAME_CACHE, objectName, attributes);
   }
 
-  private static List<Object> fetch(
-      MBeanServer server, Set<ObjectName> objects, String attributeName)
+  // visible for testing
+  static AttributeValues fetchAttributes(
+      MBeanServer server,
+      MBeanNameCache nameCache,
+      String objectName,
+      Collection<JmxAttributeData> attributes)
+      throws MalformedObjectNameException {
+
+    Set<ObjectName> objects = nameCache.getMatchingObjectNames(objectName);
+    logger.trace("Matching object names for pattern {}: {}", objectName, objects);
+    if (objects.isEmpty()) {
+      String errorMsg = String.format(Locale.ROOT, "Cannot find object name '%s'", objectName);
+      throw new IllegalArgumentException(errorMsg);
+    }
+
+    AttributeValues result = new AttributeValues(attributes);
+
+    Set<String> attributeNames = new LinkedHashSet<>();
+    for (JmxAttributeData attribute : attributes) {
+      try {
+        attributeNames.add(splitByDotCached(attribute.attribute).get(0));
+      } catch (IllegalArgumentException e) {
+        result.addError(attribute, e);
+      }
+    }
+    String[] attributeNamesArray = attributeNames.toArray(new String[0]);
+
+    for (ObjectName object : objects) {
+      Map<String, Object> beanValues = new HashMap<>();
+      try {
+        for (Attribute attribute : server.getAttributes(object, attributeNamesArray).asList()) {
+          beanValues.put(attribute.getName(), attribute.getValue());
+        }
+      } catch (InstanceNotFoundException e) {
+        // unregistered after the matching object names were looked up
+        nameCache.remove(object);
+        continue;
+      } catch (ReflectionException | RuntimeException e) {
+        for (JmxAttributeData attribute : attributes) {
+          result.addError(attribute, e);
+        }
+        continue;
+      }
+      for (JmxAttributeData attribute : attributes) {
+        try {
+          result.addValue(attribute, object, getValue(server, object, attribute, beanValues));
+        } catch (Exception e) {
+          result.addError(attribute, e);
+        }
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private static Object getValue(
+      MBeanServer server,
+      ObjectName object,
+      JmxAttributeData attribute,
+      Map<String, Object> beanValues)
       throws AttributeNotFoundException,
           MBeanException,
           ReflectionException,
           InstanceNotFoundException {
-    ArrayList<Object> result = new ArrayList<>();
 
-    List<String> inners = splitByDot(attributeName);
+    List<String> inners = splitByDotCached(attribute.attribute);
 
-    for (ObjectName object : objects) {
-      Object value = server.getAttribute(object, inners.get(0));
-      if (inners.size() > 1) {
-        if (value != null) {
-          // TODO (trask) will support more nesting after moving to upstream otel jmx component
-          value = ((CompositeData) value).get(inners.get(1));
-        }
+    Object value;
+    if (beanValues.containsKey(inners.get(0))) {
+      value = beanValues.get(inners.get(0));
+    } else {
+      // getAttributes() leaves out the attributes that couldn't be read, without the reason, so
+      // read it on its own to get the reason (e.g. AttributeNotFoundException)
+      value = server.getAttribute(object, inners.get(0));
+    }
+    if (inners.size() > 1) {
+      if (value != null) {
+        // TODO (trask) will support more nesting after moving to upstream otel jmx component
+        value = ((CompositeData) value).get(inners.get(1));
+      }
+    }
+    return value;
+  }
+
+  /** The values of the attributes read from the beans that match an object name. */
+  public static final class AttributeValues {
+
+    private final Map<JmxAttributeData, List<Object>> values = new HashMap<>();
+    // the bean that each of the values was read from
+    private final Map<JmxAttributeData, List<ObjectName>> objectNames = new HashMap<>();
+    private final Map<JmxAttributeData, Exception> errors = new HashMap<>();
+
+    private AttributeValues(Collection<JmxAttributeData> attributes) {
+      for (JmxAttributeData attribute : attributes) {
+        values.put(attribute, new ArrayList<>());
+        objectNames.put(attribute, new ArrayList<>());
       }
+    }
+
+    private void addValue(
+        JmxAttributeData attribute, ObjectName objectName, @Nullable Object value) {
       if (value != null) {
-        result.add(value);
+        values.get(attribute).add(value);
+        objectNames.get(attribute).add(objectName);
       }
     }
 
-    return result;
+    private void addError(JmxAttributeData attribute, Exception e) {
+      // keep the first error
+      errors.putIfAbsent(attribute, e);
+    }
+
+    /**
+     * Returns the values of the attribute, one for each bean where it isn't null.
+     *
+     * @throws Exception In case the attribute couldn't be read from one of the beans.
+     */
+    public List<Object> get(JmxAttributeData attribute) throws Exception {
+      Exception error = errors.get(attribute);
+      if (error != null) {
+        throw error;
+      }
+      List<Object> attributeValues = values.get(attribute);
+      if (attributeValues == null) {
+        throw new IllegalArgumentException("Attribute was not fetched: " + attribute.attribute);
+      }
+      return attributeValues;
+    }
+
+    /**
+     * Returns the values of the attribute by the bean they were read from, for the beans where it
+     * isn't null.
+     *
+     * @throws Exception In case the attribute couldn't be read from one of the beans.
+     */
+    public Map<ObjectName, Object> getByObjectName(JmxAttributeData attribute) throws Exception {
+      List<Object> attributeValues = get(attribute);
+      List<ObjectName> attributeObjectNames = objectNames.get(attribute);
+      Map<ObjectName, Object> result = new LinkedHashMap<>();
+      for (int i = 0; i < attributeValues.size(); i++) {
+        result.put(attributeObjectNames.get(i), attributeValues.get(i));
+      }
+      return result;
+    }
+  }
+
+  private static List<String> splitByDotCached(String rawName) {
+    List<String> components = splitAttributeNames.get(rawName);
+    if (components == null) {
+      components = splitByDot(rawName);
+      splitAttributeNames.put(rawName, components);
+    }
+    return components;
   }
 
   // This code is copied in from upstream otel java instrumentation repository
@@ -173,5 +312,11 @@ public class JmxDataFetcher {
     segments.add(newSegment);
   }
 
+  // lazily initialized, so that the platform MBean server isn't created until it's needed
+  private static class PlatformMBeanServer {
+    private static final MBeanServer SERVER = ManagementFactory.getPlatformMBeanServer();
+    private static final MBeanNameCache NAME_CACHE = new MBeanNameCache(SERVER);
+  }
+
   private JmxDataFetcher() {}
 }
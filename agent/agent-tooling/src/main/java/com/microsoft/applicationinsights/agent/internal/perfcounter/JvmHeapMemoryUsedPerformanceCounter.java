@@ -3,13 +3,15 @@
 
 package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
-import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
 
 /** The class will create a metric telemetry for capturing the Jvm's heap memory usage. */
-public class JvmHeapMemoryUsedPerformanceCounter implements PerformanceCounter {
+public class JvmHeapMemoryUsedPerformanceCounter {
 
   public static final String HEAP_MEM_USED = "Heap Memory Used (MB)";
 
@@ -17,31 +19,41 @@ public class JvmHeapMemoryUsedPerformanceCounter implements PerformanceCounter {
 
   private static final double MEGABYTE = 1024 * 1024;
 
+  private static final Attributes HEAP_MEM_USED_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(HEAP_MEM_USED);
+  private static final Attributes HEAP_MEM_USED_PERCENTAGE_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(HEAP_MEM_USED_PERCENTAGE);
+
   private final MemoryMXBean memory;
 
   public JvmHeapMemoryUsedPerformanceCounter() {
     memory = ManagementFactory.getMemoryMXBean();
   }
 
-  @Override
-  public void report(TelemetryClient telemetryClient) {
+  public void register(Meter meter) {
     if (memory == null) {
       return;
     }
-
-    reportHeap(memory, telemetryClient);
+    ObservableDoubleMeasurement heapUsed =
+        PerformanceCounterInstruments.buildGauge(meter, HEAP_MEM_USED);
+    ObservableDoubleMeasurement heapUsedPercentage =
+        PerformanceCounterInstruments.buildGauge(meter, HEAP_MEM_USED_PERCENTAGE);
+    meter.batchCallback(
+        () -> recordHeap(memory, heapUsed, heapUsedPercentage), heapUsed, heapUsedPercentage);
   }
 
-  private static void reportHeap(MemoryMXBean memory, TelemetryClient telemetryClient) {
+  private static void recordHeap(
+      MemoryMXBean memory,
+      ObservableDoubleMeasurement heapUsed,
+      ObservableDoubleMeasurement heapUsedPercentage) {
     MemoryUsage mhu = memory.getHeapMemoryUsage();
     if (mhu != null) {
       double currentHeapUsed = mhu.getUsed() / MEGABYTE;
-      telemetryClient.trackAsync(
-          telemetryClient.newMetricTelemetry(HEAP_MEM_USED, currentHeapUsed));
+      PerformanceCounterInstruments.record(heapUsed, HEAP_MEM_USED_ATTRIBUTES, currentHeapUsed);
 
       float percentage = 100.0f * (((float) mhu.getUsed()) / ((float) mhu.getMax()));
-      telemetryClient.trackAsync(
-          telemetryClient.newMetricTelemetry(HEAP_MEM_USED_PERCENTAGE, percentage));
+      PerformanceCounterInstruments.record(
+          heapUsedPercentage, HEAP_MEM_USED_PERCENTAGE_ATTRIBUTES, percentage);
     }
   }
 }
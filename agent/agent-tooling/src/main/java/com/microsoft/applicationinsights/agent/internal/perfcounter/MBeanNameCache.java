@@ -0,0 +1,119 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.MalformedObjectNameException;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the object names that match each configured (possibly wildcard) object name, so that the
+ * MBean server doesn't need to be queried on every collection.
+ *
+ * <p>The cached object names are kept up to date by listening to the MBean registration and
+ * unregistration notifications of the MBean server. If the notifications can't be listened to, the
+ * MBean server is queried on every collection, same as without the cache.
+ */
+final class MBeanNameCache implements NotificationListener {
+
+  private static final Logger logger = LoggerFactory.getLogger(MBeanNameCache.class);
+
+  private final MBeanServer server;
+  private final boolean listening;
+
+  private final Map<String, ObjectName> parsedObjectNames = new ConcurrentHashMap<>();
+
+  // writes are guarded by lock, so that a registration notification can't be missed while the
+  // object names for a new pattern are being queried
+  private final Map<ObjectName, Set<ObjectName>> matchingObjectNames = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+
+  MBeanNameCache(MBeanServer server) {
+    this.server = server;
+    listening = addNotificationListener(server, this);
+  }
+
+  private static boolean addNotificationListener(
+      MBeanServer server, NotificationListener listener) {
+    try {
+      server.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, listener, null, null);
+      return true;
+    } catch (InstanceNotFoundException | RuntimeException e) {
+      logger.debug("Unable to listen to MBean registrations, JMX object names won't be cached", e);
+      return false;
+    }
+  }
+
+  /** Returns the (live) set of registered object names that match the object name pattern. */
+  Set<ObjectName> getMatchingObjectNames(String objectName) throws MalformedObjectNameException {
+    ObjectName pattern = parsedObjectNames.get(objectName);
+    if (pattern == null) {
+      pattern = new ObjectName(objectName);
+      parsedObjectNames.put(objectName, pattern);
+    }
+    if (!listening) {
+      return server.queryNames(pattern, null);
+    }
+    Set<ObjectName> objectNames = matchingObjectNames.get(pattern);
+    if (objectNames != null) {
+      return objectNames;
+    }
+    synchronized (lock) {
+      objectNames = matchingObjectNames.get(pattern);
+      if (objectNames == null) {
+        objectNames = ConcurrentHashMap.newKeySet();
+        objectNames.addAll(server.queryNames(pattern, null));
+        matchingObjectNames.put(pattern, objectNames);
+      }
+      return objectNames;
+    }
+  }
+
+  /** Removes an object name that turned out to no longer be registered. */
+  void remove(ObjectName objectName) {
+    synchronized (lock) {
+      // it may have been registered again in the meantime
+      if (server.isRegistered(objectName)) {
+        return;
+      }
+      for (Set<ObjectName> objectNames : matchingObjectNames.values()) {
+        objectNames.remove(objectName);
+      }
+    }
+  }
+
+  @Override
+  public void handleNotification(Notification notification, Object handback) {
+    if (!(notification instanceof MBeanServerNotification)) {
+      return;
+    }
+    ObjectName objectName = ((MBeanServerNotification) notification).getMBeanName();
+    String type = notification.getType();
+    boolean registered = MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(type);
+    if (!registered && !MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(type)) {
+      return;
+    }
+    synchronized (lock) {
+      for (Map.Entry<ObjectName, Set<ObjectName>> entry : matchingObjectNames.entrySet()) {
+        if (entry.getKey().apply(objectName)) {
+          if (registered) {
+            entry.getValue().add(objectName);
+          } else {
+            entry.getValue().remove(objectName);
+          }
+        }
+      }
+    }
+  }
+}
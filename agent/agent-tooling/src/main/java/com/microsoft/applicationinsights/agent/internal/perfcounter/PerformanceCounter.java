@@ -8,4 +8,9 @@ import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClien
 public interface PerformanceCounter {
 
   void report(TelemetryClient telemetryClient);
+
+  /** Identifies this performance counter in logs and in the collection duration metric. */
+  default String getName() {
+    return getClass().getSimpleName();
+  }
 }
@@ -3,13 +3,8 @@
 
 package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
-import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.ThreadPoolUtils;
 import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
-import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,15 +16,12 @@ import org.slf4j.LoggerFactory;
  * implementation of that interface and then register it in this container.
  *
  * <p>Note that the container will only start working after the first registration of a Performance
- * Counter. That means that setting the timeouts is only relevant if done before the first
+ * Counter. That means that setting the collection frequency is only relevant if done before the
  * registration of a Performance Counter.
  *
- * <p>The container will go through all the registered Performance Counters and will trigger their
- * 'report' method. By default the container will start reporting after 5 minutes and will continue
- * doing so every 1 minute.
- *
- * <p>The user of this class can add (register), remove (unregister) a performance counter while the
- * container is working.
+ * <p>Each registered Performance Counter is collected on its own schedule, by default every 1
+ * minute, on a small pool of collection threads, so that one slow Performance Counter doesn't delay
+ * the others. A Performance Counter that takes longer than the collection timeout is interrupted.
  *
  * <p>The container will be stopped automatically when the application exists.
  */
@@ -43,24 +35,35 @@ public enum PerformanceCounterContainer {
   public static final long DEFAULT_COLLECTION_FREQUENCY_IN_SEC = 60;
   private static final long MIN_COLLECTION_FREQUENCY_IN_SEC = 1;
 
-  private final List<PerformanceCounter> performanceCounters = new CopyOnWriteArrayList<>();
-
-  @Nullable private volatile AvailableJmxMetricLogger availableJmxMetricLogger;
+  public static final long DEFAULT_COLLECTION_TIMEOUT_IN_SEC = 30;
+  private static final long MIN_COLLECTION_TIMEOUT_IN_SEC = 1;
 
-  private volatile boolean initialized = false;
+  private volatile long collectionFrequencyInSec = DEFAULT_COLLECTION_FREQUENCY_IN_SEC;
 
-  private long collectionFrequencyInMillis = DEFAULT_COLLECTION_FREQUENCY_IN_SEC * 1000;
+  private volatile long collectionTimeoutInSec = DEFAULT_COLLECTION_TIMEOUT_IN_SEC;
 
-  private ScheduledThreadPoolExecutor threads;
+  @Nullable private volatile PerformanceCounterScheduler scheduler;
 
   /**
-   * Adds a {@link PerformanceCounter} that can collect data.
+   * Adds a {@link PerformanceCounter} that can collect data, using the collection frequency of the
+   * container.
    *
    * @param performanceCounter The Performance Counter.
    */
   public void register(PerformanceCounter performanceCounter) {
-    initialize();
-    performanceCounters.add(performanceCounter);
+    register(performanceCounter, collectionFrequencyInSec);
+  }
+
+  /**
+   * Adds a {@link PerformanceCounter} that can collect data, using its own collection frequency.
+   *
+   * @param performanceCounter The Performance Counter.
+   * @param collectionFrequencyInSec The timeout to wait between collection of this Performance
+   *     Counter.
+   */
+  public void register(PerformanceCounter performanceCounter, long collectionFrequencyInSec) {
+    collectionFrequencyInSec = validateCollectionFrequencyInSec(collectionFrequencyInSec);
+    getScheduler().schedule(performanceCounter, collectionFrequencyInSec * 1000);
   }
 
   /**
@@ -68,12 +71,53 @@ public enum PerformanceCounterContainer {
    *
    * <p>The number must be a positive number
    *
-   * <p>Note that the method will be effective if called before the first call to the 'register'
-   * method.
+   * <p>Note that the method will only be effective for Performance Counters that are registered
+   * after it is called.
    *
    * @param collectionFrequencyInSec The timeout to wait between collection of Performance Counters.
    */
   public void setCollectionFrequencyInSec(long collectionFrequencyInSec) {
+    this.collectionFrequencyInSec = validateCollectionFrequencyInSec(collectionFrequencyInSec);
+  }
+
+  /**
+   * Sets the time that a single collection of a Performance Counter is allowed to take, before it
+   * is interrupted.
+   *
+   * <p>The collection timeout is never longer than the collection frequency of the Performance
+   * Counter.
+   *
+   * @param collectionTimeoutInSec The time that a single collection is allowed to take.
+   */
+  public void setCollectionTimeoutInSec(long collectionTimeoutInSec) {
+    if (collectionTimeoutInSec < MIN_COLLECTION_TIMEOUT_IN_SEC) {
+      logger.error(
+          "Collection timeout: illegal value '{}'. The minimum value, '{}', is used instead.",
+          collectionTimeoutInSec,
+          MIN_COLLECTION_TIMEOUT_IN_SEC);
+      collectionTimeoutInSec = MIN_COLLECTION_TIMEOUT_IN_SEC;
+    }
+    this.collectionTimeoutInSec = collectionTimeoutInSec;
+    PerformanceCounterScheduler scheduler = this.scheduler;
+    if (scheduler != null) {
+      scheduler.setCollectionTimeoutMillis(collectionTimeoutInSec * 1000);
+    }
+  }
+
+  public void setLogAvailableJmxMetrics() {
+    register(new AvailableJmxMetricLogger());
+  }
+
+  /**
+   * Reports how long each Performance Counter takes to collect, as the "Performance Counter
+   * Collection Duration" metric (in milliseconds) with the name of the Performance Counter as a
+   * property.
+   */
+  public void setReportCollectionDurations() {
+    register(new CollectionDurationPerformanceCounter(getScheduler()));
+  }
+
+  private static long validateCollectionFrequencyInSec(long collectionFrequencyInSec) {
     if (collectionFrequencyInSec < MIN_COLLECTION_FREQUENCY_IN_SEC) {
       String errorMessage =
           String.format(
@@ -84,69 +128,29 @@ public enum PerformanceCounterContainer {
               MIN_COLLECTION_FREQUENCY_IN_SEC);
       logger.error(errorMessage);
 
-      collectionFrequencyInSec = MIN_COLLECTION_FREQUENCY_IN_SEC;
+      return MIN_COLLECTION_FREQUENCY_IN_SEC;
     }
-
-    this.collectionFrequencyInMillis = collectionFrequencyInSec * 1000;
-  }
-
-  public void setLogAvailableJmxMetrics() {
-    availableJmxMetricLogger = new AvailableJmxMetricLogger();
+    return collectionFrequencyInSec;
   }
 
   /**
-   * A private method that is called only when the container needs to start collecting performance
-   * counters data. The method will schedule a callback to be called, it will initialize a {@link
-   * TelemetryClient} that the Performance Counters will use to report their data
+   * The scheduler is only created when the container needs to start collecting performance
+   * counters data. The Performance Counters report their data to the active {@link
+   * TelemetryClient}.
    */
-  @SuppressWarnings("AlreadyChecked")
-  private void initialize() {
-    if (!initialized) {
+  private PerformanceCounterScheduler getScheduler() {
+    PerformanceCounterScheduler scheduler = this.scheduler;
+    if (scheduler == null) {
       synchronized (INSTANCE) {
-        if (!initialized) {
-          createThreadToCollect();
-
-          scheduleWork();
-
-          initialized = true;
+        scheduler = this.scheduler;
+        if (scheduler == null) {
+          scheduler =
+              new PerformanceCounterScheduler(
+                  TelemetryClient::getActive, collectionTimeoutInSec * 1000);
+          this.scheduler = scheduler;
         }
       }
     }
-  }
-
-  private void scheduleWork() {
-    threads.scheduleAtFixedRate(
-        new Runnable() {
-          @Override
-          public void run() {
-            if (availableJmxMetricLogger != null) {
-              availableJmxMetricLogger.logAvailableJmxMetrics();
-            }
-
-            TelemetryClient telemetryClient = TelemetryClient.getActive();
-
-            for (PerformanceCounter performanceCounter : performanceCounters) {
-              try {
-                performanceCounter.report(telemetryClient);
-              } catch (ThreadDeath td) {
-                throw td;
-              } catch (Throwable t) {
-                logger.error(
-                    "Exception while reporting performance counter: '{}'",
-                    performanceCounter.getClass().getName(),
-                    t);
-              }
-            }
-          }
-        },
-        collectionFrequencyInMillis,
-        collectionFrequencyInMillis,
-        TimeUnit.MILLISECONDS);
-  }
-
-  private void createThreadToCollect() {
-    threads = new ScheduledThreadPoolExecutor(1);
-    threads.setThreadFactory(
-        ThreadPoolUtils.createDaemonThreadFactory(PerformanceCounterContainer.class));
+    return scheduler;
   }
 }
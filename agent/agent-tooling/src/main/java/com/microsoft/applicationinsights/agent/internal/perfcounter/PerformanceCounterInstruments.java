@@ -0,0 +1,75 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
+import io.opentelemetry.api.metrics.ObservableLongMeasurement;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for reporting performance counters through OpenTelemetry asynchronous instruments, so
+ * that they are collected and exported together with the other OpenTelemetry metrics.
+ *
+ * <p>Most performance counter names (e.g. "\Processor(_Total)\% Processor Time") aren't valid
+ * OpenTelemetry instrument names, so the instruments are named after a sanitized version of the
+ * metric name, and the values are recorded with the {@link #METRIC_NAME_KEY} attribute, which is
+ * used as the name of the exported metric instead of the instrument name.
+ */
+public final class PerformanceCounterInstruments {
+
+  // the metrics of this meter are only sent to Application Insights, and not to any other
+  // OpenTelemetry metric exporter that is configured (e.g. OTLP)
+  public static final String METER_NAME = "com.microsoft.applicationinsights.perfcounter";
+
+  public static final AttributeKey<String> METRIC_NAME_KEY =
+      AttributeKey.stringKey("applicationinsights.internal.metric_name");
+
+  private static final Pattern VALID_INSTRUMENT_NAME =
+      Pattern.compile("[a-zA-Z][a-zA-Z0-9_.\\-/]{0,254}");
+  private static final Pattern INVALID_CHARACTER = Pattern.compile("[^a-zA-Z0-9_.\\-/]");
+
+  /** Returns a valid OpenTelemetry instrument name for the metric name. */
+  public static String getInstrumentName(String metricName) {
+    if (VALID_INSTRUMENT_NAME.matcher(metricName).matches()) {
+      return metricName;
+    }
+    String instrumentName = INVALID_CHARACTER.matcher(metricName).replaceAll("_");
+    if (instrumentName.isEmpty() || !isAsciiLetter(instrumentName.charAt(0))) {
+      instrumentName = "m" + instrumentName;
+    }
+    if (instrumentName.length() > 255) {
+      instrumentName = instrumentName.substring(0, 255);
+    }
+    return instrumentName;
+  }
+
+  /** Returns the attributes to record the values with, so that they are sent as the metric name. */
+  public static Attributes getAttributes(String metricName) {
+    return Attributes.of(METRIC_NAME_KEY, metricName);
+  }
+
+  static ObservableDoubleMeasurement buildGauge(Meter meter, String metricName) {
+    return meter.gaugeBuilder(getInstrumentName(metricName)).buildObserver();
+  }
+
+  static ObservableLongMeasurement buildCounter(Meter meter, String metricName) {
+    return meter.counterBuilder(getInstrumentName(metricName)).buildObserver();
+  }
+
+  static void record(ObservableDoubleMeasurement measurement, Attributes attributes, double value) {
+    // breeze doesn't like these values
+    if (Double.isFinite(value)) {
+      measurement.record(value, attributes);
+    }
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private PerformanceCounterInstruments() {}
+}
@@ -0,0 +1,204 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.ThreadPoolUtils;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs each {@link PerformanceCounter} on its own schedule, on a small bounded pool of collection
+ * threads, so that one slow (or hung) performance counter doesn't delay or skip the others.
+ *
+ * <p>A performance counter that takes longer than the collection timeout is interrupted, and a
+ * performance counter that is still running (e.g. because it ignores interruption) is skipped until
+ * it finishes, so it can only ever occupy one collection thread.
+ */
+final class PerformanceCounterScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(PerformanceCounterScheduler.class);
+
+  // enough that a couple of hung performance counters don't hold up the others
+  private static final int MAX_COLLECTION_THREADS = 4;
+  private static final int MAX_QUEUED_COLLECTIONS = 100;
+
+  private final Supplier<TelemetryClient> telemetryClientSupplier;
+
+  // only runs the schedule and the timeouts, the performance counters are collected on the
+  // collection threads
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final ThreadPoolExecutor collectionThreads;
+
+  private final List<ScheduledCounter> scheduledCounters = new CopyOnWriteArrayList<>();
+
+  private volatile long collectionTimeoutMillis;
+
+  PerformanceCounterScheduler(
+      Supplier<TelemetryClient> telemetryClientSupplier, long collectionTimeoutMillis) {
+    this.telemetryClientSupplier = telemetryClientSupplier;
+    this.collectionTimeoutMillis = collectionTimeoutMillis;
+
+    scheduler = new ScheduledThreadPoolExecutor(1);
+    scheduler.setThreadFactory(
+        ThreadPoolUtils.createDaemonThreadFactory(PerformanceCounterScheduler.class));
+    // so that the timeouts that are cancelled when the collections complete in time don't linger in
+    // the queue until they would have run
+    scheduler.setRemoveOnCancelPolicy(true);
+
+    collectionThreads =
+        new ThreadPoolExecutor(
+            MAX_COLLECTION_THREADS,
+            MAX_COLLECTION_THREADS,
+            1,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(MAX_QUEUED_COLLECTIONS),
+            ThreadPoolUtils.createDaemonThreadFactory(
+                PerformanceCounterScheduler.class, "Collection"));
+    // performance counters are typically collected once a minute, so don't keep the threads around
+    collectionThreads.allowCoreThreadTimeOut(true);
+  }
+
+  void setCollectionTimeoutMillis(long collectionTimeoutMillis) {
+    this.collectionTimeoutMillis = collectionTimeoutMillis;
+  }
+
+  void schedule(PerformanceCounter performanceCounter, long collectionIntervalMillis) {
+    ScheduledCounter scheduledCounter =
+        new ScheduledCounter(performanceCounter, collectionIntervalMillis);
+    scheduledCounters.add(scheduledCounter);
+    scheduler.scheduleAtFixedRate(
+        scheduledCounter,
+        collectionIntervalMillis,
+        collectionIntervalMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Passes the name and the longest collection duration (in nanoseconds) of each performance
+   * counter that was collected since the last call.
+   */
+  void drainMaxCollectionDurations(BiConsumer<String, Long> consumer) {
+    for (ScheduledCounter scheduledCounter : scheduledCounters) {
+      long maxDurationNanos = scheduledCounter.maxDurationNanos.getAndSet(-1);
+      if (maxDurationNanos != -1) {
+        consumer.accept(scheduledCounter.performanceCounter.getName(), maxDurationNanos);
+      }
+    }
+  }
+
+  // visible for testing
+  int getQueuedTaskCount() {
+    return scheduler.getQueue().size();
+  }
+
+  // visible for testing
+  void shutdown() {
+    scheduler.shutdownNow();
+    collectionThreads.shutdownNow();
+  }
+
+  private final class ScheduledCounter implements Runnable {
+
+    private final PerformanceCounter performanceCounter;
+    private final long collectionIntervalMillis;
+
+    private final AtomicLong maxDurationNanos = new AtomicLong(-1);
+    // the future is done as soon as it's cancelled, even if the performance counter ignores the
+    // interruption and keeps running, so this tracks whether it's actually still running
+    private final AtomicBoolean running = new AtomicBoolean();
+    // cancelled by the collection when it completes in time
+    @Nullable private volatile Future<?> timeout;
+
+    // only accessed on the scheduler thread
+    @Nullable private Future<?> inProgress;
+    private boolean alreadyLoggedSkipped;
+    private boolean alreadyLoggedTimeout;
+
+    private ScheduledCounter(PerformanceCounter performanceCounter, long collectionIntervalMillis) {
+      this.performanceCounter = performanceCounter;
+      this.collectionIntervalMillis = collectionIntervalMillis;
+    }
+
+    @Override
+    public void run() {
+      if (running.get() || (inProgress != null && !inProgress.isDone())) {
+        if (!alreadyLoggedSkipped) {
+          logger.warn(
+              "Performance counter '{}' is still being collected from the previous interval, and"
+                  + " will be skipped until it completes",
+              performanceCounter.getName());
+          alreadyLoggedSkipped = true;
+        }
+        return;
+      }
+      FutureTask<?> future = new FutureTask<>(this::collect, null);
+      long timeoutMillis = Math.min(collectionTimeoutMillis, collectionIntervalMillis);
+      // scheduled before the collection starts, so that the collection can always cancel it
+      Future<?> collectionTimeout =
+          scheduler.schedule(() -> cancelIfNotDone(future), timeoutMillis, TimeUnit.MILLISECONDS);
+      timeout = collectionTimeout;
+      try {
+        collectionThreads.execute(future);
+      } catch (RejectedExecutionException e) {
+        collectionTimeout.cancel(false);
+        logger.debug(
+            "Performance counter '{}' was skipped, too many collections are queued",
+            performanceCounter.getName());
+        return;
+      }
+      inProgress = future;
+    }
+
+    private void collect() {
+      running.set(true);
+      long startNanos = System.nanoTime();
+      try {
+        performanceCounter.report(telemetryClientSupplier.get());
+      } catch (ThreadDeath td) {
+        throw td;
+      } catch (Throwable t) {
+        logger.error(
+            "Exception while reporting performance counter: '{}'", performanceCounter.getName(), t);
+      } finally {
+        long durationNanos = System.nanoTime() - startNanos;
+        maxDurationNanos.accumulateAndGet(durationNanos, Math::max);
+        running.set(false);
+        Future<?> collectionTimeout = timeout;
+        if (collectionTimeout != null) {
+          collectionTimeout.cancel(false);
+        }
+      }
+    }
+
+    private void cancelIfNotDone(Future<?> future) {
+      if (future.isDone()) {
+        return;
+      }
+      future.cancel(true);
+      if (!alreadyLoggedTimeout) {
+        logger.warn(
+            "Performance counter '{}' took longer than {} milliseconds to collect, and was"
+                + " interrupted",
+            performanceCounter.getName(),
+            Math.min(collectionTimeoutMillis, collectionIntervalMillis));
+        alreadyLoggedTimeout = true;
+      }
+    }
+  }
+}
@@ -7,7 +7,9 @@ import static com.microsoft.applicationinsights.agent.internal.perfcounter.Metri
 import static com.microsoft.applicationinsights.agent.internal.perfcounter.MetricNames.PROCESS_CPU_PERCENTAGE_NORMALIZED;
 
 import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.CpuPerformanceCounterCalculator;
-import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
 import javax.annotation.Nullable;
@@ -15,13 +17,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** The class supplies the cpu usage of the Java process the SDK is in. */
-public class ProcessCpuPerformanceCounter implements PerformanceCounter {
+public class ProcessCpuPerformanceCounter {
 
   private static final Logger logger = LoggerFactory.getLogger(ProcessCpuPerformanceCounter.class);
 
   private static final OperatingSystemMXBean operatingSystemMxBean =
       ManagementFactory.getOperatingSystemMXBean();
 
+  private static final Attributes PROCESS_CPU_PERCENTAGE_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(PROCESS_CPU_PERCENTAGE);
+  private static final Attributes PROCESS_CPU_PERCENTAGE_NORMALIZED_ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(PROCESS_CPU_PERCENTAGE_NORMALIZED);
+
   private final boolean useNormalizedValueForNonNormalizedCpuPercentage;
 
   private final CpuPerformanceCounterCalculator cpuPerformanceCounterCalculator =
@@ -42,8 +49,19 @@ public class ProcessCpuPerformanceCounter implements PerformanceCounter {
     }
   }
 
-  @Override
-  public void report(TelemetryClient telemetryClient) {
+  public void register(Meter meter) {
+    ObservableDoubleMeasurement processCpu =
+        PerformanceCounterInstruments.buildGauge(meter, PROCESS_CPU_PERCENTAGE);
+    ObservableDoubleMeasurement processCpuNormalized =
+        PerformanceCounterInstruments.buildGauge(meter, PROCESS_CPU_PERCENTAGE_NORMALIZED);
+    // both are recorded from the same callback, since the calculator returns the cpu percentage
+    // since the last time it was called
+    meter.batchCallback(
+        () -> record(processCpu, processCpuNormalized), processCpu, processCpuNormalized);
+  }
+
+  private void record(
+      ObservableDoubleMeasurement processCpu, ObservableDoubleMeasurement processCpuNormalized) {
     if (cpuPerformanceCounterCalculator == null) {
       return;
     }
@@ -61,13 +79,14 @@ public class ProcessCpuPerformanceCounter implements PerformanceCounter {
     }
 
     logger.trace("Performance Counter: {}: {}", PROCESS_CPU_PERCENTAGE, cpuPercentage);
-    telemetryClient.trackAsync(
-        telemetryClient.newMetricTelemetry(PROCESS_CPU_PERCENTAGE, cpuPercentage));
+    PerformanceCounterInstruments.record(
+        processCpu, PROCESS_CPU_PERCENTAGE_ATTRIBUTES, cpuPercentage);
 
     logger.trace(
         "Performance Counter: {}: {}", PROCESS_CPU_PERCENTAGE_NORMALIZED, cpuPercentageNormalized);
-    telemetryClient.trackAsync(
-        telemetryClient.newMetricTelemetry(
-            PROCESS_CPU_PERCENTAGE_NORMALIZED, cpuPercentageNormalized));
+    PerformanceCounterInstruments.record(
+        processCpuNormalized,
+        PROCESS_CPU_PERCENTAGE_NORMALIZED_ATTRIBUTES,
+        cpuPercentageNormalized);
   }
 }
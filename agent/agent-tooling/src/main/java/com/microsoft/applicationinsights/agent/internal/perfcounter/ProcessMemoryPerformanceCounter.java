@@ -5,7 +5,9 @@ package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
 import static com.microsoft.applicationinsights.agent.internal.perfcounter.MetricNames.PROCESS_MEMORY;
 
-import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
@@ -13,15 +15,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** The class supplies the memory usage in Mega Bytes of the Java process the SDK is in. */
-public class ProcessMemoryPerformanceCounter implements PerformanceCounter {
+public class ProcessMemoryPerformanceCounter {
 
   private static final Logger logger =
       LoggerFactory.getLogger(ProcessMemoryPerformanceCounter.class);
 
+  private static final Attributes ATTRIBUTES =
+      PerformanceCounterInstruments.getAttributes(PROCESS_MEMORY);
+
   public ProcessMemoryPerformanceCounter() {}
 
-  @Override
-  public void report(TelemetryClient telemetryClient) {
+  public void register(Meter meter) {
+    meter
+        .gaugeBuilder(PerformanceCounterInstruments.getInstrumentName(PROCESS_MEMORY))
+        .buildWithCallback(this::record);
+  }
+
+  private void record(ObservableDoubleMeasurement measurement) {
     MemoryMXBean memoryData = ManagementFactory.getMemoryMXBean();
 
     MemoryUsage heapMemoryUsage = memoryData.getHeapMemoryUsage();
@@ -31,6 +41,6 @@ public class ProcessMemoryPerformanceCounter implements PerformanceCounter {
     memoryBytes += (double) nonHeapMemoryUsage.getUsed();
 
     logger.trace("Performance Counter: {}: {}", PROCESS_MEMORY, memoryBytes);
-    telemetryClient.trackAsync(telemetryClient.newMetricTelemetry(PROCESS_MEMORY, memoryBytes));
+    PerformanceCounterInstruments.record(measurement, ATTRIBUTES, memoryBytes);
   }
 }
@@ -59,6 +59,14 @@ public class AttributeProcessor extends AgentProcessor {
     return result;
   }
 
+  // Process actions on the attribute buffer of a SpanProcessorChain, this has the same behavior as
+  // the methods above, but without building a new Attributes instance after every action
+  void processAttributes(MutableAttributes attributes) {
+    for (ProcessorAction actionObj : actions) {
+      applyAction(attributes, actionObj);
+    }
+  }
+
   private static Attributes processAction(Attributes attributes, ProcessorAction actionObj) {
     switch (actionObj.action) {
       case INSERT:
@@ -244,6 +252,98 @@ public class AttributeProcessor extends AgentProcessor {
     return builder.build();
   }
 
+  private static void applyAction(MutableAttributes attributes, ProcessorAction actionObj) {
+    switch (actionObj.action) {
+      case INSERT:
+        applyInsertAction(attributes, actionObj);
+        return;
+      case UPDATE:
+      case DELETE:
+      case HASH:
+      case MASK:
+        applyExistingValueAction(attributes, actionObj);
+        return;
+      case EXTRACT:
+        applyExtractAction(attributes, actionObj);
+        return;
+    }
+  }
+
+  private static void applyInsertAction(
+      MutableAttributes attributes, ProcessorAction actionObj) {
+    if (actionObj.value != null) {
+      attributes.putIfAbsent(actionObj.key, actionObj.value);
+    } else if (actionObj.fromAttribute != null) {
+      attributes.putIfAbsent(actionObj.key, attributes.get(actionObj.fromAttribute));
+    }
+  }
+
+  // update, delete, hash and mask actions, which all operate on the existing value
+  private static void applyExistingValueAction(
+      MutableAttributes attributes, ProcessorAction actionObj) {
+    // Currently we only support String
+    String existingValue = attributes.get(actionObj.key);
+
+    AttributeKey<String> attributeKey = actionObj.key;
+    // support backward compatibility for http.url
+    if (actionObj.key.getKey().equals("http.url")) {
+      HttpUrlKeyValuePair pair = processHttpUrl(attributes);
+      attributeKey = AttributeKey.stringKey(pair.key);
+      existingValue = pair.value;
+    }
+
+    if (existingValue == null) {
+      return;
+    }
+
+    switch (actionObj.action) {
+      case UPDATE:
+        if (actionObj.value != null) {
+          attributes.put(attributeKey, actionObj.value);
+        } else if (actionObj.fromAttribute != null) {
+          attributes.put(attributeKey, attributes.get(actionObj.fromAttribute));
+        }
+        return;
+      case DELETE:
+        attributes.remove(attributeKey);
+        return;
+      case HASH:
+        attributes.put(attributeKey, DigestUtils.sha256Hex(existingValue));
+        return;
+      case MASK:
+        Matcher matcher = actionObj.maskAttribute.pattern.matcher(existingValue);
+        String newValue = matcher.replaceAll(actionObj.maskAttribute.replace);
+        if (!newValue.equals(existingValue)) {
+          attributes.put(attributeKey, newValue);
+        }
+        return;
+      default:
+        throw new AssertionError("Unexpected action: " + actionObj.action);
+    }
+  }
+
+  private static void applyExtractAction(
+      MutableAttributes attributes, ProcessorAction actionObj) {
+    String existingValue = attributes.get(actionObj.key);
+
+    // support backward compatibility for http.url
+    if (actionObj.key.getKey().equals("http.url")) {
+      existingValue = processHttpUrl(attributes).value;
+    }
+
+    // Currently we only support String
+    if (existingValue == null) {
+      return;
+    }
+    Matcher matcher = actionObj.extractAttribute.pattern.matcher(existingValue);
+    if (!matcher.matches()) {
+      return;
+    }
+    for (String groupName : actionObj.extractAttribute.groupNames) {
+      attributes.put(AttributeKey.stringKey(groupName), matcher.group(groupName));
+    }
+  }
+
   // support backward compatibility for http.url
   private static HttpUrlKeyValuePair processHttpUrl(Attributes attributes) {
     String urlFull = attributes.get(AttributeKey.stringKey("url.full"));
@@ -264,7 +364,7 @@ public class AttributeProcessor extends AgentProcessor {
   }
 
   @SuppressWarnings("unchecked")
-  private static void putIntoBuilder(AttributesBuilder builder, AttributeKey<?> key, Object value) {
+  static void putIntoBuilder(AttributesBuilder builder, AttributeKey<?> key, Object value) {
     switch (key.getType()) {
       case STRING:
         builder.put((AttributeKey<String>) key, (String) value);
@@ -0,0 +1,70 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.data.LogRecordData;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+// applies all of the configured attribute and log processors (in the configured order), and allows
+// the processors to be replaced at runtime
+public class ExporterWithLogProcessorChain implements LogRecordExporter {
+
+  private final LogRecordExporter delegate;
+  // the processors wrapped around the delegate, replaced (not mutated) when the processors are
+  // updated at runtime
+  private volatile LogRecordExporter processingExporter;
+
+  // caller should check config.isValid before creating
+  public ExporterWithLogProcessorChain(List<ProcessorConfig> configs, LogRecordExporter delegate) {
+    this.delegate = delegate;
+    processingExporter = wrap(configs, delegate);
+  }
+
+  // the new processors are compiled on the calling thread, and then swapped in, so export() never
+  // waits on an update (a batch that is already being exported finishes with the old processors)
+  public void updateProcessors(List<ProcessorConfig> configs) {
+    processingExporter = wrap(configs, delegate);
+  }
+
+  private static LogRecordExporter wrap(List<ProcessorConfig> configs, LogRecordExporter delegate) {
+    List<ProcessorConfig> reversed = new ArrayList<>(configs);
+    // Reversing the order of processors before passing it Log processor
+    Collections.reverse(reversed);
+    LogRecordExporter logExporter = delegate;
+    for (ProcessorConfig processorConfig : reversed) {
+      switch (processorConfig.type) {
+        case ATTRIBUTE:
+          logExporter = new LogExporterWithAttributeProcessor(processorConfig, logExporter);
+          break;
+        case LOG:
+          logExporter = new ExporterWithLogProcessor(processorConfig, logExporter);
+          break;
+        default:
+          throw new IllegalStateException("Not an expected ProcessorType: " + processorConfig.type);
+      }
+    }
+    return logExporter;
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<LogRecordData> logs) {
+    return processingExporter.export(logs);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+}
@@ -0,0 +1,55 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class ExporterWithSpanProcessorChain implements SpanExporter {
+
+  private final SpanExporter delegate;
+  // replaced (not mutated) when the processors are updated at runtime
+  private volatile SpanProcessorChain processorChain;
+
+  // caller should check config.isValid before creating
+  public ExporterWithSpanProcessorChain(List<ProcessorConfig> configs, SpanExporter delegate) {
+    processorChain = SpanProcessorChain.compile(configs);
+    this.delegate = delegate;
+  }
+
+  // the new processors are compiled on the calling thread, and then swapped in, so export() never
+  // waits on an update (a batch that is already being exported finishes with the old processors)
+  public void updateProcessors(List<ProcessorConfig> configs) {
+    processorChain = SpanProcessorChain.compile(configs);
+  }
+
+  @Override
+  public CompletableResultCode export(Collection<SpanData> spans) {
+    SpanProcessorChain processorChain = this.processorChain;
+    if (processorChain.isEmpty()) {
+      return delegate.export(spans);
+    }
+    // we need to filter attributes before passing on to delegate
+    List<SpanData> copy = new ArrayList<>(spans.size());
+    for (SpanData span : spans) {
+      copy.add(processorChain.process(span));
+    }
+    return delegate.export(copy);
+  }
+
+  @Override
+  public CompletableResultCode flush() {
+    return delegate.flush();
+  }
+
+  @Override
+  public CompletableResultCode shutdown() {
+    return delegate.shutdown();
+  }
+}
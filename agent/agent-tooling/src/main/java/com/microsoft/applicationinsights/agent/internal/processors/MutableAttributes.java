@@ -0,0 +1,113 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import javax.annotation.Nullable;
+
+// attribute buffer that is shared by all of the processors in a SpanProcessorChain, so that the
+// processors can read and update the attributes without building a new Attributes instance after
+// every single action
+//
+// the original attributes are only copied on the first update
+final class MutableAttributes implements Attributes {
+
+  private final Attributes original;
+  @Nullable private Map<AttributeKey<?>, Object> updated;
+
+  MutableAttributes(Attributes original) {
+    this.original = original;
+  }
+
+  boolean isUpdated() {
+    return updated != null;
+  }
+
+  // null values and empty keys are ignored, same as AttributesBuilder
+  <T> void put(AttributeKey<T> key, @Nullable T value) {
+    if (value == null || key.getKey().isEmpty()) {
+      return;
+    }
+    getUpdated().put(key, value);
+  }
+
+  <T> void putIfAbsent(AttributeKey<T> key, @Nullable T value) {
+    if (value == null || key.getKey().isEmpty()) {
+      return;
+    }
+    getUpdated().putIfAbsent(key, value);
+  }
+
+  void remove(AttributeKey<?> key) {
+    if (get(key) != null) {
+      getUpdated().remove(key);
+    }
+  }
+
+  // returns the original attributes if nothing was updated
+  Attributes build() {
+    if (updated == null) {
+      return original;
+    }
+    AttributesBuilder builder = Attributes.builder();
+    for (Map.Entry<AttributeKey<?>, Object> entry : updated.entrySet()) {
+      AttributeProcessor.putIntoBuilder(builder, entry.getKey(), entry.getValue());
+    }
+    return builder.build();
+  }
+
+  private Map<AttributeKey<?>, Object> getUpdated() {
+    if (updated == null) {
+      Map<AttributeKey<?>, Object> map = new HashMap<>(original.size() * 2);
+      original.forEach(map::put);
+      updated = map;
+    }
+    return updated;
+  }
+
+  @Override
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public <T> T get(AttributeKey<T> key) {
+    if (updated == null) {
+      return original.get(key);
+    }
+    return (T) updated.get(key);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AttributeKey<?>, ? super Object> consumer) {
+    if (updated == null) {
+      original.forEach(consumer);
+    } else {
+      updated.forEach(consumer);
+    }
+  }
+
+  @Override
+  public int size() {
+    return updated == null ? original.size() : updated.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return updated == null ? original.isEmpty() : updated.isEmpty();
+  }
+
+  @Override
+  public Map<AttributeKey<?>, Object> asMap() {
+    return updated == null ? original.asMap() : Collections.unmodifiableMap(updated);
+  }
+
+  @Override
+  public AttributesBuilder toBuilder() {
+    return build().toBuilder();
+  }
+}
@@ -10,6 +10,7 @@ import io.opentelemetry.api.common.AttributesBuilder;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,6 +23,14 @@ public class ProcessorUtil {
       Pattern pattern,
       String name,
       AttributesBuilder attributesBuilder) {
+    return applyRule(groupNamesList, pattern, name, attributesBuilder::put);
+  }
+
+  public static String applyRule(
+      List<String> groupNamesList,
+      Pattern pattern,
+      String name,
+      BiConsumer<String, String> attributeSetter) {
     if (groupNamesList.isEmpty()) {
       return name;
     }
@@ -31,7 +40,7 @@ public class ProcessorUtil {
     boolean firstMatch = true;
     while (matcher.find()) {
       lastEnd =
-          applyRule(groupNamesList, name, attributesBuilder, output, lastEnd, matcher, firstMatch);
+          applyRule(groupNamesList, name, attributeSetter, output, lastEnd, matcher, firstMatch);
       firstMatch = false;
     }
     output.append(name, lastEnd, name.length());
@@ -42,7 +51,7 @@ public class ProcessorUtil {
   private static int applyRule(
       List<String> groupNamesList,
       String name,
-      AttributesBuilder attributesBuilder,
+      BiConsumer<String, String> attributeSetter,
       StringBuilder output,
       int lastEnd,
       Matcher matcher,
@@ -55,7 +64,7 @@ public class ProcessorUtil {
       output.append(groupNamesList.get(i - 1));
       // add attribute key=groupNames.get(i-1), value=matcher.group(i)
       if (firstMatch) {
-        attributesBuilder.put(groupNamesList.get(i - 1), matcher.group(i));
+        attributeSetter.accept(groupNamesList.get(i - 1), matcher.group(i));
       }
       output.append("}");
       innerLastEnd = matcher.end(i);
@@ -75,12 +84,16 @@ public class ProcessorUtil {
 
   public static boolean spanHasAllFromAttributeKeys(
       SpanData span, List<AttributeKey<?>> fromAttributes) {
+    return hasAllFromAttributeKeys(span.getAttributes(), fromAttributes);
+  }
+
+  public static boolean hasAllFromAttributeKeys(
+      Attributes attributes, List<AttributeKey<?>> fromAttributes) {
     if (fromAttributes.isEmpty()) {
       return false;
     }
-    Attributes existingSpanAttributes = span.getAttributes();
     for (AttributeKey<?> attributeKey : fromAttributes) {
-      if (existingSpanAttributes.get(attributeKey) == null) {
+      if (attributes.get(attributeKey) == null) {
         return false;
       }
     }
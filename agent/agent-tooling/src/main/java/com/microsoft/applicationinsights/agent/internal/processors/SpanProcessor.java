@@ -5,6 +5,7 @@ package com.microsoft.applicationinsights.agent.internal.processors;
 
 import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorUtil.applyRule;
 import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorUtil.getGroupNamesList;
+import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorUtil.hasAllFromAttributeKeys;
 import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorUtil.spanHasAllFromAttributeKeys;
 
 import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
@@ -105,4 +106,30 @@ public class SpanProcessor extends AgentProcessor {
     }
     return new MySpanData(span, builder.build(), spanName);
   }
+
+  // Same as processFromAttributes followed by processToAttributes, but operating on the attribute
+  // buffer of a SpanProcessorChain. Returns the updated span name.
+  String processName(MutableAttributes attributes, String spanName) {
+    if (hasAllFromAttributeKeys(attributes, fromAttributes)) {
+      StringBuilder updatedSpanBuffer = new StringBuilder();
+      for (AttributeKey<?> attributeKey : fromAttributes) {
+        updatedSpanBuffer.append(attributes.get(attributeKey));
+        updatedSpanBuffer.append(separator);
+      }
+      // Removing the last appended separator
+      if (separator.length() > 0) {
+        updatedSpanBuffer.setLength(updatedSpanBuffer.length() - separator.length());
+      }
+      spanName = updatedSpanBuffer.toString();
+    }
+    for (int i = 0; i < groupNames.size(); i++) {
+      spanName =
+          applyRule(
+              groupNames.get(i),
+              toAttributeRulePatterns.get(i),
+              spanName,
+              (key, value) -> attributes.put(AttributeKey.stringKey(key), value));
+    }
+    return spanName;
+  }
 }
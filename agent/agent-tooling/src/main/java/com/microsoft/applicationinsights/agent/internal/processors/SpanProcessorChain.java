@@ -0,0 +1,74 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import com.microsoft.applicationinsights.agent.internal.processors.AgentProcessor.IncludeExclude;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.List;
+
+// applies all of the configured attribute and span processors to a span in a single pass
+//
+// this has the same behavior as wrapping the exporter once per processor (which is what
+// SpanProcessorChainTest compares against), but instead of each processor (and each action)
+// building a new Attributes and a new SpanData, all of the processors share one attribute buffer,
+// and only one SpanData is built at the end (and only if something changed)
+public final class SpanProcessorChain {
+
+  private final List<AgentProcessor> processors;
+
+  private SpanProcessorChain(List<AgentProcessor> processors) {
+    this.processors = processors;
+  }
+
+  // caller should check config.isValid before creating
+  public static SpanProcessorChain compile(List<ProcessorConfig> configs) {
+    List<AgentProcessor> processors = new ArrayList<>(configs.size());
+    for (ProcessorConfig config : configs) {
+      config.validate();
+      switch (config.type) {
+        case ATTRIBUTE:
+          processors.add(AttributeProcessor.create(config, false));
+          break;
+        case SPAN:
+          processors.add(SpanProcessor.create(config));
+          break;
+        default:
+          throw new IllegalStateException("Not an expected ProcessorType: " + config.type);
+      }
+    }
+    return new SpanProcessorChain(processors);
+  }
+
+  public boolean isEmpty() {
+    return processors.isEmpty();
+  }
+
+  public SpanData process(SpanData span) {
+    MutableAttributes attributes = new MutableAttributes(span.getAttributes());
+    String spanName = span.getName();
+    for (AgentProcessor processor : processors) {
+      IncludeExclude include = processor.getInclude();
+      if (include != null && !include.isMatch(attributes, spanName)) {
+        // If not included we can skip further processing
+        continue;
+      }
+      IncludeExclude exclude = processor.getExclude();
+      if (exclude != null && exclude.isMatch(attributes, spanName)) {
+        // If excluded we can skip further processing
+        continue;
+      }
+      if (processor instanceof AttributeProcessor) {
+        ((AttributeProcessor) processor).processAttributes(attributes);
+      } else {
+        spanName = ((SpanProcessor) processor).processName(attributes, spanName);
+      }
+    }
+    if (!attributes.isUpdated() && spanName.equals(span.getName())) {
+      return span;
+    }
+    return new MySpanData(span, attributes.build(), spanName);
+  }
+}
@@ -28,6 +28,10 @@ class AlternativeJfrConfigurations {
   public static final String DIAGNOSTIC_MEMORY_PROFILE = "diagnostic-memory-profile.jfc";
   public static final String DIAGNOSTIC_CPU_PROFILE = "diagnostic-cpu-profile.jfc";
 
+  // the "default" configuration that ships with JFR (which is intended to be left running), with
+  // the same sensitive events disabled as in the reduced profiles
+  public static final String CONTINUOUS_PROFILE = "continuous-profile.jfc";
+
   private AlternativeJfrConfigurations() {}
 
   /** Loads a pre-set recoding file that ships with Application Insights. */
@@ -154,6 +158,12 @@ class AlternativeJfrConfigurations {
     return getRecordingConfiguration(config, config.cpuTriggeredSettings, AlertMetricType.REQUEST);
   }
 
+  static RecordingConfiguration getContinuousProfileConfig() {
+    return new JfcFileConfiguration(
+        Objects.requireNonNull(
+            AlternativeJfrConfigurations.class.getResourceAsStream(CONTINUOUS_PROFILE)));
+  }
+
   static RecordingConfiguration getManualProfileConfig(Configuration.ProfilerConfiguration config) {
     return getRecordingConfiguration(
         config, config.manualTriggeredSettings, AlertMetricType.MANUAL);
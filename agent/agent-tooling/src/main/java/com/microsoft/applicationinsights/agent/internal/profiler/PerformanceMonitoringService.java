@@ -45,6 +45,7 @@ public class PerformanceMonitoringService {
   private final TelemetryClient telemetryClient;
   private final Configuration.ProfilerConfiguration configuration;
   private final GcReportingLevel reportingLevel;
+  private final int metricIntervalSeconds;
   private final File tempDir;
 
   private boolean currentlyEnabled = false;
@@ -67,6 +68,7 @@ public class PerformanceMonitoringService {
       TelemetryClient telemetryClient,
       Configuration.ProfilerConfiguration configuration,
       GcReportingLevel reportingLevel,
+      int metricIntervalSeconds,
       File tempDir) {
     this.processId = processId;
     this.machineName = machineName;
@@ -74,6 +76,7 @@ public class PerformanceMonitoringService {
     this.telemetryClient = telemetryClient;
     this.configuration = configuration;
     this.reportingLevel = reportingLevel;
+    this.metricIntervalSeconds = metricIntervalSeconds;
     this.tempDir = tempDir;
   }
 
@@ -106,6 +109,7 @@ public class PerformanceMonitoringService {
         AlertingSubsystemInit.create(
             configuration,
             reportingLevel,
+            metricIntervalSeconds,
             TelemetryObservers.INSTANCE,
             profiler,
             telemetryClient,
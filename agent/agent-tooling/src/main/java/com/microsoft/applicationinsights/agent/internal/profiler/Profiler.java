@@ -20,6 +20,8 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -39,6 +41,8 @@ import org.slf4j.LoggerFactory;
  * <ul>
  *   <li>Instantiates FlightRecorder subsystem
  *   <li>Creates profiles on demand
+ *   <li>Optionally keeps a continuous recording of the most recent seconds, which is added to the
+ *       start of each triggered profile
  * </ul>
  */
 public class Profiler {
@@ -52,19 +56,27 @@ public class Profiler {
   private UploadService uploadService;
 
   private FlightRecorderConnection flightRecorderConnection;
-  private RecordingOptions.Builder recordingOptionsBuilder;
+  // TODO -  allow user configuration of profile options
+  private final RecordingOptions.Builder recordingOptionsBuilder = new RecordingOptions.Builder();
 
   private final AlertConfiguration periodicConfig;
 
   private final Object activeRecordingLock = new Object();
   @Nullable private Recording activeRecording = null;
   @Nullable private File activeRecordingFile = null;
+  // the continuous recording dumped when the active recording started
+  @Nullable private File activeLookbackFile = null;
 
   private final RecordingConfiguration memoryRecordingConfiguration;
   private final RecordingConfiguration cpuRecordingConfiguration;
   private final RecordingConfiguration spanRecordingConfiguration;
   private final RecordingConfiguration manualRecordingConfiguration;
 
+  private final Duration continuousRecordingMaxAge;
+  private final long continuousRecordingMaxSizeBytes;
+  @Nullable private Recording continuousRecording;
+  @Nullable private Instant continuousRecordingStart;
+
   private final File temporaryDirectory;
 
   public Profiler(Configuration.ProfilerConfiguration config, File tempDir) {
@@ -82,6 +94,8 @@ public class Profiler {
     cpuRecordingConfiguration = AlternativeJfrConfigurations.getCpuProfileConfig(config);
     spanRecordingConfiguration = AlternativeJfrConfigurations.getSpanProfileConfig(config);
     manualRecordingConfiguration = AlternativeJfrConfigurations.getManualProfileConfig(config);
+    continuousRecordingMaxAge = Duration.ofSeconds(Math.max(0, config.continuousRecordingSeconds));
+    continuousRecordingMaxSizeBytes = config.continuousRecordingMaxSizeMb * 1024L * 1024L;
     temporaryDirectory = tempDir;
   }
 
@@ -96,9 +110,6 @@ public class Profiler {
     this.uploadService = uploadService;
     this.scheduledExecutorService = scheduledExecutorService;
 
-    // TODO -  allow user configuration of profile options
-    recordingOptionsBuilder = new RecordingOptions.Builder();
-
     // connect to mbeans
     MBeanServerConnection mbeanServer = ManagementFactory.getPlatformMBeanServer();
     try {
@@ -107,6 +118,32 @@ public class Profiler {
       // Possibly an older JVM, try using Diagnostic command
       flightRecorderConnection = FlightRecorderConnection.diagnosticCommandConnection(mbeanServer);
     }
+
+    if (!continuousRecordingMaxAge.isZero()) {
+      startContinuousRecording();
+    }
+  }
+
+  // JFR discards the data that is older than maxAge (or beyond maxSize), so this only retains the
+  // most recent window, which is dumped when a profile is triggered
+  // visible for tests
+  void startContinuousRecording() {
+    RecordingOptions recordingOptions =
+        new RecordingOptions.Builder()
+            .maxAge(continuousRecordingMaxAge.getSeconds() + " s")
+            .maxSize(String.valueOf(continuousRecordingMaxSizeBytes))
+            .disk("true")
+            .build();
+    try {
+      Recording recording =
+          createRecording(
+              recordingOptions, AlternativeJfrConfigurations.getContinuousProfileConfig());
+      recording.start();
+      continuousRecording = recording;
+      continuousRecordingStart = Instant.now();
+    } catch (IOException | JfrConnectionException | RuntimeException e) {
+      logger.warn("Failed to start continuous JFR recording", e);
+    }
   }
 
   /** Apply new configuration settings obtained from Service Profiler. */
@@ -125,8 +162,9 @@ public class Profiler {
         uploadNewRecording(alertBreach, recordingStart, uploadListener));
   }
 
+  // visible for tests
   @Nullable
-  private Recording startRecording(AlertMetricType alertType, Duration duration) {
+  Recording startRecording(AlertMetricType alertType, Duration duration) {
     synchronized (activeRecordingLock) {
       if (activeRecording != null) {
         logger.warn("Alert received, however a profile is already in progress, ignoring request.");
@@ -161,6 +199,10 @@ public class Profiler {
 
         this.activeRecording = createRecording(recordingOptions, recordingConfiguration);
 
+        if (alertType != AlertMetricType.PERIODIC) {
+          activeLookbackFile = dumpContinuousRecording(activeRecordingFile);
+        }
+
         return activeRecording;
       } catch (IOException e) {
         logger.error("Failed to create jfr file", e);
@@ -169,6 +211,23 @@ public class Profiler {
     }
   }
 
+  // returns null if there is no continuous recording, or it could not be dumped
+  @Nullable
+  private File dumpContinuousRecording(File recordingFile) {
+    Recording recording = continuousRecording;
+    if (recording == null) {
+      return null;
+    }
+    File lookbackFile = new File(recordingFile.getPath() + ".lookback");
+    try {
+      recording.dump(lookbackFile.getAbsolutePath());
+      return lookbackFile;
+    } catch (IOException | JfrConnectionException e) {
+      logger.warn("Failed to dump continuous JFR recording", e);
+      return null;
+    }
+  }
+
   // visible for tests
   protected Recording createRecording(
       RecordingOptions recordingOptions, RecordingConfiguration recordingConfiguration) {
@@ -220,9 +279,20 @@ public class Profiler {
         // dump profile to file
         closeRecording(activeRecording, activeRecordingFile);
 
+        Instant uploadStart = recordingStart;
+        if (activeLookbackFile != null && activeLookbackFile.exists()) {
+          try {
+            prependFile(activeLookbackFile, activeRecordingFile);
+            uploadStart = getLookbackStart(recordingStart);
+          } catch (IOException e) {
+            // still upload the triggered recording
+            logger.warn("Failed to add continuous recording to profile", e);
+          }
+        }
+
         // upload new profile
         uploadService.upload(
-            alertBreach, recordingStart.toEpochMilli(), activeRecordingFile, uploadListener);
+            alertBreach, uploadStart.toEpochMilli(), activeRecordingFile, uploadListener);
 
       } catch (Exception e) {
         logger.error("Failed to upload recording", e);
@@ -260,6 +330,22 @@ public class Profiler {
     }
   }
 
+  // JFR files are a sequence of self-contained chunks, so recordings can be concatenated
+  // visible for tests
+  static void prependFile(File prefix, File file) throws IOException {
+    try (FileOutputStream fos = new FileOutputStream(prefix, true)) {
+      Files.copy(file.toPath(), fos);
+    }
+    Files.move(prefix.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  // visible for tests
+  Instant getLookbackStart(Instant recordingStart) {
+    Instant lookbackStart = recordingStart.minus(continuousRecordingMaxAge);
+    Instant start = continuousRecordingStart;
+    return start != null && start.isAfter(lookbackStart) ? start : lookbackStart;
+  }
+
   private static void writeFileFromStream(Recording recording, File recordingFile)
       throws IOException, JfrConnectionException {
     if (recordingFile.exists()) {
@@ -288,6 +374,13 @@ public class Profiler {
         }
       }
       activeRecordingFile = null;
+
+      if (activeLookbackFile != null && activeLookbackFile.exists()) {
+        if (!activeLookbackFile.delete()) {
+          logger.error("Failed to remove file " + activeLookbackFile.getAbsolutePath());
+        }
+      }
+      activeLookbackFile = null;
     }
   }
 
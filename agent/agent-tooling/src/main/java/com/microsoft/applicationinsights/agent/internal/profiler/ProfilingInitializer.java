@@ -52,6 +52,7 @@ public class ProfilingInitializer {
   private final String userAgent;
   private final Configuration.ProfilerConfiguration configuration;
   private final GcReportingLevel reportingLevel;
+  private final int metricIntervalSeconds;
   private final File tempDir;
 
   //////////////////////////////////////////////////////////
@@ -71,6 +72,7 @@ public class ProfilingInitializer {
       String userAgent,
       Configuration.ProfilerConfiguration configuration,
       GcReportingLevel reportingLevel,
+      int metricIntervalSeconds,
       File tempDir) {
     this.processId = processId;
     this.machineName = machineName;
@@ -79,6 +81,7 @@ public class ProfilingInitializer {
     this.userAgent = userAgent;
     this.configuration = configuration;
     this.reportingLevel = reportingLevel;
+    this.metricIntervalSeconds = metricIntervalSeconds;
     this.tempDir = tempDir;
   }
 
@@ -86,6 +89,7 @@ public class ProfilingInitializer {
       File tempDir,
       Configuration.ProfilerConfiguration configuration,
       GcReportingLevel reportingLevel,
+      int metricIntervalSeconds,
       String roleName,
       String roleInstance,
       TelemetryClient telemetryClient) {
@@ -99,6 +103,7 @@ public class ProfilingInitializer {
             formApplicationInsightsUserAgent(),
             configuration,
             reportingLevel,
+            metricIntervalSeconds,
             tempDir);
     profilingInitializer.initialize();
     return profilingInitializer;
@@ -214,6 +219,7 @@ public class ProfilingInitializer {
             telemetryClient,
             configuration,
             reportingLevel,
+            metricIntervalSeconds,
             tempDir);
 
     performanceMonitoringService.enableProfiler(
@@ -43,6 +43,7 @@ public class AlertingSubsystemInit {
   public static AlertingSubsystem create(
       Configuration.ProfilerConfiguration configuration,
       GcReportingLevel reportingLevel,
+      int metricIntervalSeconds,
       TelemetryObservers telemetryObservers,
       Profiler profiler,
       TelemetryClient telemetryClient,
@@ -78,18 +79,19 @@ public class AlertingSubsystemInit {
         alertingSubsystem,
         telemetryClient,
         executorService,
-        fromGcEventMonitorConfiguration(reportingLevel));
+        fromGcEventMonitorConfiguration(reportingLevel, metricIntervalSeconds));
 
     return alertingSubsystem;
   }
 
   private static GcEventInit.GcEventMonitorConfiguration fromGcEventMonitorConfiguration(
-      GcReportingLevel reportingLevel) {
+      GcReportingLevel reportingLevel, int metricIntervalSeconds) {
     if (reportingLevel != null) {
-      return new GcEventInit.GcEventMonitorConfiguration(reportingLevel);
+      return new GcEventInit.GcEventMonitorConfiguration(reportingLevel, metricIntervalSeconds);
     }
 
-    return new GcEventInit.GcEventMonitorConfiguration(GcReportingLevel.NONE);
+    return new GcEventInit.GcEventMonitorConfiguration(
+        GcReportingLevel.NONE, metricIntervalSeconds);
   }
 
   private static void addObserver(
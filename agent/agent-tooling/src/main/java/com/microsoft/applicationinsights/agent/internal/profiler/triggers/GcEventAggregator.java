@@ -0,0 +1,218 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler.triggers;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.builders.MetricPointBuilder;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.builders.MetricTelemetryBuilder;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.FormattedTime;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.utils.ThreadPoolUtils;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import com.microsoft.gcmonitor.GcCollectionEvent;
+import com.microsoft.gcmonitor.memorypools.MemoryPool;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// summarizes the gc events per collector and cause over each metric interval, so that the
+// AGGREGATED reporting level sends a handful of metrics per interval instead of one event per
+// collection (which on G1 can be several per second)
+final class GcEventAggregator {
+
+  private static final Logger logger = LoggerFactory.getLogger(GcEventAggregator.class);
+
+  static final String GC_EVENT_COUNT = "GC Event Count";
+  static final String GC_EVENT_PAUSE_TIME = "GC Event Pause Time";
+  static final String GC_EVENT_YOUNG_RECLAIMED = "GC Event Young Reclaimed Bytes";
+  static final String GC_EVENT_TENURED_RECLAIMED = "GC Event Tenured Reclaimed Bytes";
+
+  private final Emitter emitter;
+
+  // guarded by this, replaced on every flush so that series without any collections during an
+  // interval are not reported
+  private Map<SeriesKey, Series> series = new HashMap<>();
+
+  static GcEventAggregator start(TelemetryClient telemetryClient, long intervalSeconds) {
+    GcEventAggregator aggregator =
+        new GcEventAggregator(
+            (name, value, count, min, max, collector, cause) -> {
+              MetricTelemetryBuilder telemetryBuilder = telemetryClient.newMetricTelemetryBuilder();
+
+              MetricPointBuilder point = new MetricPointBuilder();
+              point.setName(name);
+              point.setValue(value);
+              if (count != 1) {
+                point.setCount(count);
+                point.setMin(min);
+                point.setMax(max);
+              }
+              telemetryBuilder.setMetricPoint(point);
+
+              telemetryBuilder.addProperty("collector", collector);
+              telemetryBuilder.addProperty("type", cause);
+              telemetryBuilder.setTime(FormattedTime.offSetDateTimeFromNow());
+
+              telemetryClient.trackAsync(telemetryBuilder.build());
+            });
+    ScheduledExecutorService scheduledExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadPoolUtils.createDaemonThreadFactory(GcEventAggregator.class));
+    scheduledExecutor.scheduleWithFixedDelay(
+        aggregator::flushSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    telemetryClient.addForceFlushCallback(aggregator::flush);
+    return aggregator;
+  }
+
+  // visible for testing
+  GcEventAggregator(Emitter emitter) {
+    this.emitter = emitter;
+  }
+
+  void record(GcCollectionEvent event) {
+    // JFR reports how long the application was paused, the mxbean only reports the duration
+    long sumOfPausesNanos = event.getSumOfPausesNanos();
+    double pauseMillis =
+        sumOfPausesNanos >= 0 ? sumOfPausesNanos / 1_000_000.0 : (double) event.getDuration();
+
+    long youngReclaimed =
+        reclaimed(
+            event.getMemoryUsageBeforeGc(event.getYoungPools()),
+            event.getMemoryUsageAfterGc(event.getYoungPools()));
+    Optional<MemoryPool> tenuredPool = event.getTenuredPool();
+    long tenuredReclaimed = -1;
+    if (tenuredPool.isPresent()) {
+      tenuredReclaimed =
+          reclaimed(
+              event.getMemoryUsageBeforeGc(tenuredPool.get()),
+              event.getMemoryUsageAfterGc(tenuredPool.get()));
+    }
+
+    SeriesKey key = new SeriesKey(event.getCollector().getName(), event.getGcCause());
+    synchronized (this) {
+      series
+          .computeIfAbsent(key, k -> new Series())
+          .record(pauseMillis, youngReclaimed, tenuredReclaimed);
+    }
+  }
+
+  // promotion can grow a pool during a collection, which is not reported as negative reclaimed
+  private static long reclaimed(@Nullable MemoryUsage before, @Nullable MemoryUsage after) {
+    if (before == null || after == null) {
+      return 0;
+    }
+    return Math.max(0, before.getUsed() - after.getUsed());
+  }
+
+  void flush() {
+    Map<SeriesKey, Series> flushed;
+    synchronized (this) {
+      if (series.isEmpty()) {
+        return;
+      }
+      flushed = series;
+      series = new HashMap<>();
+    }
+    for (Map.Entry<SeriesKey, Series> entry : flushed.entrySet()) {
+      SeriesKey key = entry.getKey();
+      Series value = entry.getValue();
+      emitter.emit(GC_EVENT_COUNT, value.count, 1, 0, 0, key.collector, key.cause);
+      emitter.emit(
+          GC_EVENT_PAUSE_TIME,
+          value.pauseTotal,
+          value.count,
+          value.pauseMin,
+          value.pauseMax,
+          key.collector,
+          key.cause);
+      emitter.emit(
+          GC_EVENT_YOUNG_RECLAIMED, value.youngReclaimed, 1, 0, 0, key.collector, key.cause);
+      if (value.tenuredReported) {
+        emitter.emit(
+            GC_EVENT_TENURED_RECLAIMED, value.tenuredReclaimed, 1, 0, 0, key.collector, key.cause);
+      }
+    }
+  }
+
+  private void flushSafely() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      logger.error("Error flushing aggregated gc events: {}", e.getMessage(), e);
+    }
+  }
+
+  interface Emitter {
+    // value is the sum of all of the recorded values, min and max are only meaningful when count
+    // is more than 1
+    @SuppressWarnings("TooManyParameters")
+    void emit(
+        String name,
+        double value,
+        int count,
+        double min,
+        double max,
+        String collector,
+        String cause);
+  }
+
+  private static final class SeriesKey {
+    private final String collector;
+    private final String cause;
+
+    private SeriesKey(String collector, String cause) {
+      this.collector = collector;
+      this.cause = cause;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof SeriesKey)) {
+        return false;
+      }
+      SeriesKey other = (SeriesKey) obj;
+      return collector.equals(other.collector) && cause.equals(other.cause);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(collector, cause);
+    }
+  }
+
+  private static final class Series {
+    private int count;
+    private double pauseTotal;
+    private double pauseMin;
+    private double pauseMax;
+    private long youngReclaimed;
+    private long tenuredReclaimed;
+    private boolean tenuredReported;
+
+    private void record(double pauseMillis, long youngReclaimed, long tenuredReclaimed) {
+      if (count == 0 || pauseMillis < pauseMin) {
+        pauseMin = pauseMillis;
+      }
+      if (count == 0 || pauseMillis > pauseMax) {
+        pauseMax = pauseMillis;
+      }
+      count++;
+      pauseTotal += pauseMillis;
+      this.youngReclaimed += youngReclaimed;
+      if (tenuredReclaimed >= 0) {
+        this.tenuredReclaimed += tenuredReclaimed;
+        tenuredReported = true;
+      }
+    }
+  }
+}
@@ -19,13 +19,15 @@ import java.lang.management.MemoryUsage;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Monitors GC events. Forwards relevant metrics to the alerting subsystem.
  *
- * <p>If reportAllGcEvents configuration setting is set, reports GC event to Application Insights
+ * <p>If reportAllGcEvents configuration setting is set, reports GC event to Application Insights,
+ * either one event per collection, or aggregated into metrics per metric interval.
  */
 class GcEventInit {
 
@@ -37,12 +39,17 @@ class GcEventInit {
   // here
   private static final String JVM_INSTANCE_UID = UUID.randomUUID().toString();
 
+  private static final String JFR_GC_MONITOR_FACTORY =
+      "com.microsoft.gcmonitor.jfr.JfrGcMonitorFactory";
+
   static class GcEventMonitorConfiguration {
 
     final GcReportingLevel reportingLevel;
+    final int metricIntervalSeconds;
 
-    GcEventMonitorConfiguration(GcReportingLevel reportingLevel) {
+    GcEventMonitorConfiguration(GcReportingLevel reportingLevel, int metricIntervalSeconds) {
       this.reportingLevel = reportingLevel;
+      this.metricIntervalSeconds = metricIntervalSeconds;
     }
   }
 
@@ -53,15 +60,48 @@ class GcEventInit {
       ExecutorService executorService,
       GcEventMonitorConfiguration gcEventMonitorConfiguration) {
 
-    GcMonitorFactory gcMonitorFactory = ServiceLoaderUtil.findServiceLoader(GcMonitorFactory.class);
+    init(
+        executorService,
+        process(alertingSubsystem, telemetryClient, gcEventMonitorConfiguration),
+        findJfrGcMonitorFactory(),
+        ServiceLoaderUtil.findServiceLoader(GcMonitorFactory.class));
+  }
+
+  // visible for testing
+  static void init(
+      ExecutorService executorService,
+      GcEventConsumer consumer,
+      @Nullable GcMonitorFactory jfrGcMonitorFactory,
+      @Nullable GcMonitorFactory gcMonitorFactory) {
+    if (jfrGcMonitorFactory != null) {
+      try {
+        jfrGcMonitorFactory.monitorSelf(executorService, consumer);
+        return;
+      } catch (UnableToMonitorMemoryException | RuntimeException e) {
+        logger.debug("Failed to monitor gc events using JFR, falling back to gc mxbeans", e);
+      }
+    }
 
     if (gcMonitorFactory != null) {
-      init(
-          alertingSubsystem,
-          telemetryClient,
-          executorService,
-          gcEventMonitorConfiguration,
-          gcMonitorFactory);
+      init(executorService, consumer, gcMonitorFactory);
+    }
+  }
+
+  // JFR event streaming reports the gc pause times (which the gc mxbean notifications don't), but
+  // requires Java 14+, so the factory is compiled separately and can only be loaded reflectively
+  @Nullable
+  private static GcMonitorFactory findJfrGcMonitorFactory() {
+    try {
+      Class.forName("jdk.jfr.consumer.RecordingStream");
+    } catch (ClassNotFoundException e) {
+      return null;
+    }
+    try {
+      return (GcMonitorFactory)
+          Class.forName(JFR_GC_MONITOR_FACTORY).getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | LinkageError e) {
+      logger.debug("Failed to load {}", JFR_GC_MONITOR_FACTORY, e);
+      return null;
     }
   }
 
@@ -71,10 +111,18 @@ class GcEventInit {
       ExecutorService executorService,
       GcEventMonitorConfiguration gcEventMonitorConfiguration,
       GcMonitorFactory gcMonitorFactory) {
+    init(
+        executorService,
+        process(alertingSubsystem, telemetryClient, gcEventMonitorConfiguration),
+        gcMonitorFactory);
+  }
+
+  private static void init(
+      ExecutorService executorService,
+      GcEventConsumer consumer,
+      GcMonitorFactory gcMonitorFactory) {
     try {
-      gcMonitorFactory.monitorSelf(
-          executorService,
-          process(alertingSubsystem, telemetryClient, gcEventMonitorConfiguration));
+      gcMonitorFactory.monitorSelf(executorService, consumer);
     } catch (UnableToMonitorMemoryException e) {
       logger.error("Failed to monitor gc mxbeans");
     }
@@ -85,6 +133,15 @@ class GcEventInit {
       AlertingSubsystem alertingSubsystem,
       TelemetryClient telemetryClient,
       GcEventMonitorConfiguration gcEventMonitorConfiguration) {
+    if (gcEventMonitorConfiguration.reportingLevel == GcReportingLevel.AGGREGATED) {
+      GcEventAggregator aggregator =
+          GcEventAggregator.start(
+              telemetryClient, gcEventMonitorConfiguration.metricIntervalSeconds);
+      return event -> {
+        sendTenuredFillPercentageToAlerting(alertingSubsystem, event);
+        aggregator.record(event);
+      };
+    }
     return event -> {
       sendTenuredFillPercentageToAlerting(alertingSubsystem, event);
       emitGcEvent(telemetryClient, gcEventMonitorConfiguration, event);
@@ -135,6 +192,15 @@ class GcEventInit {
     telemetryBuilder.addMeasurement("duration_ms", (double) event.getDuration());
     telemetryBuilder.addMeasurement("end_time_ms", (double) event.getEndTime());
     telemetryBuilder.addMeasurement("thread_count", (double) event.getGcThreadCount());
+    // only reported when monitoring using JFR
+    if (event.getSumOfPausesNanos() >= 0) {
+      telemetryBuilder.addMeasurement(
+          "sum_of_pauses_ms", event.getSumOfPausesNanos() / 1_000_000.0);
+    }
+    if (event.getLongestPauseNanos() >= 0) {
+      telemetryBuilder.addMeasurement(
+          "longest_pause_ms", event.getLongestPauseNanos() / 1_000_000.0);
+    }
     telemetryBuilder.addMeasurement(
         "collection_count", (double) event.getCollector().getCollectionCount());
     telemetryBuilder.addMeasurement(
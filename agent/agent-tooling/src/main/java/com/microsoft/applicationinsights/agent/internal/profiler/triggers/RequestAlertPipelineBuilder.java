@@ -8,6 +8,7 @@ import com.microsoft.applicationinsights.alerting.aiconfig.AlertingConfig;
 import com.microsoft.applicationinsights.alerting.alert.AlertBreach;
 import com.microsoft.applicationinsights.alerting.analysis.TimeSource;
 import com.microsoft.applicationinsights.alerting.analysis.aggregations.Aggregation;
+import com.microsoft.applicationinsights.alerting.analysis.aggregations.PercentileAggregation;
 import com.microsoft.applicationinsights.alerting.analysis.aggregations.ThresholdBreachRatioAggregation;
 import com.microsoft.applicationinsights.alerting.analysis.filter.AlertRequestFilter;
 import com.microsoft.applicationinsights.alerting.analysis.pipelines.AlertPipeline;
@@ -40,6 +41,12 @@ class RequestAlertPipelineBuilder {
       configuration.profileDuration = 30;
     }
 
+    if (configuration.aggregation.type == Configuration.RequestAggregationType.PERCENTILE) {
+      configuration.aggregation.configuration.percentile =
+          PercentileAggregation.validatePercentile(
+              configuration.aggregation.configuration.percentile);
+    }
+
     AlertingConfig.RequestTrigger requestTriggerConfiguration =
         buildRequestTriggerConfiguration(configuration);
 
@@ -77,7 +84,8 @@ class RequestAlertPipelineBuilder {
     AlertingConfig.RequestAggregationConfig requestAggregationConfig =
         new AlertingConfig.RequestAggregationConfig()
             .setThresholdMillis(configuration.aggregation.configuration.thresholdMillis)
-            .setMinimumSamples(configuration.aggregation.configuration.minimumSamples);
+            .setMinimumSamples(configuration.aggregation.configuration.minimumSamples)
+            .setPercentile(configuration.aggregation.configuration.percentile);
 
     AlertingConfig.RequestAggregation aggregation =
         new AlertingConfig.RequestAggregation()
@@ -122,6 +130,14 @@ class RequestAlertPipelineBuilder {
           timeSource,
           false);
     }
+    if (configuration.aggregation.type == Configuration.RequestAggregationType.PERCENTILE) {
+      return new PercentileAggregation(
+          configuration.aggregation.configuration.percentile,
+          configuration.aggregation.configuration.minimumSamples,
+          configuration.aggregation.windowSizeMillis / 1000,
+          timeSource,
+          false);
+    }
     return null;
   }
 }
@@ -0,0 +1,157 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler.upload;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Reads a file gzip compressed, one block at a time.
+ *
+ * <p>Only the block that is being filled is held in memory, so the compressed copy of the file
+ * never needs to be written to disk or held in memory in full. The file is compressed with the
+ * fastest compression level, since it is compressed on the (already busy) profiled host.
+ *
+ * <p>Not thread safe, blocks need to be read one at a time.
+ */
+final class CompressedBlockReader implements Closeable {
+
+  private static final int READ_BUFFER_LENGTH = 64 * 1024;
+
+  private final int blockLength;
+  private final InputStream in;
+  private final BlockBuffer compressed;
+  private final GZIPOutputStream gzip;
+  private final byte[] readBuffer = new byte[READ_BUFFER_LENGTH];
+
+  private boolean endOfInput;
+
+  /**
+   * Opens the file for reading.
+   *
+   * @param copy if not null, the compressed blocks are also written to it (used for debugging)
+   */
+  static CompressedBlockReader open(Path file, int blockLength, @Nullable OutputStream copy)
+      throws IOException {
+    return new CompressedBlockReader(Files.newInputStream(file), blockLength, copy);
+  }
+
+  // visible for testing
+  CompressedBlockReader(InputStream in, int blockLength, @Nullable OutputStream copy)
+      throws IOException {
+    this.blockLength = blockLength;
+    this.in = in;
+    this.compressed = new BlockBuffer(blockLength, copy);
+    this.gzip = new FastGzipOutputStream(compressed);
+  }
+
+  /**
+   * Returns the next block of compressed data, which is {@code blockLength} long except for the
+   * last block, or null once all of the compressed data has been returned.
+   */
+  @Nullable
+  ByteBuffer readBlock() throws IOException {
+    while (!endOfInput && compressed.size() < blockLength) {
+      int read = in.read(readBuffer);
+      if (read == -1) {
+        endOfInput = true;
+        gzip.finish();
+      } else {
+        gzip.write(readBuffer, 0, read);
+      }
+    }
+    if (compressed.size() == 0) {
+      return null;
+    }
+    return compressed.take(blockLength);
+  }
+
+  /** Returns whether all of the compressed data has been returned by {@link #readBlock()}. */
+  boolean isFinished() {
+    return endOfInput && compressed.size() == 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      in.close();
+    } finally {
+      // this also closes the copy
+      gzip.close();
+    }
+  }
+
+  private static class FastGzipOutputStream extends GZIPOutputStream {
+
+    private FastGzipOutputStream(OutputStream out) throws IOException {
+      super(out, READ_BUFFER_LENGTH);
+      def.setLevel(Deflater.BEST_SPEED);
+    }
+  }
+
+  // collects the compressed output, which can go slightly over the block length, since the
+  // compressor writes whatever it has produced for each chunk of input
+  private static class BlockBuffer extends OutputStream {
+
+    @Nullable private final OutputStream copy;
+    private byte[] buffer;
+    private int size;
+
+    private BlockBuffer(int blockLength, @Nullable OutputStream copy) {
+      this.buffer = new byte[blockLength + READ_BUFFER_LENGTH];
+      this.copy = copy;
+    }
+
+    private int size() {
+      return size;
+    }
+
+    // removes up to length bytes from the start of the buffer
+    private ByteBuffer take(int length) throws IOException {
+      int taken = Math.min(length, size);
+      byte[] block = Arrays.copyOf(buffer, taken);
+      System.arraycopy(buffer, taken, buffer, 0, size - taken);
+      size -= taken;
+      if (copy != null) {
+        copy.write(block);
+      }
+      return ByteBuffer.wrap(block);
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(b, off, buffer, size, len);
+      size += len;
+    }
+
+    private void ensureCapacity(int length) {
+      if (size + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(size + length, buffer.length * 2));
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (copy != null) {
+        copy.close();
+      }
+    }
+  }
+}
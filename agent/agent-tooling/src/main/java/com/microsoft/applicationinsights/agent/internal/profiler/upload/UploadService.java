@@ -3,14 +3,16 @@
 
 package com.microsoft.applicationinsights.agent.internal.profiler.upload;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import com.azure.core.http.rest.Response;
-import com.azure.storage.blob.BlobAsyncClient;
 import com.azure.storage.blob.BlobContainerAsyncClient;
 import com.azure.storage.blob.BlobContainerClientBuilder;
 import com.azure.storage.blob.models.BlobHttpHeaders;
 import com.azure.storage.blob.models.BlockBlobItem;
-import com.azure.storage.blob.models.ParallelTransferOptions;
-import com.azure.storage.blob.options.BlobUploadFromFileOptions;
+import com.azure.storage.blob.options.BlockBlobCommitBlockListOptions;
+import com.azure.storage.blob.options.BlockBlobSimpleUploadOptions;
+import com.azure.storage.blob.specialized.BlockBlobAsyncClient;
 import com.microsoft.applicationinsights.agent.internal.profiler.service.BlobAccessPass;
 import com.microsoft.applicationinsights.agent.internal.profiler.service.ServiceProfilerClient;
 import com.microsoft.applicationinsights.agent.internal.profiler.util.OsPlatformProvider;
@@ -22,22 +24,22 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Base64;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
-import java.util.zip.GZIPOutputStream;
-import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /** Uploads profiles to the service profiler endpoint. */
 public class UploadService {
@@ -53,7 +55,10 @@ public class UploadService {
 
   private static final Logger logger = LoggerFactory.getLogger(UploadService.class);
 
-  private static final long UPLOAD_BLOCK_LENGTH = 8 * 1024 * 1024;
+  private static final int UPLOAD_BLOCK_LENGTH = 8 * 1024 * 1024;
+
+  // bounds the memory used by an upload to roughly (MAX_IN_FLIGHT_BLOCKS + 1) blocks
+  private static final int MAX_IN_FLIGHT_BLOCKS = 2;
 
   // For debug purposes, can use settings to tell the profiler to retain the profile after
   // it has been uploaded
@@ -193,70 +198,141 @@ public class UploadService {
   /** Upload profile to service profiler. */
   private Mono<UploadFinishArgs> uploadTrace(UploadContext uploadContext) {
 
-    File zippedTraceFile = null;
-
+    CompressedBlockReader reader;
     try {
-      // Zip up profile
-      zippedTraceFile = createZippedTraceFile(uploadContext);
-
-      // Obtain permission to upload profile
-
-      File finalZippedTraceFile1 = zippedTraceFile;
-      return serviceProfilerClient
-          .getUploadAccess(uploadContext.getProfileId(), uploadContext.getExtension())
-          .flatMap(
-              uploadPass -> {
-                if (uploadPass == null) {
-                  close(finalZippedTraceFile1);
-                  return Mono.error(new UploadFailedException("Failed to obtain upload pass"));
-                }
-
-                // perform upload then finally close file
-                return performUpload(uploadContext, uploadPass, finalZippedTraceFile1)
-                    .doFinally((signal) -> close(finalZippedTraceFile1));
-              });
+      // open the profile before obtaining permission to upload it, so that a missing profile fails
+      // fast
+      reader = openTraceFile(uploadContext);
     } catch (Exception e) {
       logger.error("Upload of the trace file failed", e);
-      if (zippedTraceFile != null) {
-        close(zippedTraceFile);
-      }
       return Mono.error(new UploadFailedException(e));
     }
+
+    // Obtain permission to upload profile
+    return serviceProfilerClient
+        .getUploadAccess(uploadContext.getProfileId(), uploadContext.getExtension())
+        .flatMap(
+            uploadPass -> {
+              if (uploadPass == null) {
+                return Mono.error(new UploadFailedException("Failed to obtain upload pass"));
+              }
+              return performUpload(uploadContext, uploadPass, reader);
+            })
+        // perform upload then finally close file
+        .doFinally(signal -> close(reader));
   }
 
-  protected Mono<UploadFinishArgs> performUpload(
-      UploadContext uploadContext, BlobAccessPass uploadPass, File file) {
-    return uploadToSasLink(uploadPass, uploadContext, file)
+  private Mono<UploadFinishArgs> performUpload(
+      UploadContext uploadContext, BlobAccessPass uploadPass, CompressedBlockReader reader) {
+    return uploadToSasLink(uploadPass, uploadContext, reader)
         .flatMap(response -> reportUploadComplete(uploadContext, response));
   }
 
-  /** Upload the given file to a blob storage defined by a sas link. */
+  /**
+   * Upload the given file to a blob storage defined by a sas link.
+   *
+   * <p>The file is compressed as it is uploaded, a block at a time, and the blocks are uploaded in
+   * parallel as they are compressed, with a bounded number of blocks in flight (which also bounds
+   * the memory used).
+   */
   private Mono<Response<BlockBlobItem>> uploadToSasLink(
-      BlobAccessPass uploadPass, UploadContext uploadContext, File file) {
+      BlobAccessPass uploadPass, UploadContext uploadContext, CompressedBlockReader reader) {
     try {
       URL sasUrl = new URL(uploadPass.getUriWithSasToken());
 
-      BlobUploadFromFileOptions options = createBlockBlobOptions(file, uploadContext);
       // TODO (trask) should we be injecting our HttpClient into the blob container client?
       BlobContainerClientBuilder builder =
           new BlobContainerClientBuilder().endpoint(sasUrl.toString());
       blobContainerClientCustomizer.accept(builder);
       BlobContainerAsyncClient blobContainerClient = builder.buildAsyncClient();
 
-      BlobAsyncClient blobClient = blobContainerClient.getBlobAsyncClient(uploadPass.getBlobName());
-      return blobClient
-          .uploadFromFileWithResponse(options)
+      BlockBlobAsyncClient blobClient =
+          blobContainerClient
+              .getBlobAsyncClient(uploadPass.getBlobName())
+              .getBlockBlobAsyncClient();
+      BlobHttpHeaders headers = new BlobHttpHeaders().setContentEncoding("gzip");
+      Map<String, String> metadata = createBlobMetadata(uploadContext);
+
+      // compression is done by a single thread at a time, which caps the cpu used by an upload
+      return Mono.fromCallable(reader::readBlock)
+          .subscribeOn(Schedulers.boundedElastic())
+          .flatMap(
+              firstBlock -> {
+                if (reader.isFinished()) {
+                  // small enough for a single request
+                  return blobClient.uploadWithResponse(
+                      new BlockBlobSimpleUploadOptions(
+                              replayable(firstBlock), firstBlock.remaining())
+                          .setHeaders(headers)
+                          .setMetadata(metadata));
+                }
+                return uploadBlocks(blobClient, firstBlock, reader)
+                    .flatMap(
+                        blockIds ->
+                            blobClient.commitBlockListWithResponse(
+                                new BlockBlobCommitBlockListOptions(blockIds)
+                                    .setHeaders(headers)
+                                    .setMetadata(metadata)));
+              })
           .doFinally((done) -> logger.info("upload done"));
     } catch (MalformedURLException e) {
       throw new IllegalArgumentException("Malformed url", e);
     }
   }
 
-  private static void close(File zippedTraceFile) {
+  // stages all of the blocks, and returns their ids in order
+  private static Mono<List<String>> uploadBlocks(
+      BlockBlobAsyncClient blobClient, ByteBuffer firstBlock, CompressedBlockReader reader) {
+    Flux<ByteBuffer> remainingBlocks =
+        Flux.<ByteBuffer>generate(
+                sink -> {
+                  try {
+                    ByteBuffer block = reader.readBlock();
+                    if (block == null) {
+                      sink.complete();
+                    } else {
+                      sink.next(block);
+                    }
+                  } catch (IOException e) {
+                    sink.error(e);
+                  }
+                })
+            .subscribeOn(Schedulers.boundedElastic());
+
+    // flatMapSequential only requests (and so only compresses) the next block when one of the
+    // in-flight blocks has been staged
+    return Flux.concat(Mono.just(firstBlock), remainingBlocks)
+        .index()
+        .flatMapSequential(
+            indexedBlock -> {
+              String blockId = blockId(indexedBlock.getT1());
+              ByteBuffer block = indexedBlock.getT2();
+              return blobClient
+                  .stageBlock(blockId, replayable(block), block.remaining())
+                  .thenReturn(blockId);
+            },
+            MAX_IN_FLIGHT_BLOCKS,
+            1)
+        .collectList();
+  }
+
+  // block ids need to be base64 encoded, and all the same length
+  // visible for testing
+  static String blockId(long index) {
+    return Base64.getEncoder()
+        .encodeToString(String.format(Locale.ROOT, "%08d", index).getBytes(UTF_8));
+  }
+
+  // the request body may be read more than once (when the request is retried)
+  private static Flux<ByteBuffer> replayable(ByteBuffer block) {
+    return Flux.defer(() -> Flux.just(block.duplicate()));
+  }
+
+  private static void close(CompressedBlockReader reader) {
     try {
-      deletePathRecursive(zippedTraceFile);
+      reader.close();
     } catch (Exception e) {
-      logger.warn("An error occurred when closing the zipped trace file", e);
+      logger.warn("An error occurred when closing the trace file", e);
     }
   }
 
@@ -291,7 +367,7 @@ public class UploadService {
     }
   }
 
-  BlobUploadFromFileOptions createBlockBlobOptions(File file, UploadContext uploadContext) {
+  Map<String, String> createBlobMetadata(UploadContext uploadContext) {
     HashMap<String, String> metadata = new HashMap<>();
 
     metadata.put(
@@ -307,61 +383,35 @@ public class UploadService {
       metadata.put(ROLE_NAME_META_NAME, roleName);
     }
 
-    String fullFilePath = file.getAbsoluteFile().toString();
-
-    return new BlobUploadFromFileOptions(fullFilePath)
-        .setHeaders(new BlobHttpHeaders().setContentEncoding("gzip"))
-        .setMetadata(metadata)
-        .setParallelTransferOptions(
-            new ParallelTransferOptions().setBlockSizeLong(UPLOAD_BLOCK_LENGTH));
+    return metadata;
   }
 
-  /** Zip up profile. */
+  /** Open profile for compressed reading. */
   @SuppressFBWarnings(
       value = "SECPTI", // Potential Path Traversal
       justification =
           "The constructed file path cannot be controlled by an end user of the instrumented application")
-  private static File createZippedTraceFile(UploadContext uploadContext) throws IOException {
+  private static CompressedBlockReader openTraceFile(UploadContext uploadContext)
+      throws IOException {
     File traceFile = uploadContext.getTraceFile();
     logger.debug("Trace file: {}", traceFile.toString());
 
-    File targetFile =
-        Files.createTempFile(traceFile.getParentFile().toPath(), traceFile.getName(), ".gz")
-            .toFile();
-    if (!retainJfrFile) {
-      targetFile.deleteOnExit();
-    }
-
-    try (OutputStream target = new GZIPOutputStream(Files.newOutputStream(targetFile.toPath()))) {
-      Files.copy(traceFile.toPath(), target);
+    OutputStream copy = null;
+    if (retainJfrFile) {
+      File copyFile =
+          Files.createTempFile(traceFile.getParentFile().toPath(), traceFile.getName(), ".gz")
+              .toFile();
+      logger.info("Compressed JFR file retained at: {}", copyFile.getAbsolutePath());
+      copy = Files.newOutputStream(copyFile.toPath());
     }
 
-    return targetFile;
-  }
-
-  // Deleting file recursively.
-  private static void deletePathRecursive(@Nullable File fileToDelete) throws IOException {
-    if (fileToDelete != null && fileToDelete.exists()) {
-      if (retainJfrFile) {
-        logger.info("JFR file retained at: {}", fileToDelete.getAbsolutePath());
-      } else {
-        deletePathRecursive(fileToDelete.toPath());
+    try {
+      return CompressedBlockReader.open(traceFile.toPath(), UPLOAD_BLOCK_LENGTH, copy);
+    } catch (IOException e) {
+      if (copy != null) {
+        copy.close();
       }
-    }
-  }
-
-  // Deleting file recursively.
-  private static void deletePathRecursive(Path path) throws IOException {
-    try (Stream<Path> stream = Files.walk(path)) {
-      stream
-          .sorted(Comparator.reverseOrder())
-          .map(Path::toFile)
-          .forEach(
-              file -> {
-                if (!file.delete()) {
-                  logger.error("Failed to delete " + file.getAbsolutePath());
-                }
-              });
+      throw e;
     }
   }
 }
@@ -13,7 +13,11 @@ import io.opentelemetry.semconv.UrlAttributes;
 import io.opentelemetry.semconv.incubating.HttpIncubatingAttributes;
 import io.opentelemetry.semconv.incubating.ThreadIncubatingAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
@@ -23,39 +27,145 @@ import org.slf4j.LoggerFactory;
 public class SamplingOverrides {
 
   private static final Logger logger = LoggerFactory.getLogger(SamplingOverrides.class);
+
+  private static final int[] NO_GROUPS = new int[0];
+
   private final List<MatcherGroup> matcherGroups;
 
+  // each matcher group that has at least one strict matcher is indexed by the key and value of its
+  // first strict matcher, so that only the matcher groups whose strict matcher matches need to be
+  // evaluated (this is the common case, e.g. overrides by http.route or by db.system)
+  private final List<StrictIndex> strictIndexes;
+
+  // matcher groups that don't have a strict matcher, these always need to be evaluated
+  private final int[] unindexedGroups;
+
   public SamplingOverrides(List<SamplingOverride> overrides) {
     matcherGroups = new ArrayList<>();
+    Map<String, StrictIndex> strictIndexesByKey = new LinkedHashMap<>();
+    List<Integer> unindexed = new ArrayList<>();
     for (SamplingOverride override : overrides) {
-      matcherGroups.add(new MatcherGroup(override));
+      int groupIndex = matcherGroups.size();
+      MatcherGroup matcherGroup = new MatcherGroup(override);
+      matcherGroups.add(matcherGroup);
+      StrictMatcher indexMatcher = matcherGroup.indexMatcher;
+      if (indexMatcher == null) {
+        unindexed.add(groupIndex);
+      } else {
+        strictIndexesByKey
+            .computeIfAbsent(
+                indexMatcher.key.getKey(),
+                k -> new StrictIndex(indexMatcher.key, indexMatcher.valueSource))
+            .add(indexMatcher.value, groupIndex);
+      }
     }
+    strictIndexes = new ArrayList<>(strictIndexesByKey.values());
+    unindexedGroups = toArray(unindexed);
   }
 
   @Nullable
   public AiFixedPercentageSampler getOverride(Attributes attributes) {
     LazyHttpUrl lazyHttpUrl = new LazyHttpUrl(attributes);
     LazyHttpTarget lazyHttpTarget = new LazyHttpTarget(attributes);
-    for (MatcherGroup matcherGroups : matcherGroups) {
-      if (matcherGroups.matches(attributes, lazyHttpUrl, lazyHttpTarget)) {
-        return matcherGroups.getSampler();
+    if (strictIndexes.isEmpty()) {
+      for (int groupIndex : unindexedGroups) {
+        MatcherGroup matcherGroup = matcherGroups.get(groupIndex);
+        if (matcherGroup.matches(attributes, lazyHttpUrl, lazyHttpTarget)) {
+          return matcherGroup.getSampler();
+        }
       }
+      return null;
+    }
+
+    int candidateLists = strictIndexes.size() + 1;
+    MergeScratch scratch = MergeScratch.get(candidateLists);
+    int[][] candidates = scratch.candidates;
+    int[] positions = scratch.positions;
+    candidates[0] = unindexedGroups;
+    positions[0] = 0;
+    for (int i = 1; i < candidateLists; i++) {
+      candidates[i] = strictIndexes.get(i - 1).getGroups(attributes, lazyHttpUrl, lazyHttpTarget);
+      positions[i] = 0;
+    }
+    // each candidate list is in configuration order, and each matcher group is in exactly one of
+    // the lists, so merging the lists evaluates the candidates in configuration order, which keeps
+    // the first-match semantics
+    while (true) {
+      int next = -1;
+      int nextList = -1;
+      for (int i = 0; i < candidateLists; i++) {
+        int position = positions[i];
+        if (position < candidates[i].length && (next == -1 || candidates[i][position] < next)) {
+          next = candidates[i][position];
+          nextList = i;
+        }
+      }
+      if (next == -1) {
+        return null;
+      }
+      positions[nextList]++;
+      MatcherGroup matcherGroup = matcherGroups.get(next);
+      if (matcherGroup.matches(attributes, lazyHttpUrl, lazyHttpTarget)) {
+        return matcherGroup.getSampler();
+      }
+    }
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    int[] array = new int[list.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = list.get(i);
+    }
+    return array;
+  }
+
+  // the arrays used to merge the candidate lists are reused across calls on the same thread, since
+  // getOverride() is called for every span that is sampled
+  private static class MergeScratch {
+    private static final ThreadLocal<MergeScratch> current =
+        ThreadLocal.withInitial(() -> new MergeScratch(0));
+
+    private final int[][] candidates;
+    private final int[] positions;
+
+    private MergeScratch(int size) {
+      candidates = new int[size][];
+      positions = new int[size];
+    }
+
+    private static MergeScratch get(int size) {
+      MergeScratch scratch = current.get();
+      if (scratch.positions.length < size) {
+        scratch = new MergeScratch(size);
+        current.set(scratch);
+      }
+      return scratch;
     }
-    return null;
   }
 
   private static class MatcherGroup {
+    // already checked by the StrictIndex, so not included in the predicates below
+    @Nullable private final StrictMatcher indexMatcher;
     private final List<TempPredicate> predicates;
     private final AiFixedPercentageSampler sampler;
 
     private MatcherGroup(SamplingOverride override) {
+      StrictMatcher indexMatcher = null;
       predicates = new ArrayList<>();
       for (SamplingOverrideAttribute attribute : override.attributes) {
         TempPredicate predicate = toPredicate(attribute);
-        if (predicate != null) {
+        if (predicate == null) {
+          continue;
+        }
+        if (indexMatcher == null
+            && predicate instanceof StrictMatcher
+            && ((StrictMatcher) predicate).value != null) {
+          indexMatcher = (StrictMatcher) predicate;
+        } else {
           predicates.add(predicate);
         }
       }
+      this.indexMatcher = indexMatcher;
       sampler = AiFixedPercentageSampler.create(override.percentage);
     }
 
@@ -64,9 +174,7 @@ public class SamplingOverrides {
     }
 
     private boolean matches(
-        Attributes attributes,
-        @Nullable LazyHttpUrl lazyHttpUrl,
-        @Nullable LazyHttpTarget lazyHttpTarget) {
+        Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
       for (TempPredicate predicate : predicates) {
         if (!predicate.test(attributes, lazyHttpUrl, lazyHttpTarget)) {
           return false;
@@ -75,15 +183,6 @@ public class SamplingOverrides {
       return true;
     }
 
-    static String getValueIncludingThreadName(
-        Attributes attributes, AttributeKey<String> attributeKey) {
-      if (attributeKey.getKey().equals(ThreadIncubatingAttributes.THREAD_NAME.getKey())) {
-        return Thread.currentThread().getName();
-      } else {
-        return attributes.get(attributeKey);
-      }
-    }
-
     @Nullable
     private static TempPredicate toPredicate(SamplingOverrideAttribute attribute) {
       if (attribute.matchType == MatchType.STRICT) {
@@ -112,27 +211,98 @@ public class SamplingOverrides {
     }
   }
 
+  private static class StrictIndex {
+    private final AttributeKey<String> key;
+    private final ValueSource valueSource;
+    private final Map<String, int[]> groups = new HashMap<>();
+
+    private StrictIndex(AttributeKey<String> key, ValueSource valueSource) {
+      this.key = key;
+      this.valueSource = valueSource;
+    }
+
+    private void add(String value, int groupIndex) {
+      int[] existing = groups.get(value);
+      if (existing == null) {
+        groups.put(value, new int[] {groupIndex});
+      } else {
+        int[] updated = Arrays.copyOf(existing, existing.length + 1);
+        updated[existing.length] = groupIndex;
+        groups.put(value, updated);
+      }
+    }
+
+    private int[] getGroups(
+        Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
+      String val = valueSource.get(attributes, key, lazyHttpUrl, lazyHttpTarget);
+      if (val == null) {
+        return NO_GROUPS;
+      }
+      int[] result = groups.get(val);
+      return result == null ? NO_GROUPS : result;
+    }
+  }
+
+  // the special cases for some of the keys are resolved once when the matchers are created,
+  // instead of comparing the key on every evaluation
+  private enum ValueSource {
+    ATTRIBUTE,
+    THREAD_NAME,
+    HTTP_TARGET,
+    ATTRIBUTE_OR_HTTP_URL;
+
+    @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
+    private static ValueSource resolve(String key, String httpTargetKey) {
+      if (key.equals(ThreadIncubatingAttributes.THREAD_NAME.getKey())) {
+        return THREAD_NAME;
+      }
+      if (key.equals(httpTargetKey)) {
+        return HTTP_TARGET;
+      }
+      if (key.equals(HttpIncubatingAttributes.HTTP_URL.getKey())
+          || key.equals(UrlAttributes.URL_FULL.getKey())) {
+        return ATTRIBUTE_OR_HTTP_URL;
+      }
+      return ATTRIBUTE;
+    }
+
+    @Nullable
+    private String get(
+        Attributes attributes,
+        AttributeKey<String> key,
+        LazyHttpUrl lazyHttpUrl,
+        LazyHttpTarget lazyHttpTarget) {
+      switch (this) {
+        case THREAD_NAME:
+          return Thread.currentThread().getName();
+        case HTTP_TARGET:
+          return lazyHttpTarget.get();
+        case ATTRIBUTE_OR_HTTP_URL:
+          String val = attributes.get(key);
+          return val != null ? val : lazyHttpUrl.get();
+        case ATTRIBUTE:
+          return attributes.get(key);
+      }
+      throw new AssertionError("Unexpected value source: " + this);
+    }
+  }
+
   private static class StrictMatcher implements TempPredicate {
     private final AttributeKey<String> key;
     private final String value;
+    private final ValueSource valueSource;
 
+    @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
     private StrictMatcher(String key, String value) {
       this.key = AttributeKey.stringKey(key);
       this.value = value;
+      valueSource = ValueSource.resolve(key, HttpIncubatingAttributes.HTTP_TARGET.getKey());
     }
 
     @Override
-    @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
     public boolean test(
         Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
-      String val = MatcherGroup.getValueIncludingThreadName(attributes, key);
-      if (key.getKey().equals(HttpIncubatingAttributes.HTTP_TARGET.getKey())) {
-        val = lazyHttpTarget.get();
-      }
-      if (val == null && getHttpUrlKeyOldOrStableSemconv(key)) {
-        val = lazyHttpUrl.get();
-      }
-      return value.equals(val);
+      return value.equals(valueSource.get(attributes, key, lazyHttpUrl, lazyHttpTarget));
     }
   }
 
@@ -156,25 +326,19 @@ public class SamplingOverrides {
   private static class RegexpMatcher implements TempPredicate {
     private final AttributeKey<String> key;
     private final Pattern value;
+    private final ValueSource valueSource;
 
     private RegexpMatcher(String key, String value) {
       this.key = AttributeKey.stringKey(key);
       this.value = Pattern.compile(value);
+      // note: url.path is matched against the path and the query here (unlike strict matching)
+      valueSource = ValueSource.resolve(key, UrlAttributes.URL_PATH.getKey());
     }
 
     @Override
     public boolean test(
-        Attributes attributes,
-        @Nullable LazyHttpUrl lazyHttpUrl,
-        @Nullable LazyHttpTarget lazyHttpTarget) {
-      String val = MatcherGroup.getValueIncludingThreadName(attributes, key);
-      if (key.getKey().equals(UrlAttributes.URL_PATH.getKey())) {
-        val = lazyHttpTarget.get();
-      }
-      if (val == null && getHttpUrlKeyOldOrStableSemconv(key) && lazyHttpUrl != null) {
-        val = lazyHttpUrl.get();
-      }
-
+        Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
+      String val = valueSource.get(attributes, key, lazyHttpUrl, lazyHttpTarget);
       return val != null && value.matcher(val).matches();
     }
   }
@@ -190,9 +354,7 @@ public class SamplingOverrides {
 
     @Override
     public boolean test(
-        Attributes attributes,
-        @Nullable LazyHttpUrl lazyHttpUrl,
-        @Nullable LazyHttpTarget lazyHttpTarget) {
+        Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
       List<String> val = attributes.get(key);
       if (val == null) {
         return false;
@@ -208,25 +370,18 @@ public class SamplingOverrides {
 
   private static class KeyOnlyMatcher implements TempPredicate {
     private final AttributeKey<String> key;
+    private final ValueSource valueSource;
 
+    @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
     private KeyOnlyMatcher(String key) {
       this.key = AttributeKey.stringKey(key);
+      valueSource = ValueSource.resolve(key, HttpIncubatingAttributes.HTTP_TARGET.getKey());
     }
 
     @Override
-    @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
     public boolean test(
-        Attributes attributes,
-        @Nullable LazyHttpUrl lazyHttpUrl,
-        @Nullable LazyHttpTarget lazyHttpTarget) {
-      String val = MatcherGroup.getValueIncludingThreadName(attributes, key);
-      if (key.getKey().equals(HttpIncubatingAttributes.HTTP_TARGET.getKey())) {
-        val = lazyHttpTarget.get();
-      }
-      if (val == null && getHttpUrlKeyOldOrStableSemconv(key) && lazyHttpUrl != null) {
-        val = lazyHttpUrl.get();
-      }
-      return val != null;
+        Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget) {
+      return valueSource.get(attributes, key, lazyHttpUrl, lazyHttpTarget) != null;
     }
   }
 
@@ -249,20 +404,10 @@ public class SamplingOverrides {
     }
   }
 
-  @SuppressWarnings("deprecation") // support deprecated semconv for backwards compatibility
-  private static boolean getHttpUrlKeyOldOrStableSemconv(AttributeKey<String> key) {
-    String keyString = key.getKey();
-    return keyString.equals(HttpIncubatingAttributes.HTTP_URL.getKey())
-        || keyString.equals(UrlAttributes.URL_FULL.getKey());
-  }
-
   // this is temporary until semantic attributes stabilize and we make breaking change
   // then can use java.util.functions.Predicate<Attributes>
   private interface TempPredicate {
-    boolean test(
-        Attributes attributes,
-        @Nullable LazyHttpUrl lazyHttpUrl,
-        @Nullable LazyHttpTarget lazyHttpTarget);
+    boolean test(Attributes attributes, LazyHttpUrl lazyHttpUrl, LazyHttpTarget lazyHttpTarget);
   }
 
   // this is for backward compatibility with existing sampling override logic
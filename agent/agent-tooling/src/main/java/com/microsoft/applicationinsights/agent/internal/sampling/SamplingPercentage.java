@@ -20,6 +20,6 @@ public interface SamplingPercentage {
   }
 
   static SamplingPercentage rateLimited(double targetPerSecondLimit) {
-    return new RateLimitedSamplingPercentage(targetPerSecondLimit, 0.1);
+    return new StripedRateLimitedSamplingPercentage(targetPerSecondLimit, 0.1);
   }
 }
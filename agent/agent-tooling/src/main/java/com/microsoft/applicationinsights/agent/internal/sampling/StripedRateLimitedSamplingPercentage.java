@@ -0,0 +1,132 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+// Includes work from:
+/*
+ * Copyright The OpenTelemetry Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.microsoft.applicationinsights.agent.internal.sampling;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// uses adaptive algorithm from OpenTelemetry Java Contrib's ConsistentRateLimitingSampler
+// (https://github.com/open-telemetry/opentelemetry-java-contrib/blob/main/consistent-sampling/src/main/java/io/opentelemetry/contrib/samplers/ConsistentRateLimitingSampler.java)
+//
+// but instead of updating the exponential window on every call (which would mean a CAS on a single
+// reference that all request threads contend on), calls are only counted (in a striped LongAdder),
+// and the count is folded into the exponential window at most once per fold interval by whichever
+// thread gets there first
+//
+// between folds, the sampling percentage computed by the last fold is returned, so the hot path is
+// allocation-free, and the result converges on the same target rate as long as the fold interval
+// is small compared to the adaptation time
+class StripedRateLimitedSamplingPercentage implements SamplingPercentage {
+
+  private final LongSupplier nanoTimeSupplier;
+  private final double inverseAdaptationTimeNanos;
+  private final double targetSpansPerNanosecondLimit;
+  private final long foldIntervalNanos;
+  private final boolean roundToNearest;
+
+  private final LongAdder count = new LongAdder();
+  private final AtomicBoolean folding = new AtomicBoolean();
+
+  private volatile long nextFoldNanoTime;
+  private volatile double samplingPercentage;
+
+  // these are only accessed by the thread that holds the "folding" flag
+  private long foldedCount;
+  private double effectiveWindowCount;
+  private double effectiveWindowNanos;
+  private long lastNanoTime;
+
+  StripedRateLimitedSamplingPercentage(
+      double targetSpansPerSecondLimit, double adaptationTimeSeconds) {
+    this(targetSpansPerSecondLimit, adaptationTimeSeconds, System::nanoTime, true);
+  }
+
+  // visible for testing
+  StripedRateLimitedSamplingPercentage(
+      double targetSpansPerSecondLimit,
+      double adaptationTimeSeconds,
+      LongSupplier nanoTimeSupplier,
+      boolean roundToNearest) {
+
+    if (targetSpansPerSecondLimit < 0.0) {
+      throw new IllegalArgumentException("Limit for sampled spans per second must be nonnegative!");
+    }
+    if (adaptationTimeSeconds < 0.0) {
+      throw new IllegalArgumentException("Adaptation rate must be nonnegative!");
+    }
+    this.nanoTimeSupplier = requireNonNull(nanoTimeSupplier);
+
+    this.inverseAdaptationTimeNanos = 1e-9 / adaptationTimeSeconds;
+    this.targetSpansPerNanosecondLimit = 1e-9 * targetSpansPerSecondLimit;
+    // 1% of the adaptation time, e.g. 1 millisecond for the default adaptation time of 0.1 seconds
+    this.foldIntervalNanos = (long) (adaptationTimeSeconds * 1e7);
+
+    this.roundToNearest = roundToNearest;
+
+    long currentNanoTime = nanoTimeSupplier.getAsLong();
+    this.lastNanoTime = currentNanoTime;
+    // fold on the first call (and until then, don't drop anything)
+    this.nextFoldNanoTime = currentNanoTime;
+    this.samplingPercentage = 100;
+  }
+
+  @Override
+  public double get() {
+    count.increment();
+    long currentNanoTime = nanoTimeSupplier.getAsLong();
+    if (currentNanoTime - nextFoldNanoTime >= 0 && folding.compareAndSet(false, true)) {
+      try {
+        fold(currentNanoTime);
+      } finally {
+        folding.set(false);
+      }
+    }
+    return samplingPercentage;
+  }
+
+  private void fold(long currentNanoTime) {
+    // not using sumThenReset() since that can lose increments that happen concurrently
+    long totalCount = count.sum();
+    long newCount = totalCount - foldedCount;
+    foldedCount = totalCount;
+
+    if (currentNanoTime > lastNanoTime) {
+      long nanoTimeDelta = currentNanoTime - lastNanoTime;
+      double decayFactor = Math.exp(-nanoTimeDelta * inverseAdaptationTimeNanos);
+      effectiveWindowCount = effectiveWindowCount * decayFactor + newCount;
+      effectiveWindowNanos = effectiveWindowNanos * decayFactor + nanoTimeDelta;
+      lastNanoTime = currentNanoTime;
+    } else {
+      effectiveWindowCount += newCount;
+    }
+
+    double samplingProbability =
+        (effectiveWindowNanos * targetSpansPerNanosecondLimit) / effectiveWindowCount;
+
+    double percentage = 100 * Math.min(samplingProbability, 1);
+
+    if (roundToNearest) {
+      percentage = roundDownToNearest(percentage);
+    }
+    samplingPercentage = percentage;
+    nextFoldNanoTime = currentNanoTime + foldIntervalNanos;
+  }
+
+  static double roundDownToNearest(double samplingPercentage) {
+    if (samplingPercentage == 0) {
+      return 0;
+    }
+    double itemCount = 100 / samplingPercentage;
+    return 100.0 / Math.ceil(itemCount);
+  }
+}
@@ -16,15 +16,19 @@ import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.internal.DaemonThreadFactory;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nullable;
 
 // copied from io.opentelemetry.sdk.trace.export.BatchSpanProcessor
 public final class BatchItemProcessor {
@@ -34,8 +38,16 @@ public final class BatchItemProcessor {
   private static final String WORKER_THREAD_NAME =
       BatchItemProcessor.class.getSimpleName() + "_WorkerThread";
 
-  private final Worker worker;
+  private final Worker[] workers;
+  private final TelemetryItemExporter exporter;
   private final AtomicBoolean isShutdown = new AtomicBoolean(false);
+  // indexed by TelemetryItemPriority ordinal, and shared by all of the shards
+  private final LongAdder[] droppedItems = new LongAdder[TelemetryItemPriority.values().length];
+  // shared by all of the shards, so that the max pending exports applies to the processor as a
+  // whole, and doesn't grow with the number of shards
+  private final Set<CompletableResultCode> pendingExports =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final Semaphore pendingExportPermits;
 
   /**
    * Returns a new Builder for {@link BatchItemProcessor}.
@@ -55,41 +67,138 @@ public final class BatchItemProcessor {
       int maxExportBatchSize,
       long exporterTimeoutNanos,
       int maxPendingExports,
+      long maxQueueBytes,
+      int shardCount,
+      boolean priorityShedding,
       String queueName) {
-    MpscArrayQueue<TelemetryItem> queue = new MpscArrayQueue<>(maxQueueSize);
-    this.worker =
-        new Worker(
-            exporter,
-            scheduleDelayNanos,
-            maxExportBatchSize,
-            exporterTimeoutNanos,
-            maxPendingExports,
-            queue,
-            queue.capacity(),
-            queueName);
-
-    Thread workerThread = new DaemonThreadFactory(WORKER_THREAD_NAME).newThread(worker);
-    workerThread.setUncaughtExceptionHandler((t, e) -> logger.error(e.getMessage(), e));
-    workerThread.start();
+    this.exporter = exporter;
+    this.workers = new Worker[shardCount];
+    // one less than the max, since the export that doesn't get a permit is still pending while the
+    // worker blocks on it
+    this.pendingExportPermits = new Semaphore(maxPendingExports - 1);
+    for (int i = 0; i < droppedItems.length; i++) {
+      droppedItems[i] = new LongAdder();
+    }
+    // the configured queue capacity is split across the shards so that the total amount of memory
+    // held by the queues does not grow with the number of shards
+    int shardQueueSize = (maxQueueSize + shardCount - 1) / shardCount;
+    long shardQueueBytes = (maxQueueBytes + shardCount - 1) / shardCount;
+    for (int i = 0; i < shardCount; i++) {
+      MpscArrayQueue<Object> queue = new MpscArrayQueue<>(shardQueueSize);
+      Worker worker =
+          new Worker(
+              exporter,
+              scheduleDelayNanos,
+              maxExportBatchSize,
+              exporterTimeoutNanos,
+              maxPendingExports,
+              pendingExports,
+              pendingExportPermits,
+              queue,
+              shardQueueSize,
+              maxQueueSize,
+              shardQueueBytes,
+              maxQueueBytes,
+              shardCount,
+              priorityShedding,
+              droppedItems,
+              queueName);
+      workers[i] = worker;
+
+      String threadName = shardCount == 1 ? WORKER_THREAD_NAME : WORKER_THREAD_NAME + "-" + i;
+      Thread workerThread = new DaemonThreadFactory(threadName).newThread(worker);
+      workerThread.setUncaughtExceptionHandler((t, e) -> logger.error(e.getMessage(), e));
+      workerThread.start();
+    }
   }
 
   public void trackAsync(TelemetryItem item) {
-    worker.addItem(item);
+    getWorker().addItem(item);
+  }
+
+  // returns the estimated number of bytes retained by the items that are currently in the queue
+  // (or in a batch that has not been handed off to the exporter yet), or zero if this processor
+  // does not have a byte budget
+  public long getQueuedBytes() {
+    long queuedBytes = 0;
+    for (Worker worker : workers) {
+      queuedBytes += worker.queuedBytes.get();
+    }
+    return queuedBytes;
+  }
+
+  // returns the total number of items of the given priority that have been dropped so far, either
+  // because the queue was full (or over its byte budget), or because they were shed to leave room
+  // for higher priority items
+  public long getDroppedItemCount(TelemetryItemPriority priority) {
+    return droppedItems[priority.ordinal()].sum();
+  }
+
+  // visible for testing
+  int getPendingExportCount() {
+    return pendingExports.size();
   }
 
   public CompletableResultCode shutdown() {
     if (isShutdown.getAndSet(true)) {
       return CompletableResultCode.ofSuccess();
     }
-    return worker.shutdown();
+    CompletableResultCode result = new CompletableResultCode();
+
+    CompletableResultCode flushResult = forceFlush();
+    flushResult.whenComplete(
+        () -> {
+          for (Worker worker : workers) {
+            worker.continueWork = false;
+          }
+          if (!flushResult.isSuccess()) {
+            result.fail();
+          } else {
+            result.succeed();
+          }
+        });
+
+    return result;
   }
 
   public CompletableResultCode forceFlush() {
-    return worker.forceFlush();
+    CompletableResultCode overallResult = new CompletableResultCode();
+    List<CompletableResultCode> workerResults = new ArrayList<>(workers.length);
+    for (Worker worker : workers) {
+      workerResults.add(worker.forceFlushWorker());
+    }
+    CompletableResultCode workerResult = CompletableResultCode.ofAll(workerResults);
+    workerResult.whenComplete(
+        () -> {
+          if (!workerResult.isSuccess()) {
+            overallResult.fail();
+            return;
+          }
+          // the exporter is shared by all of the shards, so only needs to be flushed once
+          CompletableResultCode exporterResult = exporter.flush();
+          exporterResult.whenComplete(
+              () -> {
+                if (exporterResult.isSuccess()) {
+                  overallResult.succeed();
+                } else {
+                  overallResult.fail();
+                }
+              });
+        });
+    return overallResult;
+  }
+
+  private Worker getWorker() {
+    if (workers.length == 1) {
+      return workers[0];
+    }
+    // each producer thread always lands on the same shard, which keeps the items from a given
+    // thread in order and avoids any shared state (e.g. a round-robin counter) on the hot path
+    return workers[(int) (Thread.currentThread().getId() % workers.length)];
   }
 
   // Worker is a thread that batches multiple items and calls the registered TelemetryItemExporter
-  // to export the data.
+  // to export the data. There is one worker per shard, each draining its own queue.
   private static final class Worker implements Runnable {
 
     private final TelemetryItemExporter exporter;
@@ -100,9 +209,28 @@ public final class BatchItemProcessor {
 
     private volatile long nextExportTime;
 
-    private final Queue<TelemetryItem> queue;
+    // holds the telemetry items, or SizedItems when there is a byte budget, so that the wrapper is
+    // only allocated when it's needed
+    private final Queue<Object> queue;
+    private final int shardQueueCapacity;
+    // only used for logging, since shardQueueCapacity is per shard
     private final int queueCapacity;
+    // zero means that the queue is only bounded by its item capacity
+    private final long maxQueueBytes;
+    // only used for logging, since maxQueueBytes is per shard
+    private final long totalMaxQueueBytes;
+    // only used for logging, built up front since they are logged exactly when the queue is full
+    private final String queueCapacityDescription;
+    private final String maxQueueBytesDescription;
+    // includes the items in the current batch, since those are still retained by the worker
+    private final AtomicLong queuedBytes = new AtomicLong();
+    // only accessed by the worker thread
+    private long batchBytes;
+    private final boolean priorityShedding;
+    private final LongAdder[] droppedItems;
     private final String queueName;
+    // indexed by TelemetryItemPriority ordinal
+    private final String[] sheddingMessages;
     // When waiting on the items queue, exporter thread sets this atomic to the number of more
     // items it needs before doing an export. Writer threads would then wait for the queue to reach
     // itemsNeeded size before notifying the exporter thread about new entries.
@@ -110,17 +238,23 @@ public final class BatchItemProcessor {
     // exporter thread doesn't expect any signal initially, this value is initialized to
     // Integer.MAX_VALUE.
     private final AtomicInteger itemsNeeded = new AtomicInteger(Integer.MAX_VALUE);
-    private final BlockingQueue<Boolean> signal;
+    // The exporter thread publishes itself here right before parking, and writer threads that need
+    // to wake it up claim it (so that only one of them pays for the unpark) before unparking it.
+    // Unlike a blocking queue hand-off, this does not take any locks or allocate on the hot path.
+    private final AtomicReference<Thread> waiter = new AtomicReference<>();
     private final AtomicReference<CompletableResultCode> flushRequested = new AtomicReference<>();
     private volatile boolean continueWork = true;
     private final ArrayList<TelemetryItem> batch;
 
-    private final Set<CompletableResultCode> pendingExports =
-        Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private final Set<CompletableResultCode> pendingExports;
+    private final Semaphore pendingExportPermits;
 
     private static final OperationLogger queuingItemLogger =
         new OperationLogger(BatchItemProcessor.class, "Queuing telemetry item");
 
+    private static final OperationLogger sheddingItemLogger =
+        new OperationLogger(BatchItemProcessor.class, "Shedding lower priority telemetry item");
+
     private static final OperationLogger addAsyncExport =
         new OperationLogger(BatchItemProcessor.class, "Add async export");
 
@@ -130,28 +264,76 @@ public final class BatchItemProcessor {
         int maxExportBatchSize,
         long exporterTimeoutNanos,
         int maxPendingExports,
-        Queue<TelemetryItem> queue,
+        Set<CompletableResultCode> pendingExports,
+        Semaphore pendingExportPermits,
+        Queue<Object> queue,
+        int shardQueueCapacity,
         int queueCapacity,
+        long maxQueueBytes,
+        long totalMaxQueueBytes,
+        int shardCount,
+        boolean priorityShedding,
+        LongAdder[] droppedItems,
         String queueName) {
       this.exporter = exporter;
       this.scheduleDelayNanos = scheduleDelayNanos;
       this.maxExportBatchSize = maxExportBatchSize;
       this.exporterTimeoutNanos = exporterTimeoutNanos;
       this.maxPendingExports = maxPendingExports;
+      this.pendingExports = pendingExports;
+      this.pendingExportPermits = pendingExportPermits;
       this.queue = queue;
+      this.shardQueueCapacity = shardQueueCapacity;
       this.queueCapacity = queueCapacity;
+      this.maxQueueBytes = maxQueueBytes;
+      this.totalMaxQueueBytes = totalMaxQueueBytes;
+      long maxQueueSizeMb = totalMaxQueueBytes / (1024 * 1024);
+      if (shardCount == 1) {
+        queueCapacityDescription = String.valueOf(queueCapacity);
+        maxQueueBytesDescription = maxQueueSizeMb + " MB";
+      } else {
+        // only the shard that the producer thread is hashed onto is full
+        queueCapacityDescription =
+            shardQueueCapacity
+                + " per shard ("
+                + queueCapacity
+                + " split across "
+                + shardCount
+                + " shards)";
+        maxQueueBytesDescription =
+            maxQueueSizeMb + " MB (split evenly across " + shardCount + " shards)";
+      }
+      this.priorityShedding = priorityShedding;
+      this.droppedItems = droppedItems;
       this.queueName = queueName;
-      this.signal = new ArrayBlockingQueue<>(1);
+      this.sheddingMessages = buildSheddingMessages(queueName);
       this.batch = new ArrayList<>(this.maxExportBatchSize);
     }
 
     private void addItem(TelemetryItem item) {
-      if (!queue.offer(item)) {
+      if (priorityShedding && shed(item)) {
+        return;
+      }
+      long itemBytes = 0;
+      if (maxQueueBytes > 0) {
+        itemBytes = TelemetryItemSizeEstimator.estimate(item);
+        if (queuedBytes.addAndGet(itemBytes) > maxQueueBytes) {
+          queuedBytes.addAndGet(-itemBytes);
+          recordDropped(item);
+          recordMaxQueueBytesHit();
+          return;
+        }
+      }
+      if (!queue.offer(itemBytes > 0 ? new SizedItem(item, itemBytes) : item)) {
+        if (itemBytes > 0) {
+          queuedBytes.addAndGet(-itemBytes);
+        }
+        recordDropped(item);
         queuingItemLogger.recordFailure(
             "Max "
                 + queueName
                 + " export queue capacity of "
-                + queueCapacity
+                + queueCapacityDescription
                 + " has been hit, dropping a telemetry record (max "
                 + queueName
                 + " export queue capacity can be increased in the applicationinsights.json"
@@ -164,9 +346,109 @@ public final class BatchItemProcessor {
       } else {
         queuingItemLogger.recordSuccess();
         if (queue.size() >= itemsNeeded.get()) {
-          signal.offer(true);
+          signal();
+        }
+      }
+    }
+
+    // once the queue is under pressure, lower priority items are dropped before the queue is
+    // actually full, so that the remaining room is kept for the higher priority items
+    //
+    // (the queue doesn't support evicting items that are already queued, so this is done by only
+    // admitting each priority up to its own fill ratio)
+    private boolean shed(TelemetryItem item) {
+      double fillRatio = getFillRatio();
+      if (fillRatio < TelemetryItemPriority.MIN_SHEDDING_FILL_RATIO) {
+        // fast path, no need to classify the item
+        return false;
+      }
+      TelemetryItemPriority priority = TelemetryItemPriority.of(item);
+      if (!priority.shouldShed(fillRatio)) {
+        return false;
+      }
+      droppedItems[priority.ordinal()].increment();
+      sheddingItemLogger.recordFailure(
+          sheddingMessages[priority.ordinal()], BATCH_ITEM_PROCESSOR_ERROR);
+      return true;
+    }
+
+    // built up front, since shedding happens exactly when the queue is under pressure
+    private static String[] buildSheddingMessages(String queueName) {
+      TelemetryItemPriority[] priorities = TelemetryItemPriority.values();
+      String[] messages = new String[priorities.length];
+      for (TelemetryItemPriority priority : priorities) {
+        StringBuilder higherPriorities = new StringBuilder();
+        for (int i = priority.ordinal() + 1; i < priorities.length; i++) {
+          if (higherPriorities.length() > 0) {
+            higherPriorities.append(", as well as ");
+          }
+          higherPriorities.append(priorities[i].getDescription());
         }
+        if (higherPriorities.length() == 0) {
+          // the highest priority is only shed once the queue is full
+          messages[priority.ordinal()] =
+              "The "
+                  + queueName
+                  + " export queue is full, dropping telemetry ("
+                  + priority.getDescription()
+                  + ")";
+        } else {
+          messages[priority.ordinal()] =
+              "The "
+                  + queueName
+                  + " export queue is close to its capacity, dropping lower priority telemetry ("
+                  + priority.getDescription()
+                  + ") to leave room for "
+                  + higherPriorities;
+        }
+      }
+      return messages;
+    }
+
+    private double getFillRatio() {
+      double fillRatio = queue.size() / (double) shardQueueCapacity;
+      if (maxQueueBytes > 0) {
+        fillRatio = Math.max(fillRatio, queuedBytes.get() / (double) maxQueueBytes);
       }
+      return fillRatio;
+    }
+
+    private void recordDropped(TelemetryItem item) {
+      droppedItems[TelemetryItemPriority.of(item).ordinal()].increment();
+    }
+
+    private void recordMaxQueueBytesHit() {
+      long maxQueueSizeMb = totalMaxQueueBytes / (1024 * 1024);
+      queuingItemLogger.recordFailure(
+          "Max "
+              + queueName
+              + " export queue size of "
+              + maxQueueBytesDescription
+              + " has been hit, dropping a telemetry record (max "
+              + queueName
+              + " export queue size can be increased in the applicationinsights.json"
+              + " configuration file, e.g. { \"preview\": { \""
+              + queueName
+              + "ExportQueueMaxSizeMb\": "
+              + (maxQueueSizeMb * 2)
+              + " } }",
+          BATCH_ITEM_PROCESSOR_ERROR);
+    }
+
+    @Nullable
+    private TelemetryItem pollItem() {
+      Object queued = queue.poll();
+      if (queued instanceof SizedItem) {
+        SizedItem sizedItem = (SizedItem) queued;
+        // the bytes are released once the batch has been handed off to the exporter, since the
+        // batch retains the items until then
+        //
+        // this releases exactly what was added at enqueue time, since the estimate of the item
+        // could be different by now (e.g. if the item was modified after being queued)
+        batchBytes += sizedItem.bytes;
+        return sizedItem.item;
+      }
+      return (TelemetryItem) queued;
     }
 
     @Override
@@ -195,23 +477,28 @@ public final class BatchItemProcessor {
           flush();
         }
         while (!queue.isEmpty() && batch.size() < maxExportBatchSize) {
-          batch.add(queue.poll());
+          batch.add(pollItem());
         }
         if (batch.size() >= maxExportBatchSize || System.nanoTime() >= nextExportTime) {
           exportCurrentBatch();
           updateNextExportTime();
         }
         if (queue.isEmpty()) {
-          try {
-            long pollWaitTime = nextExportTime - System.nanoTime();
-            if (pollWaitTime > 0) {
-              itemsNeeded.set(maxExportBatchSize - batch.size());
-              signal.poll(pollWaitTime, TimeUnit.NANOSECONDS);
-              itemsNeeded.set(Integer.MAX_VALUE);
+          long pollWaitTime = nextExportTime - System.nanoTime();
+          if (pollWaitTime > 0) {
+            int needed = maxExportBatchSize - batch.size();
+            itemsNeeded.set(needed);
+            waiter.set(Thread.currentThread());
+            // need to re-check after publishing the waiter, otherwise a writer thread that
+            // offered in between the checks above and publishing the waiter would not wake us up
+            if (queue.size() < needed && flushRequested.get() == null) {
+              LockSupport.parkNanos(this, pollWaitTime);
+            }
+            waiter.set(null);
+            itemsNeeded.set(Integer.MAX_VALUE);
+            if (Thread.currentThread().isInterrupted()) {
+              return;
             }
-          } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return;
           }
         }
       }
@@ -220,7 +507,7 @@ public final class BatchItemProcessor {
     private void flush() {
       int itemsToFlush = queue.size();
       while (itemsToFlush > 0) {
-        TelemetryItem item = queue.poll();
+        TelemetryItem item = pollItem();
         assert item != null;
         batch.add(item);
         itemsToFlush--;
@@ -237,54 +524,22 @@ public final class BatchItemProcessor {
       }
     }
 
-    private void updateNextExportTime() {
-      nextExportTime = System.nanoTime() + scheduleDelayNanos;
-    }
-
-    private CompletableResultCode shutdown() {
-      CompletableResultCode result = new CompletableResultCode();
-
-      CompletableResultCode flushResult = forceFlush();
-      flushResult.whenComplete(
-          () -> {
-            continueWork = false;
-            if (!flushResult.isSuccess()) {
-              result.fail();
-            } else {
-              result.succeed();
-            }
-          });
-
-      return result;
+    private void signal() {
+      Thread thread = waiter.get();
+      if (thread != null && waiter.compareAndSet(thread, null)) {
+        LockSupport.unpark(thread);
+      }
     }
 
-    private CompletableResultCode forceFlush() {
-      CompletableResultCode overallResult = new CompletableResultCode();
-      CompletableResultCode workerResult = forceFlushWorker();
-      workerResult.whenComplete(
-          () -> {
-            if (!workerResult.isSuccess()) {
-              overallResult.fail();
-              return;
-            }
-            CompletableResultCode exporterResult = exporter.flush();
-            exporterResult.whenComplete(
-                () -> {
-                  if (exporterResult.isSuccess()) {
-                    overallResult.succeed();
-                  } else {
-                    overallResult.fail();
-                  }
-                });
-          });
-      return overallResult;
+    private void updateNextExportTime() {
+      nextExportTime = System.nanoTime() + scheduleDelayNanos;
     }
 
     private CompletableResultCode forceFlushWorker() {
       CompletableResultCode flushResult = new CompletableResultCode();
       // we set the atomic here to trigger the worker loop to do a flush of the entire queue.
       if (flushRequested.compareAndSet(null, flushResult)) {
-        signal.offer(true);
+        signal();
       }
       CompletableResultCode possibleResult = flushRequested.get();
       // there's a race here where the flush happening in the worker loop could complete before we
@@ -301,12 +556,13 @@ public final class BatchItemProcessor {
       try {
         // batching, retry, logging, and writing to disk on failure occur downstream
         CompletableResultCode result = exporter.send(Collections.unmodifiableList(batch));
-        if (pendingExports.size() < maxPendingExports - 1) {
+        if (pendingExportPermits.tryAcquire()) {
           addAsyncExport.recordSuccess();
           pendingExports.add(result);
           result.whenComplete(
               () -> {
                 pendingExports.remove(result);
+                pendingExportPermits.release();
               });
         } else {
           // need conditional, otherwise this will always get logged when maxPendingExports is 1
@@ -322,7 +578,23 @@ public final class BatchItemProcessor {
         }
       } finally {
         batch.clear();
+        if (batchBytes > 0) {
+          queuedBytes.addAndGet(-batchBytes);
+          batchBytes = 0;
+        }
       }
     }
   }
+
+  // a queued telemetry item along with its estimated size at the time it was queued
+  private static final class SizedItem {
+
+    private final TelemetryItem item;
+    private final long bytes;
+
+    private SizedItem(TelemetryItem item, long bytes) {
+      this.item = item;
+      this.bytes = bytes;
+    }
+  }
 }
@@ -19,6 +19,8 @@ final class BatchItemProcessorBuilder {
   private static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
   private static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
   private static final int DEFAULT_MAX_PENDING_EXPORTS = 1;
+  private static final int DEFAULT_SHARD_COUNT = 1;
+  private static final long DEFAULT_MAX_QUEUE_BYTES = 0;
 
   private final TelemetryItemExporter exporter;
   private final long scheduleDelayNanos =
@@ -29,6 +31,9 @@ final class BatchItemProcessorBuilder {
   private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
   private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
   private int maxPendingExports = DEFAULT_MAX_PENDING_EXPORTS;
+  private int shardCount = DEFAULT_SHARD_COUNT;
+  private long maxQueueBytes = DEFAULT_MAX_QUEUE_BYTES;
+  private boolean priorityShedding;
 
   BatchItemProcessorBuilder(TelemetryItemExporter exporter) {
     this.exporter = requireNonNull(exporter, "exporter");
@@ -53,6 +58,26 @@ final class BatchItemProcessorBuilder {
     return this;
   }
 
+  /**
+   * Sets the maximum estimated number of bytes retained by the items that are kept in the queue
+   * before start dropping. The size of each item is estimated when it is added to the queue.
+   *
+   * <p>This is in addition to the max queue size, which still bounds the number of items.
+   *
+   * <p>Default value is {@code 0}, which means that the queue is only bounded by the max queue
+   * size.
+   *
+   * @param maxQueueBytes the maximum estimated number of bytes retained by the items that are kept
+   *     in the queue before start dropping, or {@code 0} for no limit.
+   * @return this.
+   * @see BatchItemProcessorBuilder#DEFAULT_MAX_QUEUE_BYTES
+   */
+  public BatchItemProcessorBuilder setMaxQueueBytes(long maxQueueBytes) {
+    checkArgument(maxQueueBytes >= 0, "maxQueueBytes must be non-negative.");
+    this.maxQueueBytes = maxQueueBytes;
+    return this;
+  }
+
   /**
    * Sets the maximum batch size for every export. This must be smaller or equal to {@code
    * maxQueuedItems}.
@@ -72,10 +97,10 @@ final class BatchItemProcessorBuilder {
   /**
    * The maximum number of exports that can be pending at any time.
    *
-   * <p>The {@link BatchItemProcessor}'s single worker thread will keep processing as many batches
+   * <p>Each of the {@link BatchItemProcessor}'s worker threads will keep processing as many batches
    * as it can without blocking on the {@link io.opentelemetry.sdk.common.CompletableResultCode}s
    * that are returned from the {@code spanExporter}, but it will limit the total number of pending
-   * exports in flight to this number.
+   * exports in flight (across all of the worker threads) to this number.
    *
    * <p>Default value is {@code 1}.
    *
@@ -89,6 +114,43 @@ final class BatchItemProcessorBuilder {
     return this;
   }
 
+  /**
+   * Sets the number of independent queue/worker pairs. Producer threads are hashed onto the shards,
+   * so that on hosts with many cores a single worker thread does not become the bottleneck.
+   *
+   * <p>The max queue size (and max queue bytes) is split evenly across the shards, so a single
+   * producer thread can only fill its own shard, while max pending exports applies to all of the
+   * shards together.
+   *
+   * <p>Default value is {@code 1}.
+   *
+   * @param shardCount the number of independent queue/worker pairs.
+   * @return this.
+   * @see BatchItemProcessorBuilder#DEFAULT_SHARD_COUNT
+   */
+  public BatchItemProcessorBuilder setShardCount(int shardCount) {
+    checkArgument(shardCount > 0, "shardCount must be positive.");
+    this.shardCount = shardCount;
+    return this;
+  }
+
+  /**
+   * Sets whether lower priority items (e.g. successful dependencies and info level logs) are
+   * dropped once the queue is under pressure, so that the remaining room in the queue is kept for
+   * higher priority items (e.g. requests, exceptions and failed dependencies).
+   *
+   * <p>See {@link TelemetryItemPriority} for the fill ratio at which each priority is dropped.
+   *
+   * <p>Default value is {@code false}.
+   *
+   * @param priorityShedding whether lower priority items are dropped before the queue is full.
+   * @return this.
+   */
+  public BatchItemProcessorBuilder setPriorityShedding(boolean priorityShedding) {
+    this.priorityShedding = priorityShedding;
+    return this;
+  }
+
   /**
    * Returns a new {@link BatchItemProcessor} that batches, then converts items to proto and
    * forwards them to the given {@code exporter}.
@@ -104,6 +166,9 @@ final class BatchItemProcessorBuilder {
         maxExportBatchSize,
         exporterTimeoutNanos,
         maxPendingExports,
+        maxQueueBytes,
+        shardCount,
+        priorityShedding,
         queueName);
   }
 }
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import org.apache.commons.text.StringSubstitutor;
@@ -76,6 +77,10 @@ public class TelemetryClient {
   @Nullable private final File tempDir;
   private final int generalExportQueueCapacity;
   private final int metricsExportQueueCapacity;
+  private final int generalExportQueueShards;
+  private final int generalExportQueueMaxSizeMb;
+  private final int metricsExportQueueMaxSizeMb;
+  private final boolean generalExportQueuePriorityShedding;
   private final int diskPersistenceMaxSizeMb;
 
   @Nullable private final Configuration.AadAuthentication aadAuthentication;
@@ -85,6 +90,8 @@ public class TelemetryClient {
   @Nullable private volatile BatchItemProcessor metricsBatchItemProcessor;
   @Nullable private volatile BatchItemProcessor statsbeatBatchItemProcessor;
 
+  private final List<Runnable> forceFlushCallbacks = new CopyOnWriteArrayList<>();
+
   public static TelemetryClient.Builder builder() {
     return new TelemetryClient.Builder();
   }
@@ -107,6 +114,10 @@ public class TelemetryClient {
     this.tempDir = builder.tempDir;
     this.generalExportQueueCapacity = builder.generalExportQueueCapacity;
     this.metricsExportQueueCapacity = builder.metricsExportQueueCapacity;
+    this.generalExportQueueShards = builder.generalExportQueueShards;
+    this.generalExportQueueMaxSizeMb = builder.generalExportQueueMaxSizeMb;
+    this.metricsExportQueueMaxSizeMb = builder.metricsExportQueueMaxSizeMb;
+    this.generalExportQueuePriorityShedding = builder.generalExportQueuePriorityShedding;
     this.aadAuthentication = builder.aadAuthentication;
     this.connectionString = builder.connectionString;
     this.statsbeatConnectionString = builder.statsbeatConnectionString;
@@ -181,7 +192,16 @@ public class TelemetryClient {
     }
   }
 
+  // called at the start of forceFlush(), so that telemetry which is buffered outside of the export
+  // queues (e.g. pre-aggregated metrics) is added to the export queues before they are flushed
+  public void addForceFlushCallback(Runnable callback) {
+    forceFlushCallbacks.add(callback);
+  }
+
   public CompletableResultCode forceFlush() {
+    for (Runnable callback : forceFlushCallbacks) {
+      callback.run();
+    }
     List<CompletableResultCode> resultCodes = new ArrayList<>();
     if (generalBatchItemProcessor != null) {
       resultCodes.add(generalBatchItemProcessor.forceFlush());
@@ -200,7 +220,13 @@ public class TelemetryClient {
       synchronized (batchItemProcessorInitLock) {
         if (generalBatchItemProcessor == null) {
           generalBatchItemProcessor =
-              initBatchItemProcessor(generalExportQueueCapacity, 512, "general");
+              initBatchItemProcessor(
+                  generalExportQueueCapacity,
+                  generalExportQueueMaxSizeMb,
+                  512,
+                  getGeneralExportQueueShards(generalExportQueueShards),
+                  generalExportQueuePriorityShedding,
+                  "general");
         }
       }
     }
@@ -209,20 +235,45 @@ public class TelemetryClient {
 
   // metrics get flooded every 60 seconds by default, so need much larger queue size to avoid
   // dropping telemetry (they are much smaller so a larger queue size and larger batch size are ok)
+  //
+  // this queue is not sharded, since metrics are produced by a small number of periodic threads, so
+  // hashing the producer threads onto multiple shards would not spread the load anyways
+  //
+  // priority shedding is not used for this queue, since all metrics have the same priority
   public BatchItemProcessor getMetricsBatchItemProcessor() {
     if (metricsBatchItemProcessor == null) {
       synchronized (batchItemProcessorInitLock) {
         if (metricsBatchItemProcessor == null) {
           metricsBatchItemProcessor =
-              initBatchItemProcessor(metricsExportQueueCapacity, 2048, "metrics");
+              initBatchItemProcessor(
+                  metricsExportQueueCapacity,
+                  metricsExportQueueMaxSizeMb,
+                  2048,
+                  1,
+                  false,
+                  "metrics");
         }
       }
     }
     return metricsBatchItemProcessor;
   }
 
+  // a single worker thread can drive roughly 16 cores worth of request threads, so hosts with fewer
+  // cores than that keep the single worker thread
+  private static int getGeneralExportQueueShards(int configuredShards) {
+    if (configuredShards > 0) {
+      return configuredShards;
+    }
+    return Math.max(1, Runtime.getRuntime().availableProcessors() / 16);
+  }
+
   private BatchItemProcessor initBatchItemProcessor(
-      int exportQueueCapacity, int maxExportBatchSize, String queueName) {
+      int exportQueueCapacity,
+      int exportQueueMaxSizeMb,
+      int maxExportBatchSize,
+      int shardCount,
+      boolean priorityShedding,
+      String queueName) {
     HttpPipeline httpPipeline =
         LazyHttpClient.newHttpPipeLine(
             aadAuthentication,
@@ -257,10 +308,14 @@ public class TelemetryClient {
     return BatchItemProcessor.builder(
             new TelemetryItemExporter(telemetryPipeline, telemetryPipelineListener))
         .setMaxQueueSize(exportQueueCapacity)
+        .setMaxQueueBytes(exportQueueMaxSizeMb * 1024L * 1024L)
         .setMaxExportBatchSize(maxExportBatchSize)
-        // the number 100 was calculated as the max number of concurrent exports that the single
+        // the number 100 was calculated as the max number of concurrent exports that a single
         // worker thread can drive, so anything higher than this should not increase throughput
+        // (this is shared by all of the shards, so sharding doesn't add concurrent exports)
         .setMaxPendingExports(100)
+        .setShardCount(shardCount)
+        .setPriorityShedding(priorityShedding)
         .build(queueName);
   }
 
@@ -433,6 +488,10 @@ public class TelemetryClient {
     @Nullable private File tempDir;
     private int generalExportQueueCapacity;
     private int metricsExportQueueCapacity;
+    private int generalExportQueueShards;
+    private int generalExportQueueMaxSizeMb;
+    private int metricsExportQueueMaxSizeMb;
+    private boolean generalExportQueuePriorityShedding;
     @Nullable private Configuration.AadAuthentication aadAuthentication;
     @Nullable private ConnectionString connectionString;
     @Nullable private StatsbeatConnectionString statsbeatConnectionString;
@@ -489,6 +548,27 @@ public class TelemetryClient {
       return this;
     }
 
+    public Builder setGeneralExportQueueShards(int generalExportQueueShards) {
+      this.generalExportQueueShards = generalExportQueueShards;
+      return this;
+    }
+
+    public Builder setGeneralExportQueueMaxSizeMb(int generalExportQueueMaxSizeMb) {
+      this.generalExportQueueMaxSizeMb = generalExportQueueMaxSizeMb;
+      return this;
+    }
+
+    public Builder setMetricsExportQueueMaxSizeMb(int metricsExportQueueMaxSizeMb) {
+      this.metricsExportQueueMaxSizeMb = metricsExportQueueMaxSizeMb;
+      return this;
+    }
+
+    public Builder setGeneralExportQueuePriorityShedding(
+        boolean generalExportQueuePriorityShedding) {
+      this.generalExportQueuePriorityShedding = generalExportQueuePriorityShedding;
+      return this;
+    }
+
     public Builder setAadAuthentication(Configuration.AadAuthentication aadAuthentication) {
       this.aadAuthentication = aadAuthentication;
       return this;
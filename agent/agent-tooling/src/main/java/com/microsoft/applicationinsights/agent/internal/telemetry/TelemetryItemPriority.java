@@ -0,0 +1,67 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.telemetry;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MessageData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorBase;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorDomain;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RemoteDependencyData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RequestData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.SeverityLevel;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryExceptionData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+
+// used to decide which telemetry to shed first when an export queue is under pressure, so that
+// during an incident the requests, exceptions and failures are kept at the expense of the
+// (typically much more numerous) successful dependencies and verbose traces
+public enum TelemetryItemPriority {
+
+  LOW(0.7, "successful dependencies and info level logs"),
+  NORMAL(0.9, "custom events and warning or error level logs"),
+  HIGH(1.0, "requests, exceptions and failed dependencies");
+
+  // once the export queue is filled past this ratio, items of this priority are dropped, which
+  // leaves the remaining room in the queue for the higher priority items
+  private final double maxFillRatio;
+  // used in the logs, e.g. when items of this priority are shed
+  private final String description;
+
+  TelemetryItemPriority(double maxFillRatio, String description) {
+    this.maxFillRatio = maxFillRatio;
+    this.description = description;
+  }
+
+  static final double MIN_SHEDDING_FILL_RATIO = LOW.maxFillRatio;
+
+  String getDescription() {
+    return description;
+  }
+
+  boolean shouldShed(double fillRatio) {
+    return fillRatio >= maxFillRatio;
+  }
+
+  static TelemetryItemPriority of(TelemetryItem item) {
+    MonitorBase data = item.getData();
+    if (data == null) {
+      return NORMAL;
+    }
+    MonitorDomain baseData = data.getBaseData();
+    if (baseData instanceof RequestData || baseData instanceof TelemetryExceptionData) {
+      return HIGH;
+    }
+    if (baseData instanceof RemoteDependencyData) {
+      return Boolean.FALSE.equals(((RemoteDependencyData) baseData).isSuccess()) ? HIGH : LOW;
+    }
+    if (baseData instanceof MessageData) {
+      SeverityLevel severityLevel = ((MessageData) baseData).getSeverityLevel();
+      if (severityLevel == null
+          || SeverityLevel.VERBOSE.equals(severityLevel)
+          || SeverityLevel.INFORMATION.equals(severityLevel)) {
+        return LOW;
+      }
+    }
+    return NORMAL;
+  }
+}
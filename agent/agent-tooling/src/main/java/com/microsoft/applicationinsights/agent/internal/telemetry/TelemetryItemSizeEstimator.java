@@ -0,0 +1,153 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.telemetry;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MessageData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MetricDataPoint;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MetricsData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorBase;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorDomain;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RemoteDependencyData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RequestData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.StackFrameDetails;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryEventData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryExceptionData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryExceptionDetails;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+// rough estimate of the heap retained by a telemetry item while it sits in the export queue
+//
+// this doesn't need to be exact, it only needs to be cheap and in the right ballpark, e.g. an
+// exception with a full stack trace should come out much larger than a dependency
+final class TelemetryItemSizeEstimator {
+
+  // TelemetryItem + MonitorBase + MonitorDomain subclass + OffsetDateTime + tags map
+  private static final int TELEMETRY_ITEM_OVERHEAD = 256;
+  private static final int OBJECT_OVERHEAD = 16;
+  private static final int STRING_OVERHEAD = 40;
+  private static final int MAP_ENTRY_OVERHEAD = 32;
+  private static final int METRIC_DATA_POINT_OVERHEAD = 64;
+  private static final int STACK_FRAME_OVERHEAD = 48;
+
+  static long estimate(TelemetryItem item) {
+    long size = TELEMETRY_ITEM_OVERHEAD;
+    size += estimateString(item.getName());
+    size += estimateString(item.getInstrumentationKey());
+    size += estimateStrings(item.getTags());
+
+    MonitorBase data = item.getData();
+    if (data == null) {
+      return size;
+    }
+    MonitorDomain baseData = data.getBaseData();
+    if (baseData instanceof RequestData) {
+      RequestData requestData = (RequestData) baseData;
+      size += estimateString(requestData.getId());
+      size += estimateString(requestData.getName());
+      size += estimateString(requestData.getUrl());
+      size += estimateString(requestData.getSource());
+      size += estimateString(requestData.getResponseCode());
+      size += estimateStrings(requestData.getProperties());
+      size += estimateNumbers(requestData.getMeasurements());
+    } else if (baseData instanceof RemoteDependencyData) {
+      RemoteDependencyData dependencyData = (RemoteDependencyData) baseData;
+      size += estimateString(dependencyData.getId());
+      size += estimateString(dependencyData.getName());
+      size += estimateString(dependencyData.getData());
+      size += estimateString(dependencyData.getType());
+      size += estimateString(dependencyData.getTarget());
+      size += estimateString(dependencyData.getResultCode());
+      size += estimateStrings(dependencyData.getProperties());
+      size += estimateNumbers(dependencyData.getMeasurements());
+    } else if (baseData instanceof TelemetryExceptionData) {
+      TelemetryExceptionData exceptionData = (TelemetryExceptionData) baseData;
+      List<TelemetryExceptionDetails> exceptions = exceptionData.getExceptions();
+      if (exceptions != null) {
+        for (TelemetryExceptionDetails exception : exceptions) {
+          size += estimateException(exception);
+        }
+      }
+      size += estimateString(exceptionData.getProblemId());
+      size += estimateStrings(exceptionData.getProperties());
+      size += estimateNumbers(exceptionData.getMeasurements());
+    } else if (baseData instanceof MessageData) {
+      MessageData messageData = (MessageData) baseData;
+      size += estimateString(messageData.getMessage());
+      size += estimateStrings(messageData.getProperties());
+      size += estimateNumbers(messageData.getMeasurements());
+    } else if (baseData instanceof MetricsData) {
+      MetricsData metricsData = (MetricsData) baseData;
+      List<MetricDataPoint> points = metricsData.getMetrics();
+      if (points != null) {
+        for (MetricDataPoint point : points) {
+          size += METRIC_DATA_POINT_OVERHEAD;
+          size += estimateString(point.getName());
+          size += estimateString(point.getNamespace());
+        }
+      }
+      size += estimateStrings(metricsData.getProperties());
+    } else if (baseData instanceof TelemetryEventData) {
+      TelemetryEventData eventData = (TelemetryEventData) baseData;
+      size += estimateString(eventData.getName());
+      size += estimateStrings(eventData.getProperties());
+      size += estimateNumbers(eventData.getMeasurements());
+    }
+    // other telemetry types (e.g. page views, availability) are rare enough in the agent that the
+    // fixed overhead is a good enough estimate
+    return size;
+  }
+
+  private static long estimateException(TelemetryExceptionDetails exception) {
+    long size = OBJECT_OVERHEAD;
+    size += estimateString(exception.getTypeName());
+    size += estimateString(exception.getMessage());
+    size += estimateString(exception.getStack());
+    List<StackFrameDetails> parsedStack = exception.getParsedStack();
+    if (parsedStack != null) {
+      for (StackFrameDetails frame : parsedStack) {
+        size += STACK_FRAME_OVERHEAD;
+        size += estimateString(frame.getMethod());
+        size += estimateString(frame.getAssembly());
+        size += estimateString(frame.getFileName());
+      }
+    }
+    return size;
+  }
+
+  private static long estimateStrings(@Nullable Map<String, String> map) {
+    if (map == null) {
+      return 0;
+    }
+    long size = 0;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      size += MAP_ENTRY_OVERHEAD;
+      size += estimateString(entry.getKey());
+      size += estimateString(entry.getValue());
+    }
+    return size;
+  }
+
+  private static long estimateNumbers(@Nullable Map<String, Double> map) {
+    if (map == null) {
+      return 0;
+    }
+    long size = 0;
+    for (String key : map.keySet()) {
+      size += MAP_ENTRY_OVERHEAD + OBJECT_OVERHEAD;
+      size += estimateString(key);
+    }
+    return size;
+  }
+
+  // assumes two bytes per char, which over-estimates latin-1 strings on Java 9+, but is
+  // the safer direction to be wrong in when bounding memory usage
+  private static long estimateString(@Nullable String str) {
+    return str == null ? 0 : STRING_OVERHEAD + 2L * str.length();
+  }
+
+  private TelemetryItemSizeEstimator() {}
+}
@@ -0,0 +1,97 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.classicsdk;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.builders.MetricTelemetryBuilder;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MetricDataPoint;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MetricsData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class BytecodeUtilImplTest {
+
+  // the active telemetry client can only be set once
+  private static final TelemetryClient telemetryClient = mock(TelemetryClient.class);
+
+  private final List<Double> aggregatedValues = new ArrayList<>();
+
+  @BeforeAll
+  static void setActiveTelemetryClient() {
+    TelemetryClient.setActive(telemetryClient);
+  }
+
+  @BeforeEach
+  void setUp() {
+    reset(telemetryClient);
+    when(telemetryClient.newMetricTelemetryBuilder())
+        .thenAnswer(invocation -> MetricTelemetryBuilder.create());
+    BytecodeUtilImpl.metricPreAggregator =
+        new MetricPreAggregator(
+            (name, namespace, value, count, min, max, stdDev, properties, tags) ->
+                aggregatedValues.add(value),
+            MetricPreAggregator.DEFAULT_MAX_SERIES_PER_NAME);
+  }
+
+  @AfterEach
+  void tearDown() {
+    BytecodeUtilImpl.metricPreAggregator = null;
+  }
+
+  @Test
+  void shouldExportMicrometerGaugeAsIs() {
+    BytecodeUtilImpl bytecodeUtil = new BytecodeUtilImpl();
+
+    // two publishes of the same gauge within one pre-aggregation interval
+    bytecodeUtil.trackMicrometerMetric("gauge", null, 5, null, null, null, emptyMap());
+    bytecodeUtil.trackMicrometerMetric("gauge", null, 7, null, null, null, emptyMap());
+
+    ArgumentCaptor<TelemetryItem> captor = ArgumentCaptor.forClass(TelemetryItem.class);
+    verify(telemetryClient, times(2)).trackAsync(captor.capture());
+    assertThat(captor.getAllValues())
+        .extracting(item -> getPoint(item).getValue())
+        .containsExactly(5.0, 7.0);
+    assertThat(captor.getAllValues())
+        .extracting(item -> getPoint(item).getCount())
+        .containsOnlyNulls();
+
+    BytecodeUtilImpl.metricPreAggregator.flush();
+    assertThat(aggregatedValues).isEmpty();
+  }
+
+  @Test
+  void shouldPreAggregateClassicSdkMetric() {
+    BytecodeUtilImpl bytecodeUtil = new BytecodeUtilImpl();
+
+    bytecodeUtil.trackMetric(
+        null, "custom", null, 5, null, null, null, null, emptyMap(), emptyMap(), null, null);
+    bytecodeUtil.trackMetric(
+        null, "custom", null, 7, null, null, null, null, emptyMap(), emptyMap(), null, null);
+
+    verify(telemetryClient, never()).trackAsync(any());
+
+    BytecodeUtilImpl.metricPreAggregator.flush();
+    assertThat(aggregatedValues).containsExactly(12.0);
+  }
+
+  private static MetricDataPoint getPoint(TelemetryItem item) {
+    return ((MetricsData) item.getData().getBaseData()).getMetrics().get(0);
+  }
+}
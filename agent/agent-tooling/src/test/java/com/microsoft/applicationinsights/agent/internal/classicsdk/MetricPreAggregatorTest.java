@@ -0,0 +1,115 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.classicsdk;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MetricPreAggregatorTest {
+
+  private final List<Emitted> emitted = new ArrayList<>();
+
+  private final MetricPreAggregator aggregator =
+      new MetricPreAggregator(
+          (name, namespace, value, count, min, max, stdDev, properties, tags) -> {
+            Emitted e = new Emitted();
+            e.value = value;
+            e.count = count;
+            e.min = min;
+            e.max = max;
+            e.stdDev = stdDev;
+            e.properties = properties;
+            emitted.add(e);
+          },
+          2);
+
+  @Test
+  void shouldAggregatePerSeries() {
+    Map<String, String> properties = new HashMap<>();
+    properties.put("region", "west");
+    aggregator.record("latency", null, 2, properties, emptyMap());
+    aggregator.record("latency", null, 4, properties, emptyMap());
+    // caller reusing and changing its map shouldn't affect the existing series
+    properties.put("region", "east");
+    aggregator.record("latency", null, 10, properties, emptyMap());
+    aggregator.record("latency", null, 4, singletonMap("region", "west"), emptyMap());
+
+    aggregator.flush();
+
+    assertThat(emitted).hasSize(2);
+    Emitted west = find("west");
+    assertThat(west.value).isEqualTo(10);
+    assertThat(west.count).isEqualTo(3);
+    assertThat(west.min).isEqualTo(2);
+    assertThat(west.max).isEqualTo(4);
+    assertThat(west.stdDev).isCloseTo(Math.sqrt(8.0 / 9), within(1e-9));
+    Emitted east = find("east");
+    assertThat(east.value).isEqualTo(10);
+    assertThat(east.count).isEqualTo(1);
+  }
+
+  @Test
+  void shouldResetAfterFlush() {
+    aggregator.record("requests", "ns", 1, emptyMap(), emptyMap());
+    aggregator.flush();
+    emitted.clear();
+
+    // nothing recorded during the interval
+    aggregator.flush();
+    assertThat(emitted).isEmpty();
+
+    aggregator.record("requests", "ns", 5, emptyMap(), emptyMap());
+    aggregator.flush();
+    assertThat(emitted).hasSize(1);
+    assertThat(emitted.get(0).value).isEqualTo(5);
+    assertThat(emitted.get(0).count).isEqualTo(1);
+  }
+
+  @Test
+  void shouldCapSeriesPerName() {
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "1"), emptyMap())).isTrue();
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "2"), emptyMap())).isTrue();
+    // over the cap, so the caller sends it as is
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "3"), emptyMap()))
+        .isFalse();
+    // existing series, and other metric names, are still aggregated
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "1"), emptyMap())).isTrue();
+    assertThat(aggregator.record("requests", null, 1, singletonMap("id", "3"), emptyMap()))
+        .isTrue();
+
+    aggregator.flush();
+    assertThat(emitted).hasSize(3);
+
+    // the series that are not recorded during an interval are removed, making room for new ones
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "1"), emptyMap())).isTrue();
+    aggregator.flush();
+    assertThat(aggregator.record("latency", null, 1, singletonMap("id", "3"), emptyMap())).isTrue();
+  }
+
+  private Emitted find(String region) {
+    for (Emitted e : emitted) {
+      if (region.equals(e.properties.get("region"))) {
+        return e;
+      }
+    }
+    throw new AssertionError("not found: " + region);
+  }
+
+  private static class Emitted {
+    private double value;
+    private int count;
+    private double min;
+    private double max;
+    private double stdDev;
+    private Map<String, String> properties;
+  }
+}
@@ -0,0 +1,84 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.api.logs.Logger;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.logs.SdkLoggerProvider;
+import io.opentelemetry.sdk.logs.export.LogRecordExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemoryLogRecordExporter;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class DirectLogRecordProcessorTest {
+
+  @Test
+  void shouldExportLogRecordWhenItIsEmitted() {
+    InMemoryLogRecordExporter exporter = InMemoryLogRecordExporter.create();
+    SdkLoggerProvider loggerProvider = newLoggerProvider(exporter);
+    Logger logger = loggerProvider.get("test");
+
+    logger.logRecordBuilder().setBody("first").emit();
+    // exported on the thread that emitted the log record, without any flush
+    assertThat(exporter.getFinishedLogRecordItems())
+        .extracting(logRecord -> logRecord.getBody().asString())
+        .containsExactly("first");
+
+    logger.logRecordBuilder().setBody("second").emit();
+    assertThat(exporter.getFinishedLogRecordItems())
+        .extracting(logRecord -> logRecord.getBody().asString())
+        .containsExactly("first", "second");
+
+    loggerProvider.close();
+  }
+
+  @Test
+  void shouldPropagateForceFlushAndShutdown() {
+    LogRecordExporter exporter = mock(LogRecordExporter.class);
+    CompletableResultCode flushResult = new CompletableResultCode();
+    CompletableResultCode shutdownResult = new CompletableResultCode();
+    when(exporter.flush()).thenReturn(flushResult);
+    when(exporter.shutdown()).thenReturn(shutdownResult);
+    DirectLogRecordProcessor processor = new DirectLogRecordProcessor(exporter);
+
+    // the results of the exporter are passed through, so that callers wait for the exporter
+    assertThat(processor.forceFlush()).isSameAs(flushResult);
+    verify(exporter).flush();
+    assertThat(processor.shutdown()).isSameAs(shutdownResult);
+    verify(exporter).shutdown();
+  }
+
+  @Test
+  void shouldNotPropagateExporterFailure() {
+    LogRecordExporter exporter = mock(LogRecordExporter.class);
+    when(exporter.export(any()))
+        .thenThrow(new IllegalStateException("test"))
+        .thenReturn(CompletableResultCode.ofSuccess());
+    when(exporter.shutdown()).thenReturn(CompletableResultCode.ofSuccess());
+    SdkLoggerProvider loggerProvider = newLoggerProvider(exporter);
+    Logger logger = loggerProvider.get("test");
+
+    // doesn't throw on the application thread
+    logger.logRecordBuilder().setBody("first").emit();
+    // and the next log records are still exported
+    logger.logRecordBuilder().setBody("second").emit();
+
+    verify(exporter, times(2)).export(any());
+
+    loggerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  private static SdkLoggerProvider newLoggerProvider(LogRecordExporter exporter) {
+    return SdkLoggerProvider.builder()
+        .addLogRecordProcessor(new DirectLogRecordProcessor(exporter))
+        .build();
+  }
+}
@@ -0,0 +1,125 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class DirectSpanProcessorTest {
+
+  @Test
+  void shouldExportSpanWhenItEnds() {
+    InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    SdkTracerProvider tracerProvider = newTracerProvider(exporter, Sampler.alwaysOn());
+    Tracer tracer = tracerProvider.get("test");
+
+    tracer.spanBuilder("first").startSpan().end();
+    // exported on the thread that ended the span, without any flush
+    assertThat(exporter.getFinishedSpanItems())
+        .extracting(SpanData::getName)
+        .containsExactly("first");
+
+    tracer.spanBuilder("second").startSpan().end();
+    assertThat(exporter.getFinishedSpanItems())
+        .extracting(SpanData::getName)
+        .containsExactly("first", "second");
+
+    tracerProvider.close();
+  }
+
+  @Test
+  void shouldNotExportSpanThatIsNotSampled() {
+    InMemorySpanExporter exporter = InMemorySpanExporter.create();
+    SdkTracerProvider tracerProvider = newTracerProvider(exporter, new RecordOnlySampler());
+
+    // recorded, but not sampled
+    tracerProvider.get("test").spanBuilder("span").startSpan().end();
+
+    assertThat(exporter.getFinishedSpanItems()).isEmpty();
+
+    tracerProvider.close();
+  }
+
+  @Test
+  void shouldPropagateForceFlushAndShutdown() {
+    SpanExporter exporter = mock(SpanExporter.class);
+    CompletableResultCode flushResult = new CompletableResultCode();
+    CompletableResultCode shutdownResult = new CompletableResultCode();
+    when(exporter.flush()).thenReturn(flushResult);
+    when(exporter.shutdown()).thenReturn(shutdownResult);
+    DirectSpanProcessor processor = new DirectSpanProcessor(exporter);
+
+    // the results of the exporter are passed through, so that callers wait for the exporter
+    assertThat(processor.forceFlush()).isSameAs(flushResult);
+    verify(exporter).flush();
+    assertThat(processor.shutdown()).isSameAs(shutdownResult);
+    verify(exporter).shutdown();
+  }
+
+  @Test
+  void shouldNotPropagateExporterFailure() {
+    SpanExporter exporter = mock(SpanExporter.class);
+    when(exporter.export(any()))
+        .thenThrow(new IllegalStateException("test"))
+        .thenReturn(CompletableResultCode.ofSuccess());
+    when(exporter.shutdown()).thenReturn(CompletableResultCode.ofSuccess());
+    SdkTracerProvider tracerProvider = newTracerProvider(exporter, Sampler.alwaysOn());
+    Tracer tracer = tracerProvider.get("test");
+
+    // doesn't throw on the application thread
+    tracer.spanBuilder("first").startSpan().end();
+    // and the next spans are still exported
+    tracer.spanBuilder("second").startSpan().end();
+
+    verify(exporter, times(2)).export(any());
+
+    tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+  }
+
+  private static SdkTracerProvider newTracerProvider(SpanExporter exporter, Sampler sampler) {
+    return SdkTracerProvider.builder()
+        .setSampler(sampler)
+        .addSpanProcessor(new DirectSpanProcessor(exporter))
+        .build();
+  }
+
+  private static class RecordOnlySampler implements Sampler {
+
+    @Override
+    public SamplingResult shouldSample(
+        Context parentContext,
+        String traceId,
+        String name,
+        SpanKind spanKind,
+        Attributes attributes,
+        List<LinkData> parentLinks) {
+      return SamplingResult.recordOnly();
+    }
+
+    @Override
+    public String getDescription() {
+      return "RecordOnlySampler";
+    }
+  }
+}
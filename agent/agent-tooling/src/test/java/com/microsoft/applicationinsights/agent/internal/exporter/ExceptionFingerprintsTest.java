@@ -0,0 +1,150 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ExceptionFingerprintsTest {
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  void shouldIgnoreExceptionMessages() {
+    String stack1 = stack(newException("order 123 not found"));
+    String stack2 = stack(newException("order 456 not found"));
+
+    assertThat(stack1).isNotEqualTo(stack2);
+    assertThat(ExceptionFingerprints.fingerprint(stack1))
+        .isEqualTo(ExceptionFingerprints.fingerprint(stack2));
+  }
+
+  @Test
+  void shouldIgnoreCauseMessages() {
+    String stack1 =
+        "java.lang.RuntimeException: a\n"
+            + "\tat com.example.Foo.foo(Foo.java:10)\n"
+            + "Caused by: java.io.IOException: connection 1 reset\n"
+            + "\tat com.example.Bar.bar(Bar.java:20)\n"
+            + "\t... 1 more\n";
+    String stack2 =
+        "java.lang.RuntimeException: b\r\n"
+            + "\tat com.example.Foo.foo(Foo.java:10)\r\n"
+            + "Caused by: java.io.IOException: connection 2 reset\r\n"
+            + "\tat com.example.Bar.bar(Bar.java:20)\r\n"
+            + "\t... 1 more\r\n";
+
+    assertThat(ExceptionFingerprints.fingerprint(stack1))
+        .isEqualTo(ExceptionFingerprints.fingerprint(stack2));
+  }
+
+  @Test
+  void shouldDistinguishExceptionTypes() {
+    String stack1 = "java.lang.IllegalStateException: a\n\tat com.example.Foo.foo(Foo.java:10)";
+    String stack2 = "java.lang.IllegalArgumentException: a\n\tat com.example.Foo.foo(Foo.java:10)";
+
+    assertThat(ExceptionFingerprints.fingerprint(stack1))
+        .isNotEqualTo(ExceptionFingerprints.fingerprint(stack2));
+  }
+
+  @Test
+  void shouldDistinguishStackFrames() {
+    String stack1 = "java.lang.IllegalStateException: a\n\tat com.example.Foo.foo(Foo.java:10)\n";
+    String stack2 = "java.lang.IllegalStateException: a\n\tat com.example.Foo.foo(Foo.java:11)\n";
+
+    assertThat(ExceptionFingerprints.fingerprint(stack1))
+        .isNotEqualTo(ExceptionFingerprints.fingerprint(stack2));
+  }
+
+  @Test
+  void shouldDistinguishCauses() {
+    String stack1 =
+        "java.lang.RuntimeException: a\n"
+            + "\tat com.example.Foo.foo(Foo.java:10)\n"
+            + "Caused by: java.io.IOException: b\n";
+    String stack2 =
+        "java.lang.RuntimeException: a\n"
+            + "\tat com.example.Foo.foo(Foo.java:10)\n"
+            + "Caused by: java.net.SocketException: b\n";
+
+    assertThat(ExceptionFingerprints.fingerprint(stack1))
+        .isNotEqualTo(ExceptionFingerprints.fingerprint(stack2));
+  }
+
+  @Test
+  void shouldOnlySendFullStackTraceForFirstOccurrencesInWindow() {
+    ExceptionFingerprints fingerprints = new ExceptionFingerprints(2, 60, 10, nanoTime::get);
+    String stack = stack(newException("a"));
+
+    ExceptionFingerprints.Occurrence first = fingerprints.record(stack);
+    ExceptionFingerprints.Occurrence second = fingerprints.record(stack);
+    ExceptionFingerprints.Occurrence third = fingerprints.record(stack);
+
+    assertThat(first.isFullStackTrace()).isTrue();
+    assertThat(second.isFullStackTrace()).isTrue();
+    assertThat(third.isFullStackTrace()).isFalse();
+    assertThat(third.getCount()).isEqualTo(3);
+    assertThat(third.getFingerprint()).isEqualTo(first.getFingerprint()).hasSize(16);
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+    ExceptionFingerprints.Occurrence nextWindow = fingerprints.record(stack);
+
+    assertThat(nextWindow.isFullStackTrace()).isTrue();
+    assertThat(nextWindow.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldTrackDistinctStackTracesSeparately() {
+    ExceptionFingerprints fingerprints = new ExceptionFingerprints(1, 60, 10, nanoTime::get);
+
+    assertThat(fingerprints.record(stack(new IllegalStateException())).isFullStackTrace()).isTrue();
+    assertThat(fingerprints.record(stack(new IllegalArgumentException())).isFullStackTrace())
+        .isTrue();
+  }
+
+  @Test
+  void shouldEvictLeastRecentlySeenFingerprint() {
+    ExceptionFingerprints fingerprints = new ExceptionFingerprints(1, 60, 2, nanoTime::get);
+    String stack1 = "java.lang.Exception1\n";
+    String stack2 = "java.lang.Exception2\n";
+    String stack3 = "java.lang.Exception3\n";
+
+    fingerprints.record(stack1);
+    fingerprints.record(stack2);
+    // stack1 is now the most recently seen
+    assertThat(fingerprints.record(stack1).isFullStackTrace()).isFalse();
+    // evicts stack2
+    fingerprints.record(stack3);
+
+    assertThat(fingerprints.record(stack1).isFullStackTrace()).isFalse();
+    assertThat(fingerprints.record(stack2).isFullStackTrace()).isTrue();
+  }
+
+  @Test
+  void shouldReturnFirstLine() {
+    assertThat(ExceptionFingerprints.firstLine("java.lang.Exception: a\r\n\tat Foo.foo(Foo.java)"))
+        .isEqualTo("java.lang.Exception: a");
+    assertThat(ExceptionFingerprints.firstLine("java.lang.Exception: a\n\tat Foo.foo(Foo.java)"))
+        .isEqualTo("java.lang.Exception: a");
+    assertThat(ExceptionFingerprints.firstLine("java.lang.Exception"))
+        .isEqualTo("java.lang.Exception");
+  }
+
+  // so that the exceptions have the same stack trace
+  private static Exception newException(String message) {
+    return new IllegalStateException(message);
+  }
+
+  private static String stack(Throwable t) {
+    StringWriter out = new StringWriter();
+    t.printStackTrace(new PrintWriter(out));
+    return out.toString();
+  }
+}
@@ -0,0 +1,38 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.exporter;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.PeriodicMetricReader;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricExporter;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ScopeFilteringMetricExporterTest {
+
+  @Test
+  void shouldLeaveOutExcludedScopes() {
+    InMemoryMetricExporter delegate = InMemoryMetricExporter.create();
+    SdkMeterProvider meterProvider =
+        SdkMeterProvider.builder()
+            .registerMetricReader(
+                PeriodicMetricReader.create(
+                    new ScopeFilteringMetricExporter(delegate, singleton("excluded"))))
+            .build();
+
+    meterProvider.get("excluded").counterBuilder("excluded.counter").build().add(1);
+    meterProvider.get("included").counterBuilder("included.counter").build().add(1);
+    meterProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+    assertThat(delegate.getFinishedMetricItems())
+        .extracting(MetricData::getName)
+        .containsExactly("included.counter");
+
+    meterProvider.close();
+  }
+}
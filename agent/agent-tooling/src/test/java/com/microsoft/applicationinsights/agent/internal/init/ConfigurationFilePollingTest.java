@@ -0,0 +1,164 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ConfigurationFilePollingTest {
+
+  private static final String SAMPLING_OVERRIDES =
+      "\"sampling\": {"
+          + "  \"overrides\": [{"
+          + "    \"telemetryType\": \"request\","
+          + "    \"attributes\": [{"
+          + "      \"key\": \"url.path\","
+          + "      \"value\": \"/health-check\","
+          + "      \"matchType\": \"strict\""
+          + "    }],"
+          + "    \"percentage\": %s"
+          + "  }]"
+          + "}";
+
+  private static final String PROCESSORS =
+      "\"preview\": {"
+          + "  \"processors\": [{"
+          + "    \"type\": \"attribute\","
+          + "    \"actions\": [{"
+          + "      \"key\": \"%s\","
+          + "      \"action\": \"delete\""
+          + "    }]"
+          + "  }]"
+          + "}";
+
+  @TempDir Path tempDir;
+
+  private Path configPath;
+  private CapturingRuntimeConfigurator runtimeConfigurator;
+  private ConfigurationFilePolling polling;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    configPath = tempDir.resolve("applicationinsights.json");
+    write(0, "a-key", 1);
+    runtimeConfigurator = new CapturingRuntimeConfigurator();
+    polling = new ConfigurationFilePolling(configPath, runtimeConfigurator);
+    // captures the state of the file that was loaded at startup
+    polling.run();
+  }
+
+  @Test
+  void shouldNotApplyWhenNotModified() {
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).isEmpty();
+  }
+
+  @Test
+  void shouldApplyChangedSamplingOverrides() throws IOException {
+    write(50, "a-key", 2);
+
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).hasSize(1);
+    RuntimeConfiguration applied = runtimeConfigurator.applied.get(0);
+    assertThat(applied.sampling.overrides).hasSize(1);
+    assertThat(applied.sampling.overrides.get(0).percentage).isEqualTo(50);
+    // processors were not changed, so they are not replaced
+    assertThat(applied.processors).isEqualTo(runtimeConfigurator.initialProcessors);
+  }
+
+  @Test
+  void shouldApplyChangedProcessors() throws IOException {
+    write(0, "another-key", 2);
+
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).hasSize(1);
+    RuntimeConfiguration applied = runtimeConfigurator.applied.get(0);
+    assertThat(applied.processors).hasSize(1);
+    assertThat(applied.processors.get(0).actions.get(0).key.getKey()).isEqualTo("another-key");
+    // sampling overrides were not changed, so they are not replaced
+    assertThat(applied.sampling.overrides).isEqualTo(runtimeConfigurator.initialSamplingOverrides);
+  }
+
+  @Test
+  void shouldNotApplyOnlyUnrelatedChanges() throws IOException {
+    String json =
+        "{\"role\": {\"name\": \"a-role-name\"},"
+            + String.format(SAMPLING_OVERRIDES, 0.0)
+            + ","
+            + String.format(PROCESSORS, "a-key")
+            + "}";
+    write(json, 2);
+
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).isEmpty();
+  }
+
+  @Test
+  void shouldKeepCurrentConfigurationWhenNotValid() throws IOException {
+    // missing percentage
+    write("{" + SAMPLING_OVERRIDES.replace(",    \"percentage\": %s", "") + "}", 2);
+
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).isEmpty();
+
+    write(50, "a-key", 3);
+
+    polling.run();
+
+    assertThat(runtimeConfigurator.applied).hasSize(1);
+  }
+
+  private void write(double percentage, String processorKey, int modifiedTime)
+      throws IOException {
+    write(
+        "{"
+            + String.format(SAMPLING_OVERRIDES, percentage)
+            + ","
+            + String.format(PROCESSORS, processorKey)
+            + "}",
+        modifiedTime);
+  }
+
+  private void write(String json, int modifiedTime) throws IOException {
+    Files.write(configPath, json.getBytes(UTF_8));
+    // the file system may not have a fine-grained enough modified time
+    Files.setLastModifiedTime(configPath, FileTime.fromMillis(modifiedTime * 1000L));
+  }
+
+  private static class CapturingRuntimeConfigurator extends RuntimeConfigurator {
+
+    private final List<RuntimeConfiguration> applied = new ArrayList<>();
+    private final List<Configuration.SamplingOverride> initialSamplingOverrides;
+    private final List<Configuration.ProcessorConfig> initialProcessors;
+
+    private CapturingRuntimeConfigurator() {
+      super(TelemetryClient.createForTest(), () -> null, new Configuration(), item -> {}, null);
+      RuntimeConfiguration config = getCurrentConfigCopy();
+      initialSamplingOverrides = config.sampling.overrides;
+      initialProcessors = config.processors;
+    }
+
+    @Override
+    public void apply(RuntimeConfiguration runtimeConfig) {
+      applied.add(runtimeConfig);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+class JmxMetricDimensionsTest {
+
+  private static final AttributeKey<String> METRIC_NAME_KEY = AttributeKey.stringKey("metric_name");
+  private static final AttributeKey<String> CLIENT_ID = AttributeKey.stringKey("client-id");
+  private static final AttributeKey<String> TOPIC = AttributeKey.stringKey("topic");
+
+  @Test
+  void shouldUseKeyPropertiesAsDimensions() throws Exception {
+    JmxMetricDimensions dimensions =
+        new JmxMetricDimensions(
+            "Records Lag", METRIC_NAME_KEY, Arrays.asList("client-id", "topic"), 10);
+
+    Attributes attributes =
+        dimensions.getAttributes(
+            new ObjectName("kafka.consumer:type=fetch,client-id=consumer-1,topic=orders"));
+
+    assertThat(attributes)
+        .isEqualTo(
+            Attributes.builder()
+                .put(METRIC_NAME_KEY, "Records Lag")
+                .put(CLIENT_ID, "consumer-1")
+                .put(TOPIC, "orders")
+                .build());
+  }
+
+  @Test
+  void shouldUnquoteAndDefaultMissingKeyProperties() throws Exception {
+    JmxMetricDimensions dimensions =
+        new JmxMetricDimensions(
+            "Records Lag", METRIC_NAME_KEY, Arrays.asList("client-id", "topic"), 10);
+
+    Attributes attributes =
+        dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=\"consumer,1\""));
+
+    assertThat(attributes.get(CLIENT_ID)).isEqualTo("consumer,1");
+    assertThat(attributes.get(TOPIC)).isEmpty();
+  }
+
+  @Test
+  void shouldCapNumberOfSeries() throws Exception {
+    JmxMetricDimensions dimensions =
+        new JmxMetricDimensions(
+            "Records Lag", METRIC_NAME_KEY, Collections.singletonList("client-id"), 2);
+
+    Attributes first = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=a"));
+    Attributes second = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=b"));
+    Attributes third = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=c"));
+
+    assertThat(first.get(CLIENT_ID)).isEqualTo("a");
+    assertThat(second.get(CLIENT_ID)).isEqualTo("b");
+    assertThat(third.get(CLIENT_ID)).isEqualTo(JmxMetricDimensions.OVERFLOW_VALUE);
+    assertThat(third.get(METRIC_NAME_KEY)).isEqualTo("Records Lag");
+
+    // series that were already seen keep their own series
+    assertThat(dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=a")))
+        .isEqualTo(first);
+  }
+
+  @Test
+  void shouldForgetSeriesOfUnregisteredBeans() throws Exception {
+    JmxMetricDimensions dimensions =
+        new JmxMetricDimensions(
+            "Records Lag", METRIC_NAME_KEY, Collections.singletonList("client-id"), 2);
+
+    dimensions.beginCollection();
+    dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=a"));
+    Attributes second = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=b"));
+
+    // the bean of "a" was unregistered and replaced by the bean of "c"
+    dimensions.beginCollection();
+    Attributes third = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=c"));
+    assertThat(third.get(CLIENT_ID)).isEqualTo("c");
+    assertThat(dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=b")))
+        .isSameAs(second);
+
+    // the cap still applies within a collection
+    Attributes overflow = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=a"));
+    assertThat(overflow.get(CLIENT_ID)).isEqualTo(JmxMetricDimensions.OVERFLOW_VALUE);
+
+    // and "a" gets its own series again once the bean of "c" is unregistered
+    dimensions.beginCollection();
+    dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=b"));
+    Attributes first = dimensions.getAttributes(new ObjectName("kafka.consumer:client-id=a"));
+    assertThat(first.get(CLIENT_ID)).isEqualTo("a");
+  }
+}
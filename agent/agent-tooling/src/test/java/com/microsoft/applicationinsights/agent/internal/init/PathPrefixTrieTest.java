@@ -0,0 +1,95 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.init;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class PathPrefixTrieTest {
+
+  @Test
+  void shouldMatchPrefix() {
+    PathPrefixTrie<String> trie =
+        PathPrefixTrie.<String>builder().add("/api", "a").add("/health", "b").build();
+
+    assertThat(trie.getFirstMatch("/api")).isEqualTo("a");
+    assertThat(trie.getFirstMatch("/api/orders")).isEqualTo("a");
+    assertThat(trie.getFirstMatch("/apiv2")).isEqualTo("a");
+    assertThat(trie.getFirstMatch("/health")).isEqualTo("b");
+    assertThat(trie.getFirstMatch("/ap")).isNull();
+    assertThat(trie.getFirstMatch("/other")).isNull();
+    assertThat(trie.getFirstMatch("")).isNull();
+  }
+
+  @Test
+  void shouldPreferFirstConfiguredPrefix() {
+    PathPrefixTrie<String> shorterFirst =
+        PathPrefixTrie.<String>builder().add("/api", "a").add("/api/orders", "b").build();
+    PathPrefixTrie<String> longerFirst =
+        PathPrefixTrie.<String>builder().add("/api/orders", "b").add("/api", "a").build();
+
+    assertThat(shorterFirst.getFirstMatch("/api/orders/1")).isEqualTo("a");
+    assertThat(longerFirst.getFirstMatch("/api/orders/1")).isEqualTo("b");
+    assertThat(longerFirst.getFirstMatch("/api/customers/1")).isEqualTo("a");
+  }
+
+  @Test
+  void shouldPreferFirstConfiguredDuplicatePrefix() {
+    PathPrefixTrie<String> trie =
+        PathPrefixTrie.<String>builder().add("/api", "a").add("/api", "b").build();
+
+    assertThat(trie.getFirstMatch("/api/orders")).isEqualTo("a");
+  }
+
+  @Test
+  void shouldMatchEmptyPrefix() {
+    PathPrefixTrie<String> trie =
+        PathPrefixTrie.<String>builder().add("/api", "a").add("", "b").build();
+
+    assertThat(trie.getFirstMatch("/api/orders")).isEqualTo("a");
+    assertThat(trie.getFirstMatch("/other")).isEqualTo("b");
+    assertThat(trie.getFirstMatch("")).isEqualTo("b");
+  }
+
+  @Test
+  void shouldMatchSameAsLinearScan() {
+    Random random = new Random(42);
+    List<String> prefixes = new ArrayList<>();
+    PathPrefixTrie.Builder<String> builder = PathPrefixTrie.builder();
+    for (int i = 0; i < 200; i++) {
+      String prefix = randomPath(random);
+      prefixes.add(prefix);
+      builder.add(prefix, prefix);
+    }
+    PathPrefixTrie<String> trie = builder.build();
+
+    for (int i = 0; i < 10000; i++) {
+      String path = randomPath(random) + randomPath(random);
+      assertThat(trie.getFirstMatch(path)).isEqualTo(linearScan(prefixes, path));
+    }
+  }
+
+  private static String linearScan(List<String> prefixes, String path) {
+    for (String prefix : prefixes) {
+      if (path.startsWith(prefix)) {
+        return prefix;
+      }
+    }
+    return null;
+  }
+
+  // a small alphabet, so that the prefixes overlap
+  private static String randomPath(Random random) {
+    StringBuilder path = new StringBuilder();
+    int length = random.nextInt(4);
+    for (int i = 0; i < length; i++) {
+      path.append('/').append((char) ('a' + random.nextInt(3)));
+    }
+    return path.toString();
+  }
+}
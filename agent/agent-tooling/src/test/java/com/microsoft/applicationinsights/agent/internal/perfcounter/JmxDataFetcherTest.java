@@ -5,13 +5,18 @@ package com.microsoft.applicationinsights.agent.internal.perfcounter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.management.AttributeNotFoundException;
 import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
 import javax.management.ObjectName;
 import org.junit.jupiter.api.Test;
 
@@ -116,6 +121,78 @@ class JmxDataFetcherTest {
     performTest(attributes, 1000.0, 2000.0, 3000.0);
   }
 
+  @Test
+  void testCachedObjectNamesFollowRegistrations() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    MBeanNameCache nameCache = new MBeanNameCache(server);
+    server.registerMBean(new TestStub(1, 2.0, 3L), new ObjectName("JSDKTests:type=A,name=1"));
+    List<JmxAttributeData> attributes = new ArrayList<>();
+    attributes.add(new JmxAttributeData("Int", "IntSample"));
+
+    assertThat(fetchSum(server, nameCache, "JSDKTests:type=A,*", attributes.get(0)))
+        .isEqualTo(1.0);
+
+    // registered after the object names were cached
+    server.registerMBean(new TestStub(10, 2.0, 3L), new ObjectName("JSDKTests:type=A,name=2"));
+    server.registerMBean(new TestStub(100, 2.0, 3L), new ObjectName("JSDKTests:type=B,name=3"));
+
+    assertThat(fetchSum(server, nameCache, "JSDKTests:type=A,*", attributes.get(0)))
+        .isEqualTo(11.0);
+
+    server.unregisterMBean(new ObjectName("JSDKTests:type=A,name=1"));
+
+    assertThat(fetchSum(server, nameCache, "JSDKTests:type=A,*", attributes.get(0)))
+        .isEqualTo(10.0);
+  }
+
+  @Test
+  void testOneBadAttributeDoesNotAffectTheOthers() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    MBeanNameCache nameCache = new MBeanNameCache(server);
+    server.registerMBean(new TestStub(1, 2.0, 3L), new ObjectName("JSDKTests:type=A"));
+    JmxAttributeData good = new JmxAttributeData("Int", "IntSample");
+    JmxAttributeData bad = new JmxAttributeData("Wrong", "WrongNameIntSample");
+    JmxAttributeData invalid = new JmxAttributeData("Invalid", "IntSample.");
+
+    JmxDataFetcher.AttributeValues values =
+        JmxDataFetcher.fetchAttributes(
+            server, nameCache, "JSDKTests:type=A", Arrays.asList(good, bad, invalid));
+
+    assertThat(values.get(good)).containsExactly(1);
+    assertThatThrownBy(() -> values.get(bad)).isInstanceOf(AttributeNotFoundException.class);
+    assertThatThrownBy(() -> values.get(invalid)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testValuesByObjectName() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    MBeanNameCache nameCache = new MBeanNameCache(server);
+    ObjectName first = new ObjectName("JSDKTests:type=A,name=1");
+    ObjectName second = new ObjectName("JSDKTests:type=A,name=2");
+    server.registerMBean(new TestStub(1, 2.0, 3L), first);
+    server.registerMBean(new TestStub(10, 20.0, 30L), second);
+    JmxAttributeData attribute = new JmxAttributeData("Int", "IntSample");
+
+    JmxDataFetcher.AttributeValues values =
+        JmxDataFetcher.fetchAttributes(
+            server, nameCache, "JSDKTests:type=A,*", Collections.singletonList(attribute));
+
+    assertThat(values.getByObjectName(attribute)).containsOnly(entry(first, 1), entry(second, 10));
+  }
+
+  private static double fetchSum(
+      MBeanServer server, MBeanNameCache nameCache, String objectName, JmxAttributeData attribute)
+      throws Exception {
+    double sum = 0.0;
+    for (Object obj :
+        JmxDataFetcher.fetchAttributes(
+                server, nameCache, objectName, Collections.singletonList(attribute))
+            .get(attribute)) {
+      sum += Double.parseDouble(String.valueOf(obj));
+    }
+    return sum;
+  }
+
   private static void performTest(
       List<JmxAttributeData> attributes,
       double expectedInt,
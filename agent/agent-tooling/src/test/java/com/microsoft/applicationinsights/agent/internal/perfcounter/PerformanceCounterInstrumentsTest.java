@@ -0,0 +1,85 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import static io.opentelemetry.sdk.testing.assertj.OpenTelemetryAssertions.assertThat;
+
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PerformanceCounterInstrumentsTest {
+
+  private InMemoryMetricReader metricReader;
+  private SdkMeterProvider meterProvider;
+  private Meter meter;
+
+  @BeforeEach
+  void setup() {
+    metricReader = InMemoryMetricReader.createDelta();
+    meterProvider = SdkMeterProvider.builder().registerMetricReader(metricReader).build();
+    meter = meterProvider.get(PerformanceCounterInstruments.METER_NAME);
+  }
+
+  @AfterEach
+  void tearDown() {
+    meterProvider.close();
+  }
+
+  @Test
+  void shouldSanitizeInstrumentNames() {
+    assertThat(PerformanceCounterInstruments.getInstrumentName("GC_Total-Count.a/b"))
+        .isEqualTo("GC_Total-Count.a/b");
+    assertThat(PerformanceCounterInstruments.getInstrumentName("GC Total Count"))
+        .isEqualTo("GC_Total_Count");
+    assertThat(PerformanceCounterInstruments.getInstrumentName(MetricNames.PROCESS_MEMORY))
+        .isEqualTo("m_Process___APP_WIN32_PROC____Private_Bytes");
+    assertThat(PerformanceCounterInstruments.getInstrumentName("% Of Max Heap Memory Used"))
+        .isEqualTo("m__Of_Max_Heap_Memory_Used");
+  }
+
+  @Test
+  void shouldRecordWithMetricName() {
+    new ProcessMemoryPerformanceCounter().register(meter);
+
+    Collection<MetricData> metrics = metricReader.collectAllMetrics();
+
+    assertThat(metrics).hasSize(1);
+    assertThat(metrics.iterator().next())
+        .hasDoubleGaugeSatisfying(
+            gauge ->
+                gauge.hasPointsSatisfying(
+                    point ->
+                        point.hasAttributes(
+                            PerformanceCounterInstruments.getAttributes(
+                                MetricNames.PROCESS_MEMORY))));
+  }
+
+  @Test
+  void shouldReportGcTotalsAsDeltas() {
+    new GcPerformanceCounter().register(meter);
+
+    // the first collection reports the totals since the JVM started
+    metricReader.collectAllMetrics();
+    Collection<MetricData> metrics = metricReader.collectAllMetrics();
+
+    assertThat(metrics).hasSize(2);
+    for (MetricData metricData : metrics) {
+      assertThat(metricData.getLongSumData().isMonotonic()).isTrue();
+      assertThat(metricData.getLongSumData().getAggregationTemporality())
+          .isEqualTo(AggregationTemporality.DELTA);
+      for (LongPointData point : metricData.getLongSumData().getPoints()) {
+        // only the GCs since the previous collection
+        assertThat(point.getValue()).isGreaterThanOrEqualTo(0);
+      }
+    }
+  }
+}
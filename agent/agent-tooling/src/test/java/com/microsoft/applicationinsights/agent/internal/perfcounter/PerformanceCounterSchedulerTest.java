@@ -0,0 +1,142 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.perfcounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.microsoft.applicationinsights.agent.internal.telemetry.TelemetryClient;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PerformanceCounterSchedulerTest {
+
+  private final PerformanceCounterScheduler scheduler =
+      new PerformanceCounterScheduler(() -> null, 50);
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    scheduler.shutdown();
+  }
+
+  @Test
+  void shouldNotDelayOtherCountersWhileOneIsHung() {
+    AtomicInteger hungCount = new AtomicInteger();
+    AtomicInteger count = new AtomicInteger();
+    scheduler.schedule(new HungPerformanceCounter(hungCount), 10);
+    scheduler.schedule(telemetryClient -> count.incrementAndGet(), 10);
+
+    await().until(() -> count.get() >= 20);
+
+    // the hung performance counter ignores the interruption, so it's skipped until it completes
+    assertThat(hungCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldInterruptCounterThatTakesLongerThanTimeout() {
+    AtomicBoolean interrupted = new AtomicBoolean();
+    scheduler.schedule(
+        telemetryClient -> {
+          try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+          } catch (InterruptedException e) {
+            interrupted.set(true);
+          }
+        },
+        1000);
+
+    await().untilTrue(interrupted);
+  }
+
+  @Test
+  void shouldCancelTimeoutWhenCollectionCompletesInTime() {
+    PerformanceCounterScheduler scheduler =
+        new PerformanceCounterScheduler(() -> null, TimeUnit.MINUTES.toMillis(1));
+    try {
+      AtomicInteger count = new AtomicInteger();
+      scheduler.schedule(telemetryClient -> count.incrementAndGet(), 1000);
+
+      await().until(() -> count.get() == 1);
+
+      // only the periodic collection is left, well before the timeout would have run
+      await().atMost(500, TimeUnit.MILLISECONDS).until(() -> scheduler.getQueuedTaskCount() == 1);
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  void shouldDrainMaxCollectionDurations() {
+    AtomicInteger count = new AtomicInteger();
+    scheduler.schedule(new SleepingPerformanceCounter(count), 10);
+
+    await().until(() -> count.get() >= 2);
+
+    Map<String, Long> durations = new HashMap<>();
+    scheduler.drainMaxCollectionDurations(durations::put);
+    assertThat(durations).containsOnlyKeys("SleepingPerformanceCounter");
+    assertThat(durations.get("SleepingPerformanceCounter"))
+        .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+
+    // once the collections stop, there's nothing left to drain
+    scheduler.shutdown();
+    await()
+        .until(
+            () -> {
+              durations.clear();
+              scheduler.drainMaxCollectionDurations(durations::put);
+              return durations.isEmpty();
+            });
+  }
+
+  private class HungPerformanceCounter implements PerformanceCounter {
+
+    private final AtomicInteger count;
+
+    private HungPerformanceCounter(AtomicInteger count) {
+      this.count = count;
+    }
+
+    @Override
+    public void report(TelemetryClient telemetryClient) {
+      count.incrementAndGet();
+      while (true) {
+        try {
+          release.await();
+          return;
+        } catch (InterruptedException e) {
+          // ignore the interruption, same as a performance counter that is stuck in native code
+        }
+      }
+    }
+  }
+
+  private static class SleepingPerformanceCounter implements PerformanceCounter {
+
+    private final AtomicInteger count;
+
+    private SleepingPerformanceCounter(AtomicInteger count) {
+      this.count = count;
+    }
+
+    @Override
+    public void report(TelemetryClient telemetryClient) {
+      try {
+        Thread.sleep(5);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      count.incrementAndGet();
+    }
+  }
+}
@@ -12,13 +12,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-public class ExporterWithSpanProcessor implements SpanExporter {
+// applies a single span processor, which is how the processors were applied (one wrapper per
+// processor) before SpanProcessorChain, kept as the reference that SpanProcessorChainTest compares
+// the chain against
+class ExporterWithSpanProcessor implements SpanExporter {
 
   private final SpanExporter delegate;
   private final SpanProcessor spanProcessor;
 
   // caller should check config.isValid before creating
-  public ExporterWithSpanProcessor(ProcessorConfig config, SpanExporter delegate) {
+  ExporterWithSpanProcessor(ProcessorConfig config, SpanExporter delegate) {
     config.validate();
     spanProcessor = SpanProcessor.create(config);
     this.delegate = delegate;
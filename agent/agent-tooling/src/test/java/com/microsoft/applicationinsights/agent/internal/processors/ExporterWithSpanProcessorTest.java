@@ -3,6 +3,7 @@
 
 package com.microsoft.applicationinsights.agent.internal.processors;
 
+import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorTestUtil.spanExporterWithProcessor;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -37,7 +38,7 @@ class ExporterWithSpanProcessorTest {
     config.type = ProcessorType.SPAN;
     config.id = "noNameObjectTest";
 
-    assertThatThrownBy(() -> new ExporterWithSpanProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -49,7 +50,7 @@ class ExporterWithSpanProcessorTest {
     config.id = "inValidConfigTestWithToAttributesNoRules";
     config.name = new NameConfig();
 
-    assertThatThrownBy(() -> new ExporterWithSpanProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -62,7 +63,7 @@ class ExporterWithSpanProcessorTest {
     config.name = new NameConfig();
     config.name.toAttributes = new ToAttributeConfig();
 
-    assertThatThrownBy(() -> new ExporterWithSpanProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -74,7 +75,7 @@ class ExporterWithSpanProcessorTest {
     config.id = "SimpleRenameSpan";
     config.name = new NameConfig();
     config.name.fromAttributes = Arrays.asList("db.svc", "operation", "id");
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -107,7 +108,7 @@ class ExporterWithSpanProcessorTest {
     config.name = new NameConfig();
     config.name.fromAttributes = Arrays.asList("db.svc", "operation", "id");
     config.name.separator = "::";
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -140,7 +141,7 @@ class ExporterWithSpanProcessorTest {
     config.name = new NameConfig();
     config.name.fromAttributes = Arrays.asList("db.svc", "operation", "id");
     config.name.separator = "::";
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -174,7 +175,7 @@ class ExporterWithSpanProcessorTest {
     config.include = new ProcessorIncludeExclude();
     config.include.matchType = MatchType.STRICT;
     config.include.spanNames = Arrays.asList("svcA", "svcB");
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -247,7 +248,7 @@ class ExporterWithSpanProcessorTest {
     toAttributeConfig.rules.add("***");
     config.name.toAttributes = toAttributeConfig;
 
-    assertThatThrownBy(() -> new ExporterWithSpanProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -262,7 +263,7 @@ class ExporterWithSpanProcessorTest {
     toAttributeConfig.rules = new ArrayList<>();
     toAttributeConfig.rules.add("^/api/v1/document/(?<documentId>.*)/update$");
     config.name.toAttributes = toAttributeConfig;
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -306,7 +307,7 @@ class ExporterWithSpanProcessorTest {
     toAttributeConfig.rules.add("Password=(?<password1>[^ ]+)");
     toAttributeConfig.rules.add("Pass=(?<password2>[^ ]+)");
     config.name.toAttributes = toAttributeConfig;
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -384,7 +385,7 @@ class ExporterWithSpanProcessorTest {
     config.exclude.spanNames = Arrays.asList("donot/change");
     config.name.toAttributes = new ToAttributeConfig();
     config.name.toAttributes.rules = Arrays.asList("(?<operationwebsite>.*?)/.*$");
-    SpanExporter exampleExporter = new ExporterWithSpanProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
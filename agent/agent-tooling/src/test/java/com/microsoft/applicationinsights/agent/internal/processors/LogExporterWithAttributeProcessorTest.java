@@ -3,6 +3,7 @@
 
 package com.microsoft.applicationinsights.agent.internal.processors;
 
+import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorTestUtil.spanExporterWithProcessor;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -347,7 +348,7 @@ class LogExporterWithAttributeProcessorTest {
 
     // export span
     MockSpanExporter mockSpanExporter = new MockSpanExporter();
-    SpanExporter spanExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter spanExporter = spanExporterWithProcessor(config, mockSpanExporter);
     List<SpanData> spans = new ArrayList<>();
     spans.add(((ReadableSpan) span).toSpanData());
     spanExporter.export(spans);
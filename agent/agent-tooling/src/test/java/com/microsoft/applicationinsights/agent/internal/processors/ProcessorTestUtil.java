@@ -0,0 +1,19 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collections;
+
+final class ProcessorTestUtil {
+
+  // builds the exporter the same way as the agent does, so that the tests of the individual
+  // attribute and span processors run against the processor chain
+  static SpanExporter spanExporterWithProcessor(ProcessorConfig config, SpanExporter delegate) {
+    return new ExporterWithSpanProcessorChain(Collections.singletonList(config), delegate);
+  }
+
+  private ProcessorTestUtil() {}
+}
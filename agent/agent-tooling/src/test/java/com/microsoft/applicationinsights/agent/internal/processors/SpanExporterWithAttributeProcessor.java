@@ -12,13 +12,16 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-public class SpanExporterWithAttributeProcessor implements SpanExporter {
+// applies a single attribute processor, which is how the processors were applied (one wrapper per
+// processor) before SpanProcessorChain, kept as the reference that SpanProcessorChainTest compares
+// the chain against
+class SpanExporterWithAttributeProcessor implements SpanExporter {
 
   private final SpanExporter delegate;
   private final AttributeProcessor attributeProcessor;
 
   // caller should check config.isValid before creating
-  public SpanExporterWithAttributeProcessor(ProcessorConfig config, SpanExporter delegate) {
+  SpanExporterWithAttributeProcessor(ProcessorConfig config, SpanExporter delegate) {
     config.validate();
     attributeProcessor = AttributeProcessor.create(config, false);
     this.delegate = delegate;
@@ -3,6 +3,7 @@
 
 package com.microsoft.applicationinsights.agent.internal.processors;
 
+import static com.microsoft.applicationinsights.agent.internal.processors.ProcessorTestUtil.spanExporterWithProcessor;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,7 +39,7 @@ class SpanExporterWithAttributeProcessorTest {
     config.type = ProcessorType.ATTRIBUTE;
     config.id = "noAction";
 
-    assertThatThrownBy(() -> new SpanExporterWithAttributeProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -57,7 +58,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action);
     config.actions = actions;
 
-    assertThatThrownBy(() -> new SpanExporterWithAttributeProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -76,7 +77,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action);
     config.actions = actions;
 
-    assertThatThrownBy(() -> new SpanExporterWithAttributeProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -91,7 +92,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -129,7 +130,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -171,7 +172,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action);
     actions.add(updateAction);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -215,7 +216,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action);
     actions.add(updateAction);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -253,7 +254,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -292,7 +293,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -332,7 +333,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -383,7 +384,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -422,7 +423,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(updateAction);
     actions.add(deleteAction);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -462,7 +463,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -534,7 +535,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -617,7 +618,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -690,7 +691,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action);
     config.actions = actions;
 
-    assertThatThrownBy(() -> new SpanExporterWithAttributeProcessor(config, mockSpanExporter))
+    assertThatThrownBy(() -> spanExporterWithProcessor(config, mockSpanExporter))
         .isInstanceOf(FriendlyException.class);
   }
 
@@ -713,7 +714,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -800,7 +801,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -883,7 +884,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -955,7 +956,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -1027,7 +1028,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -1107,7 +1108,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -1186,7 +1187,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -1262,7 +1263,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span spanA =
         tracer
@@ -1332,7 +1333,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -1379,7 +1380,7 @@ class SpanExporterWithAttributeProcessorTest {
     List<ProcessorAction> actions = new ArrayList<>();
     actions.add(action);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
@@ -1457,7 +1458,7 @@ class SpanExporterWithAttributeProcessorTest {
     actions.add(action4);
     actions.add(action5);
     config.actions = actions;
-    SpanExporter exampleExporter = new SpanExporterWithAttributeProcessor(config, mockSpanExporter);
+    SpanExporter exampleExporter = spanExporterWithProcessor(config, mockSpanExporter);
 
     Span span =
         tracer
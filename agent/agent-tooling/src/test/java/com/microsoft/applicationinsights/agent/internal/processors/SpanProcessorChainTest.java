@@ -0,0 +1,169 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.processors;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.MatchType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.NameConfig;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorAction;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorActionType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorAttribute;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorConfig;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorIncludeExclude;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ProcessorType;
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration.ToAttributeConfig;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SpanProcessorChainTest {
+
+  private final Tracer tracer = OpenTelemetrySdk.builder().build().getTracer("test");
+
+  @Test
+  void sameResultAsNestedExporters() {
+    List<ProcessorConfig> configs = new ArrayList<>();
+    configs.add(attributeProcessor(null, action("env", ProcessorActionType.INSERT, "prod", null)));
+    // only matches because of the insert above
+    configs.add(
+        attributeProcessor(
+            strictInclude("env", "prod"),
+            action("user", ProcessorActionType.UPDATE, null, "enduser.id"),
+            action("password", ProcessorActionType.DELETE, null, null),
+            action("ssn", ProcessorActionType.HASH, null, null)));
+    configs.add(
+        attributeProcessor(
+            null,
+            new ProcessorAction(
+                "url.path",
+                ProcessorActionType.EXTRACT,
+                null,
+                null,
+                "^/api/(?<apiVersion>v[0-9])/.*$",
+                null),
+            new ProcessorAction(
+                "email", ProcessorActionType.MASK, null, null, "[a-z]+@", "***@")));
+    configs.add(spanProcessor(asList("http.request.method", "url.path"), null));
+    // only matches because of the span name update above
+    ProcessorConfig toAttributes =
+        spanProcessor(null, Collections.singletonList("^GET /api/(?<version>[^/]+)/.*$"));
+    toAttributes.include = new ProcessorIncludeExclude();
+    toAttributes.include.matchType = MatchType.REGEXP;
+    toAttributes.include.spanNames = Collections.singletonList("^GET ");
+    configs.add(toAttributes);
+
+    Span span =
+        tracer
+            .spanBuilder("my span")
+            .setAttribute("http.request.method", "GET")
+            .setAttribute("url.path", "/api/v1/orders")
+            .setAttribute("enduser.id", "alice")
+            .setAttribute("user", "unknown")
+            .setAttribute("password", "secret")
+            .setAttribute("ssn", "123-45-6789")
+            .setAttribute("email", "alice@example.com")
+            .setAttribute("count", 3L)
+            .startSpan();
+    SpanData spanData = ((ReadableSpan) span).toSpanData();
+
+    SpanData expected = exportNested(configs, spanData);
+    SpanData actual = exportChain(configs, spanData);
+
+    assertThat(actual.getName()).isEqualTo("GET /api/{version}/orders");
+    assertThat(actual.getName()).isEqualTo(expected.getName());
+    assertThat(actual.getAttributes().asMap()).isEqualTo(expected.getAttributes().asMap());
+    assertThat(actual.getAttributes().get(AttributeKey.stringKey("user"))).isEqualTo("alice");
+    assertThat(actual.getAttributes().get(AttributeKey.stringKey("password"))).isNull();
+    assertThat(actual.getAttributes().get(AttributeKey.stringKey("apiVersion"))).isEqualTo("v1");
+    assertThat(actual.getAttributes().get(AttributeKey.stringKey("email")))
+        .isEqualTo("***@example.com");
+  }
+
+  @Test
+  void unchangedSpanIsNotCopied() {
+    List<ProcessorConfig> configs = new ArrayList<>();
+    configs.add(
+        attributeProcessor(
+            strictInclude("env", "prod"), action("env", ProcessorActionType.DELETE, null, null)));
+
+    SpanData spanData =
+        ((ReadableSpan) tracer.spanBuilder("my span").setAttribute("one", "1").startSpan())
+            .toSpanData();
+
+    assertThat(exportChain(configs, spanData)).isSameAs(spanData);
+  }
+
+  private static SpanData exportNested(List<ProcessorConfig> configs, SpanData spanData) {
+    MockSpanExporter mockSpanExporter = new MockSpanExporter();
+    SpanExporter spanExporter = mockSpanExporter;
+    List<ProcessorConfig> reversed = new ArrayList<>(configs);
+    Collections.reverse(reversed);
+    for (ProcessorConfig config : reversed) {
+      if (config.type == ProcessorType.ATTRIBUTE) {
+        spanExporter = new SpanExporterWithAttributeProcessor(config, spanExporter);
+      } else {
+        spanExporter = new ExporterWithSpanProcessor(config, spanExporter);
+      }
+    }
+    spanExporter.export(Collections.singletonList(spanData));
+    return mockSpanExporter.getSpans().get(0);
+  }
+
+  private static SpanData exportChain(List<ProcessorConfig> configs, SpanData spanData) {
+    MockSpanExporter mockSpanExporter = new MockSpanExporter();
+    new ExporterWithSpanProcessorChain(configs, mockSpanExporter)
+        .export(Collections.singletonList(spanData));
+    return mockSpanExporter.getSpans().get(0);
+  }
+
+  private static ProcessorConfig attributeProcessor(
+      ProcessorIncludeExclude include, ProcessorAction... actions) {
+    ProcessorConfig config = new ProcessorConfig();
+    config.type = ProcessorType.ATTRIBUTE;
+    config.include = include;
+    config.actions = asList(actions);
+    return config;
+  }
+
+  private static ProcessorConfig spanProcessor(
+      List<String> fromAttributes, List<String> toAttributeRules) {
+    ProcessorConfig config = new ProcessorConfig();
+    config.type = ProcessorType.SPAN;
+    config.name = new NameConfig();
+    if (fromAttributes != null) {
+      config.name.fromAttributes = fromAttributes;
+      config.name.separator = " ";
+    }
+    if (toAttributeRules != null) {
+      config.name.toAttributes = new ToAttributeConfig();
+      config.name.toAttributes.rules = toAttributeRules;
+    }
+    return config;
+  }
+
+  private static ProcessorAction action(
+      String key, ProcessorActionType actionType, String value, String fromAttribute) {
+    return new ProcessorAction(key, actionType, value, fromAttribute, null, null);
+  }
+
+  private static ProcessorIncludeExclude strictInclude(String key, String value) {
+    ProcessorAttribute attribute = new ProcessorAttribute();
+    attribute.key = key;
+    attribute.value = value;
+    ProcessorIncludeExclude include = new ProcessorIncludeExclude();
+    include.matchType = MatchType.STRICT;
+    include.attributes = Collections.singletonList(attribute);
+    return include;
+  }
+}
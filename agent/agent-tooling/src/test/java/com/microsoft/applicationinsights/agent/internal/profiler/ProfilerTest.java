@@ -0,0 +1,110 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.microsoft.applicationinsights.agent.internal.configuration.Configuration;
+import com.microsoft.applicationinsights.alerting.config.AlertMetricType;
+import io.opentelemetry.contrib.jfr.connection.Recording;
+import io.opentelemetry.contrib.jfr.connection.RecordingConfiguration;
+import io.opentelemetry.contrib.jfr.connection.RecordingOptions;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ProfilerTest {
+
+  @TempDir File tempDir;
+
+  private final Deque<Recording> recordings = new ArrayDeque<>();
+  private Profiler profiler;
+
+  @BeforeEach
+  void setup() {
+    Configuration.ProfilerConfiguration config = new Configuration.ProfilerConfiguration();
+    config.continuousRecordingSeconds = 60;
+    profiler =
+        new Profiler(config, tempDir) {
+          @Override
+          protected Recording createRecording(
+              RecordingOptions recordingOptions, RecordingConfiguration recordingConfiguration) {
+            Recording recording = mock(Recording.class);
+            recordings.add(recording);
+            return recording;
+          }
+        };
+  }
+
+  @Test
+  void prependFileWritesThePrefixFirst() throws Exception {
+    File prefix = new File(tempDir, "profile.jfr.lookback");
+    File file = new File(tempDir, "profile.jfr");
+    Files.write(prefix.toPath(), "lookback".getBytes(StandardCharsets.UTF_8));
+    Files.write(file.toPath(), "profile".getBytes(StandardCharsets.UTF_8));
+
+    Profiler.prependFile(prefix, file);
+
+    assertThat(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+        .isEqualTo("lookbackprofile");
+    assertThat(prefix).doesNotExist();
+  }
+
+  @Test
+  void lookbackStartIsMaxAgeBeforeTheRecording() {
+    Instant recordingStart = Instant.now();
+
+    assertThat(profiler.getLookbackStart(recordingStart))
+        .isEqualTo(recordingStart.minusSeconds(60));
+  }
+
+  @Test
+  void lookbackStartIsClampedToTheContinuousRecordingStart() {
+    Instant before = Instant.now();
+    profiler.startContinuousRecording();
+    Instant after = Instant.now();
+
+    // the continuous recording has not been running for the whole window yet
+    assertThat(profiler.getLookbackStart(after.plusSeconds(10))).isBetween(before, after);
+
+    Instant recordingStart = after.plusSeconds(120);
+    assertThat(profiler.getLookbackStart(recordingStart))
+        .isEqualTo(recordingStart.minusSeconds(60));
+  }
+
+  @Test
+  void periodicRecordingDoesNotDumpTheContinuousRecording() throws Exception {
+    profiler.startContinuousRecording();
+    Recording continuous = recordings.getFirst();
+
+    assertThat(profiler.startRecording(AlertMetricType.PERIODIC, Duration.ofSeconds(30)))
+        .isNotNull();
+
+    verify(continuous).start();
+    verify(continuous, never()).dump(any());
+  }
+
+  @Test
+  void triggeredRecordingDumpsTheContinuousRecording() throws Exception {
+    profiler.startContinuousRecording();
+    Recording continuous = recordings.getFirst();
+
+    assertThat(profiler.startRecording(AlertMetricType.REQUEST, Duration.ofSeconds(30)))
+        .isNotNull();
+
+    verify(continuous).dump(endsWith(".jfr.lookback"));
+  }
+}
@@ -230,6 +230,7 @@ public class ProfilingInitializerTest {
             new File("/tmp/"),
             new Configuration.ProfilerConfiguration(),
             GcReportingLevel.NONE,
+            60,
             "test-role-name",
             "test-role-instance",
             client);
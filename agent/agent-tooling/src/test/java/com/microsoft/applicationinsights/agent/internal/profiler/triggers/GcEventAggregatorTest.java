@@ -0,0 +1,101 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler.triggers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microsoft.gcmonitor.GcCollectionEvent;
+import com.microsoft.gcmonitor.garbagecollectors.GarbageCollector;
+import com.microsoft.gcmonitor.memorypools.MemoryPool;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class GcEventAggregatorTest {
+
+  private final List<String> emitted = new ArrayList<>();
+  private final GcEventAggregator aggregator =
+      new GcEventAggregator(
+          (name, value, count, min, max, collector, cause) ->
+              emitted.add(
+                  name + " " + collector + " " + cause + " " + value + " " + count + " " + min
+                      + " " + max));
+
+  @Test
+  void summarizesPerCollectorAndCause() {
+    aggregator.record(event("G1 Young Generation", "G1 Evacuation Pause", 4_000_000, 10, 1, 30));
+    aggregator.record(event("G1 Young Generation", "G1 Evacuation Pause", 2_000_000, 8, 2, 30));
+    aggregator.record(event("G1 Old Generation", "System.gc()", 30_000_000, 5, 0, 10));
+
+    aggregator.flush();
+
+    assertThat(emitted)
+        .containsExactlyInAnyOrder(
+            "GC Event Count G1 Young Generation G1 Evacuation Pause 2.0 1 0.0 0.0",
+            "GC Event Pause Time G1 Young Generation G1 Evacuation Pause 6.0 2 2.0 4.0",
+            "GC Event Young Reclaimed Bytes G1 Young Generation G1 Evacuation Pause 15.0 1 0.0 0.0",
+            // tenured usage grew due to promotion, which isn't counted as reclaimed
+            "GC Event Tenured Reclaimed Bytes G1 Young Generation G1 Evacuation Pause 0.0 1 0.0 0.0",
+            "GC Event Count G1 Old Generation System.gc() 1.0 1 0.0 0.0",
+            "GC Event Pause Time G1 Old Generation System.gc() 30.0 1 30.0 30.0",
+            "GC Event Young Reclaimed Bytes G1 Old Generation System.gc() 5.0 1 0.0 0.0",
+            "GC Event Tenured Reclaimed Bytes G1 Old Generation System.gc() 10.0 1 0.0 0.0");
+  }
+
+  @Test
+  void usesDurationWhenPausesAreNotReported() {
+    aggregator.record(event("PS Scavenge", "Allocation Failure", -1, 10, 0, 30));
+    aggregator.flush();
+
+    assertThat(emitted)
+        .contains("GC Event Pause Time PS Scavenge Allocation Failure 7.0 1 7.0 7.0");
+  }
+
+  @Test
+  void onlyReportsSeriesWithCollectionsDuringTheInterval() {
+    aggregator.record(event("PS Scavenge", "Allocation Failure", 1_000_000, 10, 0, 30));
+    aggregator.flush();
+    emitted.clear();
+
+    aggregator.flush();
+
+    assertThat(emitted).isEmpty();
+  }
+
+  // young pool goes from youngBefore to youngAfter, tenured pool goes from 20 to tenuredAfter
+  private static GcCollectionEvent event(
+      String collectorName,
+      String cause,
+      long sumOfPausesNanos,
+      long youngBefore,
+      long youngAfter,
+      long tenuredAfter) {
+    GcCollectionEvent event = Mockito.mock(GcCollectionEvent.class);
+    GarbageCollector collector = Mockito.mock(GarbageCollector.class);
+    Mockito.when(collector.getName()).thenReturn(collectorName);
+    MemoryPool youngPool = Mockito.mock(MemoryPool.class);
+    MemoryPool tenuredPool = Mockito.mock(MemoryPool.class);
+    List<MemoryPool> youngPools = Collections.singletonList(youngPool);
+
+    Mockito.when(event.getCollector()).thenReturn(collector);
+    Mockito.when(event.getGcCause()).thenReturn(cause);
+    Mockito.when(event.getDuration()).thenReturn(7L);
+    Mockito.when(event.getSumOfPausesNanos()).thenReturn(sumOfPausesNanos);
+    Mockito.when(event.getYoungPools()).thenReturn(youngPools);
+    Mockito.when(event.getMemoryUsageBeforeGc(youngPools))
+        .thenReturn(new MemoryUsage(0, youngBefore, 100, -1));
+    Mockito.when(event.getMemoryUsageAfterGc(youngPools))
+        .thenReturn(new MemoryUsage(0, youngAfter, 100, -1));
+    Mockito.when(event.getTenuredPool()).thenReturn(Optional.of(tenuredPool));
+    Mockito.when(event.getMemoryUsageBeforeGc(tenuredPool))
+        .thenReturn(new MemoryUsage(0, 20, 100, 100));
+    Mockito.when(event.getMemoryUsageAfterGc(tenuredPool))
+        .thenReturn(new MemoryUsage(0, tenuredAfter, 100, 100));
+    return event;
+  }
+}
@@ -16,6 +16,7 @@ import com.microsoft.gcmonitor.GcCollectionEvent;
 import com.microsoft.gcmonitor.GcEventConsumer;
 import com.microsoft.gcmonitor.GcMonitorFactory;
 import com.microsoft.gcmonitor.MemoryManagement;
+import com.microsoft.gcmonitor.UnableToMonitorMemoryException;
 import com.microsoft.gcmonitor.garbagecollectors.GarbageCollector;
 import com.microsoft.gcmonitor.memorypools.MemoryPool;
 import java.lang.management.MemoryUsage;
@@ -62,7 +63,7 @@ class GcEventInitTest {
         alertingSubsystem,
         TelemetryClient.createForTest(),
         Executors.newSingleThreadExecutor(),
-        new GcEventInit.GcEventMonitorConfiguration(GcReportingLevel.NONE),
+        new GcEventInit.GcEventMonitorConfiguration(GcReportingLevel.NONE, 60),
         factory);
 
     AlertBreach alert = alertFuture.get(10, TimeUnit.SECONDS);
@@ -70,6 +71,35 @@ class GcEventInitTest {
     assertThat(alert.getAlertValue()).isEqualTo(90.0);
   }
 
+  @Test
+  void fallsBackWhenJfrMonitoringFails() throws UnableToMonitorMemoryException {
+    GcMonitorFactory jfrFactory = Mockito.mock(GcMonitorFactory.class);
+    Mockito.when(jfrFactory.monitorSelf(Mockito.any(), Mockito.any()))
+        .thenThrow(new UnableToMonitorMemoryException("Unable to start JFR event stream"));
+    GcMonitorFactory fallbackFactory = Mockito.mock(GcMonitorFactory.class);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    GcEventConsumer consumer = event -> {};
+
+    GcEventInit.init(executorService, consumer, jfrFactory, fallbackFactory);
+
+    Mockito.verify(fallbackFactory).monitorSelf(executorService, consumer);
+    executorService.shutdown();
+  }
+
+  @Test
+  void doesNotFallBackWhenJfrMonitoringStarts() throws UnableToMonitorMemoryException {
+    GcMonitorFactory jfrFactory = Mockito.mock(GcMonitorFactory.class);
+    GcMonitorFactory fallbackFactory = Mockito.mock(GcMonitorFactory.class);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    GcEventConsumer consumer = event -> {};
+
+    GcEventInit.init(executorService, consumer, jfrFactory, fallbackFactory);
+
+    Mockito.verify(jfrFactory).monitorSelf(executorService, consumer);
+    Mockito.verifyNoInteractions(fallbackFactory);
+    executorService.shutdown();
+  }
+
   private static AlertingSubsystem getAlertingSubsystem(
       CompletableFuture<AlertBreach> alertFuture, TimeSource timeSource) {
     AlertingSubsystem alertingSubsystem =
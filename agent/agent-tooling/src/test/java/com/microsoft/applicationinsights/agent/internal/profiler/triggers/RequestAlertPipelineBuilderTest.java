@@ -66,6 +66,32 @@ public class RequestAlertPipelineBuilderTest {
         expectedRequestTrigger.profileDuration, actualAlertingConfig.profileDuration);
   }
 
+  @Test
+  public void percentileIsOnlySerializedWhenNotTheDefault() throws IOException {
+    Configuration.RequestTrigger requestTrigger = new Configuration.RequestTrigger();
+    requestTrigger.filter.value = "foo.*";
+
+    String json =
+        toJson(RequestAlertPipelineBuilder.buildRequestTriggerConfiguration(requestTrigger));
+    Assertions.assertFalse(json.contains("percentile"), json);
+
+    requestTrigger.aggregation.configuration.percentile = 99;
+    json = toJson(RequestAlertPipelineBuilder.buildRequestTriggerConfiguration(requestTrigger));
+    AlertingConfig.RequestTrigger actualAlertingConfig;
+    try (JsonReader reader = JsonProviders.createReader(json)) {
+      actualAlertingConfig = AlertingConfig.RequestTrigger.fromJson(reader);
+    }
+    Assertions.assertEquals(99, actualAlertingConfig.aggregation.configuration.percentile);
+  }
+
+  private static String toJson(AlertingConfig.RequestTrigger config) throws IOException {
+    try (StringWriter stringWriter = new StringWriter();
+        JsonWriter writer = JsonProviders.createWriter(stringWriter)) {
+      config.toJson(writer).flush();
+      return stringWriter.toString();
+    }
+  }
+
   @TestFactory
   public List<DynamicTest> configExamplesCanBeParsedToAlertApiConfig() {
     return Stream.of(
@@ -0,0 +1,84 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler.upload;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+class CompressedBlockReaderTest {
+
+  @Test
+  void blocksDecompressToTheOriginalContent() throws IOException {
+    // a mix of compressible and incompressible content
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    Random random = new Random(42);
+    for (int i = 0; i < 100; i++) {
+      byte[] noise = new byte[1000];
+      random.nextBytes(noise);
+      content.write(noise);
+      content.write(("jdk.ExecutionSample " + i + "\n").getBytes(UTF_8));
+    }
+    byte[] original = content.toByteArray();
+
+    ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    List<ByteBuffer> blocks = new ArrayList<>();
+    try (CompressedBlockReader reader =
+        new CompressedBlockReader(new ByteArrayInputStream(original), 4096, copy)) {
+      ByteBuffer block;
+      while ((block = reader.readBlock()) != null) {
+        blocks.add(block);
+      }
+      assertThat(reader.isFinished()).isTrue();
+    }
+
+    assertThat(blocks).hasSizeGreaterThan(1);
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    for (int i = 0; i < blocks.size(); i++) {
+      ByteBuffer block = blocks.get(i);
+      if (i < blocks.size() - 1) {
+        assertThat(block.remaining()).isEqualTo(4096);
+      }
+      compressed.write(block.array(), block.arrayOffset(), block.remaining());
+    }
+    assertThat(decompress(compressed.toByteArray())).isEqualTo(original);
+    assertThat(copy.toByteArray()).isEqualTo(compressed.toByteArray());
+  }
+
+  @Test
+  void emptyContentIsASingleBlock() throws IOException {
+    try (CompressedBlockReader reader =
+        new CompressedBlockReader(new ByteArrayInputStream(new byte[0]), 4096, null)) {
+      ByteBuffer block = reader.readBlock();
+      assertThat(reader.isFinished()).isTrue();
+      assertThat(reader.readBlock()).isNull();
+
+      byte[] compressed = new byte[block.remaining()];
+      block.get(compressed);
+      assertThat(decompress(compressed)).isEmpty();
+    }
+  }
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,233 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.profiler.upload;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaderName;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.test.http.MockHttpResponse;
+import com.azure.core.util.FluxUtil;
+import com.microsoft.applicationinsights.agent.internal.profiler.service.ServiceProfilerClient;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+
+class UploadServiceBlockUploadTest {
+
+  private static final String BLOB_URL =
+      "https://a-storage-account.blob.core.windows.net/etl/77/a-profile.jfr";
+  private static final HttpHeaderName BLOB_CONTENT_ENCODING =
+      HttpHeaderName.fromString("x-ms-blob-content-encoding");
+
+  @TempDir File tempDir;
+
+  @Test
+  void largeFileIsUploadedAsCompressedBlocks() throws IOException {
+    // incompressible, so that it spans several blocks
+    byte[] content = new byte[20 * 1024 * 1024];
+    new Random(42).nextBytes(content);
+
+    FakeBlobStorage storage = new FakeBlobStorage();
+    ServiceProfilerIndex index = upload(storage, content);
+
+    assertThat(index.getProperties())
+        .containsEntry(
+            ServiceProfilerIndex.Builder.SERVICE_PROFILER_STAMPID_PROPERTY_NAME, "a-stamp-id");
+    assertThat(storage.stagedBlockCount.get()).isGreaterThan(1);
+    assertThat(storage.maxInFlightBlocks.get()).isBetween(1, 2);
+    assertThat(storage.singleUploadCount.get()).isZero();
+    assertThat(decompress(storage.committedBlob)).isEqualTo(content);
+    assertThat(storage.committedHeaders.getValue(BLOB_CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(storage.committedHeaders.getValue(HttpHeaderName.fromString("x-ms-meta-RoleName")))
+        .isEqualTo("a-role-name");
+  }
+
+  @Test
+  void smallFileIsUploadedInASingleRequest() throws IOException {
+    byte[] content = "foobar".getBytes(UTF_8);
+
+    FakeBlobStorage storage = new FakeBlobStorage();
+    upload(storage, content);
+
+    assertThat(storage.stagedBlockCount.get()).isZero();
+    assertThat(storage.singleUploadCount.get()).isEqualTo(1);
+    assertThat(decompress(storage.committedBlob)).isEqualTo(content);
+    assertThat(storage.committedHeaders.getValue(BLOB_CONTENT_ENCODING)).isEqualTo("gzip");
+  }
+
+  @Test
+  void blockIdsHaveTheSameLength() {
+    assertThat(UploadService.blockId(0)).hasSameSizeAs(UploadService.blockId(12345));
+    assertThat(UploadService.blockId(0)).isNotEqualTo(UploadService.blockId(1));
+  }
+
+  private ServiceProfilerIndex upload(FakeBlobStorage storage, byte[] content) throws IOException {
+    File file = new File(tempDir, "a-profile.jfr");
+    Files.write(file.toPath(), content);
+
+    ServiceProfilerClient serviceProfilerClient =
+        new ServiceProfilerClient(
+            new URL("https://agent.azureserviceprofiler.net/"),
+            "00000000-0000-0000-0000-000000000000",
+            new HttpPipelineBuilder().httpClient(storage).build());
+
+    UploadService uploadService =
+        new UploadService(
+            serviceProfilerClient,
+            builder -> builder.httpClient(storage),
+            "a-machine-name",
+            "a-process-id",
+            () -> UUID.randomUUID().toString(),
+            "a-role-name");
+
+    return uploadService
+        .uploadJfrFile(UUID.randomUUID(), "a-trigger", 321, file, 0.0, 0.0)
+        .block(Duration.ofSeconds(30));
+  }
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  // stands in for both the service profiler endpoint and blob storage
+  private static class FakeBlobStorage implements HttpClient {
+
+    private static final Pattern BLOCK_ID = Pattern.compile("<Latest>([^<]+)</Latest>");
+
+    private final Map<String, byte[]> stagedBlocks = new ConcurrentHashMap<>();
+    private final AtomicInteger stagedBlockCount = new AtomicInteger();
+    private final AtomicInteger singleUploadCount = new AtomicInteger();
+    private final AtomicInteger inFlightBlocks = new AtomicInteger();
+    private final AtomicInteger maxInFlightBlocks = new AtomicInteger();
+
+    private volatile byte[] committedBlob;
+    private volatile HttpHeaders committedHeaders;
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+      String query = request.getUrl().getQuery();
+      if (request.getHttpMethod() == HttpMethod.POST) {
+        return Mono.just(profilerResponse(request, query));
+      }
+      return body(request)
+          .flatMap(
+              body -> {
+                if (query.contains("comp=blocklist")) {
+                  committedBlob = assemble(new String(body, UTF_8));
+                  committedHeaders = request.getHeaders();
+                  return Mono.just(created(request));
+                }
+                if (query.contains("comp=block")) {
+                  return stageBlock(request, query, body);
+                }
+                singleUploadCount.incrementAndGet();
+                committedBlob = body;
+                committedHeaders = request.getHeaders();
+                return Mono.just(created(request));
+              });
+    }
+
+    private Mono<HttpResponse> stageBlock(HttpRequest request, String query, byte[] body) {
+      int inFlight = inFlightBlocks.incrementAndGet();
+      maxInFlightBlocks.accumulateAndGet(inFlight, Math::max);
+      stagedBlocks.put(blockId(query), body);
+      stagedBlockCount.incrementAndGet();
+      // a slow network, so that the uploads overlap
+      return Mono.delay(Duration.ofMillis(50))
+          .map(
+              ignored -> {
+                inFlightBlocks.decrementAndGet();
+                return created(request);
+              });
+    }
+
+    private byte[] assemble(String blockList) {
+      ByteArrayOutputStream blob = new ByteArrayOutputStream();
+      Matcher matcher = BLOCK_ID.matcher(blockList);
+      List<String> blockIds = new ArrayList<>();
+      while (matcher.find()) {
+        blockIds.add(matcher.group(1));
+      }
+      for (String blockId : blockIds) {
+        byte[] block = stagedBlocks.get(blockId);
+        blob.write(block, 0, block.length);
+      }
+      return blob.toByteArray();
+    }
+
+    private static HttpResponse profilerResponse(HttpRequest request, String query) {
+      if (query.contains("action=gettoken")) {
+        HttpHeaders headers =
+            new HttpHeaders().set(HttpHeaderName.LOCATION, BLOB_URL + "?sv=2020-08-04&sig=a-sig");
+        return new MockHttpResponse(request, 201, headers);
+      }
+      String body =
+          "{\"acceptedTime\":\"2022-10-31T02:35:34.033766Z\",\"stampId\":\"a-stamp-id\"}";
+      return new MockHttpResponse(request, 202, new HttpHeaders(), body.getBytes(UTF_8));
+    }
+
+    private static HttpResponse created(HttpRequest request) {
+      HttpHeaders headers =
+          new HttpHeaders()
+              .set(HttpHeaderName.ETAG, "0x888888888888888")
+              .set(HttpHeaderName.LAST_MODIFIED, "Mon, 31 Oct 2022 02:35:33 GMT");
+      return new MockHttpResponse(request, 201, headers);
+    }
+
+    private static Mono<byte[]> body(HttpRequest request) {
+      if (request.getBody() == null) {
+        return Mono.just(new byte[0]);
+      }
+      return FluxUtil.collectBytesInByteBufferStream(request.getBody());
+    }
+
+    private static String blockId(String query) {
+      for (String parameter : query.split("&")) {
+        if (parameter.startsWith("blockid=")) {
+          try {
+            return URLDecoder.decode(parameter.substring("blockid=".length()), "UTF-8");
+          } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+          }
+        }
+      }
+      throw new IllegalStateException("No block id: " + query);
+    }
+  }
+}
@@ -10,7 +10,6 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import com.azure.core.http.HttpPipeline;
 import com.azure.core.http.HttpPipelineBuilder;
 import com.azure.core.test.http.NoOpHttpClient;
-import com.azure.storage.blob.options.BlobUploadFromFileOptions;
 import com.microsoft.applicationinsights.agent.internal.profiler.service.ServiceProfilerClient;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -18,6 +17,7 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.NoSuchFileException;
+import java.util.Map;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 
@@ -37,7 +37,7 @@ class UploadServiceSimpleTest {
     File tmpFile = createFakeJfrFile();
     UUID appId = UUID.randomUUID();
 
-    BlobUploadFromFileOptions blobOptions =
+    Map<String, String> metadata =
         new UploadService(
                 serviceProfilerClient,
                 builder -> {},
@@ -45,8 +45,7 @@ class UploadServiceSimpleTest {
                 "a-process-id",
                 appId::toString,
                 "a-role-name")
-            .createBlockBlobOptions(
-                tmpFile,
+            .createBlobMetadata(
                 UploadContext.builder()
                     .setMachineName("a-machine-name")
                     .setDataCube(UUID.randomUUID())
@@ -58,10 +57,9 @@ class UploadServiceSimpleTest {
                     .build());
 
     // Role name is set correctly
-    assertThat(blobOptions.getMetadata().get(UploadService.ROLE_NAME_META_NAME))
-        .isEqualTo("a-role-name");
+    assertThat(metadata.get(UploadService.ROLE_NAME_META_NAME)).isEqualTo("a-role-name");
 
-    blobOptions =
+    metadata =
         new UploadService(
                 serviceProfilerClient,
                 builder -> {},
@@ -69,8 +67,7 @@ class UploadServiceSimpleTest {
                 "a-process-id",
                 appId::toString,
                 null)
-            .createBlockBlobOptions(
-                tmpFile,
+            .createBlobMetadata(
                 UploadContext.builder()
                     .setMachineName("a-machine-name")
                     .setDataCube(UUID.randomUUID())
@@ -82,7 +79,7 @@ class UploadServiceSimpleTest {
                     .build());
 
     // Null role name tag is not added
-    assertThat(blobOptions.getMetadata().get(UploadService.ROLE_NAME_META_NAME)).isNull();
+    assertThat(metadata.get(UploadService.ROLE_NAME_META_NAME)).isNull();
   }
 
   @Test
@@ -3,6 +3,7 @@
 
 package com.microsoft.applicationinsights.agent.internal.sampling;
 
+import static io.opentelemetry.api.common.AttributeKey.stringKey;
 import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -261,6 +262,66 @@ class SamplingOverridesTest {
     assertThat(sampler).isNull();
   }
 
+  @Test
+  void shouldKeepConfigurationOrderAcrossStrictAndRegexpOverrides() {
+    // given
+    List<SamplingOverride> overrides =
+        Arrays.asList(
+            newOverride(10, newStrictAttribute("one", "1"), newRegexpAttribute("two", "x.*")),
+            newOverride(20, newRegexpAttribute("two", "2.*")),
+            newOverride(30, newStrictAttribute("one", "1")),
+            newOverride(40, newStrictAttribute("three", "3")),
+            newOverride(50, newStrictAttribute("one", "1")));
+    SamplingOverrides samplingOverrides = new SamplingOverrides(overrides);
+
+    // expect
+    assertThat(percentage(samplingOverrides, Attributes.of(stringKey("one"), "1")))
+        .isEqualTo(30);
+    assertThat(
+            percentage(
+                samplingOverrides,
+                Attributes.of(stringKey("one"), "1", stringKey("two"), "22")))
+        .isEqualTo(20);
+    assertThat(
+            percentage(
+                samplingOverrides,
+                Attributes.of(stringKey("one"), "1", stringKey("two"), "xx")))
+        .isEqualTo(10);
+    assertThat(
+            percentage(
+                samplingOverrides,
+                Attributes.of(stringKey("three"), "3", stringKey("one"), "1")))
+        .isEqualTo(30);
+    assertThat(percentage(samplingOverrides, Attributes.of(stringKey("three"), "3")))
+        .isEqualTo(40);
+    assertThat(samplingOverrides.getOverride(Attributes.of(stringKey("one"), "2"))).isNull();
+  }
+
+  @Test
+  void shouldFilterStrictMatchOnThreadName() {
+    // given
+    List<SamplingOverride> overrides =
+        singletonList(newOverride(25, newStrictAttribute("thread.name", "test-thread")));
+    SamplingOverrides samplingOverrides = new SamplingOverrides(overrides);
+    String threadName = Thread.currentThread().getName();
+
+    // expect
+    try {
+      Thread.currentThread().setName("test-thread");
+      assertThat(percentage(samplingOverrides, Attributes.empty())).isEqualTo(25);
+      Thread.currentThread().setName("other-thread");
+      assertThat(samplingOverrides.getOverride(Attributes.empty())).isNull();
+    } finally {
+      Thread.currentThread().setName(threadName);
+    }
+  }
+
+  private static double percentage(SamplingOverrides samplingOverrides, Attributes attributes) {
+    Sampler sampler = samplingOverrides.getOverride(attributes);
+    assertThat(sampler).isNotNull();
+    return SamplingTestUtil.getCurrentSamplingPercentage(sampler);
+  }
+
   private static SamplingOverride newOverride(
       double percentage, SamplingOverrideAttribute... attribute) {
     SamplingOverride override = new SamplingOverride();
@@ -22,7 +22,7 @@ import org.junit.jupiter.api.Test;
 
 // uses tests from OpenTelemetry Java Contrib's ConsistentRateLimitingSampler
 // (https://github.com/open-telemetry/opentelemetry-java-contrib/blob/main/consistent-sampling/src/test/java/io/opentelemetry/contrib/samplers/ConsistentRateLimitingSamplerTest.java)
-class RateLimitedSamplingPercentageTest {
+class StripedRateLimitedSamplingPercentageTest {
 
   private long[] nanoTime;
   private LongSupplier nanoTimeSupplier;
@@ -47,8 +47,8 @@ class RateLimitedSamplingPercentageTest {
     double targetSpansPerSecondLimit = 1000;
     double adaptationTimeSeconds = 5;
 
-    RateLimitedSamplingPercentage samplingPercentage =
-        new RateLimitedSamplingPercentage(
+    StripedRateLimitedSamplingPercentage samplingPercentage =
+        new StripedRateLimitedSamplingPercentage(
             targetSpansPerSecondLimit, adaptationTimeSeconds, nanoTimeSupplier, false);
 
     long nanosBetweenSpans = TimeUnit.MICROSECONDS.toNanos(100);
@@ -78,8 +78,8 @@ class RateLimitedSamplingPercentageTest {
     double targetSpansPerSecondLimit = 1000;
     double adaptationTimeSeconds = 5;
 
-    RateLimitedSamplingPercentage samplingPercentage =
-        new RateLimitedSamplingPercentage(
+    StripedRateLimitedSamplingPercentage samplingPercentage =
+        new StripedRateLimitedSamplingPercentage(
             targetSpansPerSecondLimit, adaptationTimeSeconds, nanoTimeSupplier, false);
 
     long nanosBetweenSpans1 = TimeUnit.MICROSECONDS.toNanos(100);
@@ -129,8 +129,8 @@ class RateLimitedSamplingPercentageTest {
     double targetSpansPerSecondLimit = 1000;
     double adaptationTimeSeconds = 5;
 
-    RateLimitedSamplingPercentage samplingPercentage =
-        new RateLimitedSamplingPercentage(
+    StripedRateLimitedSamplingPercentage samplingPercentage =
+        new StripedRateLimitedSamplingPercentage(
             targetSpansPerSecondLimit, adaptationTimeSeconds, nanoTimeSupplier, false);
 
     long nanosBetweenSpans1 = TimeUnit.MICROSECONDS.toNanos(10);
@@ -173,4 +173,14 @@ class RateLimitedSamplingPercentageTest {
     assertThat(numSampledSpansInLast5Seconds / 5.)
         .isCloseTo(targetSpansPerSecondLimit, Percentage.withPercentage(5));
   }
+
+  @Test
+  void testFirstCallSamplesEverything() {
+    StripedRateLimitedSamplingPercentage samplingPercentage =
+        new StripedRateLimitedSamplingPercentage(10, 0.1, nanoTimeSupplier, true);
+
+    advanceTime(TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertThat(samplingPercentage.get()).isEqualTo(100);
+  }
 }
@@ -0,0 +1,263 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.microsoft.applicationinsights.agent.internal.telemetry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorBase;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.MonitorDomain;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RemoteDependencyData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.RequestData;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.models.TelemetryItem;
+import com.azure.monitor.opentelemetry.autoconfigure.implementation.pipeline.TelemetryItemExporter;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class BatchItemProcessorTest {
+
+  @Test
+  void forceFlushDrainsAllShards() throws InterruptedException {
+    AtomicInteger exportedItems = new AtomicInteger();
+    TelemetryItemExporter exporter = mockExporter(exportedItems);
+
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter)
+            .setMaxQueueSize(4096)
+            .setMaxExportBatchSize(512)
+            .setShardCount(4)
+            .build("test");
+
+    // enough producer threads that they are spread across all of the shards
+    List<Thread> producers = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      Thread producer =
+          new Thread(
+              () -> {
+                for (int j = 0; j < 100; j++) {
+                  batchItemProcessor.trackAsync(new TelemetryItem());
+                }
+              });
+      producer.start();
+      producers.add(producer);
+    }
+    for (Thread producer : producers) {
+      producer.join();
+    }
+
+    CompletableResultCode result = batchItemProcessor.forceFlush();
+    result.join(10, TimeUnit.SECONDS);
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(exportedItems.get()).isEqualTo(800);
+    // the exporter is shared across the shards, so it is only flushed once
+    verify(exporter, times(1)).flush();
+  }
+
+  @Test
+  void maxPendingExportsIsSharedByAllShards() throws InterruptedException {
+    List<CompletableResultCode> results = new CopyOnWriteArrayList<>();
+    TelemetryItemExporter exporter = mock(TelemetryItemExporter.class);
+    when(exporter.send(any()))
+        .thenAnswer(
+            invocation -> {
+              // doesn't complete until the end of the test
+              CompletableResultCode result = new CompletableResultCode();
+              results.add(result);
+              return result;
+            });
+
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter)
+            .setMaxExportBatchSize(1)
+            .setMaxPendingExports(3)
+            .setShardCount(2)
+            .build("test");
+
+    try {
+      // thread ids are sequential, so these are spread across both of the shards
+      List<Thread> producers = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        Thread producer =
+            new Thread(
+                () -> {
+                  for (int j = 0; j < 10; j++) {
+                    batchItemProcessor.trackAsync(new TelemetryItem());
+                  }
+                });
+        producer.start();
+        producers.add(producer);
+      }
+      for (Thread producer : producers) {
+        producer.join();
+      }
+
+      // two exports are pending (one less than the max, across both shards), and then each of the
+      // two workers blocks on its next export
+      await()
+          .during(200, TimeUnit.MILLISECONDS)
+          .atMost(10, TimeUnit.SECONDS)
+          .until(() -> results.size() == 4);
+      assertThat(batchItemProcessor.getPendingExportCount()).isEqualTo(2);
+    } finally {
+      for (CompletableResultCode result : results) {
+        result.succeed();
+      }
+    }
+  }
+
+  @Test
+  void shutdownFlushesAllShards() {
+    AtomicInteger exportedItems = new AtomicInteger();
+    TelemetryItemExporter exporter = mockExporter(exportedItems);
+
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter).setShardCount(2).build("test");
+
+    for (int i = 0; i < 10; i++) {
+      batchItemProcessor.trackAsync(new TelemetryItem());
+    }
+
+    CompletableResultCode result = batchItemProcessor.shutdown();
+    result.join(10, TimeUnit.SECONDS);
+
+    assertThat(result.isSuccess()).isTrue();
+    assertThat(exportedItems.get()).isEqualTo(10);
+    // second shutdown is a no-op
+    assertThat(batchItemProcessor.shutdown().isSuccess()).isTrue();
+  }
+
+  @Test
+  void maxQueueBytesDropsItemsOverBudget() {
+    AtomicInteger exportedItems = new AtomicInteger();
+    TelemetryItemExporter exporter = mockExporter(exportedItems);
+
+    long itemBytes = TelemetryItemSizeEstimator.estimate(new TelemetryItem());
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter).setMaxQueueBytes(10 * itemBytes).build("test");
+
+    // the worker won't export until the batch is full or the schedule delay has passed,
+    // so all of these stay in the queue (or in the worker's current batch)
+    for (int i = 0; i < 100; i++) {
+      batchItemProcessor.trackAsync(new TelemetryItem());
+    }
+    assertThat(batchItemProcessor.getQueuedBytes()).isEqualTo(10 * itemBytes);
+
+    CompletableResultCode result = batchItemProcessor.forceFlush();
+    result.join(10, TimeUnit.SECONDS);
+
+    assertThat(exportedItems.get()).isEqualTo(10);
+    assertThat(batchItemProcessor.getQueuedBytes()).isZero();
+  }
+
+  @Test
+  void maxQueueBytesReleasesTheBytesCountedAtEnqueue() {
+    AtomicInteger exportedItems = new AtomicInteger();
+    TelemetryItemExporter exporter = mockExporter(exportedItems);
+
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter).setMaxQueueBytes(1024 * 1024).build("test");
+
+    List<TelemetryItem> items = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      TelemetryItem item = new TelemetryItem();
+      items.add(item);
+      batchItemProcessor.trackAsync(item);
+    }
+    // the items are still referenced by the caller, and their estimated size grows after being
+    // queued
+    for (TelemetryItem item : items) {
+      item.setName(new String(new char[1000]));
+    }
+
+    CompletableResultCode result = batchItemProcessor.forceFlush();
+    result.join(10, TimeUnit.SECONDS);
+
+    assertThat(exportedItems.get()).isEqualTo(10);
+    assertThat(batchItemProcessor.getQueuedBytes()).isZero();
+  }
+
+  @Test
+  void prioritySheddingKeepsRoomForHighPriorityItems() {
+    AtomicInteger exportedItems = new AtomicInteger();
+    TelemetryItemExporter exporter = mockExporter(exportedItems);
+
+    BatchItemProcessor batchItemProcessor =
+        BatchItemProcessor.builder(exporter)
+            .setMaxQueueSize(100)
+            .setPriorityShedding(true)
+            .build("test");
+
+    // the worker won't export until the batch is full or the schedule delay has passed,
+    // so these fill up the queue
+    for (int i = 0; i < 200; i++) {
+      batchItemProcessor.trackAsync(newDependency(true));
+    }
+    long droppedLowPriorityItems =
+        batchItemProcessor.getDroppedItemCount(TelemetryItemPriority.LOW);
+    assertThat(droppedLowPriorityItems).isGreaterThanOrEqualTo(100);
+
+    // the low priority items above were shed once the queue was 70% full, leaving room for these
+    for (int i = 0; i < 30; i++) {
+      batchItemProcessor.trackAsync(newRequest());
+    }
+    assertThat(batchItemProcessor.getDroppedItemCount(TelemetryItemPriority.HIGH)).isZero();
+
+    CompletableResultCode result = batchItemProcessor.forceFlush();
+    result.join(10, TimeUnit.SECONDS);
+
+    assertThat(exportedItems.get()).isEqualTo(230 - droppedLowPriorityItems);
+  }
+
+  @Test
+  void priorityOfTelemetryItems() {
+    assertThat(TelemetryItemPriority.of(newRequest())).isEqualTo(TelemetryItemPriority.HIGH);
+    assertThat(TelemetryItemPriority.of(newDependency(false)))
+        .isEqualTo(TelemetryItemPriority.HIGH);
+    assertThat(TelemetryItemPriority.of(newDependency(true))).isEqualTo(TelemetryItemPriority.LOW);
+    assertThat(TelemetryItemPriority.of(new TelemetryItem()))
+        .isEqualTo(TelemetryItemPriority.NORMAL);
+  }
+
+  private static TelemetryItem newRequest() {
+    return newTelemetryItem(new RequestData());
+  }
+
+  private static TelemetryItem newDependency(boolean success) {
+    RemoteDependencyData data = new RemoteDependencyData();
+    data.setSuccess(success);
+    return newTelemetryItem(data);
+  }
+
+  private static TelemetryItem newTelemetryItem(MonitorDomain baseData) {
+    MonitorBase data = new MonitorBase();
+    data.setBaseData(baseData);
+    TelemetryItem item = new TelemetryItem();
+    item.setData(data);
+    return item;
+  }
+
+  private static TelemetryItemExporter mockExporter(AtomicInteger exportedItems) {
+    TelemetryItemExporter exporter = mock(TelemetryItemExporter.class);
+    when(exporter.send(any()))
+        .thenAnswer(
+            invocation -> {
+              // the batch is cleared after send returns, so need to count it here
+              exportedItems.addAndGet(invocation.getArgument(0, List.class).size());
+              return CompletableResultCode.ofSuccess();
+            });
+    when(exporter.flush()).thenReturn(CompletableResultCode.ofSuccess());
+    return exporter;
+  }
+}
@@ -1,6 +1,7 @@
 plugins {
   id("ai.java-conventions")
   id("ai.javaagent-instrumentation")
+  id("ai.jmh-conventions")
 }
 
 muzzle {
@@ -33,6 +34,10 @@ dependencies {
 
   testImplementation("io.micrometer:micrometer-core:1.1.0")
 
+  jmh("io.micrometer:micrometer-core:1.1.0")
+  jmh("io.opentelemetry.javaagent:opentelemetry-javaagent-bootstrap:$otelInstrumentationAlphaVersion")
+  jmh(project(":agent:agent-bootstrap"))
+
   // TODO remove when start using io.opentelemetry.instrumentation.javaagent-instrumentation plugin
   add("codegen", "io.opentelemetry.javaagent:opentelemetry-javaagent-tooling:$otelInstrumentationAlphaVersion")
   add("muzzleBootstrap", "io.opentelemetry.instrumentation:opentelemetry-instrumentation-annotations-support:$otelInstrumentationAlphaVersion")
@@ -0,0 +1,88 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package io.opentelemetry.javaagent.instrumentation.micrometer.ai;
+
+import com.microsoft.applicationinsights.agent.bootstrap.MicrometerUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// measures a single publish of a registry with 50k meters (timers and counters per uri and status
+// code), where only 10% of the meters were updated during the step
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AzureMonitorMeterRegistryBenchmark {
+
+  private static final int URI_COUNT = 5000;
+  private static final int STATUS_COUNT = 5;
+
+  private MockClock clock;
+  private AzureMonitorMeterRegistry registry;
+  private final List<Timer> timers = new ArrayList<>();
+  private final List<Counter> counters = new ArrayList<>();
+
+  @Setup
+  public void setup(Blackhole blackhole) {
+    MicrometerUtil.setDelegate(
+        (name, namespace, value, count, min, max, properties) -> {
+          blackhole.consume(name);
+          blackhole.consume(value);
+          blackhole.consume(properties);
+        });
+    clock = new MockClock();
+    registry = new AzureMonitorMeterRegistry(clock);
+    // the benchmark calls publish() itself
+    registry.stop();
+    for (int i = 0; i < URI_COUNT; i++) {
+      for (int j = 0; j < STATUS_COUNT; j++) {
+        String uri = "/api/resource" + i + "/{id}";
+        String status = String.valueOf(200 + j);
+        timers.add(
+            Timer.builder("http.server.requests")
+                .tag("uri", uri)
+                .tag("status", status)
+                .tag("method", "GET")
+                .register(registry));
+        counters.add(
+            Counter.builder("http.server.errors")
+                .tag("uri", uri)
+                .tag("status", status)
+                .register(registry));
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void recordStep() {
+    for (int i = 0; i < timers.size(); i += 10) {
+      timers.get(i).record(5, TimeUnit.MILLISECONDS);
+      counters.get(i).increment();
+    }
+    clock.add(AzureMonitorRegistryConfig.INSTANCE.step());
+  }
+
+  @Benchmark
+  public void publish() {
+    registry.publish();
+  }
+}
@@ -19,9 +19,12 @@ import io.micrometer.core.instrument.TimeGauge;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
 import io.micrometer.core.lang.Nullable;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class AzureMonitorMeterRegistry extends StepMeterRegistry {
@@ -29,6 +32,14 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
   public static final AzureMonitorMeterRegistry INSTANCE =
       new AzureMonitorMeterRegistry(Clock.SYSTEM);
 
+  // the name and the properties only depend on the meter id, so they are computed once per meter
+  // instead of on every publish (apps can have tens of thousands of meters, e.g. timers per uri
+  // and status code)
+  private final Map<Meter.Id, MeterMetadata> metadataCache = new ConcurrentHashMap<>();
+
+  // used to evict the metadata of meters that have been removed from the registry
+  private long publishCount;
+
   // visible for testing
   public AzureMonitorMeterRegistry(Clock clock) {
     super(AzureMonitorRegistryConfig.INSTANCE, clock);
@@ -43,7 +54,9 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
 
   @Override
   protected void publish() {
+    long currentPublish = ++publishCount;
     for (Meter meter : getMeters()) {
+      getMetadata(meter).lastPublish = currentPublish;
       if (meter instanceof TimeGauge) {
         trackTimeGauge((TimeGauge) meter);
       } else if (meter instanceof Gauge) {
@@ -64,6 +77,7 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
         trackMeter(meter);
       }
     }
+    metadataCache.values().removeIf(metadata -> metadata.lastPublish != currentPublish);
   }
 
   private void trackTimeGauge(TimeGauge gauge) {
@@ -83,10 +97,15 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
   }
 
   private void trackCounter(Counter counter) {
+    double count = counter.count();
+    if (count == 0) {
+      // no change since the last step
+      return;
+    }
     trackMetric(
         getName(counter),
         getNamespace(),
-        counter.count(),
+        count,
         null,
         null,
         null,
@@ -148,10 +167,15 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
   }
 
   private void trackFunctionCounter(FunctionCounter counter) {
+    double count = counter.count();
+    if (count == 0) {
+      // no change since the last step
+      return;
+    }
     trackMetric(
         getName(counter),
         getNamespace(),
-        counter.count(),
+        count,
         null,
         null,
         null,
@@ -188,12 +212,19 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
     }
   }
 
+  private MeterMetadata getMetadata(Meter meter) {
+    return metadataCache.computeIfAbsent(meter.getId(), MeterMetadata::new);
+  }
+
   private String getName(Meter meter) {
-    return getName(meter, null);
+    return getMetadata(meter).name;
   }
 
-  private String getName(Meter meter, @Nullable String suffix) {
-    Meter.Id meterId = meter.getId();
+  private String getName(Meter meter, String suffix) {
+    return getMetadata(meter).getSuffixedName(suffix);
+  }
+
+  private String getName(Meter.Id meterId, @Nullable String suffix) {
     return config()
         .namingConvention()
         .name(
@@ -208,11 +239,35 @@ public class AzureMonitorMeterRegistry extends StepMeterRegistry {
   }
 
   private Map<String, String> getProperties(Meter meter) {
-    Map<String, String> properties = new HashMap<>();
-    for (Tag tag : getConventionTags(meter.getId())) {
+    return getMetadata(meter).properties;
+  }
+
+  private Map<String, String> getProperties(Meter.Id meterId) {
+    List<Tag> tags = getConventionTags(meterId);
+    Map<String, String> properties = new HashMap<>(tags.size() * 2);
+    for (Tag tag : tags) {
       properties.put(tag.getKey(), tag.getValue());
     }
-    return properties;
+    return Collections.unmodifiableMap(properties);
+  }
+
+  private final class MeterMetadata {
+    private final Meter.Id meterId;
+    private final String name;
+    private final Map<String, String> properties;
+    // for meters that are reported as multiple metrics, e.g. LongTaskTimer
+    private final Map<String, String> suffixedNames = new ConcurrentHashMap<>();
+    private volatile long lastPublish;
+
+    private MeterMetadata(Meter.Id meterId) {
+      this.meterId = meterId;
+      name = getName(meterId, null);
+      properties = getProperties(meterId);
+    }
+
+    private String getSuffixedName(String suffix) {
+      return suffixedNames.computeIfAbsent(suffix, s -> getName(meterId, s));
+    }
   }
 
   private static int castCountToInt(long count) {
@@ -0,0 +1,37 @@
+plugins {
+  id("me.champeau.jmh")
+  id("io.morethan.jmhreport")
+}
+
+dependencies {
+  jmh("org.openjdk.jmh:jmh-core")
+  jmh("org.openjdk.jmh:jmh-generator-bytecode")
+}
+
+// invoke jmh on a single benchmark class like so:
+//   ./gradlew -PjmhIncludeSingleClass=BatchItemProcessorBenchmark :agent:agent-tooling:jmh
+jmh {
+  failOnError.set(true)
+  resultFormat.set("JSON")
+
+  val jmhIncludeSingleClass: String? by project
+  if (jmhIncludeSingleClass != null) {
+    includes.add(jmhIncludeSingleClass as String)
+  }
+}
+
+jmhReport {
+  jmhResultPath = layout.buildDirectory.file("results/jmh/results.json").get().asFile.absolutePath
+  jmhReportOutput = layout.buildDirectory.dir("results/jmh").get().asFile.absolutePath
+}
+
+tasks {
+  named("jmh") {
+    finalizedBy(named("jmhReport"))
+  }
+
+  // benchmarks are not shipped, see spotbugsTest in ai.spotbugs-conventions
+  matching { it.name == "spotbugsJmh" }.configureEach {
+    enabled = false
+  }
+}
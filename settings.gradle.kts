@@ -33,6 +33,7 @@ include(":etw:java")
 
 include(":agent:agent-gc-monitor:gc-monitor-api")
 include(":agent:agent-gc-monitor:gc-monitor-core")
+include(":agent:agent-gc-monitor:gc-monitor-jfr")
 include(":agent:agent-gc-monitor:gc-monitor-tests")
 
 include(":agent:agent-profiler:agent-diagnostics-jfr")